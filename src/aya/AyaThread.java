@@ -3,6 +3,7 @@ package aya;
 import java.io.PrintStream;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
 import aya.eval.BlockEvaluator;
@@ -17,9 +18,9 @@ public class AyaThread extends Thread {
 	private final BlockingQueue<ExecutionResult> _output = new LinkedBlockingQueue<ExecutionResult>();
 	private ExecutionContext _root = null;
 	private ReentrantLock _lock = new ReentrantLock();
-	private volatile boolean _running;
+	private volatile boolean _running = true;
 	// A task is considered pending if it's result has not been accessed
-	private volatile int _pending_task_count;
+	private final AtomicInteger _pending_task_count = new AtomicInteger(0);
 	
 
 	protected AyaThread(ExecutionContext context) {
@@ -36,8 +37,12 @@ public class AyaThread extends Thread {
 		return thread;
 	}
 	
+	public ExecutionContext getRootContext() {
+		return _root;
+	}
+	
 	public boolean hasPendingTasks() {
-		return _pending_task_count > 0;
+		return _pending_task_count.get() > 0;
 	}
 	
 	public boolean hasUnfinishedTasks() {
@@ -46,7 +51,6 @@ public class AyaThread extends Thread {
 	 
 	@Override
 	public void run() {
-		_running = true;
 		while (_running) {
 			try {
 				ExecutionRequest input = _input.take();
@@ -67,27 +71,38 @@ public class AyaThread extends Thread {
 	
 	public void queueInput(ExecutionRequest request) {
 		_input.offer(request);
-		_pending_task_count++;
+		_pending_task_count.incrementAndGet();
 	}
 	
 	public ExecutionResult waitForResponse() throws InterruptedException, ThreadError {
 		if (!hasPendingTasks()) {
 			throw new ThreadError("No tasks");
 		} else {
-			_pending_task_count--;
+			_pending_task_count.decrementAndGet();
 			return _output.take();
 		}
 	}
 	
+	/** Stop the thread. Queued tasks which have not started are dropped */
+	public void shutdown() {
+		_running = false;
+		interrupt();
+	}
+	
 	public ExecutionResult eval(ExecutionRequest request) {
+		return eval(_root, request);
+	}
+	
+	/** Evaluate the request in the given context. The context is reset afterwards */
+	public static ExecutionResult eval(ExecutionContext context, ExecutionRequest request) {
 		ExecutionResult result;
-		BlockEvaluator b = _root.createEvaluator();
+		BlockEvaluator b = context.createEvaluator();
 		b.dump(request.getBlock());
 		try {
 			b.eval();
 			result = new ExecutionResultSuccess(request.id(), b.getStack());
 		} catch (AyaRuntimeException ex) {
-			result = new ExecutionResultException(request.id(), ex, _root.getCallStack());
+			result = new ExecutionResultException(request.id(), ex, context.getCallStack());
 		} catch (Exception e) {
 			PrintStream err = StaticData.IO.err();
 			err.println(DebugUtils.exToString(e));
@@ -96,17 +111,17 @@ public class AyaThread extends Thread {
 					err.println("stack:\n\t" + b.getPrintOutputState());
 				if (b.getInstructions().size() > 0)
 					err.println("just before:\n\t" + b.getInstructions().toString());
-				if (!_root.getCallStack().isEmpty())
-					err.print(_root.getCallStack().toString());
+				if (!context.getCallStack().isEmpty())
+					err.print(context.getCallStack().toString());
 			} catch (Exception e2) {
 				err.println("An additional error was thrown when attempting to print the stack state:");
 				err.println(DebugUtils.exToString(e2));
 				err.println("This is likely caused by an error in an overloaded __str__ or __repr__ blockEvaluator.");
 			} 
-			result = new ExecutionResultException(request.id(), new ValueError("TODO"), _root.getCallStack());
+			result = new ExecutionResultException(request.id(), new ValueError("TODO"), context.getCallStack());
 		} finally {
-			_root.getVars().reset();
-			_root.getCallStack().reset();
+			context.getVars().reset();
+			context.getCallStack().reset();
 		}
 		
 		return result;
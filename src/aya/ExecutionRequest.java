@@ -1,23 +1,21 @@
 package aya;
 
-import java.util.Stack;
-
-import aya.obj.Obj;
+import aya.eval.ObjStack;
 import aya.obj.block.StaticBlock;
 
 public class ExecutionRequest {
 	long _id;
-	Stack<Obj> _data;
+	ObjStack _data;
 	StaticBlock _block;
 	
-	public ExecutionRequest(long id, Stack<Obj> data, StaticBlock block) {
+	public ExecutionRequest(long id, ObjStack data, StaticBlock block) {
 		_id = id;
 		_data = data;
 		_block = block;
 	}
 	
 	public ExecutionRequest(long id, StaticBlock block) {
-		this(id, new Stack<Obj>(), block);
+		this(id, new ObjStack(), block);
 	}
 	
 	public StaticBlock getBlock() {
@@ -1,20 +1,17 @@
 package aya;
 
 import java.util.ArrayList;
-import java.util.Stack;
 
+import aya.eval.ObjStack;
 import aya.obj.Obj;
 
 public class ExecutionResultSuccess extends ExecutionResult {
 
 	ArrayList<Obj> _data;
 	
-	public ExecutionResultSuccess(long id, Stack<Obj> data) {
+	public ExecutionResultSuccess(long id, ObjStack data) {
 		super(ExecutionResult.TYPE_SUCCESS, id);
-		_data = new ArrayList<Obj>(data.size());
-		for (Obj o : data) {
-			_data.add(o);
-		}
+		_data = data.toArrayList();
 	}
 	
 	public ArrayList<Obj> getData() {
@@ -1,5 +1,6 @@
 package aya;
 
+import java.io.File;
 import java.io.PrintStream;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -169,10 +170,31 @@ public class InteractiveAya {
 		
  		_aya.start();
 		
-		// Load ayarc
-		String pathString = Paths.get(AyaPrefs.getAyaDir(), StaticData.ayarcPath).toString().replace("\\", "\\\\");
-		StaticBlock blk = Parser.compileSafeOrNull(new SourceString("\"" + pathString + "\":F", "<ayarc loader>"), StaticData.IO);
-		if (blk != null) _aya.queueInput(new ExecutionRequest(makeRequestID(), blk));
+		// Load ayarc, or restore the state after loading it from the startup snapshot
+		long flushed = 0;
+		File ayarc = Paths.get(AyaPrefs.getAyaDir(), StaticData.ayarcPath).toFile();
+		StartupSnapshot snapshot = StartupSnapshot.ENABLED ? new StartupSnapshot(ayarc) : null;
+		if (snapshot == null || !snapshot.restore(_aya.getRootContext())) {
+			String pathString = ayarc.getPath().replace("\\", "\\\\");
+			StaticBlock blk = Parser.compileSafeOrNull(new SourceString("\"" + pathString + "\":F", "<ayarc loader>"), StaticData.IO);
+			if (blk != null) {
+				if (snapshot != null) snapshot.startRecording();
+				_aya.queueInput(new ExecutionRequest(makeRequestID(), blk));
+				if (snapshot != null) {
+					// Wait for ayarc so the snapshot does not include the startup script
+					try {
+						ExecutionResult res = _aya.waitForResponse();
+						printResult(_io(), res);
+						flushed = res.id();
+						snapshot.save(_aya.getRootContext(), res);
+					} catch (InterruptedException e) {
+						out.println("Aya interrupted");
+						e.printStackTrace(err);
+						running = false;
+					}
+				}
+			}
+		}
 		
 		// Load startup script
 		String[] args = AyaPrefs.getArgs();
@@ -186,7 +208,7 @@ public class InteractiveAya {
 		}
 
 		// Flush output
-		boolean unfinished_requests = _request_id_counter > 0;
+		boolean unfinished_requests = _request_id_counter > flushed;
 		while (unfinished_requests) {
 			try {
 				ExecutionResult res = _aya.waitForResponse();
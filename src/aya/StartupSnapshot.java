@@ -0,0 +1,182 @@
+package aya;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+
+import aya.eval.ExecutionContext;
+import aya.obj.block.BlockImage;
+import aya.obj.dict.Dict;
+import aya.obj.symbol.SymbolTable;
+import aya.parser.CompileCache;
+import aya.parser.ImageCache;
+import aya.util.FileUtils;
+
+/**
+ * Snapshot of the interpreter state after loading ayarc
+ *
+ * Instead of running ayarc and the base library on every start, the global,
+ * builtin and object dicts are restored from the snapshot along with the
+ * symbols and help text that were created while loading them. The snapshot
+ * lists every file loaded by ayarc and is only used if none of them have
+ * changed. Snapshots are stored next to the images of the ImageCache.
+ *
+ * Only variables are restored. A snapshot is only written if loading ayarc
+ * succeeded and left nothing on the stack, other side effects of ayarc (such
+ * as printing) do not happen when it is restored.
+ */
+public class StartupSnapshot {
+
+	/** Use startup snapshots, may be disabled using -Daya.snapshot=false */
+	public static boolean ENABLED = Boolean.parseBoolean(System.getProperty("aya.snapshot", "true"));
+
+	private static final int MAGIC = 0x41594153; // AYAS
+	private static final int FORMAT_VERSION = 1;
+
+	private final File _ayarc;
+	private final File _file;
+
+	// State before loading ayarc
+	private int _symbol_count;
+	private int _help_count;
+
+	public StartupSnapshot(File ayarc) {
+		_ayarc = ayarc;
+		_file = new File(ImageCache.DIR, String.format("%016x.ayas", ImageCache.hash(ayarc.getAbsolutePath())));
+	}
+
+	/**
+	 * Restore the state of the context after loading ayarc. Returns false and
+	 * leaves the context unchanged if there is no fresh snapshot
+	 */
+	public boolean restore(ExecutionContext context) {
+		if (!_file.isFile()) return false;
+
+		final Dict[] roots = context.getVars().getRootDicts();
+		final Dict[] backup = new Dict[roots.length];
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(_file.toPath())))) {
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !in.readUTF().equals(StaticData.VERSION_NAME)) {
+				return false;
+			}
+			if (!in.readUTF().equals(_ayarc.getAbsolutePath())) return false;
+
+			// Loaded files
+			final int nfiles = in.readInt();
+			for (int i = 0; i < nfiles; i++) {
+				String path = in.readUTF();
+				if (in.readLong() != fileHash(path)) return false;
+			}
+
+			// Symbols, the ones that exist before ayarc is loaded must be the same
+			final ArrayList<String> current = SymbolTable.names();
+			final int nbefore = in.readInt();
+			if (nbefore != current.size()) return false;
+			for (int i = 0; i < nbefore; i++) {
+				if (!in.readUTF().equals(current.get(i))) return false;
+			}
+			final int nsymbols = in.readInt();
+			for (int i = nbefore; i < nsymbols; i++) {
+				if (SymbolTable.getSymbol(in.readUTF()).id() != i + 1) return false;
+			}
+
+			final String[] help = new String[in.readInt()];
+			for (int i = 0; i < help.length; i++) {
+				help[i] = in.readUTF();
+			}
+
+			// Variables
+			for (int i = 0; i < roots.length; i++) {
+				backup[i] = roots[i].clone();
+				roots[i].clear();
+			}
+			BlockImage.readDicts(in, roots);
+
+			for (String s : help) {
+				StaticData.getInstance().addHelpText(s);
+			}
+			return true;
+		} catch (IOException | RuntimeException e) {
+			for (int i = 0; i < roots.length; i++) {
+				if (backup[i] != null) {
+					roots[i].clear();
+					roots[i].update(backup[i]);
+				}
+			}
+			return false;
+		}
+	}
+
+	/** Must be called before ayarc is loaded if the snapshot could not be restored */
+	public void startRecording() {
+		_symbol_count = SymbolTable.size();
+		_help_count = StaticData.getInstance().getQuickSearchData().length;
+		CompileCache.startRecording();
+	}
+
+	/** Write the snapshot once ayarc has been loaded. Failures are ignored, the snapshot is optional */
+	public void save(ExecutionContext context, ExecutionResult ayarc) {
+		final ArrayList<String> loaded = CompileCache.stopRecording();
+		if (!(ayarc instanceof ExecutionResultSuccess) || ((ExecutionResultSuccess)ayarc).getData().size() > 0) {
+			return;
+		}
+
+		final byte[] dicts = BlockImage.writeDicts(context.getVars().getRootDicts());
+		if (dicts == null) return;
+
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeUTF(StaticData.VERSION_NAME);
+			out.writeUTF(_ayarc.getAbsolutePath());
+
+			out.writeInt(loaded.size());
+			for (String path : loaded) {
+				out.writeUTF(path);
+				out.writeLong(fileHash(path));
+			}
+
+			final ArrayList<String> symbols = SymbolTable.names();
+			out.writeInt(_symbol_count);
+			for (int i = 0; i < _symbol_count; i++) {
+				out.writeUTF(symbols.get(i));
+			}
+			out.writeInt(symbols.size());
+			for (int i = _symbol_count; i < symbols.size(); i++) {
+				out.writeUTF(symbols.get(i));
+			}
+
+			final String[] help = StaticData.getInstance().getQuickSearchData();
+			out.writeInt(help.length - _help_count);
+			for (int i = _help_count; i < help.length; i++) {
+				out.writeUTF(help[i]);
+			}
+
+			out.write(dicts);
+			out.flush();
+
+			Files.createDirectories(ImageCache.DIR.toPath());
+			// Write to a temporary file first so other processes never see a partial snapshot
+			File tmp = File.createTempFile(_file.getName(), ".tmp", ImageCache.DIR);
+			Files.write(tmp.toPath(), bytes.toByteArray());
+			try {
+				Files.move(tmp.toPath(), _file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				Files.deleteIfExists(tmp.toPath());
+			}
+		} catch (IOException e) {
+			// The snapshot is optional
+		}
+	}
+
+	private static long fileHash(String path) throws IOException {
+		return ImageCache.hash(FileUtils.readAllText(new File(path)));
+	}
+}
@@ -1,7 +1,9 @@
 package aya;
 
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+import aya.ext.collections.CollectionsInstructionStore;
 import aya.ext.color.ColorInstructionStore;
 import aya.ext.date.DateInstructionStore;
 import aya.ext.debug.DebugInstructionStore;
@@ -11,10 +13,12 @@ import aya.ext.graphics.GraphicsInstructionStore;
 import aya.ext.image.ImageInstructionStore;
 import aya.ext.json.JSONInstructionStore;
 import aya.ext.la.LinearAlgebraInstructionStore;
+import aya.ext.parallel.ParallelInstructionStore;
 import aya.ext.plot.PlotInstructionStore;
 import aya.ext.socket.SocketInstructionStore;
 import aya.ext.sys.SystemInstructionStore;
 import aya.ext.thread.ThreadInstructionStore;
+import aya.ext.vec.VectorInstructionStore;
 import aya.instruction.named.NamedInstructionStore;
 import aya.instruction.named.NamedOperator;
 import aya.instruction.op.ColonOps;
@@ -48,6 +52,8 @@ public class StaticData {
 	// Data loaded in the parser
 	//
 	private StringSearch _helpData;
+	// Documentation comments found by the parser, added to the help data when it is used
+	private final ConcurrentLinkedQueue<String> _pendingHelpText = new ConcurrentLinkedQueue<String>();
 
 	
 	//
@@ -104,13 +110,18 @@ public class StaticData {
 		}
 	}
 	
-	public StringSearch getHelpData() {
+	public synchronized StringSearch getHelpData() {
 		initHelpData();
+		String s;
+		while ((s = _pendingHelpText.poll()) != null) {
+			_helpData.addUnique(s);
+		}
 		return _helpData;
 	}
 	
+	/** Add the text to the help data. Does not block, the text is added the next time the help data is used */
 	public void addHelpText(String in) {
-		getHelpData().addUnique(in);
+		_pendingHelpText.offer(in);
 	}
 
 	public String[] getQuickSearchData() {
@@ -144,6 +155,9 @@ public class StaticData {
 		_namedInstructionStores.add(new ColorInstructionStore());
 		_namedInstructionStores.add(new LinearAlgebraInstructionStore());
 		_namedInstructionStores.add(new ThreadInstructionStore());
+		_namedInstructionStores.add(new ParallelInstructionStore());
+		_namedInstructionStores.add(new CollectionsInstructionStore());
+		_namedInstructionStores.add(new VectorInstructionStore());
 		
 		for (NamedInstructionStore x : _namedInstructionStores) {
 			x.initHelpData(this);
@@ -1,9 +1,8 @@
 package aya.eval;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.EmptyStackException;
-import java.util.Stack;
 
 import aya.ReprStream;
 import aya.exceptions.runtime.AyaRuntimeException;
@@ -15,6 +14,7 @@ import aya.instruction.InstructionStack;
 import aya.obj.Obj;
 import aya.obj.block.StaticBlock;
 import aya.obj.dict.Dict;
+import aya.obj.dict.MetaCache;
 import aya.obj.symbol.Symbol;
 import aya.util.Casting;
 
@@ -26,20 +26,20 @@ import aya.util.Casting;
 public class BlockEvaluator {
 	
 	private ExecutionContext _context;
-	protected Stack<Obj> stack;
+	protected ObjStack stack;
 	protected InstructionStack instructions;
 	
 	/** Create a new blockEvaluator with empty instructions and stack */
 	protected BlockEvaluator(ExecutionContext context) {
 		this._context = context;
-		this.stack = new Stack<Obj>();
+		this.stack = new ObjStack();
 		this.instructions = new InstructionStack();
 	}
 	
 	/** Create a new blockEvaluator with empty stack */
 	protected BlockEvaluator(ExecutionContext context, InstructionStack il) {
 		this._context = context;
-		this.stack = new Stack<Obj>();
+		this.stack = new ObjStack();
 		this.instructions = il;
 	}
 	
@@ -48,13 +48,13 @@ public class BlockEvaluator {
 	}
 	
 	/** Returns the output stack */
-	public Stack<Obj> getStack() {
+	public ObjStack getStack() {
 		return this.stack;
 	}
 	
 	/** Copy stack */
 	public void addStack(BlockEvaluator other) {
-		stack.addAll(other.getStack());
+		stack.addStack(other.getStack());
 	}
 	
 	
@@ -64,7 +64,7 @@ public class BlockEvaluator {
 	}
 
 	public void pushBack(final Obj o) {
-		stack.add(0, o);
+		stack.pushBack(o);
 	}
 
 	/** pops from the output stack */
@@ -118,6 +118,19 @@ public class BlockEvaluator {
 		instructions.addAll(list);
 	}
 	
+	/**
+	 * Adds a frame to the instruction stack. The body is walked in place and is not copied.
+	 * The entry instruction is run before the body and the exit instruction after it (both may be null)
+	 */
+	public void addFrame(ArrayList<Instruction> body, Instruction entry, Instruction exit) {
+		instructions.pushFrame(body, entry, exit);
+	}
+	
+	/** Adds an instruction that is run once everything currently on the instruction stack above it is done */
+	public void addExitHook(Instruction exit) {
+		instructions.pushExitHook(exit);
+	}
+	
 	/** Returns true if there are no more instructions in the instruction stack */
 	public boolean isEmpty() {
 		return instructions.isEmpty();
@@ -135,27 +148,33 @@ public class BlockEvaluator {
 	/** Evaluates each instruction in the instruction stack and places the result in the output stack */ 
 	public void eval() {
 		while (!instructions.isEmpty()) {
-			Instruction instr = instructions.pop();
-			
-			try {
-				instr.execute(this);
-			} catch (EmptyStackException es) {
-				EmptyStackError es2 = new EmptyStackError("Unexpected empty stack while executing instruction: " + instr);
-				es2.setSource(instr.getSource());
-				throw es2;
-			//}// catch (NullPointerException npe) {
-			//	throw npe;
-			//	throw new RuntimeException(npe);
-			} catch (AyaRuntimeException are) {
-				are.setSource(instr.getSource());
-				throw are;
-			}
+			execute(instructions.pop());
+		}
+	}
+	
+	/**
+	 * Execute a single instruction. Errors are tagged with the source of the instruction.
+	 * Fused instructions use this to run their parts so that errors point at the same place
+	 */
+	public void execute(Instruction instr) {
+		try {
+			instr.execute(this);
+		} catch (EmptyStackException es) {
+			EmptyStackError es2 = new EmptyStackError("Unexpected empty stack while executing instruction: " + instr);
+			es2.setSource(instr.getSource());
+			throw es2;
+		//}// catch (NullPointerException npe) {
+		//	throw npe;
+		//	throw new RuntimeException(npe);
+		} catch (AyaRuntimeException are) {
+			are.setSource(instr.getSource());
+			throw are;
 		}
 	}
 
 
 	/** Sets the stack */
-	public void setStack(Stack<Obj> dupStack) {
+	public void setStack(ObjStack dupStack) {
 		this.stack = dupStack;
 	}
 
@@ -200,12 +219,9 @@ public class BlockEvaluator {
 		instructions.insert(0, new DataInstruction(b));
 	}
 	
-	/** Adds a stack to this blockEvaluator. Reverses the stack before adding */
-	public void appendToStack(Stack<Obj> stk) {
-		Collections.reverse(stk);
-		while (!stk.empty()) {
-			this.stack.push(stk.pop());
-		}
+	/** Moves the contents of a stack to the top of this blockEvaluator's stack. stk is left empty */
+	public void appendToStack(ObjStack stk) {
+		this.stack.appendToStack(stk);
 	}
 	
 	/** If the variable is a blockEvaluator, dump to the instructions
@@ -242,5 +258,30 @@ public class BlockEvaluator {
 			stack.push(obj);
 		}
 	}
+
+	/** Same as callVariable(dict, keyVar) but the metatable lookups are served by inline caches */
+	public void callVariable(Dict dict, MetaCache key_cache, MetaCache pushself_cache) {
+		if (dict.pushSelf(pushself_cache)) {
+			stack.push(dict);
+		}
+		callVariableObj(dict.get(key_cache));
+	}
+
+	/** Same as callVariable(dict, keyVar, push_first) but the metatable lookups are served by inline caches */
+	public void callVariable(Dict dict, MetaCache key_cache, MetaCache pushself_cache, Obj push_first) {
+		if (dict.pushSelf(pushself_cache)) {
+			stack.push(dict);
+		}
+		stack.push(push_first);
+		callVariableObj(dict.get(key_cache));
+	}
+
+	private void callVariableObj(Obj obj) {
+		if(obj.isa(Obj.BLOCK)) {
+			this.dump(Casting.asStaticBlock(obj));
+		} else {
+			stack.push(obj);
+		}
+	}
 	
 }
@@ -1,5 +1,7 @@
 package aya.eval;
 
+import java.util.concurrent.ConcurrentLinkedQueue;
+
 import aya.AyaStdIO;
 import aya.CallStack;
 import aya.obj.dict.Dict;
@@ -10,11 +12,14 @@ public class ExecutionContext {
 	private AyaStdIO _io;
 	private VariableData _variables;
 	private CallStack _callstack;
+	// Child contexts which are not in use, see borrowChild
+	private final ConcurrentLinkedQueue<ExecutionContext> _idle_children;
 
 	private ExecutionContext(AyaStdIO io) {
 		_io = io;
 		_variables = new VariableData();
 		_callstack = new CallStack();
+		_idle_children = new ConcurrentLinkedQueue<ExecutionContext>();
 	}
 	
 	public static ExecutionContext createIsolatedContext() {
@@ -33,6 +38,29 @@ public class ExecutionContext {
 		return child;
 	}
 	
+	/**
+	 * Same as createChild but reuses a child context that was previously
+	 * returned using releaseChild. The object and builtin dicts of the child
+	 * are updated to match this context. Must be called by the thread that
+	 * owns this context, releaseChild may be called from any thread.
+	 */
+	public ExecutionContext borrowChild() {
+		ExecutionContext child = _idle_children.poll();
+		if (child == null) {
+			return createChild();
+		} else {
+			child._variables.copyBuiltins(_variables);
+			return child;
+		}
+	}
+	
+	/** Clear all variables of the child and make it available to borrowChild */
+	public void releaseChild(ExecutionContext child) {
+		child._variables.resetWithGlobals();
+		child._callstack.reset();
+		_idle_children.offer(child);
+	}
+	
 	public BlockEvaluator createEvaluator() {
 		return new BlockEvaluator(this);
 	}
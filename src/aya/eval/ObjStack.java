@@ -0,0 +1,283 @@
+package aya.eval;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EmptyStackException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import aya.obj.Obj;
+
+/**
+ * Unsynchronized operand stack used by the BlockEvaluator
+ *
+ * Items are stored in a ring buffer so that both pushing to the top and
+ * inserting at the bottom are O(1) (amortized). Indices passed to get/remove
+ * are counted from the bottom of the stack, the same as java.util.Stack
+ *
+ * Like java.util.Stack, pop and peek throw an EmptyStackException if the
+ * stack is empty
+ */
+public class ObjStack implements Iterable<Obj> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	// Capacity is always a power of 2
+	private Obj[] _data;
+	// Index of the bottom of the stack
+	private int _head;
+	// Number of items on the stack
+	private int _top;
+
+	public ObjStack() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public ObjStack(int capacity) {
+		int cap = DEFAULT_CAPACITY;
+		while (cap < capacity) cap <<= 1;
+		_data = new Obj[cap];
+		_head = 0;
+		_top = 0;
+	}
+
+	private int mask() {
+		return _data.length - 1;
+	}
+
+	private int index(int i) {
+		return (_head + i) & mask();
+	}
+
+	/** Make sure the stack can hold at least n items */
+	private void ensureCapacity(int n) {
+		if (n <= _data.length) return;
+		int cap = _data.length;
+		while (cap < n) cap <<= 1;
+		Obj[] data = new Obj[cap];
+		copyTo(data, 0);
+		_data = data;
+		_head = 0;
+	}
+
+	/** Copy all items (bottom first) into dest starting at offset */
+	private void copyTo(Obj[] dest, int offset) {
+		final int first = Math.min(_top, _data.length - _head);
+		System.arraycopy(_data, _head, dest, offset, first);
+		System.arraycopy(_data, 0, dest, offset + first, _top - first);
+	}
+
+
+	///////////////////
+	// Stack Methods //
+	///////////////////
+
+	public void push(final Obj o) {
+		if (_top == _data.length) ensureCapacity(_top + 1);
+		_data[(_head + _top) & mask()] = o;
+		_top++;
+	}
+
+	/** Insert an item at the bottom of the stack */
+	public void pushBack(final Obj o) {
+		if (_top == _data.length) ensureCapacity(_top + 1);
+		_head = (_head - 1) & mask();
+		_data[_head] = o;
+		_top++;
+	}
+
+	public Obj pop() {
+		if (_top == 0) throw new EmptyStackException();
+		_top--;
+		final int i = (_head + _top) & mask();
+		final Obj o = _data[i];
+		_data[i] = null;
+		return o;
+	}
+
+	public Obj peek() {
+		if (_top == 0) throw new EmptyStackException();
+		return _data[(_head + _top - 1) & mask()];
+	}
+
+	public int size() {
+		return _top;
+	}
+
+	public boolean isEmpty() {
+		return _top == 0;
+	}
+
+	public void clear() {
+		for (int i = 0; i < _top; i++) {
+			_data[index(i)] = null;
+		}
+		_head = 0;
+		_top = 0;
+	}
+
+	/** Get the ith item from the bottom of the stack */
+	public Obj get(int i) {
+		if (i < 0 || i >= _top) throw new ArrayIndexOutOfBoundsException(i);
+		return _data[index(i)];
+	}
+
+	/** Set the ith item from the bottom of the stack */
+	public Obj set(int i, Obj o) {
+		if (i < 0 || i >= _top) throw new ArrayIndexOutOfBoundsException(i);
+		final int ix = index(i);
+		final Obj old = _data[ix];
+		_data[ix] = o;
+		return old;
+	}
+
+	/** Remove the ith item from the bottom of the stack */
+	public Obj remove(int i) {
+		if (i < 0 || i >= _top) throw new ArrayIndexOutOfBoundsException(i);
+		final Obj o = _data[index(i)];
+		// Shift everything above i down by one
+		for (int j = i; j < _top - 1; j++) {
+			_data[index(j)] = _data[index(j+1)];
+		}
+		_top--;
+		_data[index(_top)] = null;
+		return o;
+	}
+
+	/** Push each item in the collection. The first item in the collection is pushed first */
+	public void addAll(Collection<? extends Obj> c) {
+		ensureCapacity(_top + c.size());
+		for (Obj o : c) {
+			push(o);
+		}
+	}
+
+	/** Copy all items (bottom first) of other onto the top of this stack */
+	public void addStack(ObjStack other) {
+		final int n = other._top;
+		if (n == 0) return;
+
+		ensureCapacity(_top + n);
+
+		// Use a contiguous copy if the destination does not wrap around
+		final int start = (_head + _top) & mask();
+		if (start + n <= _data.length) {
+			other.copyTo(_data, start);
+		} else {
+			for (int i = 0; i < n; i++) {
+				_data[(start + i) & mask()] = other._data[other.index(i)];
+			}
+		}
+		_top += n;
+	}
+
+	/** Move all items (bottom first) of other onto the top of this stack. other is left empty */
+	public void appendToStack(ObjStack other) {
+		addStack(other);
+		other.clear();
+	}
+
+	/** Shallow copy of the stack */
+	public ObjStack copy() {
+		ObjStack out = new ObjStack(_data.length);
+		copyTo(out._data, 0);
+		out._top = _top;
+		return out;
+	}
+
+	/** Returns the items (bottom first) in a new array */
+	public Obj[] toArray() {
+		Obj[] out = new Obj[_top];
+		copyTo(out, 0);
+		return out;
+	}
+
+	/** Returns the items (bottom first) in a new ArrayList */
+	public ArrayList<Obj> toArrayList() {
+		ArrayList<Obj> out = new ArrayList<Obj>(_top);
+		for (int i = 0; i < _top; i++) {
+			out.add(_data[index(i)]);
+		}
+		return out;
+	}
+
+	/**
+	 * Returns a live java.util.List view of the stack (index 0 is the bottom).
+	 * Provided for code that expects a java collection
+	 */
+	public java.util.List<Obj> asList() {
+		return new ListView();
+	}
+
+	@Override
+	public Iterator<Obj> iterator() {
+		return new Iterator<Obj>() {
+			private int _i = 0;
+
+			@Override
+			public boolean hasNext() {
+				return _i < _top;
+			}
+
+			@Override
+			public Obj next() {
+				if (_i >= _top) throw new NoSuchElementException();
+				return _data[index(_i++)];
+			}
+		};
+	}
+
+	@Override
+	public String toString() {
+		return toArrayList().toString();
+	}
+
+	private class ListView extends AbstractList<Obj> {
+		@Override
+		public Obj get(int index) {
+			return ObjStack.this.get(index);
+		}
+
+		@Override
+		public int size() {
+			return _top;
+		}
+
+		@Override
+		public Obj set(int index, Obj element) {
+			return ObjStack.this.set(index, element);
+		}
+
+		@Override
+		public void add(int index, Obj element) {
+			if (index == _top) {
+				push(element);
+			} else if (index == 0) {
+				pushBack(element);
+			} else {
+				if (index < 0 || index > _top) throw new IndexOutOfBoundsException("" + index);
+				push(element);
+				for (int j = _top - 1; j > index; j--) {
+					_data[index(j)] = _data[index(j-1)];
+				}
+				_data[index(index)] = element;
+			}
+		}
+
+		@Override
+		public Obj remove(int index) {
+			return ObjStack.this.remove(index);
+		}
+
+		@Override
+		public void clear() {
+			ObjStack.this.clear();
+		}
+
+		@Override
+		public Object[] toArray() {
+			return ObjStack.this.toArray();
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package aya.ext.collections;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import aya.ReprStream;
+import aya.obj.Obj;
+import aya.obj.list.List;
+
+/**
+ * A double ended queue backed by a circular array
+ * Items can be added and removed from either end in constant time
+ */
+public class AyaDeque extends Obj {
+
+	private final ArrayDeque<Obj> _deque;
+
+	public AyaDeque() {
+		_deque = new ArrayDeque<Obj>();
+	}
+
+	private AyaDeque(ArrayDeque<Obj> deque) {
+		_deque = deque;
+	}
+
+	public static AyaDeque fromList(List list) {
+		ArrayDeque<Obj> deque = new ArrayDeque<Obj>(Math.max(list.length(), 8));
+		for (int i = 0; i < list.length(); i++) {
+			deque.addLast(list.getExact(i));
+		}
+		return new AyaDeque(deque);
+	}
+
+	public void pushBack(Obj o) {
+		_deque.addLast(o);
+	}
+
+	public void pushFront(Obj o) {
+		_deque.addFirst(o);
+	}
+
+	/** Returns null if the deque is empty */
+	public Obj popFront() {
+		return _deque.pollFirst();
+	}
+
+	/** Returns null if the deque is empty */
+	public Obj popBack() {
+		return _deque.pollLast();
+	}
+
+	/** Returns null if the deque is empty */
+	public Obj peekFront() {
+		return _deque.peekFirst();
+	}
+
+	/** Returns null if the deque is empty */
+	public Obj peekBack() {
+		return _deque.peekLast();
+	}
+
+	public int size() {
+		return _deque.size();
+	}
+
+	public void clear() {
+		_deque.clear();
+	}
+
+	public List toList() {
+		return new List(new ArrayList<Obj>(_deque));
+	}
+
+
+	/////////////////////
+	// OBJ OVERRIDES   //
+	/////////////////////
+
+	@Override
+	public Obj deepcopy() {
+		ArrayDeque<Obj> deque = new ArrayDeque<Obj>(Math.max(_deque.size(), 8));
+		for (Obj o : _deque) deque.addLast(o.deepcopy());
+		return new AyaDeque(deque);
+	}
+
+	@Override
+	public boolean bool() {
+		return _deque.size() > 0;
+	}
+
+	@Override
+	public ReprStream repr(ReprStream stream) {
+		if (stream.visit(this)) {
+			stream.print("deque(");
+			boolean first = true;
+			for (Obj o : _deque) {
+				if (!first) stream.print(" ");
+				first = false;
+				o.repr(stream);
+			}
+			stream.print(")");
+			stream.popVisited(this);
+		} else {
+			stream.print("deque(...)");
+		}
+		return stream;
+	}
+
+	@Override
+	public String str() {
+		return repr();
+	}
+
+	@Override
+	public boolean equiv(Obj o) {
+		if (this == o) return true;
+		if (o instanceof AyaDeque) {
+			AyaDeque other = (AyaDeque)o;
+			if (other._deque.size() != _deque.size()) return false;
+			Iterator<Obj> a = _deque.iterator();
+			Iterator<Obj> b = other._deque.iterator();
+			while (a.hasNext()) {
+				if (!a.next().equiv(b.next())) return false;
+			}
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode(HASH_DEPTH);
+	}
+
+	@Override
+	public int hashCode(int depth) {
+		if (depth == 0) return _deque.size();
+		int h = 0;
+		for (Obj o : _deque) h = 31 * h + o.hashCode(depth - 1);
+		return h;
+	}
+
+	@Override
+	public boolean isa(byte type) {
+		return type == Obj.COLLECTION;
+	}
+
+	@Override
+	public byte type() {
+		return Obj.COLLECTION;
+	}
+}
@@ -0,0 +1,154 @@
+package aya.ext.collections;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import aya.ReprStream;
+import aya.obj.Obj;
+import aya.obj.list.List;
+
+/**
+ * A hash table mapping arbitrary objects to values
+ * Keys are compared using Obj.equiv and are kept in insertion order
+ */
+public class AyaHashMap extends Obj {
+
+	private final LinkedHashMap<ObjKey, Obj> _map;
+
+	public AyaHashMap() {
+		_map = new LinkedHashMap<ObjKey, Obj>();
+	}
+
+	private AyaHashMap(LinkedHashMap<ObjKey, Obj> map) {
+		_map = map;
+	}
+
+	public void put(Obj key, Obj value) {
+		final ObjKey k = ObjKey.of(key);
+		if (_map.containsKey(k)) {
+			// Keep the position of the existing key
+			_map.put(k, value);
+		} else {
+			_map.put(ObjKey.stored(key), value);
+		}
+	}
+
+	/** Returns null if the map does not contain the key */
+	public Obj get(Obj key) {
+		return _map.get(ObjKey.of(key));
+	}
+
+	public boolean containsKey(Obj key) {
+		return _map.containsKey(ObjKey.of(key));
+	}
+
+	/** Returns the removed value or null if the map does not contain the key */
+	public Obj remove(Obj key) {
+		return _map.remove(ObjKey.of(key));
+	}
+
+	public int size() {
+		return _map.size();
+	}
+
+	public void clear() {
+		_map.clear();
+	}
+
+	public List keys() {
+		ArrayList<Obj> out = new ArrayList<Obj>(_map.size());
+		for (ObjKey k : _map.keySet()) out.add(k.copy());
+		return new List(out);
+	}
+
+	public List values() {
+		return new List(new ArrayList<Obj>(_map.values()));
+	}
+
+
+	/////////////////////
+	// OBJ OVERRIDES   //
+	/////////////////////
+
+	@Override
+	public Obj deepcopy() {
+		LinkedHashMap<ObjKey, Obj> map = new LinkedHashMap<ObjKey, Obj>(_map.size());
+		for (Map.Entry<ObjKey, Obj> e : _map.entrySet()) {
+			// Keys are never modified, only the values need to be copied
+			map.put(e.getKey(), e.getValue().deepcopy());
+		}
+		return new AyaHashMap(map);
+	}
+
+	@Override
+	public boolean bool() {
+		return _map.size() > 0;
+	}
+
+	@Override
+	public ReprStream repr(ReprStream stream) {
+		if (stream.visit(this)) {
+			stream.print("hashmap(");
+			boolean first = true;
+			for (Map.Entry<ObjKey, Obj> e : _map.entrySet()) {
+				if (!first) stream.print(", ");
+				first = false;
+				e.getKey().obj().repr(stream);
+				stream.print(": ");
+				e.getValue().repr(stream);
+			}
+			stream.print(")");
+			stream.popVisited(this);
+		} else {
+			stream.print("hashmap(...)");
+		}
+		return stream;
+	}
+
+	@Override
+	public String str() {
+		return repr();
+	}
+
+	@Override
+	public boolean equiv(Obj o) {
+		if (this == o) return true;
+		if (o instanceof AyaHashMap) {
+			AyaHashMap other = (AyaHashMap)o;
+			if (other._map.size() != _map.size()) return false;
+			for (Map.Entry<ObjKey, Obj> e : _map.entrySet()) {
+				Obj v = other._map.get(e.getKey());
+				if (v == null || !v.equiv(e.getValue())) return false;
+			}
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode(HASH_DEPTH);
+	}
+
+	@Override
+	public int hashCode(int depth) {
+		if (depth == 0) return _map.size();
+		// Independent of the order of the keys
+		int h = 0;
+		for (Map.Entry<ObjKey, Obj> e : _map.entrySet()) {
+			h += e.getKey().hashCode() ^ e.getValue().hashCode(depth - 1);
+		}
+		return h;
+	}
+
+	@Override
+	public boolean isa(byte type) {
+		return type == Obj.COLLECTION;
+	}
+
+	@Override
+	public byte type() {
+		return Obj.COLLECTION;
+	}
+}
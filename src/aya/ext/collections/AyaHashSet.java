@@ -0,0 +1,155 @@
+package aya.ext.collections;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+
+import aya.ReprStream;
+import aya.obj.Obj;
+import aya.obj.list.List;
+
+/**
+ * A hash set of arbitrary objects
+ * Items are compared using Obj.equiv and are kept in insertion order
+ */
+public class AyaHashSet extends Obj {
+
+	private final LinkedHashSet<ObjKey> _set;
+
+	public AyaHashSet() {
+		_set = new LinkedHashSet<ObjKey>();
+	}
+
+	private AyaHashSet(LinkedHashSet<ObjKey> set) {
+		_set = set;
+	}
+
+	public static AyaHashSet fromList(List list) {
+		AyaHashSet set = new AyaHashSet();
+		for (int i = 0; i < list.length(); i++) {
+			set.add(list.getExact(i));
+		}
+		return set;
+	}
+
+	/** Returns true if the item was not already in the set */
+	public boolean add(Obj item) {
+		final ObjKey k = ObjKey.of(item);
+		if (_set.contains(k)) {
+			return false;
+		} else {
+			return _set.add(ObjKey.stored(item));
+		}
+	}
+
+	/** Returns true if the item was in the set */
+	public boolean remove(Obj item) {
+		return _set.remove(ObjKey.of(item));
+	}
+
+	public boolean contains(Obj item) {
+		return _set.contains(ObjKey.of(item));
+	}
+
+	public int size() {
+		return _set.size();
+	}
+
+	public void clear() {
+		_set.clear();
+	}
+
+	public List toList() {
+		ArrayList<Obj> out = new ArrayList<Obj>(_set.size());
+		for (ObjKey k : _set) out.add(k.copy());
+		return new List(out);
+	}
+
+	public AyaHashSet union(AyaHashSet other) {
+		LinkedHashSet<ObjKey> set = new LinkedHashSet<ObjKey>(_set);
+		set.addAll(other._set);
+		return new AyaHashSet(set);
+	}
+
+	public AyaHashSet intersect(AyaHashSet other) {
+		LinkedHashSet<ObjKey> set = new LinkedHashSet<ObjKey>();
+		for (ObjKey k : _set) {
+			if (other._set.contains(k)) set.add(k);
+		}
+		return new AyaHashSet(set);
+	}
+
+	public AyaHashSet difference(AyaHashSet other) {
+		LinkedHashSet<ObjKey> set = new LinkedHashSet<ObjKey>();
+		for (ObjKey k : _set) {
+			if (!other._set.contains(k)) set.add(k);
+		}
+		return new AyaHashSet(set);
+	}
+
+	/** True if every item of this set is in the other set */
+	public boolean isSubset(AyaHashSet other) {
+		return _set.size() <= other._set.size() && other._set.containsAll(_set);
+	}
+
+
+	/////////////////////
+	// OBJ OVERRIDES   //
+	/////////////////////
+
+	@Override
+	public Obj deepcopy() {
+		// Items are never modified
+		return new AyaHashSet(new LinkedHashSet<ObjKey>(_set));
+	}
+
+	@Override
+	public boolean bool() {
+		return _set.size() > 0;
+	}
+
+	@Override
+	public ReprStream repr(ReprStream stream) {
+		stream.print("hashset(");
+		boolean first = true;
+		for (ObjKey k : _set) {
+			if (!first) stream.print(" ");
+			first = false;
+			k.obj().repr(stream);
+		}
+		stream.print(")");
+		return stream;
+	}
+
+	@Override
+	public String str() {
+		return repr();
+	}
+
+	@Override
+	public boolean equiv(Obj o) {
+		if (this == o) return true;
+		if (o instanceof AyaHashSet) {
+			AyaHashSet other = (AyaHashSet)o;
+			return other._set.size() == _set.size() && other._set.containsAll(_set);
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		// Independent of the order of the items
+		int h = 0;
+		for (ObjKey k : _set) h += k.hashCode();
+		return h;
+	}
+
+	@Override
+	public boolean isa(byte type) {
+		return type == Obj.COLLECTION;
+	}
+
+	@Override
+	public byte type() {
+		return Obj.COLLECTION;
+	}
+}
@@ -0,0 +1,304 @@
+package aya.ext.collections;
+
+import aya.eval.BlockEvaluator;
+import aya.exceptions.runtime.IndexError;
+import aya.exceptions.runtime.TypeError;
+import aya.exceptions.runtime.ValueError;
+import aya.instruction.named.NamedInstructionStore;
+import aya.instruction.named.NamedOperator;
+import aya.obj.Obj;
+import aya.obj.list.List;
+import aya.obj.number.Num;
+import aya.util.Casting;
+
+public class CollectionsInstructionStore extends NamedInstructionStore {
+
+	private static AyaHashMap asHashMap(NamedOperator op, Obj o) {
+		if (o instanceof AyaHashMap) {
+			return (AyaHashMap)o;
+		} else {
+			throw new TypeError(op, "hashmap", o);
+		}
+	}
+
+	private static AyaHashSet asHashSet(NamedOperator op, Obj o) {
+		if (o instanceof AyaHashSet) {
+			return (AyaHashSet)o;
+		} else {
+			throw new TypeError(op, "hashset", o);
+		}
+	}
+
+	private static AyaDeque asDeque(NamedOperator op, Obj o) {
+		if (o instanceof AyaDeque) {
+			return (AyaDeque)o;
+		} else {
+			throw new TypeError(op, "deque", o);
+		}
+	}
+
+	private static List asList(NamedOperator op, Obj o) {
+		if (o.isa(Obj.LIST)) {
+			return Casting.asList(o);
+		} else {
+			throw new TypeError(op, "list", o);
+		}
+	}
+
+	private static Obj nonEmpty(Obj o) {
+		if (o == null) {
+			throw new ValueError("deque is empty");
+		}
+		return o;
+	}
+
+	@Override
+	protected void init() {
+
+		//
+		// Hash Map
+		//
+
+		addInstruction(new NamedOperator("hashmap.new", ":: hashmap: create an empty hash map") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				blockEvaluator.push(new AyaHashMap());
+			}
+		});
+
+		addInstruction(new NamedOperator("hashmap.put", "map::hashmap key::any value::any: set the value for the key") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Obj value = blockEvaluator.pop();
+				final Obj key = blockEvaluator.pop();
+				asHashMap(this, blockEvaluator.pop()).put(key, value);
+			}
+		});
+
+		addInstruction(new NamedOperator("hashmap.get", "map::hashmap key::any: get the value for the key") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Obj key = blockEvaluator.pop();
+				final Obj value = asHashMap(this, blockEvaluator.pop()).get(key);
+				if (value == null) {
+					throw new IndexError("hashmap does not contain key " + key.repr());
+				}
+				blockEvaluator.push(value);
+			}
+		});
+
+		addInstruction(new NamedOperator("hashmap.has", "map::hashmap key::any: true if the map contains the key") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Obj key = blockEvaluator.pop();
+				blockEvaluator.push(Num.fromBool(asHashMap(this, blockEvaluator.pop()).containsKey(key)));
+			}
+		});
+
+		addInstruction(new NamedOperator("hashmap.del", "map::hashmap key::any: remove the key if it exists") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Obj key = blockEvaluator.pop();
+				asHashMap(this, blockEvaluator.pop()).remove(key);
+			}
+		});
+
+		addInstruction(new NamedOperator("hashmap.keys", "map::hashmap: list of keys in insertion order") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				blockEvaluator.push(asHashMap(this, blockEvaluator.pop()).keys());
+			}
+		});
+
+		addInstruction(new NamedOperator("hashmap.values", "map::hashmap: list of values in insertion order of the keys") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				blockEvaluator.push(asHashMap(this, blockEvaluator.pop()).values());
+			}
+		});
+
+		addInstruction(new NamedOperator("hashmap.len", "map::hashmap: number of keys in the map") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				blockEvaluator.push(Num.fromInt(asHashMap(this, blockEvaluator.pop()).size()));
+			}
+		});
+
+		addInstruction(new NamedOperator("hashmap.clear", "map::hashmap: remove all keys from the map") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				asHashMap(this, blockEvaluator.pop()).clear();
+			}
+		});
+
+
+		//
+		// Hash Set
+		//
+
+		addInstruction(new NamedOperator("hashset.new", "items::list: create a hash set from the items of the list") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				blockEvaluator.push(AyaHashSet.fromList(asList(this, blockEvaluator.pop())));
+			}
+		});
+
+		addInstruction(new NamedOperator("hashset.add", "set::hashset item::any: add the item to the set") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Obj item = blockEvaluator.pop();
+				asHashSet(this, blockEvaluator.pop()).add(item);
+			}
+		});
+
+		addInstruction(new NamedOperator("hashset.del", "set::hashset item::any: remove the item from the set if it exists") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Obj item = blockEvaluator.pop();
+				asHashSet(this, blockEvaluator.pop()).remove(item);
+			}
+		});
+
+		addInstruction(new NamedOperator("hashset.has", "set::hashset item::any: true if the set contains the item") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Obj item = blockEvaluator.pop();
+				blockEvaluator.push(Num.fromBool(asHashSet(this, blockEvaluator.pop()).contains(item)));
+			}
+		});
+
+		addInstruction(new NamedOperator("hashset.list", "set::hashset: list of items in insertion order") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				blockEvaluator.push(asHashSet(this, blockEvaluator.pop()).toList());
+			}
+		});
+
+		addInstruction(new NamedOperator("hashset.len", "set::hashset: number of items in the set") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				blockEvaluator.push(Num.fromInt(asHashSet(this, blockEvaluator.pop()).size()));
+			}
+		});
+
+		addInstruction(new NamedOperator("hashset.clear", "set::hashset: remove all items from the set") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				asHashSet(this, blockEvaluator.pop()).clear();
+			}
+		});
+
+		addInstruction(new NamedOperator("hashset.union", "a::hashset b::hashset: new set with the items of both sets") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final AyaHashSet b = asHashSet(this, blockEvaluator.pop());
+				final AyaHashSet a = asHashSet(this, blockEvaluator.pop());
+				blockEvaluator.push(a.union(b));
+			}
+		});
+
+		addInstruction(new NamedOperator("hashset.intersect", "a::hashset b::hashset: new set with the items of a which are also in b") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final AyaHashSet b = asHashSet(this, blockEvaluator.pop());
+				final AyaHashSet a = asHashSet(this, blockEvaluator.pop());
+				blockEvaluator.push(a.intersect(b));
+			}
+		});
+
+		addInstruction(new NamedOperator("hashset.diff", "a::hashset b::hashset: new set with the items of a which are not in b") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final AyaHashSet b = asHashSet(this, blockEvaluator.pop());
+				final AyaHashSet a = asHashSet(this, blockEvaluator.pop());
+				blockEvaluator.push(a.difference(b));
+			}
+		});
+
+		addInstruction(new NamedOperator("hashset.subset", "a::hashset b::hashset: true if every item of a is in b") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final AyaHashSet b = asHashSet(this, blockEvaluator.pop());
+				final AyaHashSet a = asHashSet(this, blockEvaluator.pop());
+				blockEvaluator.push(Num.fromBool(a.isSubset(b)));
+			}
+		});
+
+
+		//
+		// Deque
+		//
+
+		addInstruction(new NamedOperator("deque.new", "items::list: create a deque from the items of the list") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				blockEvaluator.push(AyaDeque.fromList(asList(this, blockEvaluator.pop())));
+			}
+		});
+
+		addInstruction(new NamedOperator("deque.pushback", "deque::deque item::any: add the item to the back") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Obj item = blockEvaluator.pop();
+				asDeque(this, blockEvaluator.pop()).pushBack(item);
+			}
+		});
+
+		addInstruction(new NamedOperator("deque.pushfront", "deque::deque item::any: add the item to the front") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Obj item = blockEvaluator.pop();
+				asDeque(this, blockEvaluator.pop()).pushFront(item);
+			}
+		});
+
+		addInstruction(new NamedOperator("deque.popfront", "deque::deque: remove and return the first item") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				blockEvaluator.push(nonEmpty(asDeque(this, blockEvaluator.pop()).popFront()));
+			}
+		});
+
+		addInstruction(new NamedOperator("deque.popback", "deque::deque: remove and return the last item") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				blockEvaluator.push(nonEmpty(asDeque(this, blockEvaluator.pop()).popBack()));
+			}
+		});
+
+		addInstruction(new NamedOperator("deque.peekfront", "deque::deque: return the first item") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				blockEvaluator.push(nonEmpty(asDeque(this, blockEvaluator.pop()).peekFront()));
+			}
+		});
+
+		addInstruction(new NamedOperator("deque.peekback", "deque::deque: return the last item") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				blockEvaluator.push(nonEmpty(asDeque(this, blockEvaluator.pop()).peekBack()));
+			}
+		});
+
+		addInstruction(new NamedOperator("deque.list", "deque::deque: list of items from front to back") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				blockEvaluator.push(asDeque(this, blockEvaluator.pop()).toList());
+			}
+		});
+
+		addInstruction(new NamedOperator("deque.len", "deque::deque: number of items in the deque") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				blockEvaluator.push(Num.fromInt(asDeque(this, blockEvaluator.pop()).size()));
+			}
+		});
+
+		addInstruction(new NamedOperator("deque.clear", "deque::deque: remove all items from the deque") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				asDeque(this, blockEvaluator.pop()).clear();
+			}
+		});
+	}
+}
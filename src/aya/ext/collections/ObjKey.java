@@ -0,0 +1,68 @@
+package aya.ext.collections;
+
+import aya.obj.Obj;
+import aya.obj.dict.Dict;
+import aya.obj.list.List;
+
+/**
+ * Wraps an Obj so that it can be used as a key in a java hash table
+ *
+ * Two keys are equal if the objects are equivalent (Obj.equiv). The hash
+ * code is cached since computing it for lists and dicts visits every item.
+ */
+public final class ObjKey {
+
+	private final Obj _obj;
+	private final int _hash;
+
+	private ObjKey(Obj obj) {
+		_obj = obj;
+		_hash = obj.hashCode();
+	}
+
+	/** Key used for lookups, the object is not copied */
+	public static ObjKey of(Obj obj) {
+		return new ObjKey(obj);
+	}
+
+	/**
+	 * Key used for storing an object in a table. Lists and dicts can be
+	 * modified in place so they are copied to keep the hash valid
+	 */
+	public static ObjKey stored(Obj obj) {
+		if (obj instanceof List || obj instanceof Dict) {
+			return new ObjKey(obj.deepcopy());
+		} else {
+			return new ObjKey(obj);
+		}
+	}
+
+	/** The stored object, it must not be modified */
+	public Obj obj() {
+		return _obj;
+	}
+
+	/** The object for use outside of the table, lists and dicts are copied so the key can not be modified */
+	public Obj copy() {
+		if (_obj instanceof List || _obj instanceof Dict) {
+			return _obj.deepcopy();
+		} else {
+			return _obj;
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return _hash;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o instanceof ObjKey) {
+			ObjKey other = (ObjKey)o;
+			return _hash == other._hash && _obj.equiv(other._obj);
+		}
+		return false;
+	}
+}
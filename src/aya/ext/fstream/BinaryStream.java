@@ -0,0 +1,313 @@
+package aya.ext.fstream;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A file opened in one of the binary modes of FStreamManager
+ *
+ * All reads and writes go through a FileChannel and numbers are decoded from
+ * the channel buffer straight into a primitive array: bytes (u8) into a byte
+ * array, 64 bit integers into a long array and all other formats into a
+ * double array. No intermediate byte array is created. In mmap mode the file is mapped read only one window at a time,
+ * so files larger than the heap can be scanned by reading at increasing
+ * positions.
+ */
+public class BinaryStream {
+
+	/** Size of a mapped window in bytes, may be set using -Daya.fstream.window=N */
+	public static long WINDOW_SIZE = Math.max(8, Long.getLong("aya.fstream.window", 64L << 20));
+
+	/** Size of the buffer used for channel reads and writes, a multiple of every format width */
+	private static final int CHUNK_SIZE = 1 << 16;
+
+	private final String _path;
+	private final FileChannel _channel;
+	private final boolean _mapped;
+	private final boolean _writable;
+	private long _position;
+
+	private ByteBuffer _chunk;
+	private MappedByteBuffer _window;
+	private long _windowStart;
+
+	private BinaryStream(String path, FileChannel channel, boolean mapped, boolean writable) {
+		_path = path;
+		_channel = channel;
+		_mapped = mapped;
+		_writable = writable;
+		_position = 0;
+	}
+
+	/** Open a file using the mode "rb", "wb" or "mmap". Returns null if the mode is not a binary mode */
+	public static BinaryStream open(File file, String mode) throws IOException {
+		switch (mode) {
+		case "rb":
+			return new BinaryStream(file.getPath(), FileChannel.open(file.toPath(), StandardOpenOption.READ), false, false);
+		case "wb":
+			return new BinaryStream(file.getPath(), FileChannel.open(file.toPath(),
+					StandardOpenOption.READ, StandardOpenOption.WRITE,
+					StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING), false, true);
+		case "mmap":
+			return new BinaryStream(file.getPath(), FileChannel.open(file.toPath(), StandardOpenOption.READ), true, false);
+		default:
+			return null;
+		}
+	}
+
+	public String getPath() {
+		return _path;
+	}
+
+	public boolean isWritable() {
+		return _writable;
+	}
+
+	public long size() throws IOException {
+		return _channel.size();
+	}
+
+	public long position() {
+		return _position;
+	}
+
+	public void seek(long position) {
+		_position = position;
+	}
+
+	public void close() throws IOException {
+		_window = null;
+		_chunk = null;
+		_channel.close();
+	}
+
+
+	/////////////
+	// READING //
+	/////////////
+
+	/** Decodes values into an array at [i..end) and returns end */
+	private interface Decoder {
+		int decode(ByteBuffer b, int i, int end);
+	}
+
+	/** Decode up to count values starting at pos. Fewer values are returned at the end of the file */
+	public double[] read(long pos, int count, Format fmt) throws IOException {
+		final double[] out = new double[length(pos, count, fmt)];
+		final int n = read(pos, out.length, fmt, (b, i, end) -> fmt.decode(b, out, i, end));
+		return n == out.length ? out : Arrays.copyOf(out, n);
+	}
+
+	/** Read up to count bytes starting at pos */
+	public byte[] readBytes(long pos, int count) throws IOException {
+		final byte[] out = new byte[length(pos, count, Format.BYTE)];
+		final int n = read(pos, out.length, Format.BYTE, (b, i, end) -> {
+			b.get(out, i, end - i);
+			return end;
+		});
+		return n == out.length ? out : Arrays.copyOf(out, n);
+	}
+
+	/** Decode up to count 64 bit integers (i64) starting at pos */
+	public long[] readLongs(long pos, int count, Format fmt) throws IOException {
+		final long[] out = new long[length(pos, count, fmt)];
+		final int n = read(pos, out.length, fmt, (b, i, end) -> {
+			while (i < end) out[i++] = b.getLong();
+			return end;
+		});
+		return n == out.length ? out : Arrays.copyOf(out, n);
+	}
+
+	/** Number of values which can be read at pos */
+	private int length(long pos, int count, Format fmt) throws IOException {
+		final long available = Math.max(0, size() - pos) / fmt._width;
+		return (int)Math.min(count, available);
+	}
+
+	/** Returns the number of values decoded, less than n if the file was truncated while reading */
+	private int read(long pos, int n, Format fmt, Decoder decoder) throws IOException {
+		int i = 0;
+		while (i < n) {
+			final long at = pos + (long)i * fmt._width;
+			final long len = (long)(n - i) * fmt._width;
+			final ByteBuffer buf = _mapped ? window(at, len) : fill(at, len);
+			if (buf.remaining() < fmt._width) {
+				return i;
+			}
+			buf.order(fmt._order);
+			i = decoder.decode(buf, i, Math.min(n, i + buf.remaining() / fmt._width));
+		}
+		return n;
+	}
+
+	/** A view of the mapped file starting at pos, the window is moved if it does not contain pos */
+	private ByteBuffer window(long pos, long len) throws IOException {
+		final long need = Math.min(len, WINDOW_SIZE);
+		if (_window == null || pos < _windowStart || pos + need > _windowStart + _window.capacity()) {
+			final long size = Math.min(Math.min(WINDOW_SIZE, Integer.MAX_VALUE), size() - pos);
+			_window = _channel.map(FileChannel.MapMode.READ_ONLY, pos, size);
+			_windowStart = pos;
+		}
+		final ByteBuffer view = _window.duplicate();
+		final int start = (int)(pos - _windowStart);
+		view.position(start);
+		view.limit((int)Math.min(view.capacity(), start + len));
+		return view;
+	}
+
+	/** Read up to len bytes at pos into the chunk buffer */
+	private ByteBuffer fill(long pos, long len) throws IOException {
+		final ByteBuffer buf = chunk();
+		buf.limit((int)Math.min(len, CHUNK_SIZE));
+		while (buf.hasRemaining()) {
+			if (_channel.read(buf, pos + buf.position()) < 0) break;
+		}
+		buf.flip();
+		return buf;
+	}
+
+	private ByteBuffer chunk() {
+		if (_chunk == null) {
+			_chunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+		}
+		_chunk.clear();
+		return _chunk;
+	}
+
+
+	/////////////
+	// WRITING //
+	/////////////
+
+	/** Encode the values starting at pos, the file grows as needed */
+	public void write(long pos, double[] values, Format fmt) throws IOException {
+		ByteBuffer buf = chunk().order(fmt._order);
+		for (double v : values) {
+			if (buf.remaining() < fmt._width) {
+				pos = flush(buf, pos);
+			}
+			fmt.put(buf, v);
+		}
+		flush(buf, pos);
+	}
+
+	/** Encode 64 bit integers (i64) starting at pos without converting them to doubles */
+	public void writeLongs(long pos, long[] values, Format fmt) throws IOException {
+		ByteBuffer buf = chunk().order(fmt._order);
+		for (long v : values) {
+			if (buf.remaining() < fmt._width) {
+				pos = flush(buf, pos);
+			}
+			buf.putLong(v);
+		}
+		flush(buf, pos);
+	}
+
+	private long flush(ByteBuffer buf, long pos) throws IOException {
+		buf.flip();
+		while (buf.hasRemaining()) {
+			pos += _channel.write(buf, pos);
+		}
+		buf.clear();
+		return pos;
+	}
+
+
+	////////////
+	// FORMAT //
+	////////////
+
+	/**
+	 * The encoding of a number in a binary file
+	 * Formats are named by kind (i: signed int, u: unsigned int, f: float)
+	 * followed by the width in bits and an optional byte order (le or be).
+	 * The default byte order is little endian. For example: u8, i32be, f64le
+	 */
+	public static class Format {
+		public static final Format BYTE = parse("u8");
+
+		private final char _kind;
+		private final int _width;
+		private final ByteOrder _order;
+
+		private Format(char kind, int width, ByteOrder order) {
+			_kind = kind;
+			_width = width;
+			_order = order;
+		}
+
+		public int width() {
+			return _width;
+		}
+
+		/** u8, read using readBytes */
+		public boolean isByte() {
+			return _kind == 'u' && _width == 1;
+		}
+
+		/** i64, read using readLongs and written using writeLongs */
+		public boolean isLong() {
+			return _kind == 'i' && _width == 8;
+		}
+
+		/** Returns null if the string is not a valid format */
+		public static Format parse(String s) {
+			ByteOrder order = ByteOrder.LITTLE_ENDIAN;
+			if (s.endsWith("le")) {
+				s = s.substring(0, s.length() - 2);
+			} else if (s.endsWith("be")) {
+				order = ByteOrder.BIG_ENDIAN;
+				s = s.substring(0, s.length() - 2);
+			}
+			switch (s) {
+			case "i8":  return new Format('i', 1, order);
+			case "u8":  return new Format('u', 1, order);
+			case "i16": return new Format('i', 2, order);
+			case "u16": return new Format('u', 2, order);
+			case "i32": return new Format('i', 4, order);
+			case "u32": return new Format('u', 4, order);
+			case "i64": return new Format('i', 8, order);
+			case "f32": return new Format('f', 4, order);
+			case "f64": return new Format('f', 8, order);
+			default: return null;
+			}
+		}
+
+		/** Decode values into out[i..end), returns end */
+		int decode(ByteBuffer b, double[] out, int i, int end) {
+			// One loop per format keeps the switch out of the loop
+			switch (_kind + "" + _width) {
+			case "i1": while (i < end) out[i++] = b.get(); break;
+			case "u1": while (i < end) out[i++] = b.get() & 0xFF; break;
+			case "i2": while (i < end) out[i++] = b.getShort(); break;
+			case "u2": while (i < end) out[i++] = b.getShort() & 0xFFFF; break;
+			case "i4": while (i < end) out[i++] = b.getInt(); break;
+			case "u4": while (i < end) out[i++] = b.getInt() & 0xFFFFFFFFL; break;
+			case "f4": while (i < end) out[i++] = b.getFloat(); break;
+			case "i8": while (i < end) out[i++] = b.getLong(); break;
+			default:   while (i < end) out[i++] = b.getDouble(); break;
+			}
+			return i;
+		}
+
+		void put(ByteBuffer b, double v) {
+			switch (_width) {
+			case 1: b.put((byte)(long)v); break;
+			case 2: b.putShort((short)(long)v); break;
+			case 4:
+				if (_kind == 'f') b.putFloat((float)v);
+				else b.putInt((int)(long)v);
+				break;
+			default:
+				if (_kind == 'f') b.putDouble(v);
+				else b.putLong((long)v);
+			}
+		}
+	}
+}
@@ -1,23 +1,333 @@
 package aya.ext.fstream;
 
 import java.io.IOException;
+import java.util.ArrayList;
 
 import aya.eval.BlockEvaluator;
 import aya.exceptions.runtime.IOError;
+import aya.exceptions.runtime.TypeError;
+import aya.exceptions.runtime.ValueError;
+import aya.ext.fstream.BinaryStream.Format;
 import aya.instruction.named.NamedInstructionStore;
 import aya.instruction.named.NamedOperator;
+import aya.obj.Obj;
+import aya.obj.block.StaticBlock;
 import aya.obj.list.List;
+import aya.obj.list.numberlist.ByteList;
 import aya.obj.list.numberlist.DoubleList;
+import aya.obj.list.numberlist.LongList;
+import aya.obj.list.numberlist.NumberList;
+import aya.obj.number.Num;
+import aya.util.Casting;
 import aya.util.FileUtils;
 
 public class FStreamInstructionStore extends NamedInstructionStore {
 	
+	private static BinaryStream asBinary(NamedOperator op, Obj o) {
+		if (!o.isa(Obj.NUMBER)) {
+			throw new TypeError(op, "::num", o);
+		}
+		BinaryStream b = FStreamManager.getBinary(Casting.asNumber(o).toInt());
+		if (b == null) {
+			throw new ValueError(op.getName() + ": " + o.repr() + " is not an open binary stream");
+		}
+		return b;
+	}
+	
+	private static BinaryStream asWritable(NamedOperator op, Obj o) {
+		BinaryStream b = asBinary(op, o);
+		if (!b.isWritable()) {
+			throw new IOError("{" + op.getName() + "}", b.getPath(), "The stream was not opened for writing");
+		}
+		return b;
+	}
+	
+	private static long asPosition(NamedOperator op, Obj o) {
+		if (!o.isa(Obj.NUMBER)) {
+			throw new TypeError(op, "::num", o);
+		}
+		long pos = Casting.asNumber(o).toLong();
+		if (pos < 0) {
+			throw new ValueError(op.getName() + ": position must not be negative, got " + pos);
+		}
+		return pos;
+	}
+	
+	private static int asCount(NamedOperator op, Obj o) {
+		if (!o.isa(Obj.NUMBER)) {
+			throw new TypeError(op, "::num", o);
+		}
+		return Math.max(0, Casting.asNumber(o).toInt());
+	}
+	
+	private static Format asFormat(NamedOperator op, Obj o) {
+		Format f = Format.parse(o.str());
+		if (f == null) {
+			throw new ValueError(op.getName() + ": unknown number format " + o.repr()
+					+ ". Expected one of i8 u8 i16 u16 i32 u32 i64 f32 f64 with an optional le or be suffix");
+		}
+		return f;
+	}
+	
+	private static double[] asDoubles(NamedOperator op, Obj o) {
+		if (!o.isa(Obj.LIST)) {
+			throw new TypeError(op, "::list", o);
+		}
+		return Casting.asList(o).toNumberList().todoubleArray();
+	}
+	
+	private static long[] asLongs(NamedOperator op, Obj o) {
+		if (!o.isa(Obj.LIST)) {
+			throw new TypeError(op, "::list", o);
+		}
+		NumberList ns = Casting.asList(o).toNumberList();
+		if (ns instanceof LongList) {
+			return ((LongList)ns).internalArray();
+		}
+		long[] out = new long[ns.length()];
+		for (int i = 0; i < out.length; i++) {
+			out[i] = ns.get(i).toLong();
+		}
+		return out;
+	}
+	
+	private static StaticBlock asBlock(NamedOperator op, Obj o) {
+		if (!o.isa(Obj.BLOCK)) {
+			throw new TypeError(op, "::block", o);
+		}
+		return Casting.asStaticBlock(o);
+	}
+	
+	private static LineReadahead asLines(NamedOperator op, Obj o) {
+		if (!o.isa(Obj.NUMBER)) {
+			throw new TypeError(op, "::num", o);
+		}
+		LineReadahead lines = FStreamManager.readahead(Casting.asNumber(o).toInt());
+		if (lines == null) {
+			throw new ValueError(op.getName() + ": " + o.repr() + " is not an open input stream");
+		}
+		return lines;
+	}
+	
+	private static String nextLine(NamedOperator op, Obj id, LineReadahead lines) {
+		try {
+			return lines.next();
+		} catch (IOException e) {
+			throw new IOError("{" + op.getName() + "}", "stream " + id.repr(), e);
+		}
+	}
+	
+	private static List read(NamedOperator op, BinaryStream b, long pos, int count, Format fmt) {
+		try {
+			if (fmt.isByte()) {
+				return new List(new ByteList(b.readBytes(pos, count)));
+			} else if (fmt.isLong()) {
+				return new List(new LongList(b.readLongs(pos, count, fmt)));
+			} else {
+				return new List(new DoubleList(b.read(pos, count, fmt)));
+			}
+		} catch (IOException e) {
+			throw new IOError("{" + op.getName() + "}", b.getPath(), e);
+		}
+	}
+	
+	private static void write(NamedOperator op, BinaryStream b, long pos, double[] values, Format fmt) {
+		try {
+			b.write(pos, values, fmt);
+		} catch (IOException e) {
+			throw new IOError("{" + op.getName() + "}", b.getPath(), e);
+		}
+	}
+	
+	private static void writeLongs(NamedOperator op, BinaryStream b, long pos, long[] values, Format fmt) {
+		try {
+			b.writeLongs(pos, values, fmt);
+		} catch (IOException e) {
+			throw new IOError("{" + op.getName() + "}", b.getPath(), e);
+		}
+	}
+	
 	@Override
 	protected void init() {
 		// Legacy Stream Instructions
 		// TODO: Separate into individual instructions
 		addInstruction(new LegacyFStreamInstruction());
 		
+		//
+		// Line Streams
+		//
+		
+		addInstruction(new NamedOperator("fstream.foreach", "id::num block::block: run the block on each line of an input stream, lines are read ahead on a background thread") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final StaticBlock block = asBlock(this, blockEvaluator.pop());
+				final Obj id = blockEvaluator.pop();
+				final BlockEvaluator b = blockEvaluator.getContext().createEvaluator();
+				try (LineReadahead lines = asLines(this, id)) {
+					String line;
+					while ((line = nextLine(this, id, lines)) != null) {
+						b.push(List.fromString(line));
+						b.dump(block);
+						b.eval();
+						b.clear();
+					}
+				}
+			}
+		});
+		
+		addInstruction(new NamedOperator("fstream.chunks", "id::num n::num block::block: run the block on each list of n lines of an input stream, the last list may be shorter") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final StaticBlock block = asBlock(this, blockEvaluator.pop());
+				final int n = Math.max(1, asCount(this, blockEvaluator.pop()));
+				final Obj id = blockEvaluator.pop();
+				final BlockEvaluator b = blockEvaluator.getContext().createEvaluator();
+				try (LineReadahead lines = asLines(this, id)) {
+					String line = nextLine(this, id, lines);
+					while (line != null) {
+						ArrayList<Obj> chunk = new ArrayList<Obj>(n);
+						while (line != null && chunk.size() < n) {
+							chunk.add(List.fromString(line));
+							line = nextLine(this, id, lines);
+						}
+						b.push(new List(chunk));
+						b.dump(block);
+						b.eval();
+						b.clear();
+					}
+				}
+			}
+		});
+		
+		addInstruction(new NamedOperator("fstream.fold", "id::num init::any block::block: fold the lines of an input stream, the block takes the accumulator and the line") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final StaticBlock block = asBlock(this, blockEvaluator.pop());
+				Obj acc = blockEvaluator.pop();
+				final Obj id = blockEvaluator.pop();
+				final BlockEvaluator b = blockEvaluator.getContext().createEvaluator();
+				try (LineReadahead lines = asLines(this, id)) {
+					String line;
+					while ((line = nextLine(this, id, lines)) != null) {
+						b.push(acc);
+						b.push(List.fromString(line));
+						b.dump(block);
+						b.eval();
+						if (b.stackEmpty()) {
+							throw new ValueError(getName() + ": the block must leave the accumulator on the stack");
+						}
+						acc = b.pop();
+						b.clear();
+					}
+				}
+				blockEvaluator.push(acc);
+			}
+		});
+		
+		//
+		// Binary Streams
+		//
+		
+		addInstruction(new NamedOperator("fstream.open", "filename::str mode::str: open a file (r w a rb wb mmap), returns the stream id or 0 if the file could not be opened") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final String mode = blockEvaluator.pop().str();
+				final String filename = blockEvaluator.pop().str();
+				blockEvaluator.push(Num.fromInt(FStreamManager.open(filename, mode)));
+			}
+		});
+		
+		addInstruction(new NamedOperator("fstream.read", "id::num n::num: read up to n bytes from the current position of a binary stream") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final int n = asCount(this, blockEvaluator.pop());
+				final BinaryStream b = asBinary(this, blockEvaluator.pop());
+				final List out = read(this, b, b.position(), n, Format.BYTE);
+				b.seek(b.position() + out.length());
+				blockEvaluator.push(out);
+			}
+		});
+		
+		addInstruction(new NamedOperator("fstream.write", "id::num bytes::list: write bytes at the current position of a binary stream") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final double[] bytes = asDoubles(this, blockEvaluator.pop());
+				final BinaryStream b = asWritable(this, blockEvaluator.pop());
+				write(this, b, b.position(), bytes, Format.BYTE);
+				b.seek(b.position() + bytes.length);
+			}
+		});
+		
+		addInstruction(new NamedOperator("fstream.readat", "id::num pos::num n::num: read up to n bytes starting at pos, the stream position is not changed") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final int n = asCount(this, blockEvaluator.pop());
+				final long pos = asPosition(this, blockEvaluator.pop());
+				blockEvaluator.push(read(this, asBinary(this, blockEvaluator.pop()), pos, n, Format.BYTE));
+			}
+		});
+		
+		addInstruction(new NamedOperator("fstream.writeat", "id::num pos::num bytes::list: write bytes starting at pos, the stream position is not changed") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final double[] bytes = asDoubles(this, blockEvaluator.pop());
+				final long pos = asPosition(this, blockEvaluator.pop());
+				write(this, asWritable(this, blockEvaluator.pop()), pos, bytes, Format.BYTE);
+			}
+		});
+		
+		addInstruction(new NamedOperator("fstream.decode", "id::num pos::num count::num format::str: read up to count numbers starting at pos. format is i8 u8 i16 u16 i32 u32 i64 f32 or f64 with an optional le (default) or be suffix") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Format fmt = asFormat(this, blockEvaluator.pop());
+				final int count = asCount(this, blockEvaluator.pop());
+				final long pos = asPosition(this, blockEvaluator.pop());
+				blockEvaluator.push(read(this, asBinary(this, blockEvaluator.pop()), pos, count, fmt));
+			}
+		});
+		
+		addInstruction(new NamedOperator("fstream.encode", "id::num pos::num numbers::list format::str: write numbers starting at pos using the format (see fstream.decode)") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Format fmt = asFormat(this, blockEvaluator.pop());
+				final Obj numbers = blockEvaluator.pop();
+				final long pos = asPosition(this, blockEvaluator.pop());
+				final BinaryStream b = asWritable(this, blockEvaluator.pop());
+				if (fmt.isLong()) {
+					writeLongs(this, b, pos, asLongs(this, numbers), fmt);
+				} else {
+					write(this, b, pos, asDoubles(this, numbers), fmt);
+				}
+			}
+		});
+		
+		addInstruction(new NamedOperator("fstream.seek", "id::num pos::num: set the position of a binary stream") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final long pos = asPosition(this, blockEvaluator.pop());
+				asBinary(this, blockEvaluator.pop()).seek(pos);
+			}
+		});
+		
+		addInstruction(new NamedOperator("fstream.tell", "id::num: the position of a binary stream") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				blockEvaluator.push(new Num(asBinary(this, blockEvaluator.pop()).position()));
+			}
+		});
+		
+		addInstruction(new NamedOperator("fstream.size", "id::num: the size of the file of a binary stream in bytes") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final BinaryStream b = asBinary(this, blockEvaluator.pop());
+				try {
+					blockEvaluator.push(new Num(b.size()));
+				} catch (IOException e) {
+					throw new IOError("{fstream.size}", b.getPath(), e);
+				}
+			}
+		});
+		
 		//
 		// Utility Instructions
 		//
@@ -18,9 +18,11 @@ public class FStreamManager {
 	
 	public static int INFO_INPUT = 1;
 	public static int INFO_OUTPUT = 2;
+	public static int INFO_BINARY = 3;
 	
 	private static HashMap<Integer, BufferedReader> _input_streams = new HashMap<Integer, BufferedReader>();
 	private static HashMap<Integer, PrintWriter> _output_streams = new HashMap<Integer, PrintWriter>();
+	private static HashMap<Integer, BinaryStream> _binary_streams = new HashMap<Integer, BinaryStream>();
 	private static int _currentIndex = 10;
 	
 	public static final int STDIN = 1;
@@ -41,11 +43,26 @@ public class FStreamManager {
 		case "a":
 			// Write: append
 			return open_w(filename, 'a');
+		case "rb":
+		case "wb":
+		case "mmap":
+			return open_b(filename, type);
 		default:
 			return NO_FILE;
 		}
 	}
 	
+	private static int open_b(String filename, String type) {
+		try {
+			BinaryStream b = BinaryStream.open(FileUtils.resolveFile(filename), type);
+			_currentIndex++;
+			_binary_streams.put(_currentIndex, b);
+			return _currentIndex;
+		} catch (IOException e) {
+			return NO_FILE;
+		}
+	}
+	
 	private static int open_r(String filename) {
 		BufferedReader f = null;
 		boolean valid = false;
@@ -108,6 +125,15 @@ public class FStreamManager {
 			_output_streams.get(fileid).close();
 			_output_streams.remove(fileid);
 			success = true;
+		} else if (_binary_streams.containsKey(fileid)) {
+			try {
+				_binary_streams.get(fileid).close();
+				success = true;
+			} catch (IOException e) {
+				success = false;
+			} finally {
+				_binary_streams.remove(fileid);
+			}
 		}
 		
 		return success;
@@ -148,6 +174,19 @@ public class FStreamManager {
 		return f.lines().collect(Collectors.joining("\n"));
 	}
 	
+	/** Read the lines of an input stream on a background thread
+	 *  Returns null if invalid file */
+	public static LineReadahead readahead(int fileid) {
+		BufferedReader f = _input_streams.get(fileid);
+		if (f == null) return null;
+		return new LineReadahead(f);
+	}
+	
+	/** Returns null if the file is not open in a binary mode */
+	public static BinaryStream getBinary(int fileid) {
+		return _binary_streams.get(fileid);
+	}
+	
 	
 	/////////////
 	// WRITING //
@@ -216,12 +255,14 @@ public class FStreamManager {
 	 * 0: No stream or closed
 	 * 1: input
 	 * 2: output
+	 * 3: binary (rb, wb or mmap)
 	 * @param fileid
 	 * @return
 	 */
 	public static int info(int fileid) {
 		if (_input_streams.containsKey(fileid)) return INFO_INPUT;
 		if (_output_streams.containsKey(fileid)) return INFO_OUTPUT;
+		if (_binary_streams.containsKey(fileid)) return INFO_BINARY;
 		return NO_FILE;
 	}
 	
@@ -62,7 +62,7 @@ public class LegacyFStreamInstruction extends NamedOperator {
 				blockEvaluator.push(FStreamManager.flush(i) ? Num.ONE : Num.ZERO);
 				break;
 			case 'i':
-				// Info 0:does not exist, 1:input, 2:output
+				// Info 0:does not exist, 1:input, 2:output, 3:binary
 				blockEvaluator.push(Num.fromInt(FStreamManager.info(i)));
 				break;
 			default:
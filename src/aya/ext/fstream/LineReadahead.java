@@ -0,0 +1,114 @@
+package aya.ext.fstream;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads the lines of an input stream on a background thread
+ *
+ * Lines are handed to the reading thread in batches through a bounded queue,
+ * so no more than QUEUE_BATCHES * BATCH_SIZE lines are held in memory no
+ * matter how large the file is. The reader must be closed when done, the
+ * stream is left at an unspecified position if it is closed early.
+ */
+public class LineReadahead implements Closeable {
+
+	/** Number of batches the background thread may read ahead, may be set using -Daya.fstream.readahead=N */
+	public static int QUEUE_BATCHES = Math.max(1, Integer.getInteger("aya.fstream.readahead", 16));
+	private static final int BATCH_SIZE = 256;
+	private static final String[] END = new String[0];
+
+	private static final AtomicInteger _thread_counter = new AtomicInteger(0);
+
+	private final BlockingQueue<String[]> _queue;
+	private final Thread _thread;
+	private volatile boolean _closed;
+	private volatile IOException _error;
+
+	private String[] _batch;
+	private int _index;
+
+	public LineReadahead(BufferedReader reader) {
+		_queue = new ArrayBlockingQueue<String[]>(QUEUE_BATCHES);
+		_closed = false;
+		_error = null;
+		_batch = null;
+		_index = 0;
+		_thread = new Thread(() -> run(reader), "aya-readahead-" + _thread_counter.incrementAndGet());
+		_thread.setDaemon(true);
+		_thread.start();
+	}
+
+	private void run(BufferedReader reader) {
+		try {
+			String[] batch = new String[BATCH_SIZE];
+			int n = 0;
+			String line;
+			while (!_closed && (line = reader.readLine()) != null) {
+				batch[n++] = line;
+				if (n == BATCH_SIZE) {
+					_queue.put(batch);
+					batch = new String[BATCH_SIZE];
+					n = 0;
+				}
+			}
+			if (n > 0 && !_closed) {
+				_queue.put(Arrays.copyOf(batch, n));
+			}
+		} catch (IOException e) {
+			_error = e;
+		} catch (InterruptedException e) {
+			// Closed by the reading thread
+			return;
+		}
+
+		try {
+			if (!_closed) _queue.put(END);
+		} catch (InterruptedException e) {
+			// Closed by the reading thread
+		}
+	}
+
+	/** Returns the next line or null at the end of the stream */
+	public String next() throws IOException {
+		if (_index == (_batch == null ? 0 : _batch.length)) {
+			if (_batch == END) return null;
+			try {
+				_batch = _queue.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for the next line");
+			}
+			_index = 0;
+			if (_batch == END) {
+				if (_error != null) throw _error;
+				return null;
+			}
+		}
+		return _batch[_index++];
+	}
+
+	/** Stop the background thread and wait until it no longer uses the stream */
+	@Override
+	public void close() {
+		if (_closed) return;
+		_closed = true;
+		_thread.interrupt();
+		_queue.clear();
+		boolean interrupted = false;
+		while (_thread.isAlive()) {
+			try {
+				_thread.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) Thread.currentThread().interrupt();
+	}
+}
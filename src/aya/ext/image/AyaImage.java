@@ -1,18 +1,20 @@
 package aya.ext.image;
 
-import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
 import java.awt.image.BufferedImage;
-import java.awt.image.ComponentSampleModel;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
 import java.awt.image.DataBuffer;
 import java.awt.image.DataBufferByte;
-import java.awt.image.DataBufferInt;
 import java.awt.image.Raster;
-import java.awt.image.SampleModel;
 import java.awt.image.WritableRaster;
 
 import aya.exceptions.runtime.ValueError;
 import aya.obj.dict.Dict;
 import aya.obj.list.List;
+import aya.obj.list.numberlist.ByteList;
 import aya.obj.list.numberlist.NumberList;
 import aya.obj.number.Num;
 import aya.obj.symbol.Symbol;
@@ -51,55 +53,59 @@ public class AyaImage {
 		return d;
 	}
 	
+	/** The returned image shares the pixel array if the data is a ByteList */
 	public BufferedImage toBufferedImage() {
 		if (bytes.length() != (width * height * 3)) {
 			throw new ValueError("Error when reading image data. Data is invalid length. Must be width*height*3");
 		}
 		
-		byte[] raw = bytes.toByteArray();
+		byte[] raw = bytes instanceof ByteList ? ((ByteList)bytes).internalArray() : bytes.toByteArray();
 
+		// Same layout as TYPE_3BYTE_BGR, the raster is used directly instead of being copied into a new image
 		DataBuffer buffer = new DataBufferByte(raw, raw.length);
-		SampleModel sampleModel = new ComponentSampleModel(DataBuffer.TYPE_BYTE, width, height, 3, width*3, new int[]{2,1,0});
-		Raster raster = Raster.createRaster(sampleModel, buffer, null);
-		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
-		image.setData(raster);
-		
-		return image;
+		WritableRaster raster = Raster.createInterleavedRaster(buffer, width, height, width*3, 3, new int[]{2,1,0}, null);
+		ColorModel colorModel = new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_sRGB),
+				new int[]{8,8,8}, false, false, Transparency.OPAQUE, DataBuffer.TYPE_BYTE);
+		return new BufferedImage(colorModel, raster, false, null);
 	}
 	
+	/**
+	 * Pixels are stored as unsigned bytes in BGR order. The pixel array of a
+	 * TYPE_3BYTE_BGR image is used without copying, other images are converted
+	 */
 	public static AyaImage fromBufferedImage(BufferedImage buf) {
-		// get DataBufferBytes from Raster
-		WritableRaster raster = buf.getRaster();
-		DataBuffer databuf = raster.getDataBuffer();
-		int type = databuf.getDataType();
-		
-		if (type == DataBuffer.TYPE_BYTE) {
-			DataBufferByte data   = (DataBufferByte) raster.getDataBuffer();
+		final int w = buf.getWidth();
+		final int h = buf.getHeight();
+		final WritableRaster raster = buf.getRaster();
+		final DataBuffer databuf = raster.getDataBuffer();
 		
-			return new AyaImage(
-				NumberList.fromBytes(data.getData()),
-				buf.getWidth(),
-				buf.getHeight());
-		} else if (type == DataBuffer.TYPE_INT) {
-			DataBufferInt data   = (DataBufferInt) raster.getDataBuffer();
-			
-			int[] pixels = data.getData();
-			byte[] bytes = new byte[data.getSize() * 3];
-			
-			for (int i = 0; i < data.getSize(); i++) {
-				int byte_index = i * 3;
-				final Color c = new Color(pixels[i]);
-				bytes[byte_index + 0] = (byte)(c.getRed());
-				bytes[byte_index + 1] = (byte)(c.getBlue());
-				bytes[byte_index + 2] = (byte)(c.getGreen());
+		if (buf.getType() == BufferedImage.TYPE_3BYTE_BGR
+				&& databuf.getNumBanks() == 1 && databuf.getOffset() == 0 && databuf.getSize() == w * h * 3
+				&& raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0) {
+			return new AyaImage(new ByteList(((DataBufferByte)databuf).getData()), w, h);
+		} else if (buf.getType() == BufferedImage.TYPE_INT_RGB || buf.getType() == BufferedImage.TYPE_INT_ARGB) {
+			// Unpack 0xAARRGGBB one row at a time, the alpha channel is dropped
+			// (getDataElements does not disable the acceleration of the image like DataBufferInt.getData)
+			final int[] row = new int[w];
+			final byte[] out = new byte[w * h * 3];
+			int j = 0;
+			for (int y = 0; y < h; y++) {
+				raster.getDataElements(0, y, w, 1, row);
+				for (int x = 0; x < w; x++) {
+					final int p = row[x];
+					out[j++] = (byte)p;
+					out[j++] = (byte)(p >> 8);
+					out[j++] = (byte)(p >> 16);
+				}
 			}
-				
-			return new AyaImage(
-				NumberList.fromBytes(bytes),
-				buf.getWidth(),
-				buf.getHeight());
+			return new AyaImage(new ByteList(out), w, h);
 		} else {
-			throw new ValueError("Image buffer type not supported");
+			// Gray, indexed, alpha, ...
+			BufferedImage bgr = new BufferedImage(w, h, BufferedImage.TYPE_3BYTE_BGR);
+			Graphics2D g = bgr.createGraphics();
+			g.drawImage(buf, 0, 0, null);
+			g.dispose();
+			return fromBufferedImage(bgr);
 		}
 	}
 	
@@ -46,6 +46,9 @@ public class ReadImageInstruction extends NamedOperator {
 		// open image
 		File imgFile = FileUtils.resolveFile(imageName);
 		BufferedImage bufferedImage = ImageIO.read(imgFile);
+		if (bufferedImage == null) {
+			throw new IOException("Unsupported image format");
+		}
 		return AyaImage.fromBufferedImage(bufferedImage);
 	}		
 
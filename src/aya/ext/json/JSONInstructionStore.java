@@ -9,5 +9,6 @@ public class JSONInstructionStore extends NamedInstructionStore {
 		// JSON
 		addInstruction(new ToJSONInstruction());
 		addInstruction(new LoadJSONInstruction());
+		addInstruction(new StreamJSONInstruction());
 	}
 }
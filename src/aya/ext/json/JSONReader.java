@@ -0,0 +1,471 @@
+package aya.ext.json;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import aya.exceptions.runtime.ValueError;
+import aya.ext.json.JSONUtils.JSONParams;
+import aya.obj.Obj;
+import aya.obj.dict.Dict;
+import aya.obj.list.List;
+import aya.obj.list.numberlist.DoubleList;
+import aya.obj.number.BigNum;
+import aya.obj.number.Num;
+import aya.obj.symbol.Symbol;
+import aya.obj.symbol.SymbolTable;
+
+/**
+ * A single pass JSON parser which builds aya objects directly
+ *
+ * Characters are pulled from a Reader through a fixed size buffer, so a file
+ * never has to be held in memory as a string. Objects become Dict, strings
+ * become Str and arrays of numbers are parsed straight into a DoubleList.
+ * Object keys are interned through a small cache so repeated keys do not
+ * allocate a String or look up the symbol table again.
+ *
+ * Several values may follow each other in the input (for example newline
+ * delimited JSON), use hasNext and next to read them one at a time.
+ */
+public class JSONReader {
+
+	private static final int BUFFER_SIZE = 8192;
+	/** Number of slots in the key cache, must be a power of 2 */
+	private static final int KEY_CACHE_SIZE = 256;
+	private static final double[] POW10 = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+		1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	private final Reader _in;
+	private final JSONParams _params;
+	private final char[] _buf;
+	private int _pos;
+	private int _len;
+	private long _consumed;
+	private int _line;
+
+	// Scratch space for strings and numbers
+	private char[] _chars;
+	// Set by readNumber if the number is an integer a double can not represent exactly
+	private BigNum _bigInt;
+
+	private final char[][] _keyChars;
+	private final Symbol[] _keySyms;
+
+	public JSONReader(Reader in, JSONParams params) {
+		_in = in;
+		_params = params;
+		_buf = new char[BUFFER_SIZE];
+		_pos = 0;
+		_len = 0;
+		_consumed = 0;
+		_line = 1;
+		_chars = new char[64];
+		_keyChars = new char[KEY_CACHE_SIZE][];
+		_keySyms = new Symbol[KEY_CACHE_SIZE];
+	}
+
+	public JSONReader(String str, JSONParams params) {
+		this(new StringReader(str), params);
+	}
+
+	/** Parse a string containing exactly one value */
+	public static Obj parse(String str, JSONParams params) {
+		try {
+			JSONReader reader = new JSONReader(str, params);
+			Obj out = reader.next();
+			if (reader.hasNext()) {
+				throw reader.error("Unexpected data after the end of the value");
+			}
+			return out;
+		} catch (IOException e) {
+			// A StringReader does not throw
+			throw new ValueError(e.getMessage());
+		}
+	}
+
+	/** Returns false if there is nothing but whitespace left in the input */
+	public boolean hasNext() throws IOException {
+		return skipWhitespace() >= 0;
+	}
+
+	/** Read the next value */
+	public Obj next() throws IOException {
+		final int c = skipWhitespace();
+		if (c < 0) throw error("Unexpected end of input");
+		return readValue(c);
+	}
+
+
+	////////////
+	// VALUES //
+	////////////
+
+	/** c is the next character, it has not been consumed yet */
+	private Obj readValue(int c) throws IOException {
+		switch (c) {
+		case '{':
+			return readObject();
+		case '[':
+			return readArray();
+		case '"':
+			return toStr(readString());
+		case 't':
+			expect("true");
+			return _params.obj_true;
+		case 'f':
+			expect("false");
+			return _params.obj_false;
+		case 'n':
+			expect("null");
+			return _params.obj_null;
+		default:
+			if (c == '-' || isDigit(c)) {
+				final double d = readNumber();
+				return _bigInt == null ? Num.valueOf(d) : _bigInt;
+			}
+			throw error("Unexpected character '" + (char)c + "'");
+		}
+	}
+
+	private Dict readObject() throws IOException {
+		_pos++; // {
+		final Dict d = new Dict();
+		int c = skipWhitespace();
+		if (c == '}') {
+			_pos++;
+			return d;
+		}
+		while (true) {
+			if (c != '"') throw error("Expected a key");
+			final Symbol key = toKey(readString());
+			if (skipWhitespace() != ':') throw error("Expected ':'");
+			_pos++;
+			c = skipWhitespace();
+			if (c < 0) throw error("Unexpected end of input");
+			d.set(key, readValue(c));
+
+			c = skipWhitespace();
+			if (c == ',') {
+				_pos++;
+				c = skipWhitespace();
+			} else if (c == '}') {
+				_pos++;
+				return d;
+			} else {
+				throw error("Expected ',' or '}'");
+			}
+		}
+	}
+
+	private List readArray() throws IOException {
+		_pos++; // [
+		int c = skipWhitespace();
+		if (c == ']') {
+			_pos++;
+			return new List(new ArrayList<Obj>());
+		}
+
+		// Numbers are collected in an array until the first item that is not a number or a BigNum
+		double[] nums = new double[16];
+		int n = 0;
+		ArrayList<Obj> objs = null;
+		while (true) {
+			if (c < 0) throw error("Unexpected end of input");
+			Obj o = null;
+			if (objs == null && (c == '-' || isDigit(c))) {
+				final double d = readNumber();
+				if (_bigInt == null) {
+					if (n == nums.length) nums = Arrays.copyOf(nums, n * 2);
+					nums[n++] = d;
+				} else {
+					o = _bigInt;
+				}
+			} else {
+				o = readValue(c);
+			}
+			if (o != null) {
+				if (objs == null) {
+					objs = new ArrayList<Obj>(Math.max(16, n * 2));
+					for (int i = 0; i < n; i++) objs.add(Num.valueOf(nums[i]));
+					nums = null;
+				}
+				objs.add(o);
+			}
+
+			c = skipWhitespace();
+			if (c == ',') {
+				_pos++;
+				c = skipWhitespace();
+			} else if (c == ']') {
+				_pos++;
+				break;
+			} else {
+				throw error("Expected ',' or ']'");
+			}
+		}
+
+		if (objs == null) {
+			// Only copy if a large part of the array is unused
+			return new List(n * 4 >= nums.length * 3 ? new DoubleList(nums, n) : new DoubleList(Arrays.copyOf(nums, n)));
+		} else {
+			return new List(objs);
+		}
+	}
+
+	private Obj toStr(int n) {
+		final String str = new String(_chars, 0, n);
+		if (_params.parse_symbol && str.startsWith("::")) {
+			final String name = str.substring(2);
+			if (SymbolTable.isBasicSymbolString(name)) {
+				return SymbolTable.getSymbol(name);
+			}
+		}
+		return List.fromString(str);
+	}
+
+	/** Look up the key in _chars[0..n) */
+	private Symbol toKey(int n) {
+		int h = 0;
+		for (int i = 0; i < n; i++) h = 31 * h + _chars[i];
+		final int slot = (h ^ (h >>> 16)) & (KEY_CACHE_SIZE - 1);
+
+		final char[] cached = _keyChars[slot];
+		if (cached != null && cached.length == n) {
+			int i = 0;
+			while (i < n && cached[i] == _chars[i]) i++;
+			if (i == n) return _keySyms[slot];
+		}
+
+		final Symbol sym = SymbolTable.getSymbol(new String(_chars, 0, n));
+		_keyChars[slot] = Arrays.copyOf(_chars, n);
+		_keySyms[slot] = sym;
+		return sym;
+	}
+
+
+	/////////////
+	// STRINGS //
+	/////////////
+
+	/** Read a string into _chars, returns the length */
+	private int readString() throws IOException {
+		_pos++; // "
+		int n = 0;
+		while (true) {
+			if (_pos == _len && !fill()) throw error("Unterminated string");
+
+			// Copy characters up to the next quote or escape at once
+			final int start = _pos;
+			while (_pos < _len) {
+				final char ch = _buf[_pos];
+				if (ch == '"' || ch == '\\') break;
+				_pos++;
+			}
+			final int run = _pos - start;
+			if (run > 0) {
+				ensureChars(n + run);
+				System.arraycopy(_buf, start, _chars, n, run);
+				n += run;
+			}
+			if (_pos == _len) continue;
+
+			if (_buf[_pos++] == '"') return n;
+
+			final int e = readChar();
+			final char ch;
+			switch (e) {
+			case '"':  ch = '"'; break;
+			case '\\': ch = '\\'; break;
+			case '/':  ch = '/'; break;
+			case 'b':  ch = '\b'; break;
+			case 'f':  ch = '\f'; break;
+			case 'n':  ch = '\n'; break;
+			case 'r':  ch = '\r'; break;
+			case 't':  ch = '\t'; break;
+			case 'u':  ch = readHex(); break;
+			case -1:   throw error("Unterminated string");
+			default:   throw error("Invalid escape '\\" + (char)e + "'");
+			}
+			ensureChars(n + 1);
+			_chars[n++] = ch;
+		}
+	}
+
+	private char readHex() throws IOException {
+		int v = 0;
+		for (int i = 0; i < 4; i++) {
+			final int c = readChar();
+			final int d = Character.digit(c, 16);
+			if (c < 0 || d < 0) throw error("Invalid unicode escape");
+			v = v * 16 + d;
+		}
+		return (char)v;
+	}
+
+
+	/////////////
+	// NUMBERS //
+	/////////////
+
+	/**
+	 * Numbers with at most 18 significant digits and a small exponent are
+	 * computed from the digits, the result is exact since both operands are
+	 * exactly representable. Others are parsed by Double.parseDouble, except
+	 * for integers beyond 2^53 which are stored in _bigInt as a BigNum
+	 */
+	private double readNumber() throws IOException {
+		int n = 0;
+		long mant = 0;
+		int digits = 0;
+		int exp10 = 0;
+		boolean exact = true;
+		boolean integer = true;
+		_bigInt = null;
+
+		int c = peekChar();
+		final boolean neg = c == '-';
+		if (neg) {
+			n = append(n, c);
+			c = nextChar();
+		}
+		if (!isDigit(c)) throw error("Invalid number");
+		if (c == '0') {
+			n = append(n, c);
+			c = nextChar();
+			if (isDigit(c)) throw error("Invalid number, leading zeros are not allowed");
+		}
+		while (isDigit(c)) {
+			n = append(n, c);
+			if (digits < 18) {
+				mant = mant * 10 + (c - '0');
+				if (mant != 0) digits++;
+			} else {
+				exact = false;
+			}
+			c = nextChar();
+		}
+		if (c == '.') {
+			integer = false;
+			n = append(n, c);
+			c = nextChar();
+			if (!isDigit(c)) throw error("Invalid number");
+			while (isDigit(c)) {
+				n = append(n, c);
+				if (digits < 18) {
+					mant = mant * 10 + (c - '0');
+					if (mant != 0) digits++;
+					exp10--;
+				} else {
+					exact = false;
+				}
+				c = nextChar();
+			}
+		}
+		if (c == 'e' || c == 'E') {
+			integer = false;
+			n = append(n, c);
+			c = nextChar();
+			int sign = 1;
+			if (c == '+' || c == '-') {
+				n = append(n, c);
+				if (c == '-') sign = -1;
+				c = nextChar();
+			}
+			if (!isDigit(c)) throw error("Invalid number");
+			int e = 0;
+			while (isDigit(c)) {
+				n = append(n, c);
+				if (e < 100000) e = e * 10 + (c - '0');
+				c = nextChar();
+			}
+			exp10 += sign * e;
+		}
+
+		if (integer && (!exact || mant > (1L << 53))) {
+			_bigInt = new BigNum(new BigInteger(new String(_chars, 0, n)));
+			return 0;
+		} else if (exact && mant < (1L << 53) && exp10 >= -22 && exp10 <= 22) {
+			final double d = exp10 >= 0 ? mant * POW10[exp10] : mant / POW10[-exp10];
+			return neg ? -d : d;
+		} else {
+			return Double.parseDouble(new String(_chars, 0, n));
+		}
+	}
+
+	private int append(int n, int c) {
+		ensureChars(n + 1);
+		_chars[n] = (char)c;
+		return n + 1;
+	}
+
+	private static boolean isDigit(int c) {
+		return c >= '0' && c <= '9';
+	}
+
+
+	///////////
+	// INPUT //
+	///////////
+
+	private void ensureChars(int n) {
+		if (n > _chars.length) {
+			_chars = Arrays.copyOf(_chars, Math.max(n, _chars.length * 2));
+		}
+	}
+
+	private boolean fill() throws IOException {
+		_consumed += _len;
+		_pos = 0;
+		_len = Math.max(0, _in.read(_buf, 0, BUFFER_SIZE));
+		return _len > 0;
+	}
+
+	/** The next character without consuming it or -1 at the end of the input */
+	private int peekChar() throws IOException {
+		if (_pos == _len && !fill()) return -1;
+		return _buf[_pos];
+	}
+
+	/** Consume the current character and return the one after it */
+	private int nextChar() throws IOException {
+		_pos++;
+		return peekChar();
+	}
+
+	/** Consume and return the next character */
+	private int readChar() throws IOException {
+		if (_pos == _len && !fill()) return -1;
+		return _buf[_pos++];
+	}
+
+	/** Returns the next character that is not whitespace without consuming it */
+	private int skipWhitespace() throws IOException {
+		while (true) {
+			if (_pos == _len && !fill()) return -1;
+			final char c = _buf[_pos];
+			if (c == '\n') {
+				_line++;
+			} else if (c != ' ' && c != '\t' && c != '\r') {
+				return c;
+			}
+			_pos++;
+		}
+	}
+
+	private void expect(String word) throws IOException {
+		for (int i = 0; i < word.length(); i++) {
+			if (readChar() != word.charAt(i)) {
+				throw error("Invalid literal, expected '" + word + "'");
+			}
+		}
+	}
+
+	ValueError error(String message) {
+		return new ValueError("JSON: " + message + " at line " + _line + " (character " + (_consumed + _pos) + ")");
+	}
+}
@@ -1,7 +1,8 @@
 package aya.ext.json;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Set;
 
 import org.json.JSONArray;
@@ -59,16 +60,17 @@ public class JSONUtils {
 			return default_decode;
 		}
 
-		private Obj obj_null;
-		private Obj obj_true;
-		private Obj obj_false;
-		private boolean parse_symbol;
+		Obj obj_null;
+		Obj obj_true;
+		Obj obj_false;
+		boolean parse_symbol;
 	}
 	
 	private static class VisitedChecker {
 		private Set<Obj> _visited;
 		public VisitedChecker() {
-			_visited = new HashSet<Obj>();
+			// By identity: only the same container visited twice is a cycle
+			_visited = Collections.newSetFromMap(new IdentityHashMap<Obj, Boolean>());
 		}
 		public void push(Obj o) {
 			// Only add container types
@@ -203,13 +205,7 @@ public class JSONUtils {
 	}
 	
 	public static Obj decodeJSON(String s, JSONParams params) {
-		try {
-			return toObj(readJSON(s), params);
-		} catch (JSONException e) {
-			throw new ValueError(e.getLocalizedMessage());
-		} catch (AyaException e) {
-			throw new ValueError(e.getMessage());
-		}
+		return JSONReader.parse(s, params);
 	}
 
 	public static Obj decodeXML(String s, JSONParams params) {
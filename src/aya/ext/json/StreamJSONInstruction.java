@@ -0,0 +1,50 @@
+package aya.ext.json;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+import aya.eval.BlockEvaluator;
+import aya.exceptions.runtime.IOError;
+import aya.exceptions.runtime.TypeError;
+import aya.instruction.named.NamedOperator;
+import aya.obj.Obj;
+import aya.obj.block.StaticBlock;
+import aya.util.Casting;
+import aya.util.FileUtils;
+
+public class StreamJSONInstruction extends NamedOperator {
+	
+	public StreamJSONInstruction() {
+		super("json.stream");
+		_doc = "filename::str block::block: run the block on each value of a newline delimited JSON file, one value is held in memory at a time";
+	}
+
+	@Override
+	public void execute(BlockEvaluator blockEvaluator) {
+		final Obj a = blockEvaluator.pop();
+		final Obj b = blockEvaluator.pop();
+		
+		if (!a.isa(Obj.BLOCK) || !b.isa(Obj.STR)) {
+			throw new TypeError(this, "::str ::block", b, a);
+		}
+		
+		final StaticBlock block = Casting.asStaticBlock(a);
+		final String path = b.str();
+		final BlockEvaluator eval = blockEvaluator.getContext().createEvaluator();
+		try (Reader in = new InputStreamReader(new FileInputStream(FileUtils.resolveFile(path)), StandardCharsets.UTF_8)) {
+			JSONReader reader = new JSONReader(in, JSONUtils.JSONParams.getDefaultDecode());
+			while (reader.hasNext()) {
+				eval.push(reader.next());
+				eval.dump(block);
+				eval.eval();
+				eval.clear();
+			}
+		} catch (IOException e) {
+			throw new IOError("{json.stream}", path, e);
+		}
+	}
+
+}
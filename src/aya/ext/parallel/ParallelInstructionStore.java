@@ -0,0 +1,46 @@
+package aya.ext.parallel;
+
+import aya.eval.BlockEvaluator;
+import aya.exceptions.runtime.TypeError;
+import aya.instruction.named.NamedInstructionStore;
+import aya.instruction.named.NamedOperator;
+import aya.obj.Obj;
+import aya.obj.list.ListIterationFunctions;
+import aya.util.Casting;
+
+public class ParallelInstructionStore extends NamedInstructionStore {
+	
+	@Override
+	protected void init() {
+		
+		addInstruction(new NamedOperator("par.map", "list::list fn::block: map fn to the list using all cores, fn can not access global variables") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Obj block = blockEvaluator.pop();
+				final Obj list = blockEvaluator.pop();
+				
+				if (list.isa(Obj.LIST) && block.isa(Obj.BLOCK)) {
+					blockEvaluator.push(ListIterationFunctions.parallelMap(blockEvaluator.getContext(),
+							Casting.asList(list), Casting.asStaticBlock(block)));
+				} else {
+					throw new TypeError(this, "LB", block, list);
+				}
+			}
+		});
+
+		addInstruction(new NamedOperator("par.filter", "list::list fn::block: filter the list using all cores, fn can not access global variables") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Obj block = blockEvaluator.pop();
+				final Obj list = blockEvaluator.pop();
+				
+				if (list.isa(Obj.LIST) && block.isa(Obj.BLOCK)) {
+					blockEvaluator.push(ListIterationFunctions.parallelFilter(blockEvaluator.getContext(),
+							Casting.asList(list), Casting.asStaticBlock(block)));
+				} else {
+					throw new TypeError(this, "LB", block, list);
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,85 @@
+package aya.ext.socket;
+
+import aya.eval.BlockEvaluator;
+import aya.exceptions.runtime.TypeError;
+import aya.instruction.named.NamedOperator;
+import aya.obj.Obj;
+import aya.obj.block.StaticBlock;
+import aya.obj.dict.Dict;
+import aya.obj.list.List;
+import aya.obj.number.Num;
+import aya.obj.symbol.Symbol;
+import aya.util.Casting;
+import aya.util.Sym;
+
+/**
+ * Passes the events of a NioSocketServer to the blocks of a handler dict
+ *
+ *   accept: {id, ...}        a connection was accepted
+ *   read:   {data id, ...}   data was received
+ *   write:  {id, ...}        buffered data has been written
+ *   close:  {id, ...}        the peer closed the connection
+ *
+ * Missing keys are ignored. All blocks are run on one evaluator and anything
+ * they leave on the stack is discarded.
+ */
+class NioBlockHandler implements NioSocketServer.Handler {
+
+	private static final Symbol ACCEPT = Sym.sym("accept");
+	private static final Symbol READ = Sym.sym("read");
+	private static final Symbol WRITE = Sym.sym("write");
+	private static final Symbol CLOSE = Sym.sym("close");
+
+	private final BlockEvaluator _eval;
+	private final StaticBlock _accept;
+	private final StaticBlock _read;
+	private final StaticBlock _write;
+	private final StaticBlock _close;
+
+	NioBlockHandler(NamedOperator op, BlockEvaluator eval, Dict handlers) {
+		_eval = eval;
+		_accept = getBlock(op, handlers, ACCEPT);
+		_read = getBlock(op, handlers, READ);
+		_write = getBlock(op, handlers, WRITE);
+		_close = getBlock(op, handlers, CLOSE);
+	}
+
+	private static StaticBlock getBlock(NamedOperator op, Dict handlers, Symbol key) {
+		final Obj o = handlers.getSafe(key);
+		if (o == null) {
+			return null;
+		} else if (o.isa(Obj.BLOCK)) {
+			return Casting.asStaticBlock(o);
+		} else {
+			throw new TypeError(op, "::block", o);
+		}
+	}
+
+	private void run(StaticBlock block, Obj... args) {
+		if (block == null) return;
+		for (Obj arg : args) _eval.push(arg);
+		_eval.dump(block);
+		_eval.eval();
+		_eval.clear();
+	}
+
+	@Override
+	public void accept(NioConnection conn) {
+		run(_accept, Num.fromInt(conn.getId()));
+	}
+
+	@Override
+	public void read(NioConnection conn, String data) {
+		run(_read, List.fromString(data), Num.fromInt(conn.getId()));
+	}
+
+	@Override
+	public void writable(NioConnection conn) {
+		run(_write, Num.fromInt(conn.getId()));
+	}
+
+	@Override
+	public void close(NioConnection conn) {
+		run(_close, Num.fromInt(conn.getId()));
+	}
+}
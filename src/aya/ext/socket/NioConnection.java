@@ -0,0 +1,158 @@
+package aya.ext.socket;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+
+/**
+ * A connection accepted by a NioSocketServer
+ *
+ * Each connection owns a direct buffer for reading and one for writing. Sent
+ * data is only buffered, the server writes it once the current callback has
+ * returned so several sends are coalesced into a single write. Data which
+ * does not fit in the write buffer is queued until the socket is writable.
+ */
+public class NioConnection {
+
+	/** Size of the read and write buffers in bytes, may be set using -Daya.socket.buffer=N */
+	public static int BUFFER_SIZE = Math.max(64, Integer.getInteger("aya.socket.buffer", 16384));
+
+	private final NioSocketServer _server;
+	private final SocketChannel _channel;
+	private final InetSocketAddress _remote;
+	private final ByteBuffer _in;
+	private final ByteBuffer _out;
+	private final ArrayDeque<ByteBuffer> _overflow;
+	private final CharsetDecoder _decoder;
+	private final CharBuffer _chars;
+	private SelectionKey _key;
+	private boolean _closing;
+
+	NioConnection(NioSocketServer server, SocketChannel channel) throws IOException {
+		_server = server;
+		_channel = channel;
+		_remote = (InetSocketAddress)channel.getRemoteAddress();
+		_in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		_out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		_overflow = new ArrayDeque<ByteBuffer>();
+		_decoder = StandardCharsets.UTF_8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		_chars = CharBuffer.allocate(BUFFER_SIZE);
+		_closing = false;
+	}
+
+	void setKey(SelectionKey key) {
+		_key = key;
+	}
+
+	SelectionKey getKey() {
+		return _key;
+	}
+
+	SocketChannel getChannel() {
+		return _channel;
+	}
+
+	public int getId() {
+		return hashCode();
+	}
+
+	public InetAddress getAddr() {
+		return _remote.getAddress();
+	}
+
+	public int getPort() {
+		return _remote.getPort();
+	}
+
+	public boolean isOpen() {
+		return _channel.isOpen() && !_closing;
+	}
+
+	/** Buffer the data, it is written by the server after the current callback */
+	public void send(String data) {
+		if (!isOpen()) return;
+		final byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+		if (_overflow.isEmpty() && bytes.length <= _out.remaining()) {
+			_out.put(bytes);
+		} else {
+			_overflow.add(ByteBuffer.wrap(bytes));
+		}
+		_server.markPending(this);
+	}
+
+	/** Close the connection once all buffered data has been written */
+	public void close() {
+		if (_closing) return;
+		_closing = true;
+		_server.markPending(this);
+	}
+
+	boolean isClosing() {
+		return _closing;
+	}
+
+	boolean hasPendingOutput() {
+		return _out.position() > 0 || !_overflow.isEmpty();
+	}
+
+	/** Returns the decoded data or null if the peer closed the connection */
+	String read() throws IOException {
+		if (_channel.read(_in) < 0) return null;
+		_in.flip();
+		final StringBuilder sb = new StringBuilder();
+		CoderResult result;
+		do {
+			result = _decoder.decode(_in, _chars, false);
+			_chars.flip();
+			sb.append(_chars);
+			_chars.clear();
+		} while (result.isOverflow());
+		// Keep the bytes of an incomplete character for the next read
+		_in.compact();
+		return sb.toString();
+	}
+
+	/** Write as much buffered data as possible. Returns true if everything was written */
+	boolean flush() throws IOException {
+		_out.flip();
+		_channel.write(_out);
+		final boolean done = !_out.hasRemaining();
+		_out.compact();
+		if (!done) return false;
+
+		while (!_overflow.isEmpty()) {
+			final ByteBuffer next = _overflow.peek();
+			_channel.write(next);
+			if (next.hasRemaining()) return false;
+			_overflow.poll();
+		}
+		return true;
+	}
+
+	void closeChannel() {
+		_closing = true;
+		_overflow.clear();
+		if (_key != null) _key.cancel();
+		try {
+			_channel.close();
+		} catch (IOException e) {
+			// pass
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Connection(" + _remote.getAddress().getHostAddress() + ":" + _remote.getPort() + ")";
+	}
+}
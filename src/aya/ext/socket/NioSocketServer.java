@@ -0,0 +1,215 @@
+package aya.ext.socket;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * A non-blocking socket server
+ *
+ * All connections are served by one Selector on the thread that calls poll or
+ * serve. Accepted connections, received data, drained write buffers and
+ * connections closed by the peer are passed to a Handler. Data sent from a
+ * handler is buffered by the connection and written after the handler has
+ * returned (see NioConnection).
+ */
+public class NioSocketServer {
+
+	public interface Handler {
+		/** A new connection was accepted */
+		void accept(NioConnection conn);
+		/** Data was received on a connection */
+		void read(NioConnection conn, String data);
+		/** All data that could not be written immediately has been written */
+		void writable(NioConnection conn);
+		/** The connection was closed by the peer */
+		void close(NioConnection conn);
+	}
+
+	private final InetAddress _ip;
+	private final int _port;
+	private final Selector _selector;
+	private final ServerSocketChannel _channel;
+	private final HashMap<Integer, NioConnection> _connections;
+	private final ArrayList<NioConnection> _pending;
+	private volatile boolean _stopped;
+
+	NioSocketServer(String ip, int port, int backlog) throws IOException {
+		_ip = AyaSocket.resolveIP(ip);
+		_selector = Selector.open();
+		_channel = ServerSocketChannel.open();
+		try {
+			_channel.configureBlocking(false);
+			_channel.bind(new InetSocketAddress(_ip, port), backlog);
+			_channel.register(_selector, SelectionKey.OP_ACCEPT);
+		} catch (IOException e) {
+			_channel.close();
+			_selector.close();
+			throw e;
+		}
+		// Port 0 binds to any free port
+		_port = ((InetSocketAddress)_channel.getLocalAddress()).getPort();
+		_connections = new HashMap<Integer, NioConnection>();
+		_pending = new ArrayList<NioConnection>();
+		_stopped = false;
+	}
+
+	int getPort() {
+		return _port;
+	}
+
+	InetAddress getAddr() {
+		return _ip;
+	}
+
+	/** Returns null if the connection does not belong to this server */
+	NioConnection getConnection(int id) {
+		return _connections.get(id);
+	}
+
+	void markPending(NioConnection conn) {
+		if (!_pending.contains(conn)) _pending.add(conn);
+	}
+
+	/**
+	 * Wait for events and pass them to the handler
+	 * @param timeout time to wait in milliseconds, 0 to not wait at all, negative to wait until there is an event
+	 * @return the number of events
+	 */
+	public int poll(long timeout, Handler handler) throws IOException {
+		// Data may have been sent outside of a handler
+		flushPending();
+		if (timeout == 0) {
+			_selector.selectNow();
+		} else {
+			_selector.select(timeout < 0 ? 0 : timeout);
+		}
+
+		int events = 0;
+		try {
+			final Iterator<SelectionKey> it = _selector.selectedKeys().iterator();
+			while (it.hasNext()) {
+				final SelectionKey key = it.next();
+				it.remove();
+				if (!key.isValid()) continue;
+				events++;
+				if (key.isAcceptable()) {
+					acceptAll(handler);
+				} else {
+					final NioConnection conn = (NioConnection)key.attachment();
+					if (key.isWritable()) {
+						writeReady(conn, handler);
+					}
+					if (key.isValid() && key.isReadable()) {
+						readReady(conn, handler);
+					}
+				}
+			}
+		} finally {
+			flushPending();
+		}
+		return events;
+	}
+
+	/** Poll until stop is called or the server is closed */
+	public void serve(Handler handler) throws IOException {
+		_stopped = false;
+		while (!_stopped && _channel.isOpen()) {
+			poll(-1, handler);
+		}
+	}
+
+	/** Stop serve after the current event, may be called from any thread */
+	public void stop() {
+		_stopped = true;
+		_selector.wakeup();
+	}
+
+	private void acceptAll(Handler handler) throws IOException {
+		SocketChannel ch;
+		while ((ch = _channel.accept()) != null) {
+			ch.configureBlocking(false);
+			final NioConnection conn = new NioConnection(this, ch);
+			conn.setKey(ch.register(_selector, SelectionKey.OP_READ, conn));
+			_connections.put(conn.getId(), conn);
+			handler.accept(conn);
+		}
+	}
+
+	private void readReady(NioConnection conn, Handler handler) {
+		String data;
+		try {
+			data = conn.read();
+		} catch (IOException e) {
+			data = null;
+		}
+		if (data == null) {
+			remove(conn);
+			handler.close(conn);
+		} else if (data.length() > 0) {
+			handler.read(conn, data);
+		}
+	}
+
+	private void writeReady(NioConnection conn, Handler handler) {
+		try {
+			if (conn.flush()) {
+				conn.getKey().interestOps(SelectionKey.OP_READ);
+				if (conn.isClosing()) {
+					remove(conn);
+				} else {
+					handler.writable(conn);
+				}
+			}
+		} catch (IOException e) {
+			remove(conn);
+			handler.close(conn);
+		}
+	}
+
+	/** Write buffered data, wait for the socket to become writable if it could not all be written */
+	private void flushPending() {
+		for (int i = 0; i < _pending.size(); i++) {
+			final NioConnection conn = _pending.get(i);
+			if (!conn.getChannel().isOpen()) continue;
+			try {
+				if (conn.flush()) {
+					if (conn.isClosing()) remove(conn);
+				} else {
+					conn.getKey().interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+				}
+			} catch (IOException e) {
+				remove(conn);
+			}
+		}
+		_pending.clear();
+	}
+
+	private void remove(NioConnection conn) {
+		conn.closeChannel();
+		_connections.remove(conn.getId());
+	}
+
+	public void close() throws IOException {
+		_stopped = true;
+		for (NioConnection conn : _connections.values()) {
+			conn.closeChannel();
+		}
+		_connections.clear();
+		_pending.clear();
+		_selector.close();
+		_channel.close();
+	}
+
+	@Override
+	public String toString() {
+		return "NioSocketServer(" + _ip.getHostAddress() + ":" + _port + ")";
+	}
+}
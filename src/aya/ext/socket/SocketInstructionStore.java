@@ -43,6 +43,75 @@ public class SocketInstructionStore extends NamedInstructionStore {
 		});
 		
 		
+		addInstruction(new NamedOperator("socket.open_nio_server", "ip::str port::int backlog::int: Open a non-blocking socket server, port 0 uses any free port") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Obj obj_backlog = blockEvaluator.pop();
+				final Obj obj_port = blockEvaluator.pop();
+				final Obj obj_ip = blockEvaluator.pop();
+				if (obj_port.isa(Obj.NUM) && obj_backlog.isa(Obj.NUM)) {
+					int port = Casting.asNumber(obj_port).toInt();
+					int backlog = Casting.asNumber(obj_backlog).toInt();
+					String ip = obj_ip.str();
+					try {
+						blockEvaluator.push(Num.fromInt(socket_manager.openNioServer(ip, port, backlog)));
+					} catch (IOException e) {
+						throw new IOError(opName(), ip + ":" + port, e);
+					}
+				} else {
+					throw new TypeError(this, "SNN");
+				}
+			}
+		});
+		
+		addInstruction(new NamedOperator("socket.poll", "server_id::int handlers::dict timeout::int: Wait up to timeout ms (0: do not wait) for events on a non-blocking server and run the handlers, return the number of events") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Obj obj_timeout = blockEvaluator.pop();
+				final Obj obj_handlers = blockEvaluator.pop();
+				final int id = getSingleIntArg(this, blockEvaluator);
+				if (obj_timeout.isa(Obj.NUM) && obj_handlers.isa(Obj.DICT)) {
+					NioSocketServer srv = socket_manager.getNioServer(id);
+					NioBlockHandler handler = new NioBlockHandler(this, blockEvaluator.getContext().createEvaluator(), Casting.asDict(obj_handlers));
+					try {
+						int events = srv.poll(Math.max(0, Casting.asNumber(obj_timeout).toLong()), handler);
+						blockEvaluator.push(Num.fromInt(events));
+					} catch (IOException e) {
+						throw new IOError(opName(), srv.toString(), e);
+					}
+				} else {
+					throw new TypeError(this, "NDN");
+				}
+			}
+		});
+		
+		addInstruction(new NamedOperator("socket.serve", "server_id::int handlers::dict: Run the handlers of a non-blocking server until socket.stop is called") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Obj obj_handlers = blockEvaluator.pop();
+				final int id = getSingleIntArg(this, blockEvaluator);
+				if (obj_handlers.isa(Obj.DICT)) {
+					NioSocketServer srv = socket_manager.getNioServer(id);
+					NioBlockHandler handler = new NioBlockHandler(this, blockEvaluator.getContext().createEvaluator(), Casting.asDict(obj_handlers));
+					try {
+						srv.serve(handler);
+					} catch (IOException e) {
+						throw new IOError(opName(), srv.toString(), e);
+					}
+				} else {
+					throw new TypeError(this, "ND");
+				}
+			}
+		});
+		
+		addInstruction(new NamedOperator("socket.stop", "server_id::int: Stop socket.serve after the current event") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				int id = getSingleIntArg(this, blockEvaluator);
+				socket_manager.getNioServer(id).stop();
+			}
+		});
+		
 		addInstruction(new NamedOperator("socket.accept", "server_id::int: Open a connection on the server") {
 			@Override
 			public void execute(BlockEvaluator blockEvaluator) {
@@ -81,8 +150,14 @@ public class SocketInstructionStore extends NamedInstructionStore {
 				final Obj obj_data = blockEvaluator.pop();
 				if (obj_id.isa(Obj.NUM)) {
 					int id = Casting.asNumber(obj_id).toInt();
-					AyaSocket sock = socket_manager.getSocket(id);
 					String data = obj_data.str();
+					// Connections of non-blocking servers buffer the data
+					NioConnection conn = socket_manager.getConnection(id);
+					if (conn != null) {
+						conn.send(data);
+						return;
+					}
+					AyaSocket sock = socket_manager.getSocket(id);
 					try {
 						sock.send(data);
 					} catch (IOException e) {
@@ -102,6 +177,8 @@ public class SocketInstructionStore extends NamedInstructionStore {
 				// May be either a socket or a server
 				socket_manager.closeSocket(id);
 				socket_manager.closeSocketServer(id);
+				socket_manager.closeConnection(id);
+				socket_manager.closeNioServer(id);
 			}
 		});
 
@@ -12,10 +12,12 @@ public class SocketManager {
 
 	HashMap<Integer, AyaSocket> _sockets;
 	HashMap<Integer, AyaSocketServer> _servers;
+	HashMap<Integer, NioSocketServer> _nio_servers;
 	
 	public SocketManager() {
 		_sockets = new HashMap<Integer, AyaSocket>();
 		_servers = new HashMap<Integer, AyaSocketServer>();
+		_nio_servers = new HashMap<Integer, NioSocketServer>();
 	}
 
 	public int openServer(String host, int port) throws IOException {
@@ -38,6 +40,13 @@ public class SocketManager {
 		return hash;
 	}
 	
+	public int openNioServer(String host, int port, int backlog) throws IOException {
+		NioSocketServer srv = new NioSocketServer(host, port, backlog);
+		int hash = srv.hashCode();
+		_nio_servers.put(hash, srv);
+		return hash;
+	}
+	
 	public int openClient(String host, int port) throws IOException {
 		return storeSocket(AyaSocket.createClient(host, port));
 	}
@@ -66,6 +75,24 @@ public class SocketManager {
 		}
 	}
 	
+	public NioSocketServer getNioServer(int id) {
+		NioSocketServer srv = _nio_servers.get(id);
+		if (srv == null) {
+			throw new InvalidReferenceError("socket", id);
+		} else {
+			return srv;
+		}
+	}
+	
+	/** Returns null if there is no open connection with this id */
+	public NioConnection getConnection(int id) {
+		for (NioSocketServer srv : _nio_servers.values()) {
+			NioConnection conn = srv.getConnection(id);
+			if (conn != null) return conn;
+		}
+		return null;
+	}
+	
 	public void closeSocket(int id) {
 		AyaSocket sock = _sockets.get(id);
 		if (sock != null) {
@@ -75,10 +102,33 @@ public class SocketManager {
 	}
 
 	public void closeSocketServer(int id) {
-		AyaSocket srv = _sockets.get(id);
+		AyaSocketServer srv = _servers.get(id);
 		if (srv != null) {
-			srv.close();
-			_sockets.remove(id);
+			try {
+				srv.close();
+			} catch (IOException e) {
+				// pass
+			}
+			_servers.remove(id);
+		}
+	}
+	
+	public void closeNioServer(int id) {
+		NioSocketServer srv = _nio_servers.remove(id);
+		if (srv != null) {
+			try {
+				srv.close();
+			} catch (IOException e) {
+				// pass
+			}
+		}
+	}
+	
+	/** Close the connection after all data sent to it has been written */
+	public void closeConnection(int id) {
+		NioConnection conn = getConnection(id);
+		if (conn != null) {
+			conn.close();
 		}
 	}
 
@@ -100,6 +150,10 @@ public class SocketManager {
 			return _servers.get(id).getPort();
 		} else if (_sockets.containsKey(id)) {
 			return _sockets.get(id).getPort();
+		} else if (_nio_servers.containsKey(id)) {
+			return _nio_servers.get(id).getPort();
+		} else if (getConnection(id) != null) {
+			return getConnection(id).getPort();
 		} else {
 			throw new InvalidReferenceError("socket", id);
 		}
@@ -110,6 +164,10 @@ public class SocketManager {
 			return _servers.get(id).getAddr().toString();
 		} else if (_sockets.containsKey(id)) {
 			return _sockets.get(id).getAddr().toString();
+		} else if (_nio_servers.containsKey(id)) {
+			return _nio_servers.get(id).getAddr().toString();
+		} else if (getConnection(id) != null) {
+			return getConnection(id).getAddr().toString();
 		} else {
 			throw new InvalidReferenceError("socket", id);
 		}
@@ -11,6 +11,7 @@ import aya.instruction.named.NamedInstructionStore;
 import aya.obj.Obj;
 import aya.obj.list.List;
 import aya.obj.number.Num;
+import aya.parser.CompileCache;
 import aya.util.FileUtils;
 
 public class SystemInstructionStore extends NamedInstructionStore {
@@ -180,5 +181,12 @@ public class SystemInstructionStore extends NamedInstructionStore {
 				blockEvaluator.push(args);
 			}
 		});
+		
+		addInstruction(new NamedOperator("sys.compile_cache", "hit and miss counts of the cache of code compiled by ~, .~ and :F") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				blockEvaluator.push(CompileCache.stats());
+			}
+		});
 	}
 }
@@ -0,0 +1,113 @@
+package aya.ext.thread;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import aya.AyaThread;
+import aya.ExecutionRequest;
+import aya.ExecutionResult;
+import aya.eval.ExecutionContext;
+import aya.obj.block.StaticBlock;
+
+/**
+ * A bounded pool of worker threads for evaluating aya blocks
+ *
+ * Each task is evaluated in a child context of the context that submitted
+ * it. Child contexts are reused between tasks (see ExecutionContext.borrowChild)
+ * and are cleared after each task, so tasks never share variables.
+ *
+ * If virtual threads are enabled and available (Java 21+) each task runs on
+ * its own virtual thread instead of on the bounded pool.
+ */
+public class TaskPool {
+
+	/** Number of worker threads, may be set using -Daya.thread.poolsize=N */
+	public static int POOL_SIZE = Integer.getInteger("aya.thread.poolsize", Math.max(2, Runtime.getRuntime().availableProcessors()));
+	/** Use virtual threads if available, may be set using -Daya.thread.virtual=true */
+	public static boolean USE_VIRTUAL_THREADS = Boolean.getBoolean("aya.thread.virtual");
+
+	private static final AtomicInteger _worker_counter = new AtomicInteger(0);
+
+	private ExecutorService _executor = null;
+	private boolean _virtual = false;
+
+	private static class WorkerThread extends Thread {
+		WorkerThread(Runnable r) {
+			super(r, "aya-worker-" + _worker_counter.incrementAndGet());
+			setDaemon(true);
+		}
+	}
+
+	private synchronized ExecutorService getExecutor() {
+		if (_executor == null) {
+			_virtual = false;
+			if (USE_VIRTUAL_THREADS) {
+				_executor = newVirtualThreadExecutor();
+				_virtual = _executor != null;
+			}
+			if (_executor == null) {
+				final ThreadFactory factory = WorkerThread::new;
+				_executor = Executors.newFixedThreadPool(POOL_SIZE, factory);
+			}
+		}
+		return _executor;
+	}
+
+	/** Returns null if virtual threads are not supported by this JVM */
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService)m.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Evaluate the block on the pool
+	 * Must be called from the thread that owns the context
+	 */
+	public Future<ExecutionResult> submit(ExecutionContext context, long id, StaticBlock block) {
+		final ExecutionContext child = context.borrowChild();
+		final ExecutionRequest request = new ExecutionRequest(id, block);
+		final FutureTask<ExecutionResult> task = new FutureTask<ExecutionResult>(() -> {
+			try {
+				return AyaThread.eval(child, request);
+			} finally {
+				context.releaseChild(child);
+			}
+		});
+
+		final ExecutorService executor = getExecutor();
+		if (!_virtual && Thread.currentThread() instanceof WorkerThread) {
+			// Submitted from a task that is already running on the pool. Waiting
+			// for a queued task here could use up all workers and deadlock, run it now
+			task.run();
+		} else {
+			try {
+				executor.execute(task);
+			} catch (RejectedExecutionException e) {
+				// The pool was shut down by another thread
+				task.run();
+			}
+		}
+		return task;
+	}
+
+	/**
+	 * Stop accepting new tasks. Tasks which have already been submitted will
+	 * still be completed. A new pool is started the next time a task is submitted
+	 */
+	public synchronized void shutdown() {
+		if (_executor != null) {
+			_executor.shutdown();
+			_executor = null;
+		}
+	}
+}
@@ -1,7 +1,12 @@
 package aya.ext.thread;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import aya.AyaThread;
 import aya.ExecutionRequest;
@@ -23,19 +28,27 @@ import aya.util.Pair;
 
 public class ThreadInstructionStore extends NamedInstructionStore {
 	
-	HashMap<Integer, AyaThread> _thread_table;
-	volatile int _thread_counter;
-	volatile int _request_id_counter;
+	final ConcurrentHashMap<Integer, AyaThread> _thread_table;
+	final AtomicInteger _thread_counter;
+	final AtomicInteger _request_id_counter;
+	
+	// Tasks submitted to the pool which have not been awaited yet
+	final ConcurrentHashMap<Integer, Future<ExecutionResult>> _task_table;
+	final AtomicInteger _task_counter;
+	final TaskPool _pool;
 	
 	public ThreadInstructionStore() {
-		_thread_table = new HashMap<Integer, AyaThread>();
-		_thread_counter = 0;
+		_thread_table = new ConcurrentHashMap<Integer, AyaThread>();
+		_thread_counter = new AtomicInteger(0);
+		_request_id_counter = new AtomicInteger(0);
+		_task_table = new ConcurrentHashMap<Integer, Future<ExecutionResult>>();
+		_task_counter = new AtomicInteger(0);
+		_pool = new TaskPool();
 	}
 	
 	private Pair<Integer, AyaThread> newThread(ExecutionContext context) {
 		AyaThread thread = AyaThread.spawnChildThread(context);
-		_thread_counter++;
-		Pair<Integer, AyaThread> pair = new Pair<Integer, AyaThread>(_thread_counter, thread);
+		Pair<Integer, AyaThread> pair = new Pair<Integer, AyaThread>(_thread_counter.incrementAndGet(), thread);
 		_thread_table.put(pair.first(), pair.second());
 		return pair;
 	}
@@ -53,7 +66,53 @@ public class ThreadInstructionStore extends NamedInstructionStore {
 	}
 	
 	private int newRequestId() {
-		return _request_id_counter++;
+		return _request_id_counter.getAndIncrement();
+	}
+	
+	private int submitTask(ExecutionContext context, StaticBlock block) {
+		final int task_id = _task_counter.incrementAndGet();
+		_task_table.put(task_id, _pool.submit(context, task_id, block));
+		return task_id;
+	}
+	
+	/** Wait for the task to finish and remove it from the task table */
+	private List awaitTask(int task_id) {
+		Future<ExecutionResult> future = _task_table.remove(task_id);
+		if (future == null) {
+			throw new ValueError("Invalid task id: " + task_id);
+		}
+		return new List(ExecutionResultUtils.getDataOrThrowIfException(getResult(future)));
+	}
+	
+	private static ExecutionResult getResult(Future<ExecutionResult> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			throw new ThreadError(e);
+		} catch (CancellationException e) {
+			throw new ThreadError("Task was cancelled");
+		} catch (ExecutionException e) {
+			// AyaThread.eval catches all exceptions, only errors end up here
+			final Throwable cause = e.getCause();
+			if (cause instanceof Error) throw (Error)cause;
+			throw new ThreadError(String.valueOf(cause));
+		}
+	}
+	
+	private static ArrayList<StaticBlock> asBlockList(NamedOperator op, Obj blocks_obj) {
+		if (!blocks_obj.isa(Obj.LIST)) {
+			throw new TypeError(op, "L<B>", blocks_obj);
+		}
+		List blocks = Casting.asList(blocks_obj);
+		ArrayList<StaticBlock> tasks = new ArrayList<StaticBlock>(blocks.length());
+		for (int i = 0; i < blocks.length(); i++) {
+			if (blocks.getExact(i).isa(Obj.BLOCK)) {
+				tasks.add(Casting.asStaticBlock(blocks.getExact(i)));
+			} else {
+				throw new TypeError(op, "L<B>", blocks_obj);
+			}
+		}
+		return tasks;
 	}
 	
 	@Override
@@ -123,50 +182,85 @@ public class ThreadInstructionStore extends NamedInstructionStore {
 			@Override
 			public void execute(BlockEvaluator blockEvaluator) {
 				ExecutionContext context = blockEvaluator.getContext();
-
-				final Obj blocks_obj = blockEvaluator.pop();
+				ArrayList<StaticBlock> tasks = asBlockList(this, blockEvaluator.pop());
 				
-				if (blocks_obj.isa(Obj.LIST)) {
-					List blocks = Casting.asList(blocks_obj);
-					
-					ArrayList<StaticBlock> tasks = new ArrayList<StaticBlock>();
-					for (int i = 0; i < blocks.length(); i++) {
-						if (blocks.getExact(i).isa(Obj.BLOCK)) {
-							tasks.add(Casting.asStaticBlock(blocks.getExact(i)));
+				ArrayList<Future<ExecutionResult>> futures = new ArrayList<Future<ExecutionResult>>(tasks.size());
+				for (StaticBlock task : tasks) {
+					futures.add(_pool.submit(context, -1, task));
+				}
+				
+				// Wait for all tasks before throwing so none are left running
+				ArrayList<ExecutionResult> results = new ArrayList<ExecutionResult>(futures.size());
+				for (Future<ExecutionResult> future : futures) {
+					results.add(getResult(future));
+				}
+
+				List out = new List();
+				for (ExecutionResult result : results) {
+					out.mutAdd(new List(ExecutionResultUtils.getDataOrThrowIfException(result)));
+				}
+				blockEvaluator.push(out);
+			}
+		});
+		
+		addInstruction(new NamedOperator("thread.submit", "block::block: run the block on the thread pool, return a task id") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Obj block = blockEvaluator.pop();
+				if (block.isa(Obj.BLOCK)) {
+					blockEvaluator.push(Num.fromInt(submitTask(blockEvaluator.getContext(), Casting.asStaticBlock(block))));
+				} else {
+					throw new TypeError(this, "B", block);
+				}
+			}
+		});
+		
+		addInstruction(new NamedOperator("thread.await", "task_id::num: wait for a task and return its stack as a list") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Obj task_id = blockEvaluator.pop();
+				if (task_id.isa(Obj.NUM)) {
+					blockEvaluator.push(awaitTask(Casting.asNumber(task_id).toInt()));
+				} else {
+					throw new TypeError(this, "N", task_id);
+				}
+			}
+		});
+		
+		addInstruction(new NamedOperator("thread.await_all", "task_ids::list: wait for all tasks and return a list of their results") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Obj task_ids_obj = blockEvaluator.pop();
+				if (task_ids_obj.isa(Obj.LIST)) {
+					List task_ids = Casting.asList(task_ids_obj);
+					ArrayList<Integer> ids = new ArrayList<Integer>(task_ids.length());
+					for (int i = 0; i < task_ids.length(); i++) {
+						final Obj id = task_ids.getExact(i);
+						if (id.isa(Obj.NUM)) {
+							ids.add(Casting.asNumber(id).toInt());
 						} else {
-							throw new TypeError(this, "L<B>", blocks_obj);
+							throw new TypeError(this, "L<N>", task_ids_obj);
 						}
 					}
 					
-					ArrayList<AyaThread> threads = new ArrayList<AyaThread>();
-					
-					// Spawn a thread for each task
-					for (int i = 0; i < tasks.size(); i++) {
-						AyaThread thread = AyaThread.spawnChildThread(context);
-						thread.queueInput(new ExecutionRequest(-1, tasks.get(i)));
-						threads.add(thread);
-					}
-					
-					for (AyaThread t : threads) t.start();
-					
 					List out = new List();
-
-					for (AyaThread thread : threads) {
-						ExecutionResult result;
-						try {
-							result = thread.waitForResponse();
-						} catch (InterruptedException e) {
-							throw new ThreadError(e);
-						}
-						
-						ArrayList<Obj> data = ExecutionResultUtils.getDataOrThrowIfException(result);
-						out.mutAdd(new List(data));
+					for (int id : ids) {
+						out.mutAdd(awaitTask(id));
 					}
-					
 					blockEvaluator.push(out);
-					
 				} else {
-					throw new TypeError(this, "L<B>", blocks_obj);
+					throw new TypeError(this, "L<N>", task_ids_obj);
+				}
+			}
+		});
+		
+		addInstruction(new NamedOperator("thread.shutdown", "stop all threads created with thread.new and the thread pool. Submitted tasks are completed first") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				_pool.shutdown();
+				for (Map.Entry<Integer, AyaThread> e : _thread_table.entrySet()) {
+					e.getValue().shutdown();
+					_thread_table.remove(e.getKey());
 				}
 			}
 		});
@@ -0,0 +1,254 @@
+package aya.ext.vec;
+
+import java.util.ArrayList;
+
+import aya.eval.BlockEvaluator;
+import aya.exceptions.runtime.TypeError;
+import aya.exceptions.runtime.ValueError;
+import aya.instruction.named.NamedInstructionStore;
+import aya.instruction.named.NamedOperator;
+import aya.obj.Obj;
+import aya.obj.list.List;
+import aya.obj.list.numberlist.ByteList;
+import aya.obj.list.numberlist.DoubleList;
+import aya.obj.list.numberlist.NumberList;
+import aya.obj.number.Num;
+import aya.obj.number.Number;
+import aya.obj.number.NumberMath;
+import aya.util.Casting;
+
+/**
+ * Numeric kernels (see VectorKernels) for lists of numbers
+ *
+ * Lists of Nums are processed on the primitive array of the DoubleList. The
+ * sums, products and differences of lists containing other numbers (bignums,
+ * fractions, ...) are computed exactly using their own arithmetic, all other
+ * operations convert the items to doubles.
+ */
+public class VectorInstructionStore extends NamedInstructionStore {
+
+	private static NumberList asNumberList(NamedOperator op, Obj o) {
+		if (o.isa(Obj.LIST)) {
+			return Casting.asList(o).toNumberList();
+		} else {
+			throw new TypeError(op, "list<num>", o);
+		}
+	}
+
+	/** The items as doubles. Returns null if they are not all Nums, use toDoubles to convert them anyway */
+	private static double[] nums(NumberList ns) {
+		if (ns instanceof DoubleList) {
+			return ((DoubleList)ns).internalArray();
+		} else if (ns instanceof ByteList) {
+			return ns.todoubleArray();
+		} else {
+			return null;
+		}
+	}
+
+	private static double[] toDoubles(NumberList ns) {
+		final double[] ds = nums(ns);
+		return ds == null ? ns.todoubleArray() : ds;
+	}
+
+	private static double[] toDoubles(NamedOperator op, Obj o) {
+		return toDoubles(asNumberList(op, o));
+	}
+
+	private static double asDouble(NamedOperator op, Obj o) {
+		if (o.isa(Obj.NUMBER)) {
+			return Casting.asNumber(o).toDouble();
+		} else {
+			throw new TypeError(op, "num", o);
+		}
+	}
+
+	private static List list(double[] ds) {
+		return new List(new DoubleList(ds));
+	}
+
+	private static void sameLength(NamedOperator op, NumberList a, NumberList b) {
+		if (a.length() != b.length()) {
+			throw new ValueError(op.opName() + ": list length mismatch (" + a.length() + " != " + b.length() + ")");
+		}
+	}
+
+	private interface NumberOp {
+		Number apply(Number a, Number b);
+	}
+
+	/** Running total of the items using op, for lists which are not all Nums */
+	private static List scan(NumberList ns, NumberOp op) {
+		final ArrayList<Number> items = ns.toArrayList();
+		final ArrayList<Number> out = new ArrayList<Number>(items.size());
+		Number acc = null;
+		for (Number n : items) {
+			acc = acc == null ? n : op.apply(acc, n);
+			out.add(acc);
+		}
+		return new List(NumberList.fromNumberAL(out));
+	}
+
+	@Override
+	protected void init() {
+
+		addInstruction(new NamedOperator("vec.isnum", "obj::any: 1 if obj is a list of numbers (which the kernels below accept)") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Obj o = blockEvaluator.pop();
+				blockEvaluator.push(Num.fromBool(o.isa(Obj.LIST) && Casting.asList(o).isa(Obj.NUMBERLIST)));
+			}
+		});
+
+
+		//
+		// Reductions
+		//
+
+		addInstruction(new NamedOperator("vec.sum", "list::list: sum of the items (compensated summation for nums)") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final NumberList ns = asNumberList(this, blockEvaluator.pop());
+				final double[] ds = nums(ns);
+				blockEvaluator.push(ds == null ? ns.sum() : new Num(VectorKernels.sum(ds)));
+			}
+		});
+
+		addInstruction(new NamedOperator("vec.mean", "list::list: mean of the items, NaN if the list is empty") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final NumberList ns = asNumberList(this, blockEvaluator.pop());
+				final double[] ds = nums(ns);
+				blockEvaluator.push(ds == null ? ns.mean() : new Num(VectorKernels.mean(ds)));
+			}
+		});
+
+		addInstruction(new NamedOperator("vec.var", "list::list: population variance of the items, NaN if the list is empty") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				blockEvaluator.push(new Num(VectorKernels.variance(toDoubles(this, blockEvaluator.pop()))));
+			}
+		});
+
+		addInstruction(new NamedOperator("vec.dot", "a::list b::list: dot product of two lists of the same length") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final NumberList b = asNumberList(this, blockEvaluator.pop());
+				final NumberList a = asNumberList(this, blockEvaluator.pop());
+				sameLength(this, a, b);
+				final double[] as = nums(a);
+				final double[] bs = nums(b);
+				if (as == null || bs == null) {
+					blockEvaluator.push(a.mul(b).sum());
+				} else {
+					blockEvaluator.push(new Num(VectorKernels.dot(as, bs)));
+				}
+			}
+		});
+
+		addInstruction(new NamedOperator("vec.norm", "list::list p::num: p-norm of the list (p >= 1, may be :5c for the max norm)") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final double p = asDouble(this, blockEvaluator.pop());
+				final double[] ds = toDoubles(this, blockEvaluator.pop());
+				if (!(p >= 1)) {
+					throw new ValueError(opName() + ": p must be at least 1, got " + p);
+				}
+				blockEvaluator.push(new Num(VectorKernels.norm(ds, p)));
+			}
+		});
+
+		addInstruction(new NamedOperator("vec.argmin", "list::list: index of the smallest item, -1 if the list is empty") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				blockEvaluator.push(Num.fromInt(VectorKernels.argmin(toDoubles(this, blockEvaluator.pop()))));
+			}
+		});
+
+		addInstruction(new NamedOperator("vec.argmax", "list::list: index of the largest item, -1 if the list is empty") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				blockEvaluator.push(Num.fromInt(VectorKernels.argmax(toDoubles(this, blockEvaluator.pop()))));
+			}
+		});
+
+		addInstruction(new NamedOperator("vec.quantile", "list::list q::num|list: the q-quantile(s) of the list, interpolated between the closest items (0.5 is the median)") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Obj q = blockEvaluator.pop();
+				final double[] ds = toDoubles(this, blockEvaluator.pop());
+				final double[] qs = q.isa(Obj.LIST) ? toDoubles(this, q) : new double[] {asDouble(this, q)};
+				if (ds.length == 0) {
+					throw new ValueError(opName() + ": list is empty");
+				}
+				for (double x : qs) {
+					if (!(x >= 0 && x <= 1)) {
+						throw new ValueError(opName() + ": quantile must be between 0 and 1, got " + x);
+					}
+				}
+				final double[] out = VectorKernels.quantiles(ds, qs);
+				blockEvaluator.push(q.isa(Obj.LIST) ? list(out) : new Num(out[0]));
+			}
+		});
+
+		addInstruction(new NamedOperator("vec.hist", "list::list nbins::num: number of items in each of nbins equal width bins between the min and max") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final Obj n = blockEvaluator.pop();
+				final double[] ds = toDoubles(this, blockEvaluator.pop());
+				final int nbins = (int)asDouble(this, n);
+				if (nbins < 1) {
+					throw new ValueError(opName() + ": number of bins must be positive, got " + n.repr());
+				}
+				blockEvaluator.push(list(VectorKernels.histogram(ds, nbins)));
+			}
+		});
+
+
+		//
+		// Element-wise
+		//
+
+		addInstruction(new NamedOperator("vec.cumsum", "list::list: cumulative sum") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final NumberList ns = asNumberList(this, blockEvaluator.pop());
+				final double[] ds = nums(ns);
+				blockEvaluator.push(ds == null ? scan(ns, NumberMath::add) : list(VectorKernels.cumsum(ds)));
+			}
+		});
+
+		addInstruction(new NamedOperator("vec.cumprod", "list::list: cumulative product") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final NumberList ns = asNumberList(this, blockEvaluator.pop());
+				final double[] ds = nums(ns);
+				blockEvaluator.push(ds == null ? scan(ns, NumberMath::mul) : list(VectorKernels.cumprod(ds)));
+			}
+		});
+
+		addInstruction(new NamedOperator("vec.diff", "list::list: differences between consecutive items") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final NumberList ns = asNumberList(this, blockEvaluator.pop());
+				final double[] ds = nums(ns);
+				if (ds != null) {
+					blockEvaluator.push(list(VectorKernels.diff(ds)));
+				} else if (ns.length() < 2) {
+					blockEvaluator.push(new List());
+				} else {
+					blockEvaluator.push(new List(ns.slice(1, ns.length()).toNumberList().sub(ns.slice(0, ns.length() - 1).toNumberList())));
+				}
+			}
+		});
+
+		addInstruction(new NamedOperator("vec.convolve", "list::list kernel::list: full discrete convolution (length is the sum of the lengths - 1)") {
+			@Override
+			public void execute(BlockEvaluator blockEvaluator) {
+				final double[] ks = toDoubles(this, blockEvaluator.pop());
+				final double[] ds = toDoubles(this, blockEvaluator.pop());
+				blockEvaluator.push(list(VectorKernels.convolve(ds, ks)));
+			}
+		});
+	}
+}
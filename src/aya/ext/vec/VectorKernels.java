@@ -0,0 +1,286 @@
+package aya.ext.vec;
+
+import java.util.Arrays;
+
+/**
+ * Numeric kernels over double arrays
+ *
+ * Reductions keep several independent accumulators so consecutive iterations
+ * do not wait on each other, and every loop body is a single array access
+ * and arithmetic operation which the JIT can compile without bounds checks.
+ * None of the kernels modify their input.
+ */
+public class VectorKernels {
+
+	/** Compensated (Kahan-Babuska) sum, the result is correct to within one rounding */
+	public static double sum(double[] xs) {
+		double s0 = 0, c0 = 0, s1 = 0, c1 = 0;
+		final int n = xs.length;
+		int i = 0;
+		for (; i + 1 < n; i += 2) {
+			final double a = xs[i];
+			final double t0 = s0 + a;
+			c0 += Math.abs(s0) >= Math.abs(a) ? (s0 - t0) + a : (a - t0) + s0;
+			s0 = t0;
+			final double b = xs[i + 1];
+			final double t1 = s1 + b;
+			c1 += Math.abs(s1) >= Math.abs(b) ? (s1 - t1) + b : (b - t1) + s1;
+			s1 = t1;
+		}
+		if (i < n) {
+			final double a = xs[i];
+			final double t0 = s0 + a;
+			c0 += Math.abs(s0) >= Math.abs(a) ? (s0 - t0) + a : (a - t0) + s0;
+			s0 = t0;
+		}
+		final double s = s0 + s1;
+		final double c = Math.abs(s0) >= Math.abs(s1) ? (s0 - s) + s1 : (s1 - s) + s0;
+		return s + (c + c0 + c1);
+	}
+
+	/** NaN if the list is empty */
+	public static double mean(double[] xs) {
+		return sum(xs) / xs.length;
+	}
+
+	/** Population variance, computed in two passes around the mean. NaN if the list is empty */
+	public static double variance(double[] xs) {
+		final int n = xs.length;
+		if (n == 0) return Double.NaN;
+		final double m = mean(xs);
+		double a0 = 0, a1 = 0, a2 = 0, a3 = 0;
+		int i = 0;
+		for (; i + 3 < n; i += 4) {
+			final double d0 = xs[i] - m;
+			final double d1 = xs[i + 1] - m;
+			final double d2 = xs[i + 2] - m;
+			final double d3 = xs[i + 3] - m;
+			a0 += d0 * d0;
+			a1 += d1 * d1;
+			a2 += d2 * d2;
+			a3 += d3 * d3;
+		}
+		for (; i < n; i++) {
+			final double d = xs[i] - m;
+			a0 += d * d;
+		}
+		return ((a0 + a1) + (a2 + a3)) / n;
+	}
+
+	/** Sum of xs[i] * ys[i], the arrays must have the same length */
+	public static double dot(double[] xs, double[] ys) {
+		final int n = xs.length;
+		double a0 = 0, a1 = 0, a2 = 0, a3 = 0;
+		int i = 0;
+		for (; i + 3 < n; i += 4) {
+			a0 += xs[i] * ys[i];
+			a1 += xs[i + 1] * ys[i + 1];
+			a2 += xs[i + 2] * ys[i + 2];
+			a3 += xs[i + 3] * ys[i + 3];
+		}
+		for (; i < n; i++) {
+			a0 += xs[i] * ys[i];
+		}
+		return (a0 + a1) + (a2 + a3);
+	}
+
+	/** The p-norm of xs, p must be at least 1 and may be infinite */
+	public static double norm(double[] xs, double p) {
+		final int n = xs.length;
+		if (p == Double.POSITIVE_INFINITY) {
+			double max = 0;
+			for (int i = 0; i < n; i++) max = Math.max(max, Math.abs(xs[i]));
+			return max;
+		} else if (p == 1) {
+			double a0 = 0, a1 = 0;
+			int i = 0;
+			for (; i + 1 < n; i += 2) {
+				a0 += Math.abs(xs[i]);
+				a1 += Math.abs(xs[i + 1]);
+			}
+			if (i < n) a0 += Math.abs(xs[i]);
+			return a0 + a1;
+		} else if (p == 2) {
+			return Math.sqrt(dot(xs, xs));
+		} else {
+			double a = 0;
+			for (int i = 0; i < n; i++) a += Math.pow(Math.abs(xs[i]), p);
+			return Math.pow(a, 1 / p);
+		}
+	}
+
+	/** out[i] = xs[0] + ... + xs[i] */
+	public static double[] cumsum(double[] xs) {
+		final double[] out = new double[xs.length];
+		double s = 0;
+		for (int i = 0; i < xs.length; i++) {
+			s += xs[i];
+			out[i] = s;
+		}
+		return out;
+	}
+
+	/** out[i] = xs[0] * ... * xs[i] */
+	public static double[] cumprod(double[] xs) {
+		final double[] out = new double[xs.length];
+		double p = 1;
+		for (int i = 0; i < xs.length; i++) {
+			p *= xs[i];
+			out[i] = p;
+		}
+		return out;
+	}
+
+	/** out[i] = xs[i+1] - xs[i] */
+	public static double[] diff(double[] xs) {
+		final int n = Math.max(0, xs.length - 1);
+		final double[] out = new double[n];
+		for (int i = 0; i < n; i++) {
+			out[i] = xs[i + 1] - xs[i];
+		}
+		return out;
+	}
+
+	/** Full discrete convolution, the result has xs.length + ks.length - 1 items */
+	public static double[] convolve(double[] xs, double[] ks) {
+		if (xs.length == 0 || ks.length == 0) return new double[0];
+		final double[] out = new double[xs.length + ks.length - 1];
+		// For each kernel item, add a scaled copy of xs. The inner loop is a
+		// plain multiply-add over contiguous memory
+		for (int j = 0; j < ks.length; j++) {
+			final double k = ks[j];
+			for (int i = 0; i < xs.length; i++) {
+				out[i + j] += xs[i] * k;
+			}
+		}
+		return out;
+	}
+
+	/** Index of the smallest item ignoring NaN, -1 if there is none */
+	public static int argmin(double[] xs) {
+		int idx = -1;
+		double min = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < xs.length; i++) {
+			if (xs[i] < min || (idx < 0 && xs[i] == min)) {
+				min = xs[i];
+				idx = i;
+			}
+		}
+		return idx;
+	}
+
+	/** Index of the largest item ignoring NaN, -1 if there is none */
+	public static int argmax(double[] xs) {
+		int idx = -1;
+		double max = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < xs.length; i++) {
+			if (xs[i] > max || (idx < 0 && xs[i] == max)) {
+				max = xs[i];
+				idx = i;
+			}
+		}
+		return idx;
+	}
+
+	/**
+	 * Quantiles of xs by linear interpolation between the closest ranks
+	 * (q=0.5 is the median). Each rank is found by selection in expected
+	 * linear time, xs is not modified.
+	 */
+	public static double[] quantiles(double[] xs, double[] qs) {
+		final double[] work = Arrays.copyOf(xs, xs.length);
+		final int n = work.length;
+		final double[] out = new double[qs.length];
+		for (int i = 0; i < qs.length; i++) {
+			final double pos = qs[i] * (n - 1);
+			final int lo = (int)Math.floor(pos);
+			final double lov = select(work, lo);
+			if (pos == lo) {
+				out[i] = lov;
+			} else {
+				// After selecting lo, every item above lo is at least as large
+				double hiv = work[lo + 1];
+				for (int j = lo + 2; j < n; j++) hiv = Math.min(hiv, work[j]);
+				out[i] = lov + (pos - lo) * (hiv - lov);
+			}
+		}
+		return out;
+	}
+
+	/** Partially order xs so that xs[k] is the kth smallest item, returns xs[k] */
+	private static double select(double[] xs, int k) {
+		int lo = 0;
+		int hi = xs.length - 1;
+		while (hi > lo) {
+			// Median of three pivot
+			final int mid = (lo + hi) >>> 1;
+			if (xs[mid] < xs[lo]) swap(xs, mid, lo);
+			if (xs[hi] < xs[lo]) swap(xs, hi, lo);
+			if (xs[hi] < xs[mid]) swap(xs, hi, mid);
+			final double pivot = xs[mid];
+
+			int i = lo;
+			int j = hi;
+			while (i <= j) {
+				while (xs[i] < pivot) i++;
+				while (xs[j] > pivot) j--;
+				if (i <= j) {
+					swap(xs, i, j);
+					i++;
+					j--;
+				}
+			}
+			if (k <= j) {
+				hi = j;
+			} else if (k >= i) {
+				lo = i;
+			} else {
+				break;
+			}
+		}
+		return xs[k];
+	}
+
+	private static void swap(double[] xs, int i, int j) {
+		final double t = xs[i];
+		xs[i] = xs[j];
+		xs[j] = t;
+	}
+
+	/**
+	 * Count the items in nbins equal width bins from min(xs) to max(xs)
+	 * An item x falls in bin i if edge[i-1] < x <= edge[i] where edge[i] is
+	 * min + (i+1) * width. The min is counted in the first bin.
+	 */
+	public static double[] histogram(double[] xs, int nbins) {
+		final double[] counts = new double[nbins];
+		if (xs.length == 0 || nbins == 0) return counts;
+		double min = xs[0];
+		double max = xs[0];
+		for (int i = 1; i < xs.length; i++) {
+			min = Math.min(min, xs[i]);
+			max = Math.max(max, xs[i]);
+		}
+		// Edges are accumulated the same way as a cumulative sum of the width
+		final double width = (max - min) / nbins;
+		final double[] edges = new double[nbins];
+		double acc = 0;
+		for (int i = 0; i < nbins; i++) {
+			acc += width;
+			edges[i] = acc + min;
+		}
+		edges[nbins - 1] = max;
+
+		final int last = nbins - 1;
+		for (int i = 0; i < xs.length; i++) {
+			final double x = xs[i];
+			// Estimate the bin and correct it for rounding so that it is the number of edges less than x
+			int b = width > 0 ? (int)Math.ceil((x - min) / width) - 1 : 0;
+			b = Math.max(0, Math.min(last, b));
+			while (b > 0 && !(edges[b - 1] < x)) b--;
+			while (b < last && edges[b] < x) b++;
+			counts[b]++;
+		}
+		return counts;
+	}
+}
@@ -76,8 +76,17 @@ public class BlockLiteralInstruction extends Instruction {
 	public void setAutoEval() {
 		_auto_eval = true;
 	}
+	
+	public boolean isAutoEval() {
+		return _auto_eval;
+	}
 
 	public StaticBlock getRawBlock() {
 		return _block;
 	}
+	
+	/** Header variables which are evaluated each time the block literal is run, may be null */
+	public HashMap<Symbol, StaticBlock> getDefaults() {
+		return _defaults;
+	}
 }
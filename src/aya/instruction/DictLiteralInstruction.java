@@ -34,6 +34,10 @@ public class DictLiteralInstruction extends Instruction {
 		this.num_captures = num_captures;
 	}
 	
+	public StaticBlock getBlock() {
+		return _block;
+	}
+	
 	public int numCaptures() {
 		return num_captures;
 	}
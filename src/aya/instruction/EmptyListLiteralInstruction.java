@@ -1,8 +1,7 @@
 package aya.instruction;
 
-import java.util.Stack;
-
 import aya.eval.ExecutionContext;
+import aya.eval.ObjStack;
 import aya.obj.Obj;
 import aya.obj.list.List;
 
@@ -21,7 +20,7 @@ public class EmptyListLiteralInstruction extends ListLiteralInstruction {
 	}
 	
 	@Override
-	public List getListCopy(ExecutionContext context, Stack<Obj> outerStack) {
+	public List getListCopy(ExecutionContext context, ObjStack outerStack) {
 		return new List();
 	}
 	
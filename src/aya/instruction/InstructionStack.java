@@ -1,6 +1,7 @@
 package aya.instruction; 
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 
@@ -8,6 +9,7 @@ import aya.ReprStream;
 import aya.eval.BlockEvaluator;
 import aya.exceptions.runtime.ValueError;
 import aya.instruction.flag.FlagInstruction;
+import aya.instruction.fused.FusedInstruction;
 import aya.instruction.variable.GetVariableInstruction;
 import aya.obj.Obj;
 import aya.obj.block.BlockHeader;
@@ -15,17 +17,92 @@ import aya.obj.symbol.Symbol;
 
 /**
  *  Used by the aya.Block class to hold and manage instructions
+ *  
+ *  In addition to the flat list of loose instructions, the stack holds a
+ *  stack of frames. Each frame references the (shared) instruction list of
+ *  a block and walks it by index instead of copying it onto the stack. An
+ *  optional entry instruction is run before the body and an optional exit
+ *  instruction (usually a flag) is run once the body is exhausted.
+ *  
+ *  Conceptually, a frame sits on the stack directly above all loose
+ *  instructions that were present when it was pushed. Loose instructions
+ *  pushed afterwards sit above the frame and are executed first.
+ *  Operations that need random access to the stack (peek, insert, ...)
+ *  flatten all frames back into the loose list first, fused instructions
+ *  are split into their parts at the same time.
  */
 public class InstructionStack {
+	
+	/** If false, blocks are copied onto the instruction stack instead of being walked in frames */
+	public static boolean USE_FRAMES = true;
+	
+	private static final int INITIAL_FRAME_CAPACITY = 16;
+
+	private static class Frame {
+		// Instructions are stored in reverse order, the next instruction is body[pc]
+		ArrayList<Instruction> body;
+		int pc;
+		Instruction entry;
+		Instruction exit;
+		// Number of loose instructions below this frame
+		int base;
+		
+		void reset(ArrayList<Instruction> body, Instruction entry, Instruction exit, int base) {
+			this.body = body;
+			this.pc = body == null ? -1 : body.size() - 1;
+			this.entry = entry;
+			this.exit = exit;
+			this.base = base;
+		}
+		
+		void release() {
+			body = null;
+			entry = null;
+			exit = null;
+		}
+		
+		boolean finished() {
+			return entry == null && pc < 0 && exit == null;
+		}
+		
+		int size() {
+			return (entry == null ? 0 : 1) + (pc + 1) + (exit == null ? 0 : 1);
+		}
+	}
+	
 	ArrayList<Instruction> instructions = new ArrayList<Instruction>();
 	
+	// Frames are pooled and reused, only _frames[0.._frame_count-1] are active
+	private Frame[] _frames = null;
+	private int _frame_count = 0;
+	
 	/** Pops the instructions from the top of the instruction stack */
 	public Instruction pop() {
+		while (_frame_count > 0) {
+			final Frame f = _frames[_frame_count-1];
+			
+			// Loose instructions pushed after the frame are run first
+			if (instructions.size() > f.base) {
+				return instructions.remove(instructions.size()-1);
+			} else if (f.entry != null) {
+				final Instruction entry = f.entry;
+				f.entry = null;
+				return entry;
+			} else if (f.pc >= 0) {
+				return f.body.get(f.pc--);
+			} else {
+				final Instruction exit = f.exit;
+				f.release();
+				_frame_count--;
+				if (exit != null) return exit;
+			}
+		}
 		return instructions.remove(instructions.size()-1);
 	}
 
 	/** Pops the instructions from the top of the instruction stack */
 	public Instruction pop(int i) {
+		flatten();
 		return instructions.remove(instructions.size()-1-i);
 	}
 	
@@ -39,8 +116,43 @@ public class InstructionStack {
 		push(new DataInstruction(o));
 	}
 	
+	/**
+	 * Pushes a frame to the top of the stack. The instructions in body are not copied and
+	 * must not be modified while the frame is active. entry and exit may be null
+	 */
+	public void pushFrame(ArrayList<Instruction> body, Instruction entry, Instruction exit) {
+		if (!USE_FRAMES) {
+			if (exit != null) instructions.add(exit);
+			if (body != null) {
+				for (Instruction instr : body) addUnfused(instructions, instr);
+			}
+			if (entry != null) instructions.add(entry);
+			return;
+		}
+		
+		if (_frames == null) {
+			_frames = new Frame[INITIAL_FRAME_CAPACITY];
+		} else if (_frame_count == _frames.length) {
+			_frames = Arrays.copyOf(_frames, _frames.length * 2);
+		}
+		
+		Frame f = _frames[_frame_count];
+		if (f == null) {
+			f = new Frame();
+			_frames[_frame_count] = f;
+		}
+		f.reset(body, entry, exit, instructions.size());
+		_frame_count++;
+	}
+	
+	/** Pushes an instruction that will be run once everything currently above it has been run */
+	public void pushExitHook(Instruction exit) {
+		pushFrame(null, null, exit);
+	}
+	
 	/** Inserts an instruction at a specified location on the stack */
 	public void insert(int i, Instruction o) {
+		flatten();
 		instructions.add(i,o);
 	}
 	
@@ -52,15 +164,76 @@ public class InstructionStack {
 	/** Clears the instruction stack */
 	public void clear() {
 		instructions.clear();
+		for (int i = 0; i < _frame_count; i++) {
+			_frames[i].release();
+		}
+		_frame_count = 0;
 	}
 	
 	/** returns at the ith element from the top of the instruction stack */
 	public Instruction peek(int i) {
+		flatten();
 		return instructions.get(instructions.size()-1-i);
 	}
+	
+	/** Copies the remaining instructions of all active frames into the loose instruction list */
+	private void flatten() {
+		if (_frame_count == 0) return;
+		
+		ArrayList<Instruction> flat = new ArrayList<Instruction>(size());
+		int loose_index = 0;
+		for (int i = 0; i < _frame_count; i++) {
+			final Frame f = _frames[i];
+			while (loose_index < f.base) {
+				flat.add(instructions.get(loose_index++));
+			}
+			if (f.exit != null) flat.add(f.exit);
+			for (int j = 0; j <= f.pc; j++) {
+				addUnfused(flat, f.body.get(j));
+			}
+			if (f.entry != null) flat.add(f.entry);
+			f.release();
+		}
+		while (loose_index < instructions.size()) {
+			flat.add(instructions.get(loose_index++));
+		}
+		
+		_frame_count = 0;
+		instructions = flat;
+	}
+	
+	/**
+	 * Fused instructions (see BlockCompiler) are split back into their parts
+	 * so that instructions which read the instruction stack (:` for example)
+	 * see the same instructions as in a block that has not been compiled
+	 */
+	private static void addUnfused(ArrayList<Instruction> list, Instruction instr) {
+		if (instr instanceof FusedInstruction) {
+			final Instruction[] parts = ((FusedInstruction)instr).getParts();
+			for (int i = parts.length - 1; i >= 0; i--) {
+				list.add(parts[i]);
+			}
+		} else {
+			list.add(instr);
+		}
+	}
+	
+	/** Remove finished frames from the top of the frame stack */
+	private void dropFinishedFrames() {
+		while (_frame_count > 0) {
+			final Frame f = _frames[_frame_count-1];
+			if (instructions.size() == f.base && f.finished()) {
+				f.release();
+				_frame_count--;
+			} else {
+				break;
+			}
+		}
+	}
 
 	/** Returns the ArrayList holding all the instructions */
 	public ArrayList<Instruction> getInstrucionList() {
+		flatten();
 		return instructions;
 	}
 	
@@ -71,21 +244,28 @@ public class InstructionStack {
 	
 	/** Adds a list of instructions */
 	public void addAll(int index, Collection<? extends Instruction> c) {
+		flatten();
 		instructions.addAll(index, c);
 	}
 	
 	/** Returns true if there are no more instructions */
 	public boolean isEmpty() {
-		return instructions.isEmpty();
+		dropFinishedFrames();
+		return _frame_count == 0 && instructions.isEmpty();
 	}
 	
 	/** Returns the number of instructions in the instruction stack */
 	public int size() {
-		return instructions.size();
+		int size = instructions.size();
+		for (int i = 0; i < _frame_count; i++) {
+			size += _frames[i].size();
+		}
+		return size;
 	}
 	
 	/** Will move the top of the instruction list back into the instruction list i times */
 	public void holdNext(int ticks) {
+		flatten();
 		Instruction o = pop();
 		int i = 0;
 		int skip = 0;
@@ -100,6 +280,7 @@ public class InstructionStack {
 	}
 	
 	public Instruction popNextNonFlagInstruction() throws ValueError {
+		flatten();
 		for (int i = 0; i < instructions.size(); i++) {
 			if (!(peek(i) instanceof FlagInstruction)) {
 				return pop(i);
@@ -122,6 +303,7 @@ public class InstructionStack {
 
 	/** Creates a deep copy of the InstructionStack */
 	public InstructionStack duplicate() {
+		flatten();
 		InstructionStack is = new InstructionStack();
 		is.addAll(this.instructions);
 		return is;
@@ -129,6 +311,7 @@ public class InstructionStack {
 	
 	/** Set the header of the instructions */
 	public void replaceHeader(BlockHeader bh) {
+		flatten();
 		int i = instructions.size() - 1;
 		if (instructions.get(i) instanceof BlockHeader) {
 			instructions.set(i, bh);
@@ -142,6 +325,7 @@ public class InstructionStack {
 	 * with `item`
 	 */
 	public void assignVarValue(Symbol var, Obj item) {
+		flatten();
 		for (int i = 0; i < instructions.size(); i++) {
 			final Instruction o = instructions.get(i);
 			if (o instanceof GetVariableInstruction && ((GetVariableInstruction)o).getSymbol().id() == var.id()) {
@@ -165,6 +349,7 @@ public class InstructionStack {
 	}
 	
 	public ReprStream repr(ReprStream stream, HashMap<Symbol, BlockEvaluator> captures) {
+		flatten();
 		if (captures != null) {
 			reprWithCaptures(stream, captures);
 		} else {
@@ -20,6 +20,14 @@ public class InterpolateStringInstruction extends Instruction  {
 		instructions = is;
 	}
 	
+	public String getString() {
+		return orig;
+	}
+	
+	public InstructionStack getInstructions() {
+		return instructions;
+	}
+	
 	public InterpolateStringInstruction duplicate() {
 		return new InterpolateStringInstruction(getSource(), orig, instructions);
 	}
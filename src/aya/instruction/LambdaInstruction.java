@@ -26,7 +26,7 @@ public class LambdaInstruction extends Instruction {
 
 	@Override
 	public void execute(BlockEvaluator b) {
-		b.getInstructions().addAll(instructions.getInstrucionList());
+		b.addFrame(instructions.getInstrucionList(), null, null);
 	}
 
 	@Override
@@ -1,11 +1,11 @@
 package aya.instruction;
 
 import java.util.ArrayList;
-import java.util.Stack;
 
 import aya.ReprStream;
 import aya.eval.ExecutionContext;
 import aya.eval.BlockEvaluator;
+import aya.eval.ObjStack;
 import aya.exceptions.runtime.ValueError;
 import aya.obj.Obj;
 import aya.obj.block.BlockUtils;
@@ -31,7 +31,25 @@ public class ListBuilderInstruction extends Instruction {
 		this.num_captures = num_captures;
 	}
 	
-	public List createList(ExecutionContext context, Stack<Obj> outerStack) {
+	public StaticBlock getInitialList() {
+		return initialList;
+	}
+	
+	/** May be null */
+	public StaticBlock getMap() {
+		return map;
+	}
+	
+	/** May be null */
+	public StaticBlock[] getFilters() {
+		return filters;
+	}
+	
+	public int getPops() {
+		return num_captures;
+	}
+	
+	public List createList(ExecutionContext context, ObjStack outerStack) {
 		BlockEvaluator evaluator = context.createEvaluator();
 		evaluator.dump(initialList);
 
@@ -42,7 +60,7 @@ public class ListBuilderInstruction extends Instruction {
 		evaluator.eval();
 		
 		ArrayList<Obj> res = new ArrayList<Obj>();			//Initialize the argument list
-		res.addAll(evaluator.getStack());					//Copy the results into the argument list
+		res.addAll(evaluator.getStack().asList());					//Copy the results into the argument list
 		
 		boolean allLists = false;							//Check if all arguments are lists
 		if(res.size() > 1) {
@@ -88,7 +106,7 @@ public class ListBuilderInstruction extends Instruction {
 					b.dump(map);
 					b.eval();		
 				}
-				list.addAll(b.getStack());
+				list.addAll(b.getStack().asList());
 			}
 			
 			outList = new List(list);
@@ -1,11 +1,11 @@
 package aya.instruction;
 
 import java.util.ArrayList;
-import java.util.Stack;
 
 import aya.ReprStream;
 import aya.eval.ExecutionContext;
 import aya.eval.BlockEvaluator;
+import aya.eval.ObjStack;
 import aya.obj.Obj;
 import aya.obj.block.BlockUtils;
 import aya.obj.block.StaticBlock;
@@ -29,11 +29,16 @@ public class ListLiteralInstruction extends Instruction {
 		return _is;
 	}
 	
+	/** Returns the block that is evaluated to create the list */
+	public StaticBlock getBlock() {
+		return _block;
+	}
+	
 	public int getPops() {
 		return _num_captures;
 	}
 	
-	public List getListCopy(ExecutionContext context, Stack<Obj> outerStack) {
+	public List getListCopy(ExecutionContext context, ObjStack outerStack) {
 		BlockEvaluator b = context.createEvaluator();
 		b.dump(_block);
 		int p = _num_captures;
@@ -45,7 +50,7 @@ public class ListLiteralInstruction extends Instruction {
 		}
 		
 		b.eval();
-		return new List(new ArrayList<Obj>(b.getStack()));
+		return new List(b.getStack().toArrayList());
 	}
 	
 	/** Returns null if is not list literal */
@@ -14,6 +14,10 @@ public class StringLiteralInstruction extends Instruction {
 		_str = str;
 	}
 
+	public String getString() {
+		return _str;
+	}
+
 	@Override
 	public void execute(BlockEvaluator blockEvaluator) {
 		blockEvaluator.push(List.fromString(_str));
@@ -24,6 +24,10 @@ public class TupleInstruction extends Instruction {
 		elements = blocks;
 	}
 	
+	public StaticBlock[] getElements() {
+		return elements;
+	}
+	
 	/**
 	 * evals each of the blocks and returns an array containing each
 	 * of the results
@@ -0,0 +1,56 @@
+package aya.instruction.fused;
+
+import aya.ReprStream;
+import aya.eval.BlockEvaluator;
+import aya.instruction.Instruction;
+import aya.parser.SourceStringRef;
+
+/**
+ * A short sequence of instructions run as a single instruction
+ *
+ * Created by InstructionFuser for blocks which have been run many times.
+ * Only the last instruction may add instructions to the instruction stack
+ * (for example by running a block), all others only change the object
+ * stack. Each part is run using BlockEvaluator.execute so errors point at
+ * the same source location as the unfused instructions. Instructions which
+ * read the instruction stack see the parts (see InstructionStack.flatten).
+ */
+public class FusedInstruction extends Instruction {
+
+	protected final Instruction[] _parts;
+
+	/** Parts are given in the order they are run */
+	public FusedInstruction(Instruction... parts) {
+		super(firstSource(parts));
+		_parts = parts;
+	}
+
+	public Instruction[] getParts() {
+		return _parts;
+	}
+
+	@Override
+	public void execute(BlockEvaluator b) {
+		final Instruction[] parts = _parts;
+		for (int i = 0; i < parts.length; i++) {
+			b.execute(parts[i]);
+		}
+	}
+
+	@Override
+	public ReprStream repr(ReprStream stream) {
+		for (int i = 0; i < _parts.length; i++) {
+			if (i > 0) stream.print(" ");
+			_parts[i].repr(stream);
+		}
+		return stream;
+	}
+
+	// Data instructions do not have a source
+	private static SourceStringRef firstSource(Instruction[] parts) {
+		for (Instruction i : parts) {
+			if (i.getSource() != null) return i.getSource();
+		}
+		return null;
+	}
+}
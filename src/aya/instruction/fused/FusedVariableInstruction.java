@@ -0,0 +1,49 @@
+package aya.instruction.fused;
+
+import aya.eval.BlockEvaluator;
+import aya.instruction.Instruction;
+import aya.instruction.variable.GetVariableInstruction;
+import aya.obj.Obj;
+import aya.util.Casting;
+
+/**
+ * A fused sequence starting with a variable lookup
+ *
+ * If the variable holds a block, the block must run before the rest of the
+ * sequence. In that case the remaining parts are added back to the
+ * instruction stack and the block is run as usual.
+ */
+public class FusedVariableInstruction extends FusedInstruction {
+
+	private final GetVariableInstruction _var;
+
+	/** Parts are given in the order they are run, the first part must be the variable */
+	public FusedVariableInstruction(GetVariableInstruction var, Instruction... rest) {
+		super(prepend(var, rest));
+		_var = var;
+	}
+
+	@Override
+	public void execute(BlockEvaluator b) {
+		final Obj o = _var.lookup(b);
+		final Instruction[] parts = _parts;
+		if (o.isa(Obj.BLOCK)) {
+			for (int i = parts.length - 1; i > 0; i--) {
+				b.add(parts[i]);
+			}
+			_var.dumpBlock(Casting.asStaticBlock(o), b);
+		} else {
+			b.push(o);
+			for (int i = 1; i < parts.length; i++) {
+				b.execute(parts[i]);
+			}
+		}
+	}
+
+	private static Instruction[] prepend(Instruction first, Instruction[] rest) {
+		final Instruction[] parts = new Instruction[rest.length + 1];
+		parts[0] = first;
+		System.arraycopy(rest, 0, parts, 1, rest.length);
+		return parts;
+	}
+}
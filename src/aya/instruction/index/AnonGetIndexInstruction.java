@@ -36,7 +36,7 @@ public class AnonGetIndexInstruction extends GetIndexInstruction {
 	}
 
 	@Override
-	protected Obj getIndex() {
+	public Obj getIndex() {
 		throw new RuntimeException("AnonGetIndexInstruction.getIndex() is unimplemented");
 	}
 }
@@ -41,7 +41,7 @@ public class GetExprIndexInstruction extends GetIndexInstruction {
 		}
 	}
 	
-	protected Obj getIndex() {
+	public Obj getIndex() {
 		return _index;
 	}
 }
@@ -16,7 +16,7 @@ public abstract class GetIndexInstruction extends Instruction {
 		super(source);
 	}
 
-	protected abstract Obj getIndex();
+	public abstract Obj getIndex();
 	
 	protected Obj getEvaluatedIndex(ExecutionContext context) {
 		return getIndex();
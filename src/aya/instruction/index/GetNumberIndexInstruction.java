@@ -19,7 +19,7 @@ public class GetNumberIndexInstruction extends GetIndexInstruction {
 	}
 	
 	@Override
-	protected Obj getIndex() {
+	public Obj getIndex() {
 		return Num.fromInt(_index);
 	}
 
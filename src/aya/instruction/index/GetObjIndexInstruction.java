@@ -13,7 +13,7 @@ public class GetObjIndexInstruction extends GetIndexInstruction {
 	}
 	
 	@Override
-	protected Obj getIndex() {
+	public Obj getIndex() {
 		return _index;
 	}
 }
@@ -16,7 +16,7 @@ public class GetVarIndexInstruction extends GetIndexInstruction {
 	}
 	
 	@Override
-	protected Obj getIndex() {
+	public Obj getIndex() {
 		return _var;
 	}
 	
@@ -32,7 +32,7 @@ public class SetExprIndexInstruction extends SetIndexInstruction {
 		
 	}
 	
-	protected Obj getIndex() {
+	public Obj getIndex() {
 		return _index;
 	}
 }
@@ -17,7 +17,7 @@ public abstract class SetIndexInstruction extends Instruction {
 		super(source);
 	}
 	
-	protected abstract Obj getIndex();
+	public abstract Obj getIndex();
 	
 	protected Obj getEvaluatedIndex(ExecutionContext context) {
 		return getIndex();
@@ -14,7 +14,7 @@ public class SetNumberIndexInstruction extends SetIndexInstruction {
 	}
 	
 	@Override
-	protected Obj getIndex() {
+	public Obj getIndex() {
 		return Num.fromInt(_index);
 	}
 }
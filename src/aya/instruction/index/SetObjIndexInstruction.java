@@ -12,7 +12,7 @@ public class SetObjIndexInstruction extends SetIndexInstruction {
 		_index = index;
 	}
 	
-	protected Obj getIndex() {
+	public Obj getIndex() {
 		return _index;
 	}
 }
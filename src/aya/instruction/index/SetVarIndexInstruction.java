@@ -16,7 +16,7 @@ public class SetVarIndexInstruction extends SetIndexInstruction {
 	}
 	
 	@Override
-	protected Obj getIndex() {
+	public Obj getIndex() {
 		return _var;
 	}
 	
@@ -14,6 +14,10 @@ public class NamedOperatorInstruction extends Instruction {
 		this.op = op;
 	}
 
+	public NamedOperator getOperator() {
+		return this.op;
+	}
+
 	@Override
 	public void execute(BlockEvaluator blockEvaluator) {
 		this.op.execute(blockEvaluator);
@@ -48,7 +48,7 @@ import aya.obj.number.NumberMath;
 import aya.obj.symbol.Symbol;
 import aya.obj.symbol.SymbolConstants;
 import aya.obj.symbol.SymbolTable;
-import aya.parser.Parser;
+import aya.parser.CompileCache;
 import aya.parser.SourceString;
 import aya.parser.SourceStringRef;
 import aya.parser.tokens.StringToken;
@@ -456,6 +456,8 @@ class OP_Colon_LessThan extends Operator {
 	// a b :< => "a :< b"
 	@Override
 	public Obj exec2arg(ExecutionContext context, final Obj a, final Obj b) {
+		// Two Num can not be vectorized or overloaded
+		if (a instanceof Num && b instanceof Num) return Num.fromBool(((Num)a).compareTo((Num)b) <= 0);
 		Obj res;
 		if ((res = VectorizedFunctions.vectorize2arg(context, this, a, b, NUML_OP)) != null) return res;
 		if ((res = overload().executeAndReturn(context, b, a)) != null) return res; // stack order
@@ -525,6 +527,8 @@ class OP_Colon_GreaterThan extends Operator {
 	// a b :> => "a :> b"
 	@Override
 	public Obj exec2arg(ExecutionContext context, final Obj a, final Obj b) {
+		// Two Num can not be vectorized or overloaded
+		if (a instanceof Num && b instanceof Num) return Num.fromBool(((Num)a).compareTo((Num)b) >= 0);
 		Obj res;
 		if ((res = VectorizedFunctions.vectorize2arg(context, this, a, b, NUML_OP)) != null) return res;
 		if ((res = overload().executeAndReturn(context, b, a)) != null) return res; // stack order
@@ -719,24 +723,11 @@ class OP_Colon_F extends Operator {
 		if (a.isa(STR)) {			
 			File readFile = FileUtils.resolveFile(a.str());
 
-			String content = null;
 			try {
-				content = FileUtils.readAllText(readFile);
+				StaticBlock block = CompileCache.compileFile(readFile);
+				blockEvaluator.dump(block);
 			} catch (IOException e) {
 				throw new IOError(":F", readFile.getAbsolutePath(), e);
-			}
-			
-			// Is there a shebang? If yes, drop the first line
-			if (content.charAt(0) == '#' && content.charAt(1) == '!') {
-				int line_end = content.indexOf('\n');
-				content = content.substring(line_end);
-			}
-			
-			SourceString source = new SourceString(content, readFile.getAbsolutePath());
-
-			try {
-				StaticBlock block = Parser.compile(source);
-				blockEvaluator.dump(block);
 			} catch (ParserException e) {
 				throw new InternalAyaRuntimeException(e.typeSymbol(), e);
 			}
@@ -24,7 +24,6 @@ import java.nio.file.InvalidPathException;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Stack;
 import java.util.regex.Pattern;
 
 import aya.StaticData;
@@ -62,6 +61,7 @@ import aya.obj.number.NumberMath;
 import aya.obj.symbol.Symbol;
 import aya.obj.symbol.SymbolConstants;
 import aya.obj.symbol.SymbolTable;
+import aya.parser.CompileCache;
 import aya.parser.Parser;
 import aya.parser.ParserString;
 import aya.parser.SourceString;
@@ -828,11 +828,9 @@ class OP_Dot_ArrayAll extends Operator {
 		arg("..A", "wrap entire stack in a list");
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public void execute(BlockEvaluator blockEvaluator) {
-		ArrayList<Obj> list = new ArrayList<Obj>();
-		list.addAll((Stack<Obj>)blockEvaluator.getStack().clone());
+		ArrayList<Obj> list = blockEvaluator.getStack().toArrayList();
 		blockEvaluator.clearStack();
 		blockEvaluator.push(new List(list));
 	}
@@ -1583,7 +1581,7 @@ class OP_Dot_Tilde extends Operator {
 
 		if (a.isa(STR) || a.isa(CHAR)) {
 			try {
-				StaticBlock sb = BlockUtils.fromIS( Parser.compileIS(new SourceString(a.str(), "~")) );
+				StaticBlock sb = CompileCache.compileString(a.str());
 				blockEvaluator.push(sb);
 			} catch (ParserException e) {
 				throw new InternalAyaRuntimeException(e.typeSymbol(), e);
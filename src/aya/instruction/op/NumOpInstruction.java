@@ -0,0 +1,101 @@
+package aya.instruction.op;
+
+import aya.eval.BlockEvaluator;
+import aya.eval.ObjStack;
+import aya.obj.Obj;
+import aya.obj.number.Num;
+
+/**
+ * An operator instruction with a fast path for Num operands
+ *
+ * These are created by BlockCompiler for blocks which have been run many
+ * times. If the operands are both Num, the result is computed directly from
+ * the double values. This skips vectorization, overload and type checks and
+ * number promotion. For any other operands the operator is executed as usual
+ * so the result is always the same as the generic operator
+ */
+public abstract class NumOpInstruction extends OperatorInstruction {
+
+	private NumOpInstruction(OperatorInstruction inst) {
+		super(inst.getSource(), inst.getOperator());
+	}
+
+	/** Returns a specialized instruction for the operator or null if there is none */
+	public static NumOpInstruction specialize(OperatorInstruction inst) {
+		switch (inst.getOperator().getName()) {
+		case "+":
+			return new Binary(inst) { Obj apply(double a, double b) { return Num.valueOf(a + b); } };
+		case "-":
+			return new Binary(inst) { Obj apply(double a, double b) { return Num.valueOf(a - b); } };
+		case "*":
+			return new Binary(inst) { Obj apply(double a, double b) { return Num.valueOf(a * b); } };
+		case "/":
+			return new Binary(inst) { Obj apply(double a, double b) { return new Num(a / b); } };
+		case ":%":
+			return new Binary(inst) { Obj apply(double a, double b) { return Num.valueOf(a % b); } };
+		// Same as Num.compareTo, adding 0.0 makes -0.0 equal to 0.0
+		case "<":
+			return new Binary(inst) { Obj apply(double a, double b) { return Num.fromBool(Double.compare(a + 0.0, b + 0.0) < 0); } };
+		case ">":
+			return new Binary(inst) { Obj apply(double a, double b) { return Num.fromBool(Double.compare(a + 0.0, b + 0.0) > 0); } };
+		case ":<":
+			return new Binary(inst) { Obj apply(double a, double b) { return Num.fromBool(Double.compare(a + 0.0, b + 0.0) <= 0); } };
+		case ":>":
+			return new Binary(inst) { Obj apply(double a, double b) { return Num.fromBool(Double.compare(a + 0.0, b + 0.0) >= 0); } };
+		case "=":
+			return new Binary(inst) { Obj apply(double a, double b) { return Num.fromBool(Double.compare(a + 0.0, b + 0.0) == 0); } };
+		case "B":
+			return new Unary(inst) { Obj apply(double a) { return Num.valueOf(a + 1.0); } };
+		case "V":
+			return new Unary(inst) { Obj apply(double a) { return Num.valueOf(a - 1.0); } };
+		default:
+			return null;
+		}
+	}
+
+	private static abstract class Binary extends NumOpInstruction {
+		Binary(OperatorInstruction inst) {
+			super(inst);
+		}
+
+		abstract Obj apply(double a, double b);
+
+		@Override
+		public void execute(BlockEvaluator blockEvaluator) {
+			final ObjStack stack = blockEvaluator.getStack();
+			if (stack.size() >= 2) {
+				final Obj b = stack.pop();
+				final Obj a = stack.pop();
+				if (a instanceof Num && b instanceof Num) {
+					stack.push(apply(((Num)a).toDouble(), ((Num)b).toDouble()));
+					return;
+				}
+				stack.push(a);
+				stack.push(b);
+			}
+			super.execute(blockEvaluator);
+		}
+	}
+
+	private static abstract class Unary extends NumOpInstruction {
+		Unary(OperatorInstruction inst) {
+			super(inst);
+		}
+
+		abstract Obj apply(double a);
+
+		@Override
+		public void execute(BlockEvaluator blockEvaluator) {
+			final ObjStack stack = blockEvaluator.getStack();
+			if (stack.size() >= 1) {
+				final Obj a = stack.pop();
+				if (a instanceof Num) {
+					stack.push(apply(((Num)a).toDouble()));
+					return;
+				}
+				stack.push(a);
+			}
+			super.execute(blockEvaluator);
+		}
+	}
+}
@@ -26,7 +26,6 @@ import java.util.Date;
 import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Scanner;
-import java.util.Stack;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -57,12 +56,12 @@ import aya.obj.list.numberlist.NumberListOp;
 import aya.obj.number.BigNum;
 import aya.obj.number.Num;
 import aya.obj.number.Number;
+import aya.obj.number.NumberAccumulator;
 import aya.obj.number.NumberMath;
 import aya.obj.symbol.Symbol;
 import aya.obj.symbol.SymbolConstants;
 import aya.obj.symbol.SymbolTable;
-import aya.parser.Parser;
-import aya.parser.SourceString;
+import aya.parser.CompileCache;
 import aya.parser.SourceStringRef;
 import aya.util.Casting;
 import aya.util.FileUtils;
@@ -429,6 +428,8 @@ class OP_Times extends Operator {
 	// a b * => "a * b"
 	@Override
 	public Obj exec2arg(ExecutionContext context, final Obj a, final Obj b) {
+		// Two Num can not be vectorized or overloaded
+		if (a instanceof Num && b instanceof Num) return ((Num)a).mul((Num)b);
 		Obj res;
 		if ((res = VectorizedFunctions.vectorize2arg(context, this, a, b, NUML_OP)) != null) return res;
 		if ((res = overload().executeAndReturn(context, b, a)) != null) return res; // stack order
@@ -470,6 +471,8 @@ class OP_Plus extends Operator {
 	// a b + => "a + b"
 	@Override
 	public Obj exec2arg(ExecutionContext context, final Obj a, final Obj b) {
+		// Two Num can not be vectorized or overloaded
+		if (a instanceof Num && b instanceof Num) return ((Num)a).add((Num)b);
 		Obj res;
 		if ((res = VectorizedFunctions.vectorize2arg(context, this, a, b, NUML_OP)) != null) return res;
 		if ((res = overload().executeAndReturn(context, b, a)) != null) return res; // stack order
@@ -517,6 +520,8 @@ class OP_Minus extends Operator {
 	// a b - => "a - b"
 	@Override
 	public Obj exec2arg(ExecutionContext context, final Obj a, final Obj b) {
+		// Two Num can not be vectorized or overloaded
+		if (a instanceof Num && b instanceof Num) return ((Num)a).sub((Num)b);
 		Obj res;
 		if ((res = VectorizedFunctions.vectorize2arg(context, this, a, b, NUML_OP)) != null) return res;
 		if ((res = overload().executeAndReturn(context, b, a)) != null) return res; // stack order
@@ -562,6 +567,8 @@ class OP_Divide extends Operator {
 	// a b / => "a / b"
 	@Override
 	public Obj exec2arg(ExecutionContext context, final Obj a, final Obj b) {
+		// Two Num can not be vectorized or overloaded
+		if (a instanceof Num && b instanceof Num) return ((Num)a).div((Num)b);
 		Obj res;
 		if ((res = VectorizedFunctions.vectorize2arg(context, this, a, b, NUML_OP)) != null) return res;
 		if ((res = overload().executeAndReturn(context, b, a)) != null) return res; // stack order
@@ -616,6 +623,8 @@ class OP_LessThan extends Operator {
 	// a b < => "a < b"
 	@Override
 	public Obj exec2arg(ExecutionContext context, final Obj a, final Obj b) {
+		// Two Num can not be vectorized or overloaded
+		if (a instanceof Num && b instanceof Num) return Num.fromBool(((Num)a).compareTo((Num)b) < 0);
 		Obj res;
 		if ((res = VectorizedFunctions.vectorize2arg(context, this, a, b, NUML_OP)) != null) return res;
 		if ((res = overload().executeAndReturn(context, b, a)) != null) return res; // stack order
@@ -697,6 +706,8 @@ class OP_GreaterThan extends Operator {
 	// a b > => "a > b"
 	@Override
 	public Obj exec2arg(ExecutionContext context, final Obj a, final Obj b) {
+		// Two Num can not be vectorized or overloaded
+		if (a instanceof Num && b instanceof Num) return Num.fromBool(((Num)a).compareTo((Num)b) > 0);
 		Obj res;
 		if ((res = VectorizedFunctions.vectorize2arg(context, this, a, b, NUML_OP)) != null) return res;
 		if ((res = overload().executeAndReturn(context, b, a)) != null) return res; // stack order
@@ -1466,7 +1477,6 @@ class OP_W extends Operator {
 		arg("L", "sum (fold using +)");
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public void execute(final BlockEvaluator blockEvaluator) {
 		final Obj a = blockEvaluator.pop();
@@ -1476,7 +1486,7 @@ class OP_W extends Operator {
 		} else if (a.isa(Obj.BLOCK)) {
 			StaticBlock blk = asStaticBlock(a);
 			BlockEvaluator state = blockEvaluator.getContext().createEvaluator();
-			state.setStack((Stack<Obj>)blockEvaluator.getStack().clone());
+			state.setStack(blockEvaluator.getStack().copy());
 			
 			boolean condition = false;
 			
@@ -1526,14 +1536,34 @@ class OP_W extends Operator {
 			if(list.length() == 0) {
 				return Num.ZERO;
 			}
-			//Push all but the last item
+			//Add leading numbers directly
+			int start = 0;
+			NumberAccumulator total = null;
+			if (list.getExact(0).isa(NUMBER)) {
+				total = new NumberAccumulator(asNumber(list.getExact(0)));
+				start = 1;
+				while (start < list.length() && list.getExact(start).isa(NUMBER)) {
+					total.add(asNumber(list.getExact(start)));
+					start++;
+				}
+				if (start == list.length()) {
+					return total.result();
+				}
+			}
+			//Push all but the first item
 			BlockEvaluator exec_block = context.createEvaluator();
-			for(int i = list.length()-1; i > 0; i--) {
+			for(int i = list.length()-1; i > start; i--) {
 				exec_block.add(new OperatorInstruction(null, Ops.OP_PLUS));
 				exec_block.add(list.getExact(i));
 			}
-			//Push the last element outside the loop so that there is not an extra plus (1 1+2+3+)
-			exec_block.add(list.getExact(0)); 
+			//Push the first element outside the loop so that there is not an extra plus (1 1+2+3+)
+			if (total == null) {
+				exec_block.add(list.getExact(0));
+			} else {
+				exec_block.add(new OperatorInstruction(null, Ops.OP_PLUS));
+				exec_block.add(list.getExact(start));
+				exec_block.add(total.result());
+			}
 			exec_block.eval();
 			return exec_block.pop();
 		}
@@ -1717,7 +1747,7 @@ class OP_Tilde extends Operator {
 			blockEvaluator.dump(asStaticBlock(a));
 		} else if (a.isa(STR) || a.isa(CHAR)) {
 			try {
-				StaticBlock compiled_str = Parser.compile(new SourceString(a.str(), "~"));
+				StaticBlock compiled_str = CompileCache.compileString(a.str());
 				blockEvaluator.dump(compiled_str);
 			} catch (ParserException e) {
 				throw new InternalAyaRuntimeException(e.typeSymbol(), e);
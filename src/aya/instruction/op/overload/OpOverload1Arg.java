@@ -6,12 +6,16 @@ import aya.eval.BlockEvaluator;
 import aya.eval.ExecutionContext;
 import aya.obj.Obj;
 import aya.obj.dict.Dict;
+import aya.obj.dict.MetaCache;
 import aya.obj.symbol.Symbol;
+import aya.obj.symbol.SymbolConstants;
 import aya.obj.symbol.SymbolTable;
 
 public class OpOverload1Arg extends OpOverload {
 	
 	private Symbol _var;
+	private MetaCache _var_cache;
+	private MetaCache _pushself_cache;
 	
 	public OpOverload1Arg(String name) {
 		_name = name;
@@ -21,6 +25,8 @@ public class OpOverload1Arg extends OpOverload {
 		}
 		
 		_var =  SymbolTable.getSymbol("__" + name + "__");
+		_var_cache = new MetaCache(_var);
+		_pushself_cache = new MetaCache(SymbolConstants.KEYVAR_PUSHSELF);
 	}
 	
 	public ArrayList<String> getNames() {
@@ -38,7 +44,7 @@ public class OpOverload1Arg extends OpOverload {
 	@Override
 	public boolean execute(BlockEvaluator blockEvaluator, Obj a) {
 		if (a.isa(Obj.DICT)) {
-			blockEvaluator.callVariable((Dict)a, _var);
+			blockEvaluator.callVariable((Dict)a, _var_cache, _pushself_cache);
 			return true;
 		} else {
 			return false;
@@ -49,7 +55,7 @@ public class OpOverload1Arg extends OpOverload {
 	public Obj executeAndReturn(ExecutionContext context, Obj a) {
 		if (a.isa(Obj.DICT)) {
 			BlockEvaluator blockEvaluator = context.createEvaluator();
-			blockEvaluator.callVariable((Dict)a, _var);
+			blockEvaluator.callVariable((Dict)a, _var_cache, _pushself_cache);
 			blockEvaluator.eval();
 			return blockEvaluator.pop();
 		} else {
@@ -6,13 +6,18 @@ import aya.eval.BlockEvaluator;
 import aya.eval.ExecutionContext;
 import aya.obj.Obj;
 import aya.obj.dict.Dict;
+import aya.obj.dict.MetaCache;
 import aya.obj.symbol.Symbol;
+import aya.obj.symbol.SymbolConstants;
 import aya.obj.symbol.SymbolTable;
 
 public class OpOverload2Arg extends OpOverload {
 	
 	private Symbol _var;
 	private Symbol _rvar;
+	private MetaCache _var_cache;
+	private MetaCache _rvar_cache;
+	private MetaCache _pushself_cache;
 
 	public OpOverload2Arg(String name) {
 		_name = name;
@@ -23,6 +28,10 @@ public class OpOverload2Arg extends OpOverload {
 		
 		_var  =  SymbolTable.getSymbol("__" + name + "__");
 		_rvar =  SymbolTable.getSymbol("__r" + name + "__");
+
+		_var_cache = new MetaCache(_var);
+		_rvar_cache = new MetaCache(_rvar);
+		_pushself_cache = new MetaCache(SymbolConstants.KEYVAR_PUSHSELF);
 	}
 
 	public ArrayList<String> getNames() {
@@ -44,10 +53,10 @@ public class OpOverload2Arg extends OpOverload {
 	public boolean execute(BlockEvaluator blockEvaluator, Obj a, Obj b) {
 		if (a.isa(Obj.DICT)) {
 			blockEvaluator.push(b);
-			blockEvaluator.callVariable((Dict)a, _var);
+			blockEvaluator.callVariable((Dict)a, _var_cache, _pushself_cache);
 			return true;
 		} else if (b.isa(Obj.DICT)) {
-			blockEvaluator.callVariable((Dict)b, _rvar, a);
+			blockEvaluator.callVariable((Dict)b, _rvar_cache, _pushself_cache, a);
 			return true;
 		} else {
 			return false;
@@ -59,12 +68,12 @@ public class OpOverload2Arg extends OpOverload {
 		if (a.isa(Obj.DICT)) {
 			BlockEvaluator blockEvaluator = context.createEvaluator();
 			blockEvaluator.push(b);
-			blockEvaluator.callVariable((Dict)a, _var);
+			blockEvaluator.callVariable((Dict)a, _var_cache, _pushself_cache);
 			blockEvaluator.eval();
 			return blockEvaluator.pop();
 		} else if (b.isa(Obj.DICT)) {
 			BlockEvaluator blockEvaluator = context.createEvaluator();
-			blockEvaluator.callVariable((Dict)b, _rvar, a);
+			blockEvaluator.callVariable((Dict)b, _rvar_cache, _pushself_cache, a);
 			blockEvaluator.eval();
 			return blockEvaluator.pop();
 		} else {
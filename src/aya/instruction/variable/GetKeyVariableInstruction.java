@@ -5,6 +5,7 @@ import aya.eval.BlockEvaluator;
 import aya.exceptions.runtime.IndexError;
 import aya.obj.Obj;
 import aya.obj.dict.Dict;
+import aya.obj.dict.MetaCache;
 import aya.obj.symbol.Symbol;
 import aya.obj.symbol.SymbolConstants;
 import aya.parser.SourceStringRef;
@@ -12,8 +13,13 @@ import aya.util.Casting;
 
 public class GetKeyVariableInstruction extends GetVariableInstruction {
 
+	private final MetaCache _cache;
+	private final MetaCache _pushself_cache;
+
 	public GetKeyVariableInstruction(SourceStringRef source, Symbol var) {
 		super(source, var);
+		_cache = new MetaCache(var);
+		_pushself_cache = new MetaCache(SymbolConstants.KEYVAR_PUSHSELF);
 	}
 	
 	@Override
@@ -22,11 +28,11 @@ public class GetKeyVariableInstruction extends GetVariableInstruction {
 		if (kv_obj.isa(Obj.DICT)) {
 			Dict dict;
 			dict = (Dict)kv_obj;
-			Obj o = dict.get(variable_);
+			Obj o = dict.get(_cache);
 
 			if (o.isa(Obj.BLOCK)) {
 				// If user object function, leave it as the first item on the stack
-				if (dict.pushSelf()) b.push(dict);
+				if (dict.pushSelf(_pushself_cache)) b.push(dict);
 				dumpBlock(Casting.asStaticBlock(o), b);
 			} else {
 				b.push(o);
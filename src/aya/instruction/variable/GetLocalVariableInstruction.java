@@ -0,0 +1,37 @@
+package aya.instruction.variable;
+
+import aya.eval.BlockEvaluator;
+import aya.obj.Obj;
+import aya.obj.symbol.Symbol;
+import aya.parser.SourceStringRef;
+import aya.variable.FrameLayout;
+
+/**
+ * A variable lookup that was resolved to a slot in the frame of its enclosing block.
+ * If the innermost scope is not a frame with the expected layout at runtime,
+ * fall back to the dynamic lookup
+ */
+public class GetLocalVariableInstruction extends GetVariableInstruction {
+	
+	private final FrameLayout _layout;
+	private final int _slot;
+
+	public GetLocalVariableInstruction(SourceStringRef source, Symbol var, FrameLayout layout, int slot) {
+		super(source, var);
+		_layout = layout;
+		_slot = slot;
+	}
+	
+	public FrameLayout getLayout() {
+		return _layout;
+	}
+	
+	@Override
+	public Obj lookup(BlockEvaluator b) {
+		Obj o = b.getContext().getVars().getLocalOrNull(_layout, _slot);
+		if (o == null) {
+			o = b.getContext().getVars().getVar(variable_);
+		}
+		return o;
+	}
+}
@@ -17,8 +17,12 @@ public class GetVariableInstruction extends VariableInstruction {
 	
 	@Override
 	public void execute(BlockEvaluator b) {
-		Obj o = b.getContext().getVars().getVar(variable_);
-		this.addOrDumpVar(o, b);
+		this.addOrDumpVar(lookup(b), b);
+	}
+	
+	/** Returns the value of the variable without pushing or running it */
+	public Obj lookup(BlockEvaluator b) {
+		return b.getContext().getVars().getVar(variable_);
 	}
 	
 	/**
@@ -36,7 +40,7 @@ public class GetVariableInstruction extends VariableInstruction {
 
 	public void dumpBlock(StaticBlock block_to_dump, BlockEvaluator evaluator) {
 		evaluator.getContext().getCallStack().push(this);
-		evaluator.add(PopCallstackInstruction.INSTANCE);
+		evaluator.addExitHook(PopCallstackInstruction.INSTANCE);
 		//b.getInstructions().addAll(block_to_dump.getInstructions().getInstrucionList());
 		evaluator.dump(block_to_dump);
 	}
@@ -0,0 +1,36 @@
+package aya.instruction.variable;
+
+import aya.eval.BlockEvaluator;
+import aya.obj.symbol.Symbol;
+import aya.parser.SourceStringRef;
+import aya.variable.FrameLayout;
+import aya.variable.VariableData;
+
+/**
+ * A variable assignment that was resolved to a slot in the frame of its enclosing block.
+ * If the innermost scope is not a frame with the expected layout at runtime,
+ * fall back to the dynamic assignment
+ */
+public class SetLocalVariableInstruction extends SetVariableInstruction {
+	
+	private final FrameLayout _layout;
+	private final int _slot;
+
+	public SetLocalVariableInstruction(SourceStringRef source, Symbol var, FrameLayout layout, int slot) {
+		super(source, var);
+		_layout = layout;
+		_slot = slot;
+	}
+	
+	public FrameLayout getLayout() {
+		return _layout;
+	}
+	
+	@Override
+	public void execute(BlockEvaluator b) {
+		final VariableData vars = b.getContext().getVars();
+		if (!vars.setLocal(_layout, _slot, b.peek())) {
+			vars.setVar(variable_, b.peek());
+		}
+	}
+}
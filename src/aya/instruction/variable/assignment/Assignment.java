@@ -1,10 +1,13 @@
 package aya.instruction.variable.assignment;
 
+import java.util.Collection;
+
 import aya.obj.Obj;
 import aya.obj.dict.Dict;
 import aya.obj.symbol.Symbol;
 import aya.obj.symbol.SymbolConstants;
 import aya.parser.SourceStringRef;
+import aya.variable.FrameLayout;
 
 public abstract class Assignment {
 	
@@ -15,6 +18,12 @@ public abstract class Assignment {
 	}
 	
 	public abstract void assign(Dict vars, Obj o);
+	
+	/** Assign into a variable frame. The layout must contain all symbols returned by getSymbols */
+	public abstract void assign(FrameLayout layout, Obj[] slots, Obj o);
+	
+	/** Add all variable names assigned by this assignment to out */
+	public abstract void getSymbols(Collection<Symbol> out);
 
 	public abstract void toDict(Dict d);
 	public abstract Symbol assignmentType();
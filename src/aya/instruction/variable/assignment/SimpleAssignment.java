@@ -1,10 +1,13 @@
 package aya.instruction.variable.assignment;
 
+import java.util.Collection;
+
 import aya.obj.Obj;
 import aya.obj.dict.Dict;
 import aya.obj.symbol.Symbol;
 import aya.obj.symbol.SymbolConstants;
 import aya.parser.SourceStringRef;
+import aya.variable.FrameLayout;
 
 public class SimpleAssignment extends Assignment {
 	
@@ -15,10 +18,24 @@ public class SimpleAssignment extends Assignment {
 		_var = var;
 	}
 
+	public Symbol getSymbol() {
+		return _var;
+	}
+
 	@Override
 	public void assign(Dict vars, Obj o) {
 		vars.set(_var, o);
 	}
+	
+	@Override
+	public void assign(FrameLayout layout, Obj[] slots, Obj o) {
+		slots[layout.indexOf(_var)] = o;
+	}
+	
+	@Override
+	public void getSymbols(Collection<Symbol> out) {
+		out.add(_var);
+	}
 
 	@Override
 	public void toDict(Dict d) {
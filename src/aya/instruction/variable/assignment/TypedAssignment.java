@@ -1,5 +1,7 @@
 package aya.instruction.variable.assignment;
 
+import java.util.Collection;
+
 import aya.exceptions.runtime.TypeError;
 import aya.obj.Obj;
 import aya.obj.dict.Dict;
@@ -7,6 +9,7 @@ import aya.obj.number.Num;
 import aya.obj.symbol.Symbol;
 import aya.obj.symbol.SymbolConstants;
 import aya.parser.SourceStringRef;
+import aya.variable.FrameLayout;
 
 public class TypedAssignment extends Assignment {
 
@@ -30,11 +33,21 @@ public class TypedAssignment extends Assignment {
 	}
 	
 	public void assign(Dict vars, Obj o) {
+		vars.set(this.var, checkType(o));
+	}
+	
+	@Override
+	public void assign(FrameLayout layout, Obj[] slots, Obj o) {
+		slots[layout.indexOf(this.var)] = checkType(o);
+	}
+	
+	/** Return the value to assign or throw a TypeError if o is not an instance of the type */
+	private Obj checkType(Obj o) {
 		if (Obj.isInstance(o, this.type)) {
 			if (this.copy) {
-				vars.set(this.var, o.deepcopy());
+				return o.deepcopy();
 			} else {
-				vars.set(this.var, o);
+				return o;
 			}
 		} else {
 			TypeError e = new TypeError("{ARGS}\n\tExpected:" + this.type.repr()
@@ -44,6 +57,11 @@ public class TypedAssignment extends Assignment {
 		}
 	}
 	
+	@Override
+	public void getSymbols(Collection<Symbol> out) {
+		out.add(this.var);
+	}
+	
 
 	@Override
 	public String toString() {
@@ -1,6 +1,7 @@
 package aya.instruction.variable.assignment;
 
 import java.util.ArrayList;
+import java.util.Collection;
 
 import aya.exceptions.parser.SyntaxError;
 import aya.exceptions.runtime.TypeError;
@@ -13,6 +14,7 @@ import aya.obj.symbol.Symbol;
 import aya.obj.symbol.SymbolConstants;
 import aya.parser.SourceStringRef;
 import aya.util.Casting;
+import aya.variable.FrameLayout;
 
 public class UnpackAssignment extends Assignment {
 
@@ -84,6 +86,11 @@ public class UnpackAssignment extends Assignment {
 		_catchall = catchall;
 	}
 	
+	/** May be null */
+	public Symbol getCatchall() {
+		return _catchall;
+	}
+	
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
 		sb.append("[");
@@ -97,11 +104,41 @@ public class UnpackAssignment extends Assignment {
 
 	
 	public void assign(Dict vars, Obj o) {
+		unpack(vars, null, null, o);
+	}
+	
+	@Override
+	public void assign(FrameLayout layout, Obj[] slots, Obj o) {
+		unpack(null, layout, slots, o);
+	}
+	
+	@Override
+	public void getSymbols(Collection<Symbol> out) {
+		if (_catchall != null) out.add(_catchall);
+		for (Arg a : _args) {
+			a.assignment.getSymbols(out);
+		}
+	}
+	
+	/** Assign to vars if it is not null, otherwise assign to the slots */
+	private static void assignTo(Assignment a, Dict vars, FrameLayout layout, Obj[] slots, Obj o) {
+		if (vars != null) {
+			a.assign(vars, o);
+		} else {
+			a.assign(layout, slots, o);
+		}
+	}
+	
+	private void unpack(Dict vars, FrameLayout layout, Obj[] slots, Obj o) {
 		if (o.isa(Obj.LIST)) {
 			List l = Casting.asList(o);
 
 			if (_catchall != null) {
-				vars.set(_catchall, l);
+				if (vars != null) {
+					vars.set(_catchall, l);
+				} else {
+					slots[layout.indexOf(_catchall)] = l;
+				}
 			}
 
 			if (_slurp == null) {
@@ -109,7 +146,7 @@ public class UnpackAssignment extends Assignment {
 				if (l.length() == _args.size()) {
 					for (int i = 0; i < l.length(); i++) {
 						Arg a = _args.get(i);
-						a.assignment.assign(vars, l.getExact(i));
+						assignTo(a.assignment, vars, layout, slots, l.getExact(i));
 					}
 				} else {
 					if (_catchall == null) {
@@ -124,17 +161,17 @@ public class UnpackAssignment extends Assignment {
 					// Before Slurp
 					for (int i = 0; i < _before_slurp.size(); i++) {
 						Arg a = _before_slurp.get(i);
-						a.assignment.assign(vars, l.getExact(i));
+						assignTo(a.assignment, vars, layout, slots, l.getExact(i));
 					}
 					// After Slurp
 					for (int i = 0; i < _after_slurp.size(); i++) {
 						Arg arg = _after_slurp.get((_after_slurp.size()-1) - i);
 						Obj x = l.getExact((l.length()-1) - i);
-						arg.assignment.assign(vars, x);
+						assignTo(arg.assignment, vars, layout, slots, x);
 					}
 					// Slurp itself
 					List slurp = l.sliceExact(_before_slurp.size(), l.length() - _after_slurp.size());
-					_slurp.assignment.assign(vars, slurp);
+					assignTo(_slurp.assignment, vars, layout, slots, slurp);
 				} else {
 					if (_catchall == null) {
 						ValueError e = new ValueError("Cannot unpack " + o.repr() + ". List length does not match number of args (excluding slurp ~)");
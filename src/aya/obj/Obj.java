@@ -34,6 +34,8 @@ public abstract class Obj {
 	public static final byte OBJLIST = 24;
 	public static final byte STRLIST = 25;
 	public static final byte DOUBLELIST = 26;
+	public static final byte LONGLIST = 27;
+	public static final byte BYTELIST = 28;
 
 
 	public static final byte CHAR = 3;
@@ -46,6 +48,8 @@ public abstract class Obj {
 	
 	public static final byte SYMBOL = 7;
 	
+	public static final byte COLLECTION = 8;
+	
 	
 	
 	
@@ -70,6 +74,10 @@ public abstract class Obj {
 			return "NUMBERITEMLIST";
 		case DOUBLELIST:
 			return "DOUBLELIST";
+		case LONGLIST:
+			return "LONGLIST";
+		case BYTELIST:
+			return "BYTELIST";
 		case LIST:
 			return "LIST";
 		case BLOCK: 
@@ -82,6 +90,8 @@ public abstract class Obj {
 			return "CHAR";
 		case DICT:
 			return "DICT";
+		case COLLECTION:
+			return "COLLECTION";
 		case ANY:
 			return "ANY";
 		default:
@@ -104,6 +114,8 @@ public abstract class Obj {
 		case OBJLIST : return SymbolConstants.LIST;
 		case STRLIST : return SymbolConstants.LIST;
 		case DOUBLELIST : return SymbolConstants.LIST;
+		case LONGLIST : return SymbolConstants.LIST;
+		case BYTELIST : return SymbolConstants.LIST;
 		
 		case SYMBOL : return SymbolConstants.SYM;
 		case STR : return SymbolConstants.STR;
@@ -111,6 +123,7 @@ public abstract class Obj {
 		case RATIONAL_NUMBER : return SymbolConstants.NUM;
 		case COMPLEXNUM : return SymbolConstants.NUM;
 		case DICT : return SymbolConstants.DICT;
+		case COLLECTION : return SymbolConstants.COLLECTION;
 		case ANY : return SymbolConstants.ANY;
 
 		default: return SymbolConstants.UNKNOWN;
@@ -137,6 +150,8 @@ public abstract class Obj {
 			return DICT;
 		} else if (s == SymbolConstants.SYM.id()) {
 			return SYMBOL;
+		} else if (s == SymbolConstants.COLLECTION.id()) {
+			return COLLECTION;
 		} else {
 			return UNKNOWN;
 		}
@@ -217,4 +232,26 @@ public abstract class Obj {
 	public boolean equals(Object o) {
 		return o instanceof Obj && this.equiv((Obj)o);
 	}
+	
+	/**
+	 * Objects which are equivalent (see equiv) must have the same hash code.
+	 * Subclasses which compare by value override this, the default is the
+	 * identity hash code
+	 */
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+	
+	/** Containers nested deeper than this only add their size to the hash code, see hashCode(int) */
+	public static final int HASH_DEPTH = 4;
+	
+	/**
+	 * Hash code of an object nested in a container. Containers override this
+	 * and hash their items with depth-1; at depth 0 they only use their size.
+	 * This keeps the hash of a container which contains itself finite
+	 */
+	public int hashCode(int depth) {
+		return hashCode();
+	}
 }
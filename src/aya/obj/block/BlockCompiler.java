@@ -0,0 +1,48 @@
+package aya.obj.block;
+
+import java.util.ArrayList;
+
+import aya.instruction.Instruction;
+import aya.instruction.op.NumOpInstruction;
+import aya.instruction.op.OperatorInstruction;
+
+/**
+ * Second tier for frequently run blocks
+ *
+ * Each StaticBlock counts how many times it has been run. Once the count
+ * passes THRESHOLD the block is run using a compiled copy of its
+ * instructions. In the copy, operators with a known fast path are replaced by
+ * specialized instructions (see NumOpInstruction) and common sequences are
+ * fused into single instructions (see InstructionFuser). The new instructions
+ * check their operands and fall back to the generic instructions, so
+ * compiling a block never changes its behavior.
+ */
+public class BlockCompiler {
+
+	/** Compile hot blocks, may be disabled using -Daya.compile=false */
+	public static boolean ENABLED = Boolean.parseBoolean(System.getProperty("aya.compile", "true"));
+	/** Number of runs before a block is compiled, may be set using -Daya.compile.threshold=N */
+	public static int THRESHOLD = Integer.getInteger("aya.compile.threshold", 1000);
+
+	/** Returns the compiled instructions or null if nothing could be compiled */
+	static ArrayList<Instruction> compile(ArrayList<Instruction> instructions) {
+		ArrayList<Instruction> out = specialize(instructions);
+		final ArrayList<Instruction> fused = InstructionFuser.fuse(out == null ? instructions : out);
+		return fused == null ? out : fused;
+	}
+	
+	private static ArrayList<Instruction> specialize(ArrayList<Instruction> instructions) {
+		ArrayList<Instruction> out = null;
+		for (int i = 0; i < instructions.size(); i++) {
+			final Instruction instr = instructions.get(i);
+			if (instr instanceof OperatorInstruction && !(instr instanceof NumOpInstruction)) {
+				final NumOpInstruction fast = NumOpInstruction.specialize((OperatorInstruction)instr);
+				if (fast != null) {
+					if (out == null) out = new ArrayList<Instruction>(instructions);
+					out.set(i, fast);
+				}
+			}
+		}
+		return out;
+	}
+}
@@ -0,0 +1,941 @@
+package aya.obj.block;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import aya.StaticData;
+import aya.exceptions.parser.ParserException;
+import aya.instruction.BlockLiteralInstruction;
+import aya.instruction.DataInstruction;
+import aya.instruction.DictLiteralInstruction;
+import aya.instruction.EmptyDictLiteralInstruction;
+import aya.instruction.EmptyListLiteralInstruction;
+import aya.instruction.Instruction;
+import aya.instruction.InstructionStack;
+import aya.instruction.InterpolateStringInstruction;
+import aya.instruction.LambdaInstruction;
+import aya.instruction.ListBuilderInstruction;
+import aya.instruction.ListLiteralInstruction;
+import aya.instruction.StringLiteralInstruction;
+import aya.instruction.TupleInstruction;
+import aya.instruction.index.GetExprIndexInstruction;
+import aya.instruction.index.GetNumberIndexInstruction;
+import aya.instruction.index.GetObjIndexInstruction;
+import aya.instruction.index.GetVarIndexInstruction;
+import aya.instruction.index.SetExprIndexInstruction;
+import aya.instruction.index.SetNumberIndexInstruction;
+import aya.instruction.index.SetObjIndexInstruction;
+import aya.instruction.index.SetVarIndexInstruction;
+import aya.instruction.named.NamedOperator;
+import aya.instruction.named.NamedOperatorInstruction;
+import aya.instruction.op.ColonOps;
+import aya.instruction.op.DotOps;
+import aya.instruction.op.MiscOps;
+import aya.instruction.op.Operator;
+import aya.instruction.op.OperatorInstruction;
+import aya.instruction.op.Ops;
+import aya.instruction.variable.GetCDictInstruction;
+import aya.instruction.variable.GetKeyVariableInstruction;
+import aya.instruction.variable.GetLocalVariableInstruction;
+import aya.instruction.variable.GetVariableInstruction;
+import aya.instruction.variable.QuoteGetKeyVariableInstruction;
+import aya.instruction.variable.QuoteGetVariableInstruction;
+import aya.instruction.variable.SetKeyVariableInstruction;
+import aya.instruction.variable.SetLocalVariableInstruction;
+import aya.instruction.variable.SetVariableInstruction;
+import aya.instruction.variable.VariableInstruction;
+import aya.instruction.variable.assignment.Assignment;
+import aya.instruction.variable.assignment.SimpleAssignment;
+import aya.instruction.variable.assignment.TypedAssignment;
+import aya.instruction.variable.assignment.UnpackAssignment;
+import aya.obj.Obj;
+import aya.obj.character.Char;
+import aya.obj.dict.Dict;
+import aya.obj.list.List;
+import aya.obj.list.numberlist.DoubleList;
+import aya.obj.number.BigNum;
+import aya.obj.number.ComplexNum;
+import aya.obj.number.FractionNum;
+import aya.obj.number.Num;
+import aya.obj.symbol.Symbol;
+import aya.obj.symbol.SymbolTable;
+import aya.parser.SourceString;
+import aya.parser.SourceStringRef;
+import aya.variable.FrameLayout;
+
+/**
+ * Compact binary form of a compiled block (see ImageCache)
+ *
+ * Images store the instructions produced by the parser, so reading an image
+ * gives the same block as compiling its source again. Source references are
+ * stored as offsets into the source string and are bound to the source when
+ * the image is read. Symbols and frame layouts are written once and referred
+ * to by index afterwards. Operators and named operators are stored by name and
+ * looked up again when the image is read.
+ *
+ * Images may also hold the dicts of an interpreter (see StartupSnapshot). In
+ * that case lists, dicts and their contents are stored as well, objects which
+ * are referred to more than once are written once and the sources of the blocks
+ * are stored with the image.
+ */
+public class BlockImage {
+
+	// Instructions
+	private static final int DATA = 0;
+	private static final int STRING = 1;
+	private static final int INTERPOLATE_STRING = 2;
+	private static final int GET_VAR = 3;
+	private static final int SET_VAR = 4;
+	private static final int GET_KEY_VAR = 5;
+	private static final int SET_KEY_VAR = 6;
+	private static final int QUOTE_GET_VAR = 7;
+	private static final int QUOTE_GET_KEY_VAR = 8;
+	private static final int GET_CDICT = 9;
+	private static final int GET_LOCAL_VAR = 10;
+	private static final int SET_LOCAL_VAR = 11;
+	private static final int OPERATOR = 12;
+	private static final int NAMED_OPERATOR = 13;
+	private static final int BLOCK_LITERAL = 14;
+	private static final int DICT_LITERAL = 15;
+	private static final int EMPTY_DICT = 16;
+	private static final int EMPTY_LIST = 17;
+	private static final int LIST_LITERAL = 18;
+	private static final int LIST_BUILDER = 19;
+	private static final int LAMBDA = 20;
+	private static final int TUPLE = 21;
+	private static final int GET_NUMBER_INDEX = 22;
+	private static final int GET_OBJ_INDEX = 23;
+	private static final int GET_VAR_INDEX = 24;
+	private static final int GET_EXPR_INDEX = 25;
+	private static final int SET_NUMBER_INDEX = 26;
+	private static final int SET_OBJ_INDEX = 27;
+	private static final int SET_VAR_INDEX = 28;
+	private static final int SET_EXPR_INDEX = 29;
+
+	// Objects
+	private static final int NUM = 0;
+	private static final int BIGNUM = 1;
+	private static final int FRACTION = 2;
+	private static final int COMPLEX = 3;
+	private static final int CHAR = 4;
+	private static final int SYMBOL = 5;
+	private static final int STR = 6;
+	private static final int BLOCK = 7;
+	private static final int DICT = 8;
+	private static final int LIST = 9;
+	private static final int REF = 10;
+
+	// Lists
+	private static final int GENERIC_LIST = 0;
+	private static final int STR_LIST = 1;
+	private static final int DOUBLE_LIST = 2;
+
+	// Assignments
+	private static final int SIMPLE = 0;
+	private static final int TYPED = 1;
+	private static final int UNPACK = 2;
+
+	/** Thrown while writing if a block contains something which can not be stored in an image */
+	private static class UnsupportedException extends Exception {
+		private static final long serialVersionUID = 1L;
+
+		UnsupportedException(Object o) {
+			super("Can not store " + o.getClass().getSimpleName() + " in a block image");
+		}
+	}
+
+
+	////////////
+	// WRITER //
+	////////////
+
+	/** Returns the image of the block or null if the block can not be stored as an image */
+	public static byte[] write(StaticBlock block) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			Writer w = new Writer(new DataOutputStream(bytes), false);
+			w.block(block);
+			w.out.flush();
+			return bytes.toByteArray();
+		} catch (UnsupportedException e) {
+			return null;
+		} catch (IOException e) {
+			// ByteArrayOutputStream does not throw
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Returns an image of the contents of the dicts and everything they refer to,
+	 * or null if they hold something which can not be stored in an image
+	 */
+	public static byte[] writeDicts(Dict[] roots) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			Writer w = new Writer(new DataOutputStream(bytes), true);
+			// The roots are known to the reader and are always referred to by index
+			for (Dict d : roots) w.ids.put(d, w.ids.size());
+			for (Dict d : roots) w.dictItems(d);
+			w.out.flush();
+			return bytes.toByteArray();
+		} catch (UnsupportedException e) {
+			return null;
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static class Writer {
+		final DataOutputStream out;
+		final HashMap<Symbol, Integer> symbols = new HashMap<Symbol, Integer>();
+		final IdentityHashMap<FrameLayout, Integer> layouts = new IdentityHashMap<FrameLayout, Integer>();
+
+		// Object graphs only
+		final boolean graph;
+		final IdentityHashMap<Obj, Integer> ids = new IdentityHashMap<Obj, Integer>();
+		final IdentityHashMap<Obj, Obj> open = new IdentityHashMap<Obj, Obj>();
+		final IdentityHashMap<SourceString, Integer> sources = new IdentityHashMap<SourceString, Integer>();
+
+		Writer(DataOutputStream out, boolean graph) {
+			this.out = out;
+			this.graph = graph;
+		}
+
+		void block(StaticBlock b) throws IOException, UnsupportedException {
+			Dict locals = b.getLocals();
+			if (locals == null) {
+				varint(0);
+			} else {
+				ArrayList<Symbol> keys = locals.keys();
+				varint(keys.size() + 1);
+				for (Symbol k : keys) {
+					symbol(k);
+					obj(locals.get(k));
+				}
+			}
+			ArrayList<Assignment> args = b.getArgs();
+			varint(args == null ? 0 : args.size());
+			if (args != null) {
+				for (Assignment a : args) assignment(a);
+			}
+			instructions(b.getInstructions());
+		}
+
+		void instructions(ArrayList<Instruction> is) throws IOException, UnsupportedException {
+			varint(is.size());
+			for (Instruction i : is) instruction(i);
+		}
+
+		void instruction(Instruction i) throws IOException, UnsupportedException {
+			final Class<?> cls = i.getClass();
+			if (cls == DataInstruction.class) {
+				tag(DATA, i);
+				obj(((DataInstruction)i).getData());
+			} else if (cls == StringLiteralInstruction.class) {
+				tag(STRING, i);
+				string(((StringLiteralInstruction)i).getString());
+			} else if (cls == InterpolateStringInstruction.class) {
+				InterpolateStringInstruction s = (InterpolateStringInstruction)i;
+				tag(INTERPOLATE_STRING, i);
+				string(s.getString());
+				instructions(s.getInstructions().getInstrucionList());
+			} else if (cls == GetVariableInstruction.class) {
+				variable(GET_VAR, i);
+			} else if (cls == SetVariableInstruction.class) {
+				variable(SET_VAR, i);
+			} else if (cls == GetKeyVariableInstruction.class) {
+				variable(GET_KEY_VAR, i);
+			} else if (cls == SetKeyVariableInstruction.class) {
+				variable(SET_KEY_VAR, i);
+			} else if (cls == QuoteGetVariableInstruction.class) {
+				variable(QUOTE_GET_VAR, i);
+			} else if (cls == QuoteGetKeyVariableInstruction.class) {
+				variable(QUOTE_GET_KEY_VAR, i);
+			} else if (cls == GetCDictInstruction.class) {
+				variable(GET_CDICT, i);
+			} else if (cls == GetLocalVariableInstruction.class) {
+				variable(GET_LOCAL_VAR, i);
+				layout(((GetLocalVariableInstruction)i).getLayout());
+			} else if (cls == SetLocalVariableInstruction.class) {
+				variable(SET_LOCAL_VAR, i);
+				layout(((SetLocalVariableInstruction)i).getLayout());
+			} else if (cls == OperatorInstruction.class) {
+				tag(OPERATOR, i);
+				string(((OperatorInstruction)i).getOperator().getName());
+			} else if (cls == NamedOperatorInstruction.class) {
+				tag(NAMED_OPERATOR, i);
+				string(((NamedOperatorInstruction)i).getOperator().getName());
+			} else if (cls == BlockLiteralInstruction.class) {
+				BlockLiteralInstruction b = (BlockLiteralInstruction)i;
+				tag(BLOCK_LITERAL, i);
+				out.writeBoolean(b.isAutoEval());
+				block(b.getRawBlock());
+				HashMap<Symbol, StaticBlock> defaults = b.getDefaults();
+				varint(defaults == null ? 0 : defaults.size());
+				if (defaults != null) {
+					for (Map.Entry<Symbol, StaticBlock> e : defaults.entrySet()) {
+						symbol(e.getKey());
+						block(e.getValue());
+					}
+				}
+			} else if (i == EmptyDictLiteralInstruction.INSTANCE) {
+				tag(EMPTY_DICT, i);
+			} else if (cls == DictLiteralInstruction.class) {
+				DictLiteralInstruction d = (DictLiteralInstruction)i;
+				tag(DICT_LITERAL, i);
+				varint(d.numCaptures());
+				block(d.getBlock());
+			} else if (i == EmptyListLiteralInstruction.INSTANCE) {
+				tag(EMPTY_LIST, i);
+			} else if (cls == ListLiteralInstruction.class) {
+				ListLiteralInstruction l = (ListLiteralInstruction)i;
+				tag(LIST_LITERAL, i);
+				varint(l.getPops());
+				instructions(l.getInstructions().getInstrucionList());
+			} else if (cls == ListBuilderInstruction.class) {
+				ListBuilderInstruction l = (ListBuilderInstruction)i;
+				tag(LIST_BUILDER, i);
+				varint(l.getPops());
+				block(l.getInitialList());
+				optionalBlock(l.getMap());
+				StaticBlock[] filters = l.getFilters();
+				varint(filters == null ? 0 : filters.length + 1);
+				if (filters != null) {
+					for (StaticBlock f : filters) block(f);
+				}
+			} else if (cls == LambdaInstruction.class) {
+				tag(LAMBDA, i);
+				instructions(((LambdaInstruction)i).getInstructions().getInstrucionList());
+			} else if (cls == TupleInstruction.class) {
+				StaticBlock[] elements = ((TupleInstruction)i).getElements();
+				tag(TUPLE, i);
+				varint(elements.length);
+				for (StaticBlock e : elements) block(e);
+			} else if (cls == GetNumberIndexInstruction.class) {
+				tag(GET_NUMBER_INDEX, i);
+				out.writeInt(((Num)((GetNumberIndexInstruction)i).getIndex()).toInt());
+			} else if (cls == GetObjIndexInstruction.class) {
+				tag(GET_OBJ_INDEX, i);
+				obj(((GetObjIndexInstruction)i).getIndex());
+			} else if (cls == GetVarIndexInstruction.class) {
+				tag(GET_VAR_INDEX, i);
+				symbol((Symbol)((GetVarIndexInstruction)i).getIndex());
+			} else if (cls == GetExprIndexInstruction.class) {
+				tag(GET_EXPR_INDEX, i);
+				block((StaticBlock)((GetExprIndexInstruction)i).getIndex());
+			} else if (cls == SetNumberIndexInstruction.class) {
+				tag(SET_NUMBER_INDEX, i);
+				out.writeInt(((Num)((SetNumberIndexInstruction)i).getIndex()).toInt());
+			} else if (cls == SetObjIndexInstruction.class) {
+				tag(SET_OBJ_INDEX, i);
+				obj(((SetObjIndexInstruction)i).getIndex());
+			} else if (cls == SetVarIndexInstruction.class) {
+				tag(SET_VAR_INDEX, i);
+				symbol((Symbol)((SetVarIndexInstruction)i).getIndex());
+			} else if (cls == SetExprIndexInstruction.class) {
+				tag(SET_EXPR_INDEX, i);
+				block((StaticBlock)((SetExprIndexInstruction)i).getIndex());
+			} else {
+				throw new UnsupportedException(i);
+			}
+		}
+
+		void tag(int tag, Instruction i) throws IOException {
+			out.writeByte(tag);
+			ref(i.getSource());
+		}
+
+		void variable(int tag, Instruction i) throws IOException {
+			tag(tag, i);
+			symbol(((VariableInstruction)i).getSymbol());
+		}
+
+		void optionalBlock(StaticBlock b) throws IOException, UnsupportedException {
+			out.writeBoolean(b != null);
+			if (b != null) block(b);
+		}
+
+		void assignment(Assignment a) throws IOException, UnsupportedException {
+			final Class<?> cls = a.getClass();
+			if (cls == SimpleAssignment.class) {
+				out.writeByte(SIMPLE);
+				ref(a.getSource());
+				symbol(((SimpleAssignment)a).getSymbol());
+			} else if (cls == TypedAssignment.class) {
+				TypedAssignment t = (TypedAssignment)a;
+				out.writeByte(TYPED);
+				ref(a.getSource());
+				symbol(t.var);
+				symbol(t.type);
+				out.writeBoolean(t.copy);
+			} else if (cls == UnpackAssignment.class) {
+				UnpackAssignment u = (UnpackAssignment)a;
+				out.writeByte(UNPACK);
+				ref(a.getSource());
+				varint(u.getArgs().size());
+				for (UnpackAssignment.Arg arg : u.getArgs()) {
+					assignment(arg.assignment);
+					out.writeBoolean(arg.slurp);
+				}
+				out.writeBoolean(u.getCatchall() != null);
+				if (u.getCatchall() != null) symbol(u.getCatchall());
+			} else {
+				throw new UnsupportedException(a);
+			}
+		}
+
+		void obj(Obj o) throws IOException, UnsupportedException {
+			final Class<?> cls = o.getClass();
+			if (graph && (cls == Dict.class || cls == List.class || cls == StaticBlock.class)) {
+				graphObj(o);
+			} else if (cls == Num.class) {
+				out.writeByte(NUM);
+				out.writeDouble(((Num)o).toDouble());
+			} else if (cls == BigNum.class) {
+				out.writeByte(BIGNUM);
+				string(((BigNum)o).toBigDecimal().toString());
+			} else if (cls == FractionNum.class) {
+				out.writeByte(FRACTION);
+				string(((FractionNum)o).numerator().toString());
+				string(((FractionNum)o).denominator().toString());
+			} else if (cls == ComplexNum.class) {
+				out.writeByte(COMPLEX);
+				out.writeDouble(((ComplexNum)o).r());
+				out.writeDouble(((ComplexNum)o).i());
+			} else if (cls == Char.class) {
+				out.writeByte(CHAR);
+				out.writeChar(((Char)o).charValue());
+			} else if (cls == Symbol.class) {
+				out.writeByte(SYMBOL);
+				symbol((Symbol)o);
+			} else if (o.isa(Obj.STR)) {
+				out.writeByte(STR);
+				string(o.str());
+			} else if (cls == StaticBlock.class) {
+				// Interpolated string expressions
+				out.writeByte(BLOCK);
+				block((StaticBlock)o);
+			} else {
+				throw new UnsupportedException(o);
+			}
+		}
+
+		/**
+		 * Dicts are registered before their items are written so they may refer to
+		 * themselves. Lists and blocks are registered after their contents and may not
+		 */
+		void graphObj(Obj o) throws IOException, UnsupportedException {
+			Integer id = ids.get(o);
+			if (id != null) {
+				out.writeByte(REF);
+				varint(id);
+			} else if (o.isa(Obj.DICT)) {
+				out.writeByte(DICT);
+				ids.put(o, ids.size());
+				dictItems((Dict)o);
+			} else {
+				if (open.put(o, o) != null) throw new UnsupportedException(o);
+				if (o.isa(Obj.BLOCK)) {
+					out.writeByte(BLOCK);
+					block((StaticBlock)o);
+				} else {
+					list((List)o);
+				}
+				open.remove(o);
+				ids.put(o, ids.size());
+			}
+		}
+
+		void dictItems(Dict d) throws IOException, UnsupportedException {
+			ArrayList<Symbol> keys = d.keys();
+			varint(keys.size());
+			for (Symbol k : keys) {
+				symbol(k);
+				obj(d.getOrNullNoMeta(k));
+			}
+		}
+
+		void list(List l) throws IOException, UnsupportedException {
+			out.writeByte(LIST);
+			if (l.isa(Obj.STR)) {
+				out.writeByte(STR_LIST);
+				string(l.str());
+			} else if (l.isa(Obj.DOUBLELIST)) {
+				double[] ds = l.toNumberList().todoubleArray();
+				out.writeByte(DOUBLE_LIST);
+				varint(ds.length);
+				for (double d : ds) out.writeDouble(d);
+			} else {
+				out.writeByte(GENERIC_LIST);
+				varint(l.length());
+				for (int i = 0; i < l.length(); i++) obj(l.getExact(i));
+			}
+		}
+
+		/** The first use of a symbol writes its name, later uses write its index + 1 */
+		void symbol(Symbol s) throws IOException {
+			Integer idx = symbols.get(s);
+			if (idx == null) {
+				symbols.put(s, symbols.size());
+				varint(0);
+				string(SymbolTable.getName(s));
+			} else {
+				varint(idx + 1);
+			}
+		}
+
+		void layout(FrameLayout layout) throws IOException {
+			Integer idx = layouts.get(layout);
+			if (idx == null) {
+				layouts.put(layout, layouts.size());
+				varint(0);
+				varint(layout.size());
+				for (int i = 0; i < layout.size(); i++) symbol(layout.name(i));
+			} else {
+				varint(idx + 1);
+			}
+		}
+
+		void ref(SourceStringRef ref) throws IOException {
+			if (!graph) {
+				varint(ref == null ? 0 : ref.getIndex() + 1);
+			} else if (ref == null) {
+				varint(0);
+			} else {
+				// 1: a new source follows, n: the source with index n-2
+				Integer idx = sources.get(ref.getSource());
+				if (idx == null) {
+					sources.put(ref.getSource(), sources.size());
+					varint(1);
+					string(ref.getSource().getFilename());
+					string(ref.getSource().getSource());
+				} else {
+					varint(idx + 2);
+				}
+				varint(ref.getIndex());
+			}
+		}
+
+		void string(String s) throws IOException {
+			byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			varint(bytes.length);
+			out.write(bytes);
+		}
+
+		void varint(int n) throws IOException {
+			while ((n & ~0x7F) != 0) {
+				out.writeByte((n & 0x7F) | 0x80);
+				n >>>= 7;
+			}
+			out.writeByte(n);
+		}
+	}
+
+
+	////////////
+	// READER //
+	////////////
+
+	/**
+	 * Read a block from its image. Source references are bound to source, which must
+	 * be the source the block was compiled from. Throws an IOException if the image is
+	 * invalid or refers to operators which do not exist
+	 */
+	public static StaticBlock read(DataInputStream in, SourceString source) throws IOException {
+		return new Reader(in, source).block();
+	}
+
+	/**
+	 * Read the contents of the dicts from an image created by writeDicts. The items
+	 * are added to the roots, which must be the same number of dicts as were written
+	 */
+	public static void readDicts(DataInputStream in, Dict[] roots) throws IOException {
+		Reader r = new Reader(in, null);
+		for (Dict d : roots) r.objs.add(d);
+		for (Dict d : roots) r.dictItems(d);
+	}
+
+	private static class Reader {
+		final DataInputStream in;
+		final SourceString source;
+		final ArrayList<Symbol> symbols = new ArrayList<Symbol>();
+		final ArrayList<FrameLayout> layouts = new ArrayList<FrameLayout>();
+
+		// Object graphs only, source is null
+		final ArrayList<Obj> objs = new ArrayList<Obj>();
+		final ArrayList<SourceString> sources = new ArrayList<SourceString>();
+
+		Reader(DataInputStream in, SourceString source) {
+			this.in = in;
+			this.source = source;
+		}
+
+		StaticBlock block() throws IOException {
+			Dict locals = null;
+			final int nlocals = varint() - 1;
+			if (nlocals >= 0) {
+				locals = new Dict();
+				for (int i = 0; i < nlocals; i++) {
+					Symbol k = symbol();
+					locals.set(k, obj());
+				}
+			}
+			ArrayList<Assignment> args = null;
+			final int nargs = varint();
+			if (nargs > 0) {
+				args = new ArrayList<Assignment>(nargs);
+				for (int i = 0; i < nargs; i++) args.add(assignment());
+			}
+			return new StaticBlock(instructions(), locals, args);
+		}
+
+		ArrayList<Instruction> instructions() throws IOException {
+			final int n = varint();
+			ArrayList<Instruction> is = new ArrayList<Instruction>(n);
+			for (int i = 0; i < n; i++) is.add(instruction());
+			return is;
+		}
+
+		InstructionStack instructionStack() throws IOException {
+			InstructionStack is = new InstructionStack();
+			for (Instruction i : instructions()) is.push(i);
+			return is;
+		}
+
+		Instruction instruction() throws IOException {
+			final int tag = in.readUnsignedByte();
+			final SourceStringRef ref = ref();
+			switch (tag) {
+			case DATA:
+				return new DataInstruction(obj());
+			case STRING:
+				return new StringLiteralInstruction(ref, string());
+			case INTERPOLATE_STRING:
+				return new InterpolateStringInstruction(ref, string(), instructionStack());
+			case GET_VAR:
+				return new GetVariableInstruction(ref, symbol());
+			case SET_VAR:
+				return new SetVariableInstruction(ref, symbol());
+			case GET_KEY_VAR:
+				return new GetKeyVariableInstruction(ref, symbol());
+			case SET_KEY_VAR:
+				return new SetKeyVariableInstruction(ref, symbol());
+			case QUOTE_GET_VAR:
+				return new QuoteGetVariableInstruction(ref, symbol());
+			case QUOTE_GET_KEY_VAR:
+				return new QuoteGetKeyVariableInstruction(ref, symbol());
+			case GET_CDICT:
+				return new GetCDictInstruction(ref, symbol());
+			case GET_LOCAL_VAR:
+			{
+				Symbol var = symbol();
+				FrameLayout layout = layout();
+				return new GetLocalVariableInstruction(ref, var, layout, slot(layout, var));
+			}
+			case SET_LOCAL_VAR:
+			{
+				Symbol var = symbol();
+				FrameLayout layout = layout();
+				return new SetLocalVariableInstruction(ref, var, layout, slot(layout, var));
+			}
+			case OPERATOR:
+				return new OperatorInstruction(ref, operator(string()));
+			case NAMED_OPERATOR:
+			{
+				String name = string();
+				NamedOperator op = StaticData.getInstance().getNamedInstruction(name);
+				if (op == null) throw new IOException("Named instruction :{" + name + "} does not exist");
+				return new NamedOperatorInstruction(ref, op);
+			}
+			case BLOCK_LITERAL:
+			{
+				boolean auto_eval = in.readBoolean();
+				StaticBlock b = block();
+				HashMap<Symbol, StaticBlock> defaults = null;
+				final int n = varint();
+				if (n > 0) {
+					defaults = new HashMap<Symbol, StaticBlock>();
+					for (int i = 0; i < n; i++) {
+						Symbol k = symbol();
+						defaults.put(k, block());
+					}
+				}
+				BlockLiteralInstruction bli = new BlockLiteralInstruction(ref, b, defaults);
+				if (auto_eval) bli.setAutoEval();
+				return bli;
+			}
+			case DICT_LITERAL:
+			{
+				int n = varint();
+				return new DictLiteralInstruction(ref, block(), n);
+			}
+			case EMPTY_DICT:
+				return EmptyDictLiteralInstruction.INSTANCE;
+			case EMPTY_LIST:
+				return EmptyListLiteralInstruction.INSTANCE;
+			case LIST_LITERAL:
+			{
+				int pops = varint();
+				return new ListLiteralInstruction(ref, instructionStack(), pops);
+			}
+			case LIST_BUILDER:
+			{
+				int pops = varint();
+				StaticBlock initial = block();
+				StaticBlock map = in.readBoolean() ? block() : null;
+				StaticBlock[] filters = null;
+				final int n = varint() - 1;
+				if (n >= 0) {
+					filters = new StaticBlock[n];
+					for (int i = 0; i < n; i++) filters[i] = block();
+				}
+				return new ListBuilderInstruction(ref, initial, map, filters, pops);
+			}
+			case LAMBDA:
+				return new LambdaInstruction(ref, instructionStack());
+			case TUPLE:
+			{
+				StaticBlock[] elements = new StaticBlock[varint()];
+				for (int i = 0; i < elements.length; i++) elements[i] = block();
+				return new TupleInstruction(ref, elements);
+			}
+			case GET_NUMBER_INDEX:
+				return new GetNumberIndexInstruction(ref, in.readInt());
+			case GET_OBJ_INDEX:
+				return new GetObjIndexInstruction(ref, obj());
+			case GET_VAR_INDEX:
+				return new GetVarIndexInstruction(ref, symbol());
+			case GET_EXPR_INDEX:
+				return new GetExprIndexInstruction(ref, block());
+			case SET_NUMBER_INDEX:
+				return new SetNumberIndexInstruction(ref, in.readInt());
+			case SET_OBJ_INDEX:
+				return new SetObjIndexInstruction(ref, obj());
+			case SET_VAR_INDEX:
+				return new SetVarIndexInstruction(ref, symbol());
+			case SET_EXPR_INDEX:
+				return new SetExprIndexInstruction(ref, block());
+			default:
+				throw new IOException("Invalid instruction tag in block image: " + tag);
+			}
+		}
+
+		Assignment assignment() throws IOException {
+			final int tag = in.readUnsignedByte();
+			final SourceStringRef ref = ref();
+			switch (tag) {
+			case SIMPLE:
+				return new SimpleAssignment(ref, symbol());
+			case TYPED:
+			{
+				Symbol var = symbol();
+				Symbol type = symbol();
+				return new TypedAssignment(ref, var, type, in.readBoolean());
+			}
+			case UNPACK:
+			{
+				final int n = varint();
+				ArrayList<UnpackAssignment.Arg> args = new ArrayList<UnpackAssignment.Arg>(n);
+				for (int i = 0; i < n; i++) {
+					Assignment a = assignment();
+					args.add(new UnpackAssignment.Arg(a, in.readBoolean()));
+				}
+				Symbol catchall = in.readBoolean() ? symbol() : null;
+				try {
+					return UnpackAssignment.fromArgList(args, catchall, ref);
+				} catch (ParserException e) {
+					throw new IOException(e.getMessage());
+				}
+			}
+			default:
+				throw new IOException("Invalid assignment tag in block image: " + tag);
+			}
+		}
+
+		Obj obj() throws IOException {
+			final int tag = in.readUnsignedByte();
+			switch (tag) {
+			case NUM:
+				return new Num(in.readDouble());
+			case BIGNUM:
+				return new BigNum(new BigDecimal(string()));
+			case FRACTION:
+			{
+				BigInteger n = new BigInteger(string());
+				return new FractionNum(n, new BigInteger(string()));
+			}
+			case COMPLEX:
+			{
+				double r = in.readDouble();
+				return new ComplexNum(r, in.readDouble());
+			}
+			case CHAR:
+				return Char.valueOf(in.readChar());
+			case SYMBOL:
+				return symbol();
+			case STR:
+				return List.fromString(string());
+			case BLOCK:
+			{
+				StaticBlock b = block();
+				if (source == null) objs.add(b);
+				return b;
+			}
+			case DICT:
+			{
+				Dict d = new Dict();
+				objs.add(d);
+				dictItems(d);
+				return d;
+			}
+			case LIST:
+			{
+				List l = list();
+				objs.add(l);
+				return l;
+			}
+			case REF:
+			{
+				final int id = varint();
+				if (id >= objs.size()) throw new IOException("Invalid object reference in block image: " + id);
+				return objs.get(id);
+			}
+			default:
+				throw new IOException("Invalid object tag in block image: " + tag);
+			}
+		}
+
+		void dictItems(Dict d) throws IOException {
+			final int n = varint();
+			for (int i = 0; i < n; i++) {
+				Symbol k = symbol();
+				d.set(k, obj());
+			}
+		}
+
+		List list() throws IOException {
+			final int kind = in.readUnsignedByte();
+			switch (kind) {
+			case STR_LIST:
+				return List.fromString(string());
+			case DOUBLE_LIST:
+			{
+				double[] ds = new double[varint()];
+				for (int i = 0; i < ds.length; i++) ds[i] = in.readDouble();
+				return new List(new DoubleList(ds));
+			}
+			case GENERIC_LIST:
+			{
+				final int n = varint();
+				ArrayList<Obj> items = new ArrayList<Obj>(n);
+				for (int i = 0; i < n; i++) items.add(obj());
+				return new List(items);
+			}
+			default:
+				throw new IOException("Invalid list kind in block image: " + kind);
+			}
+		}
+
+		Symbol symbol() throws IOException {
+			final int idx = varint();
+			if (idx == 0) {
+				Symbol s = SymbolTable.getSymbol(string());
+				symbols.add(s);
+				return s;
+			} else if (idx <= symbols.size()) {
+				return symbols.get(idx - 1);
+			} else {
+				throw new IOException("Invalid symbol index in block image: " + idx);
+			}
+		}
+
+		FrameLayout layout() throws IOException {
+			final int idx = varint();
+			if (idx == 0) {
+				final int n = varint();
+				ArrayList<Symbol> names = new ArrayList<Symbol>(n);
+				for (int i = 0; i < n; i++) names.add(symbol());
+				FrameLayout layout = FrameLayout.of(names);
+				if (layout == null) throw new IOException("Invalid frame layout in block image");
+				layouts.add(layout);
+				return layout;
+			} else if (idx <= layouts.size()) {
+				return layouts.get(idx - 1);
+			} else {
+				throw new IOException("Invalid layout index in block image: " + idx);
+			}
+		}
+
+		/** Slots are assigned by symbol id which is not the same in every run, look them up again */
+		int slot(FrameLayout layout, Symbol var) throws IOException {
+			final int slot = layout.indexOf(var);
+			if (slot < 0) throw new IOException("Variable " + var.name() + " is not part of its frame layout");
+			return slot;
+		}
+
+		Operator operator(String name) throws IOException {
+			OperatorInstruction op;
+			try {
+				if (name.length() == 1) {
+					op = Ops.getOp(name.charAt(0), null);
+				} else if (name.charAt(0) == '.') {
+					op = DotOps.getOp(name.charAt(1), null);
+				} else if (name.charAt(0) == ':') {
+					op = ColonOps.getOp(name.charAt(1), null);
+				} else if (name.charAt(0) == 'M') {
+					op = MiscOps.getOp(name.charAt(1), null);
+				} else {
+					op = null;
+				}
+			} catch (ParserException | RuntimeException e) {
+				op = null;
+			}
+			if (op == null || !op.getOperator().getName().equals(name)) {
+				throw new IOException("Operator '" + name + "' does not exist");
+			}
+			return op.getOperator();
+		}
+
+		SourceStringRef ref() throws IOException {
+			final int idx = varint();
+			if (idx == 0) {
+				return null;
+			} else if (source != null) {
+				return source.ref(idx - 1);
+			} else if (idx == 1) {
+				String filename = string();
+				sources.add(new SourceString(string(), filename));
+				return sources.get(sources.size() - 1).ref(varint());
+			} else if (idx - 2 < sources.size()) {
+				return sources.get(idx - 2).ref(varint());
+			} else {
+				throw new IOException("Invalid source index in block image: " + idx);
+			}
+		}
+
+		String string() throws IOException {
+			byte[] bytes = new byte[varint()];
+			in.readFully(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		int varint() throws IOException {
+			int n = 0;
+			for (int shift = 0; shift < 32; shift += 7) {
+				final int b = in.readUnsignedByte();
+				n |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) return n;
+			}
+			throw new IOException("Invalid varint in block image");
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package aya.obj.block;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import aya.instruction.BlockLiteralInstruction;
+import aya.instruction.DataInstruction;
+import aya.instruction.Instruction;
+import aya.instruction.fused.FusedInstruction;
+import aya.instruction.fused.FusedVariableInstruction;
+import aya.instruction.op.OperatorInstruction;
+import aya.instruction.variable.GetKeyVariableInstruction;
+import aya.instruction.variable.GetLocalVariableInstruction;
+import aya.instruction.variable.GetVariableInstruction;
+import aya.instruction.variable.SetKeyVariableInstruction;
+import aya.instruction.variable.SetLocalVariableInstruction;
+import aya.instruction.variable.SetVariableInstruction;
+
+/**
+ * Peephole pass which replaces common instruction sequences with a single
+ * fused instruction (see FusedInstruction)
+ *
+ * Patterns are tried in the order of the table below. The counts are the
+ * number of times each sequence occurs in std/, examples/ and test/ after
+ * variable resolution. Longer patterns are tried before the shorter
+ * patterns they contain.
+ */
+public class InstructionFuser {
+
+	/** If false, no instructions are fused */
+	public static boolean ENABLED = true;
+
+	private static final int OTHER = 0;
+	private static final int VAR = 1;   // x
+	private static final int DATA = 2;  // 1 "a" ::s
+	private static final int OP = 3;    // + = .? ...
+	private static final int KEY = 4;   // .x
+	private static final int SET = 5;   // :x .:x
+	private static final int POP = 6;   // ;
+	private static final int BLOCK = 7; // {...}
+
+	private static final int[][] PATTERNS = {
+		{VAR, DATA, OP},     //  65  x 1 +
+		{BLOCK, BLOCK, OP},  //  73  {..} {..} .?
+		{VAR, VAR},          // 839  x y
+		{VAR, KEY},          // 685  x.y
+		{SET, POP},          // 643  :x;
+		{DATA, DATA},        // 640  1 2
+		{VAR, DATA},         // 622  x 1
+		{VAR, OP},           // 467  x !
+		{DATA, OP},          // 457  0 =
+		{BLOCK, OP},         // 443  {..} ?
+	};
+
+	/**
+	 * Returns a copy of the instructions with common sequences fused or null
+	 * if nothing could be fused
+	 */
+	static ArrayList<Instruction> fuse(ArrayList<Instruction> instructions) {
+		if (!ENABLED) return null;
+
+		final int n = instructions.size();
+		final int[] kinds = new int[n];
+		for (int i = 0; i < n; i++) {
+			kinds[i] = kindOf(instructions.get(i));
+			// :` reads the instructions that follow it, they must not be changed
+			if (kinds[i] == OP && isQuoteOp(instructions.get(i))) return null;
+		}
+
+		// Instructions are stored in reverse order, walk them in the order they are run
+		ArrayList<Instruction> out = new ArrayList<Instruction>(n);
+		boolean fused = false;
+		int i = n - 1;
+		while (i >= 0) {
+			final int[] pattern = match(kinds, i);
+			if (pattern == null) {
+				out.add(instructions.get(i));
+				i--;
+			} else {
+				final Instruction[] parts = new Instruction[pattern.length];
+				for (int j = 0; j < parts.length; j++) {
+					parts[j] = instructions.get(i - j);
+				}
+				out.add(create(pattern, parts));
+				fused = true;
+				i -= pattern.length;
+			}
+		}
+
+		if (!fused) return null;
+
+		// Back to reverse order
+		Collections.reverse(out);
+		return out;
+	}
+
+	private static int[] match(int[] kinds, int i) {
+		for (int[] pattern : PATTERNS) {
+			if (i + 1 < pattern.length) continue;
+			boolean matches = true;
+			for (int j = 0; j < pattern.length && matches; j++) {
+				matches = kinds[i - j] == pattern[j];
+			}
+			if (matches) return pattern;
+		}
+		return null;
+	}
+
+	private static Instruction create(int[] pattern, Instruction[] parts) {
+		if (pattern[0] == VAR) {
+			final Instruction[] rest = new Instruction[parts.length - 1];
+			System.arraycopy(parts, 1, rest, 0, rest.length);
+			return new FusedVariableInstruction((GetVariableInstruction)parts[0], rest);
+		} else {
+			return new FusedInstruction(parts);
+		}
+	}
+
+	private static int kindOf(Instruction instr) {
+		final Class<?> cls = instr.getClass();
+		if (cls == GetVariableInstruction.class || cls == GetLocalVariableInstruction.class) {
+			return VAR;
+		} else if (cls == GetKeyVariableInstruction.class) {
+			return KEY;
+		} else if (cls == SetVariableInstruction.class || cls == SetLocalVariableInstruction.class
+				|| cls == SetKeyVariableInstruction.class) {
+			return SET;
+		} else if (cls == DataInstruction.class) {
+			return DATA;
+		} else if (cls == BlockLiteralInstruction.class) {
+			// Blocks in parentheses are run immediately
+			return ((BlockLiteralInstruction)instr).isAutoEval() ? OTHER : BLOCK;
+		} else if (instr instanceof OperatorInstruction) {
+			return ((OperatorInstruction)instr).getOperator().getName().equals(";") ? POP : OP;
+		} else {
+			return OTHER;
+		}
+	}
+
+	private static boolean isQuoteOp(Instruction instr) {
+		return ((OperatorInstruction)instr).getOperator().getName().equals(":`");
+	}
+}
@@ -6,25 +6,43 @@ import aya.ReprStream;
 import aya.eval.BlockEvaluator;
 import aya.instruction.Instruction;
 import aya.instruction.variable.assignment.Assignment;
+import aya.obj.Obj;
 import aya.obj.dict.Dict;
+import aya.variable.FrameLayout;
 
 public class NewLocalsInstruction extends Instruction {
 
 	private Dict _locals;
 	private ArrayList<Assignment> _args;
+	// If not null, locals are stored in a frame with this layout
+	private FrameLayout _layout;
+	// Initial values of the frame slots (null for args)
+	private Obj[] _defaults;
 	
 		
 	/** This instruction should only be created by dumpToBlockEvaluator */
-	protected NewLocalsInstruction(Dict locals, ArrayList<Assignment> args) {
+	protected NewLocalsInstruction(Dict locals, ArrayList<Assignment> args, FrameLayout layout) {
 		super(null);
 		_locals = locals;
 		_args = args;
+		_layout = layout;
 		if (_locals == null) throw new AssertionError();
-
+		
+		if (_layout != null) {
+			_defaults = new Obj[_layout.size()];
+			for (int i = 0; i < _defaults.length; i++) {
+				_defaults[i] = _locals.getOrNullNoMeta(_layout.name(i));
+			}
+		}
 	}
 	
 	@Override
 	public void execute(BlockEvaluator blockEvaluator) {
+		if (_layout != null) {
+			executeFrame(blockEvaluator);
+			return;
+		}
+
 		Dict locals = _locals.clone();
 
 		if (_args != null) {
@@ -39,6 +57,19 @@ public class NewLocalsInstruction extends Instruction {
 		// Add a new variable frame to the variable stack
 		blockEvaluator.getContext().getVars().add(locals);
 	}
+	
+	private void executeFrame(BlockEvaluator blockEvaluator) {
+		Obj[] slots = _defaults.clone();
+		
+		if (_args != null) {
+			// Assign in reverse order
+			for (int i = _args.size()-1; i >= 0; i--) {
+				_args.get(i).assign(_layout, slots, blockEvaluator.pop());
+			}
+		}
+
+		blockEvaluator.getContext().getVars().add(_layout, slots);
+	}
 
 	@Override
 	public ReprStream repr(ReprStream stream) {
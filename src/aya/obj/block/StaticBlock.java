@@ -1,6 +1,7 @@
 package aya.obj.block;
 
 import java.util.ArrayList;
+import java.util.Collection;
 
 import aya.ReprStream;
 import aya.eval.BlockEvaluator;
@@ -9,6 +10,8 @@ import aya.instruction.flag.PopVarFlagInstruction;
 import aya.instruction.variable.assignment.Assignment;
 import aya.obj.Obj;
 import aya.obj.dict.Dict;
+import aya.obj.symbol.Symbol;
+import aya.variable.FrameLayout;
 
 public class StaticBlock extends Obj {
 	
@@ -16,8 +19,14 @@ public class StaticBlock extends Obj {
 	
 	private Dict _locals;
 	private ArrayList<Instruction> _instructions;
+	// Compiled copy of _instructions once the block is hot (see BlockCompiler)
+	// Only used to run the block, everything else sees the original instructions
+	private volatile ArrayList<Instruction> _compiled;
+	// Number of times the block has been run, -1 once it has been compiled
+	private int _calls;
 	private ArrayList<Assignment> _args;
 	private NewLocalsInstruction _new_locals_instruction;
+	private FrameLayout _layout;
 	
 	protected StaticBlock(ArrayList<Instruction> instructions, Dict locals, ArrayList<Assignment> args) {
 		// If args is empty, just use null
@@ -26,6 +35,7 @@ public class StaticBlock extends Obj {
 		_locals = locals;
 		_args = args;
 		_instructions = instructions;
+		_calls = 0;
 
 		// If we have args, locals is implied
 		if (_args != null && _locals == null) {
@@ -33,9 +43,11 @@ public class StaticBlock extends Obj {
 		}
 		
 		if (_locals == null) {
+			_layout = null;
 			_new_locals_instruction = null;
 		} else {
-			_new_locals_instruction = new NewLocalsInstruction(_locals, _args);
+			_layout = layoutFor(_locals, _args, null);
+			_new_locals_instruction = new NewLocalsInstruction(_locals, _args, _layout);
 		}
 	}
 
@@ -44,20 +56,43 @@ public class StaticBlock extends Obj {
 	}
 	
 	public void dumpToBlockEvaluator(BlockEvaluator b) {
+		if (BlockCompiler.ENABLED && _calls >= 0 && ++_calls > BlockCompiler.THRESHOLD) {
+			compile();
+		}
+		
+		final ArrayList<Instruction> compiled = _compiled;
+		final ArrayList<Instruction> instructions = compiled == null ? _instructions : compiled;
 		if (_locals != null) {
 			// Pop the variable frame when the blockEvaluator is done
-			b.add(PopVarFlagInstruction.INSTANCE);
-			b.addAll(_instructions);
-			b.add(_new_locals_instruction);
+			b.addFrame(instructions, _new_locals_instruction, PopVarFlagInstruction.INSTANCE);
 		} else {
-			b.addAll(_instructions);
+			b.addFrame(instructions, null, null);
 		}
 	}
 	
+	private void compile() {
+		_compiled = BlockCompiler.compile(_instructions);
+		_calls = -1;
+	}
+	
 	public boolean hasLocals() {
 		return _locals != null;
 	}
 	
+	/** Returns the frame layout of all local variables and args in the block header */
+	protected static FrameLayout layoutFor(Dict locals, ArrayList<Assignment> args, Collection<Symbol> extra) {
+		ArrayList<Symbol> names = new ArrayList<Symbol>(locals.keys());
+		if (args != null) {
+			for (Assignment a : args) {
+				a.getSymbols(names);
+			}
+		}
+		if (extra != null) {
+			names.addAll(extra);
+		}
+		return FrameLayout.of(names);
+	}
+	
 	//////////////////////
 	// Used By BlockOps //
 	//////////////////////
@@ -73,6 +108,10 @@ public class StaticBlock extends Obj {
 	protected ArrayList<Assignment> getArgs() {
 		return _args;
 	}
+	
+	protected FrameLayout getLayout() {
+		return _layout;
+	}
 
 
 
@@ -0,0 +1,76 @@
+package aya.obj.block;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import aya.instruction.BlockLiteralInstruction;
+import aya.instruction.Instruction;
+import aya.instruction.LambdaInstruction;
+import aya.instruction.ListLiteralInstruction;
+import aya.instruction.variable.GetLocalVariableInstruction;
+import aya.instruction.variable.GetVariableInstruction;
+import aya.instruction.variable.SetLocalVariableInstruction;
+import aya.instruction.variable.SetVariableInstruction;
+import aya.obj.symbol.Symbol;
+import aya.variable.FrameLayout;
+
+/**
+ * Compile time pass which binds variables declared in a block header to slots
+ * in the block's variable frame.
+ * 
+ * Only instructions which run in the same scope as the block body are
+ * resolved: the body itself, lambdas, list literals, and blocks without a
+ * header (which are usually run inline, for example by .? or W). Resolved
+ * instructions check the layout of the innermost scope at runtime and fall
+ * back to the dynamic lookup if it does not match, so resolving a variable
+ * never changes its meaning.
+ */
+public class VariableResolver {
+	
+	/** If false, the resolver does nothing and all variables are looked up dynamically */
+	public static boolean ENABLED = true;
+	
+	/**
+	 * Resolve the variables in the block body. captures are additional header
+	 * variables that are merged into the block locals at runtime (may be null)
+	 */
+	public static void resolve(StaticBlock block, Collection<Symbol> captures) {
+		if (!ENABLED || !block.hasLocals()) return;
+		
+		FrameLayout layout = captures == null ? block.getLayout() : StaticBlock.layoutFor(block.getLocals(), block.getArgs(), captures);
+		if (layout != null) {
+			resolve(block.getInstructions(), layout);
+		}
+	}
+	
+	private static void resolve(ArrayList<Instruction> instructions, FrameLayout layout) {
+		for (int i = 0; i < instructions.size(); i++) {
+			final Instruction instr = instructions.get(i);
+			final Class<?> cls = instr.getClass();
+			
+			if (cls == GetVariableInstruction.class) {
+				final Symbol var = ((GetVariableInstruction)instr).getSymbol();
+				final int slot = layout.indexOf(var);
+				if (slot >= 0) {
+					instructions.set(i, new GetLocalVariableInstruction(instr.getSource(), var, layout, slot));
+				}
+			} else if (cls == SetVariableInstruction.class) {
+				final Symbol var = ((SetVariableInstruction)instr).getSymbol();
+				final int slot = layout.indexOf(var);
+				if (slot >= 0) {
+					instructions.set(i, new SetLocalVariableInstruction(instr.getSource(), var, layout, slot));
+				}
+			} else if (instr instanceof LambdaInstruction) {
+				resolve(((LambdaInstruction)instr).getInstructions().getInstrucionList(), layout);
+			} else if (instr instanceof ListLiteralInstruction) {
+				resolve(((ListLiteralInstruction)instr).getBlock().getInstructions(), layout);
+			} else if (instr instanceof BlockLiteralInstruction) {
+				StaticBlock inner = ((BlockLiteralInstruction)instr).getRawBlock();
+				// Blocks with a header create their own scope and are resolved on their own
+				if (!inner.hasLocals()) {
+					resolve(inner.getInstructions(), layout);
+				}
+			}
+		}
+	}
+}
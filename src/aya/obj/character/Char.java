@@ -281,6 +281,12 @@ public class Char extends Obj implements Comparable<Char> {
 		return ""+_c;
 	}
 
+	@Override
+	public int hashCode() {
+		// Same as the hash of a single character string
+		return _c;
+	}
+
 	@Override
 	public boolean equiv(Obj o) {
 		return o instanceof Char && ((Char)o)._c == _c;
@@ -3,6 +3,8 @@ package aya.obj.dict;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import aya.ReprStream;
 import aya.eval.BlockEvaluator;
@@ -25,6 +27,10 @@ public class Dict extends Obj {
 	/** The map of key-value pairs */
 	private HashMap<Symbol, Obj> _vars;
 	private Dict _meta; // Quick lookup for meta
+	private boolean _is_meta; // True if this dict has been used as a metatable
+
+	/** Incremented whenever a dict that is used as a metatable is modified. See MetaCache */
+	private static final AtomicInteger _meta_version = new AtomicInteger(0);
 
 	/** Create a new empty dict, use the input dict as the metatable */
 	private Dict(HashMap<Symbol, Obj> vars, Dict metatable) {
@@ -36,7 +42,7 @@ public class Dict extends Obj {
 		
 		if (metatable != null) {
 			_vars.put(SymbolConstants.KEYVAR_META, metatable);
-			_meta = metatable;
+			attachMeta(metatable);
 		}
 	}
 	
@@ -49,7 +55,23 @@ public class Dict extends Obj {
 	/** Set the metatable to the input dict */
 	public void setMetaTable(Dict d) {
 		_vars.put(SymbolConstants.KEYVAR_META, d);
+		attachMeta(d);
+		changed();
+	}
+
+	private void attachMeta(Dict d) {
 		_meta = d;
+		if (d != null) d._is_meta = true;
+	}
+
+	/** Must be called after every modification of this dict */
+	private void changed() {
+		if (_is_meta) _meta_version.incrementAndGet();
+	}
+
+	/** The current metatable version. Changes whenever any dict used as a metatable is modified */
+	static int metaVersion() {
+		return _meta_version.get();
 	}
 	
 
@@ -61,9 +83,14 @@ public class Dict extends Obj {
 		return hasMetaKey(SymbolConstants.KEYVAR_PUSHSELF);
 	}
 
+	/** Same as pushSelf() but the metatable lookup is served by the given cache */
+	public boolean pushSelf(MetaCache cache) {
+		return getFromMetaTableOrNull(cache) != null;
+	}
+
 	/** returns default value if key not found */
 	public Obj get(Symbol key, Obj dflt) {
-		Obj x = _get(key, false, null);
+		Obj x = _get(key, false);
 		if (x == null) {
 			return dflt;
 		} else {
@@ -73,7 +100,7 @@ public class Dict extends Obj {
 	
 	/** throws exception if key not found */
 	public Obj get(Symbol key) {
-		Obj o = _get(key, false, null);
+		Obj o = _get(key, false);
 		if (o == null) {
 			throw new IndexError(this, key);
 		} else {
@@ -82,15 +109,26 @@ public class Dict extends Obj {
 	}
 
 
+	/** throws exception if key not found, the metatable lookup is served by the given cache */
+	public Obj get(MetaCache cache) {
+		Obj o = _vars.get(cache.getKey());
+		if (o == null) o = getFromMetaTableOrNull(cache);
+		if (o == null) {
+			throw new IndexError(this, cache.getKey());
+		} else {
+			return o;
+		}
+	}
+
 	/** Returns null if key not found */
 	public Obj getSafe(Symbol key) {
-		return _get(key, false, null);
+		return _get(key, false);
 	}
 	
 
 	/** returns null if key not found */
 	private Obj _get(Symbol typeId) {
-		return _get(typeId, false, null);
+		return _get(typeId, false);
 	}
 
 
@@ -101,50 +139,53 @@ public class Dict extends Obj {
 	 *  
 	 *  If not found continue along the __meta__ chain
 	 * */
-	private Obj _get(Symbol typeId, boolean meta_only, ArrayList<Integer> visited) {
+	private Obj _get(Symbol typeId, boolean meta_only) {
 		Obj o = null;
 		if (!meta_only) o = _vars.get(typeId);
-		if (o != null)
-		{
-			return o;
+		if (o != null) return o;
+
+		// Walk the __meta__ chain, stop if a dict is visited twice
+		Dict d = this;
+		int depth = 0;
+		while (d._meta != null) {
+			final Dict next = d._meta;
+			if (inMetaChain(next, depth)) return null;
+			o = next._vars.get(typeId);
+			if (o != null) return o;
+			d = next;
+			depth++;
 		}
-		else {
-			// Check meta
-			if (_meta != null) {
-				// Add this dict as visited
-				// Only allocate the visited array if needed
-				if (visited == null) visited = new ArrayList<Integer>();
-				visited.add(this.hashCode());
-				
-				// Have we already visited this?
-				int hash = _meta.hashCode();
-				boolean visited_meta = false;
-				for (Integer i : visited) {
-					if (hash == i.intValue()) {
-						visited_meta = true;
-						break;
-					}
-				}
-				
-				// Already visited, do not look up
-				if (visited_meta) {
-					return null;
-				} else {
-					// Not visited, search it (and it's metas) for the key
-					o = _meta._get(typeId, false, visited);
-					return o;
-				}
-				
-			} else {
-				// Key not found in dict and this dict has no meta
-				return null;
-			}
+
+		// Key not found in dict or any of its metas
+		return null;
+	}
+
+	/** Returns true if d is one of the first (depth+1) dicts in the __meta__ chain starting at this dict */
+	private boolean inMetaChain(Dict d, int depth) {
+		Dict c = this;
+		for (int i = 0; i <= depth; i++) {
+			if (c == d) return true;
+			c = c._meta;
 		}
+		return false;
 	}
 	
 	/** Get from metatable. If no such key, return null */
 	public Obj getFromMetaTableOrNull(Symbol typeId) {
-		return _get(typeId, true, null);
+		return _get(typeId, true);
+	}
+
+	/** Get from metatable using an inline cache. If no such key, return null */
+	public Obj getFromMetaTableOrNull(MetaCache cache) {
+		if (_meta == null) {
+			return null;
+		} else if (_is_meta || !MetaCache.ENABLED) {
+			// If this dict is itself a metatable, the lookup may depend on
+			// whether it appears in its own __meta__ chain; don't cache
+			return getFromMetaTableOrNull(cache.getKey());
+		} else {
+			return cache.lookup(this, _meta);
+		}
 	}
 	
 	/** Returns true if this dict contains the input key */
@@ -203,14 +244,16 @@ public class Dict extends Obj {
 		
 		if (key.id() == SymbolConstants.KEYVAR_META.id() && o.isa(Obj.DICT))
 		{
-			_meta = (Dict)o;
+			attachMeta((Dict)o);
 		}
+		changed();
 	}
 	
 	/** Update values in this dict to the values from the input dict */
 	public void update(Dict other) {
 		_vars.putAll(other._vars);
-		if (other._meta != null) _meta = other._meta;
+		if (other._meta != null) attachMeta(other._meta);
+		changed();
 	}
 	
 	
@@ -285,6 +328,22 @@ public class Dict extends Obj {
 		
 	}
 
+	@Override
+	public int hashCode() {
+		return hashCode(HASH_DEPTH);
+	}
+
+	@Override
+	public int hashCode(int depth) {
+		if (depth == 0) return _vars.size();
+		// Independent of the order of the keys
+		int h = 0;
+		for (Map.Entry<Symbol, Obj> e : _vars.entrySet()) {
+			h += e.getKey().hashCode() ^ e.getValue().hashCode(depth - 1);
+		}
+		return h;
+	}
+
 	@Override
 	public boolean equiv(Obj o) {
 		if (this == o) return true;
@@ -410,6 +469,7 @@ public class Dict extends Obj {
 		return _meta;
 	}
 	
+	/** The underlying map. Do not modify, changes made through the map are not seen by MetaCache */
 	public HashMap<Symbol, Obj> getMap() {
 		return _vars;
 	}
@@ -417,6 +477,7 @@ public class Dict extends Obj {
 	public void clear() {
 		_vars.clear();
 		_meta = null;
+		changed();
 	}
 
 	@Override
@@ -450,6 +511,7 @@ public class Dict extends Obj {
 
 	public void remove(Symbol key) {
 		_vars.remove(key);
+		changed();
 	}
 	
 
@@ -473,6 +535,7 @@ public class Dict extends Obj {
 				_vars.put(e.getKey(), e.getValue());
 			}
 		}
+		changed();
 	}
 	
 	
@@ -0,0 +1,59 @@
+package aya.obj.dict;
+
+import aya.obj.Obj;
+import aya.obj.symbol.Symbol;
+
+/**
+ * Inline cache for looking up a single key in the metatable of a dict.
+ *
+ * Each call site that looks up a fixed key (for example `.foo` or an operator
+ * overload like `__add__`) keeps its own cache. The cache remembers the last
+ * metatable it was used with and the value found there. The entry is valid as
+ * long as the metatable is the same object and no dict used as a metatable
+ * has been modified since (see {@link Dict#metaVersion()}).
+ */
+public class MetaCache {
+
+	public static boolean ENABLED = true;
+
+	private final Symbol _key;
+	// Replaced as a whole so that concurrent readers never see a partial entry
+	private Entry _entry;
+
+	public MetaCache(Symbol key) {
+		_key = key;
+	}
+
+	public Symbol getKey() {
+		return _key;
+	}
+
+	/**
+	 * Look up the key in the metatable chain of the given metatable.
+	 * Returns null if the key is not found
+	 */
+	Obj lookup(Dict receiver, Dict meta) {
+		final Entry e = _entry;
+		final int version = Dict.metaVersion();
+		if (e != null && e.meta == meta && e.version == version) {
+			return e.value;
+		}
+
+		// Read the version before the lookup so that a concurrent change causes a miss next time
+		final Obj value = receiver.getFromMetaTableOrNull(_key);
+		_entry = new Entry(meta, version, value);
+		return value;
+	}
+
+	private static final class Entry {
+		final Dict meta;
+		final int version;
+		final Obj value;
+
+		Entry(Dict meta, int version, Obj value) {
+			this.meta = meta;
+			this.version = version;
+			this.value = value;
+		}
+	}
+}
@@ -247,7 +247,7 @@ public class GenericList extends ListImpl {
 
 	@Override
 	public void set(int i, Obj o) {
-		if (o.hashCode() == this.hashCode())
+		if (o instanceof List && ((List)o).impl() == this)
 		{
 			throw new ValueError("Cannot set list as member of itself");
 		}
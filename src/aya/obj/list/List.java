@@ -16,6 +16,7 @@ import aya.obj.list.numberlist.DoubleList;
 import aya.obj.list.numberlist.NumberList;
 import aya.obj.number.Num;
 import aya.util.Casting;
+import aya.util.ObjHashSet;
 import aya.util.Pair;
 
 /** List supertype */
@@ -86,32 +87,41 @@ public class List extends Obj {
 	
 	/** Remove all occurrences of the items in objs from list */
 	public List removeAllOccurances(List objs) {
-		List uniq = objs.unique();
-		List out = new List();
+		ObjHashSet remove = objs.toHashSet();
+		ArrayList<Obj> out = new ArrayList<Obj>();
 		
 		for (int i = 0; i < length(); i++) {
 			Obj o = getExact(i);
-			if (uniq.find(o) < 0) {
-				out.mutAdd(o);
+			if (!remove.contains(o)) {
+				out.add(o);
 			}
 		}
 		
-		return out;
+		return new List(out);
 	}
 
 	// Compute the intersection of the two lists */
 	public List intersect(List objs) {
-		List out = new List();
-		List uniq = objs.unique();
+		ObjHashSet keep = objs.toHashSet();
+		ArrayList<Obj> out = new ArrayList<Obj>();
 		
 		for (int i = 0; i < length(); i++) {
 			Obj o = getExact(i);
-			if (uniq.find(o) >= 0) {
-				out.mutAdd(o);
+			if (keep.contains(o)) {
+				out.add(o);
 			}
 		}
 		
-		return out;
+		return new List(out);
+	}
+	
+	/** Return a hash set containing the items of this list */
+	public ObjHashSet toHashSet() {
+		ObjHashSet set = new ObjHashSet(length());
+		for (int i = 0; i < length(); i++) {
+			set.add(_list.get(i));
+		}
+		return set;
 	}
 	
 	
@@ -885,6 +895,16 @@ public class List extends Obj {
 		return _list.str();
 	}
 
+	@Override
+	public int hashCode() {
+		return _list.hashCode();
+	}
+
+	@Override
+	public int hashCode(int depth) {
+		return _list.hashCode(depth);
+	}
+
 	@Override
 	public boolean equiv(Obj o) {
 		return o instanceof List && _list.equiv(asList(o).impl());
@@ -8,6 +8,7 @@ import aya.exceptions.runtime.ValueError;
 import aya.obj.Obj;
 import aya.obj.number.Num;
 import aya.obj.number.Number;
+import aya.util.ObjHashSet;
 
 public class ListAlgorithms {
 
@@ -203,15 +204,9 @@ public class ListAlgorithms {
 	
     public static <T extends Obj> ArrayList<T> unique(ArrayList<T> list) {
     	ArrayList<T> unique = new ArrayList<T>();
+    	ObjHashSet seen = new ObjHashSet(list.size());
 		for (T l : list) {
-			boolean alreadyContains = false;
-			for (T u : unique) {
-				if (l.equiv(u)) {
-					alreadyContains = true;
-					break;
-				}
-			}
-			if (!alreadyContains) {
+			if (seen.add(l)) {
 				unique.add(l);
 			}
 		}
@@ -164,6 +164,22 @@ public abstract class ListImpl {
 		return repr(new ReprStream()).toStringOneline();
 	}
 
+	/** Lists with equivalent items have the same hash code regardless of their implementation */
+	@Override
+	public final int hashCode() {
+		return hashCode(Obj.HASH_DEPTH);
+	}
+
+	/** See Obj.hashCode(int) */
+	public int hashCode(int depth) {
+		if (depth == 0) return length();
+		int h = 0;
+		for (int i = 0; i < length(); i++) {
+			h = 31 * h + get(i).hashCode(depth - 1);
+		}
+		return h;
+	}
+
 
 
 
@@ -1,6 +1,9 @@
 package aya.obj.list;
 
 import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 import aya.eval.ExecutionContext;
 import aya.eval.BlockEvaluator;
@@ -10,6 +13,13 @@ import aya.obj.block.StaticBlock;
 
 public class ListIterationFunctions {
 
+	/** Lists shorter than this are not split across worker threads by the parallel functions */
+	public static int PARALLEL_THRESHOLD = 1024;
+	/** The parallel functions never create chunks smaller than this */
+	private static final int MIN_CHUNK_SIZE = 256;
+
+	private static ForkJoinPool _pool = null;
+
 	/** 
 	 * Maps a blockEvaluator to a list and returns the new list. The blockEvaluator is not effected
 	 */
@@ -22,7 +32,7 @@ public class ListIterationFunctions {
 				b.dump(map);
 				b.add(new DataInstruction(list.getExact(i)));
 				b.eval();
-				out.addAll(b.getStack());
+				out.addAll(b.getStack().asList());
 				b.clear();
 			}
 			return new List(out);
@@ -43,7 +53,7 @@ public class ListIterationFunctions {
 			b.dump(expr);
 			b.add(new DataInstruction(list.getExact(i)));
 			b.eval();
-			out.addAll(b.getStack());
+			out.addAll(b.getStack().asList());
 			b.clear();
 		}
 		return new List(out);
@@ -117,4 +127,167 @@ public class ListIterationFunctions {
 	}
 	
 	
+	//////////////
+	// PARALLEL //
+	//////////////
+	
+	/**
+	 * Same as map but the list is split into chunks which are evaluated on
+	 * worker threads. Each chunk is evaluated in its own child context
+	 * (see ExecutionContext.createChild) so the block can not see or modify
+	 * global variables. The block is always evaluated in a child context,
+	 * even if the list is too short to be split.
+	 */
+	public static List parallelMap(ExecutionContext context, List list, StaticBlock map) {
+		final int len = list.length();
+		if (len == 0) return list.deepcopy();
+		
+		ArrayList<ArrayList<Obj>> chunks = runChunks(context, len, (b, from, to) -> {
+			ArrayList<Obj> out = new ArrayList<Obj>(to - from);
+			for (int i = from; i < to; i++) {
+				b.dump(map);
+				b.add(new DataInstruction(list.getExact(i)));
+				b.eval();
+				out.addAll(b.getStack().asList());
+				b.clear();
+			}
+			return out;
+		});
+		
+		ArrayList<Obj> out = new ArrayList<Obj>(len);
+		for (ArrayList<Obj> chunk : chunks) out.addAll(chunk);
+		return new List(out);
+	}
+	
+	/**
+	 * Same as filter but the list is split into chunks which are evaluated on worker threads
+	 * See parallelMap
+	 */
+	public static List parallelFilter(ExecutionContext context, List list, StaticBlock filter) {
+		final boolean[] keep = parallelFilterIndex(context, list, filter);
+		ArrayList<Obj> out = new ArrayList<Obj>();
+		for (int i = 0; i < keep.length; i++) {
+			if (keep[i]) out.add(list.getExact(i));
+		}
+		return new List(out);
+	}
+
+	/**
+	 * Same as filterIndex but the list is split into chunks which are evaluated on worker threads
+	 * See parallelMap
+	 */
+	public static boolean[] parallelFilterIndex(ExecutionContext context, List list, StaticBlock filter) {
+		final int len = list.length();
+		final boolean[] out = new boolean[len];
+		if (len == 0) return out;
+		
+		// Each chunk writes to its own range of the output
+		runChunks(context, len, (b, from, to) -> {
+			for (int i = from; i < to; i++) {
+				b.dump(filter);
+				b.add(new DataInstruction(list.getExact(i)));
+				b.eval();
+				out[i] = b.peek().bool();
+				b.clear();
+			}
+			return null;
+		});
+		return out;
+	}
+	
+	
+	private interface ChunkFunction<T> {
+		/** Evaluate the items in [from, to) */
+		T apply(BlockEvaluator b, int from, int to);
+	}
+	
+	private static class ChunkTask<T> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final ExecutionContext _context;
+		private final ChunkFunction<T> _fn;
+		private final int _from;
+		private final int _to;
+		T result;
+		RuntimeException exception;
+		Error error;
+		
+		ChunkTask(ExecutionContext context, ChunkFunction<T> fn, int from, int to) {
+			_context = context;
+			_fn = fn;
+			_from = from;
+			_to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			// Catch everything here so that the original exception (and its
+			// source) is rethrown on the calling thread. ForkJoinTask.join
+			// would otherwise rethrow a copy.
+			try {
+				result = _fn.apply(_context.createEvaluator(), _from, _to);
+			} catch (RuntimeException e) {
+				exception = e;
+			} catch (Error e) {
+				error = e;
+			}
+		}
+		
+		T getResult() {
+			if (exception != null) throw exception;
+			if (error != null) throw error;
+			return result;
+		}
+	}
+	
+	private static synchronized ForkJoinPool getPool() {
+		if (_pool == null) {
+			_pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		}
+		return _pool;
+	}
+	
+	/**
+	 * Split [0, len) into chunks and evaluate them in parallel
+	 * Returns the result of each chunk in order. If any chunk throws an
+	 * exception, the exception from the first such chunk is rethrown
+	 */
+	private static <T> ArrayList<T> runChunks(ExecutionContext context, int len, ChunkFunction<T> fn) {
+		final ArrayList<ChunkTask<T>> tasks = new ArrayList<ChunkTask<T>>();
+		if (len < PARALLEL_THRESHOLD) {
+			ChunkTask<T> task = new ChunkTask<T>(context.createChild(), fn, 0, len);
+			task.compute();
+			tasks.add(task);
+		} else {
+			final ForkJoinPool pool = getPool();
+			final int max_chunks = pool.getParallelism() * 4;
+			final int n_chunks = Math.max(1, Math.min(max_chunks, len / MIN_CHUNK_SIZE));
+			final int chunk_size = (len + n_chunks - 1) / n_chunks;
+			
+			// Create the child contexts on this thread, the parent is not thread safe
+			for (int from = 0; from < len; from += chunk_size) {
+				tasks.add(new ChunkTask<T>(context.createChild(), fn, from, Math.min(len, from + chunk_size)));
+			}
+
+			if (ForkJoinTask.inForkJoinPool()) {
+				// Nested parallel call from a worker
+				ForkJoinTask.invokeAll(tasks);
+			} else {
+				pool.invoke(new RecursiveAction() {
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					protected void compute() {
+						invokeAll(tasks);
+					}
+				});
+			}
+		}
+		
+		ArrayList<T> out = new ArrayList<T>(tasks.size());
+		for (ChunkTask<T> task : tasks) {
+			out.add(task.getResult());
+		}
+		return out;
+	}
 }
@@ -3,6 +3,7 @@ package aya.obj.list;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.regex.Pattern;
@@ -22,11 +23,34 @@ public class Str extends ListImpl implements Comparable<Str> {
 	
 	public static final Str EMPTY = new Str("");
 
+	// Mutations are done in _buf so that appending is amortized O(1).
+	// _str caches the contents of _buf and is null when it is out of date.
+	// At least one of them is always set
 	private String _str;
+	private StringBuilder _buf;
 	
 	public String getStr() {
+		if (_str == null) _str = _buf.toString();
 		return _str;
 	}
+	
+	/** Return the buffer for modification, invalidates the cached string */
+	private StringBuilder buf() {
+		if (_buf == null) _buf = new StringBuilder(_str);
+		_str = null;
+		return _buf;
+	}
+	
+	/** Read only view of the contents which does not create a new string */
+	private CharSequence chars() {
+		return _str != null ? _str : _buf;
+	}
+	
+	/** Replace the contents of the string */
+	private void setStr(String s) {
+		_str = s;
+		_buf = null;
+	}
 		
 	public Str(String s) {
 		if (s == null)
@@ -66,33 +90,33 @@ public class Str extends ListImpl implements Comparable<Str> {
 
 	/** Trim whitespace from a string */
 	public Str trim() {
-		return new Str(_str.trim());
+		return new Str(getStr().trim());
 	}
 	
 	/** replace all occurrences of 'find' with 'replace' */
 	public Str replaceAll(String regex, String replacement) {
-		return new Str(_str.replaceAll(regex, replacement));
+		return new Str(getStr().replaceAll(regex, replacement));
 	}
 	
 	/** Test if Str matches the regex */
 	public boolean matches(String regex) {
-		return _str.matches(regex);
+		return getStr().matches(regex);
 	}
 	
 	/** Apply format rules to the string */
 	public Str format(Object... args) {
-		return new Str(String.format(_str, args));
+		return new Str(String.format(getStr(), args));
 	}
 	
 	/** Compute the levenshtein distance of this string and another string */
 	public int levDist(Str other) {
-		return levenshteinDistance(_str, other._str);
+		return levenshteinDistance(chars(), other.chars());
 	}
 	
 	/** Split a string at all instances of the given character */
 	public List splitAtChar(char splitter) {
 		List strs = new List();
-		for (String s : this._str.split(Pattern.quote(""+splitter))) {
+		for (String s : getStr().split(Pattern.quote(""+splitter))) {
 			strs.mutAdd(List.fromString(s));
 		}
 		return strs;
@@ -100,7 +124,7 @@ public class Str extends ListImpl implements Comparable<Str> {
 	
 	public List splitRegex(String regex) {
 		List out = new List();
-		for (String s : this._str.split(regex)) {
+		for (String s : getStr().split(regex)) {
 			out.mutAdd(List.fromString(s));
 		}
 		return out;
@@ -113,64 +137,70 @@ public class Str extends ListImpl implements Comparable<Str> {
 
 	@Override
 	public int length() {
-		return _str.length();
+		return chars().length();
 	}
 
 	@Override
 	public Str head(int n) {
-		if (n <= _str.length()) {
-			return new Str(_str.substring(0, n));
+		final String str = getStr();
+		if (n <= str.length()) {
+			return new Str(str.substring(0, n));
 		} else {
-			return new Str(_str + repeat(' ', n-_str.length()));
+			return new Str(str + repeat(' ', n-str.length()));
 		}
 	}
 
 	@Override
 	public Str tail(int n) {
-		if (n <= _str.length()) {
-			return new Str(_str.substring(_str.length() - n, _str.length()));
+		final String str = getStr();
+		if (n <= str.length()) {
+			return new Str(str.substring(str.length() - n, str.length()));
 		} else {
-			return new Str(repeat(' ', n-_str.length()) + _str);
+			return new Str(repeat(' ', n-str.length()) + str);
 		}
 	}
 
 	@Override
 	public Obj head() {
-		return Char.valueOf(_str.charAt(0));
+		return Char.valueOf(chars().charAt(0));
 	}
 
 	@Override
 	public Char tail() {
-		return Char.valueOf(_str.charAt(_str.length()-1));
+		final CharSequence chars = chars();
+		return Char.valueOf(chars.charAt(chars.length()-1));
 	}
 
 	@Override
 	public Obj pop() {
-		Char out = Char.valueOf(_str.charAt(0));
-		_str = _str.substring(1, _str.length());
+		Char out = Char.valueOf(chars().charAt(0));
+		buf().deleteCharAt(0);
 		return out;
 	}
 
 	@Override
 	public Obj popBack() {
-		Char out = Char.valueOf(_str.charAt(_str.length()-1));
-		_str = _str.substring(0, _str.length()-1);
+		final CharSequence chars = chars();
+		final int last = chars.length()-1;
+		Char out = Char.valueOf(chars.charAt(last));
+		buf().setLength(last);
 		return out;
 	}
 
 	@Override
 	public void reverse() {
-		_str = new StringBuilder(_str).reverse().toString();
+		buf().reverse();
 	}
 
 	@Override
 	public ListImpl rotate(int n) {
 		if (n == 0) {
-			return new Str(_str);
+			return new Str(getStr());
 		} else {
-			final int len = _str.length();
+			final String str = getStr();
+			final int len = str.length();
 			char[] out = new char[len];
-			char[] ch_list = _str.toCharArray();
+			char[] ch_list = str.toCharArray();
 			if (n > 0) {
 				System.arraycopy(ch_list, 0, out, n, len - n);
 				System.arraycopy(ch_list, len-n, out, 0, n);
@@ -185,27 +215,28 @@ public class Str extends ListImpl implements Comparable<Str> {
 
 	@Override
 	public ListImpl slice(int i, int j) {
-		return new Str(_str.substring(i, j));
+		return new Str(getStr().substring(i, j));
 	}
 
 	@Override
 	public Char get(int i) {
-		return Char.valueOf(_str.charAt(i));
+		return Char.valueOf(chars().charAt(i));
 	}
 	
 	@Override
 	public Str get(int[] is) {
+		final CharSequence str = chars();
 		char[] chars = new char[is.length];
 		for (int i = 0; i < is.length; i++) {
-			chars[i] = _str.charAt(is[i]);
+			chars[i] = str.charAt(is[i]);
 		}
 		return new Str(new String(chars));
 	}
 	
 	@Override
 	public Char remove(int i) {
-		Char c = Char.valueOf(_str.charAt(i));
-		_str = _str.substring(0, i) + _str.substring(i+1);
+		Char c = Char.valueOf(chars().charAt(i));
+		buf().deleteCharAt(i);
 		return c;
 	}
 	
@@ -230,9 +261,9 @@ public class Str extends ListImpl implements Comparable<Str> {
 		int found = -1;
 		if (o instanceof Char) {
 			char c = ((Char)o).charValue();
-			found = _str.indexOf(c);
+			found = getStr().indexOf(c);
 		}
-		if (found < 0) found = -(_str.length()+1);
+		if (found < 0) found = -(length()+1);
 		return found;
 	}
 	
@@ -240,8 +271,9 @@ public class Str extends ListImpl implements Comparable<Str> {
 		ArrayList<Number> out = new ArrayList<Number>();
 		if (o instanceof Char) {
 			char c = Casting.asChar(o).charValue();
-			for (int i = 0; i < _str.length(); i++) {
-				if (c == _str.charAt(i)) {
+			final CharSequence str = chars();
+			for (int i = 0; i < str.length(); i++) {
+				if (c == str.charAt(i)) {
 					out.add(Num.fromInt(i));
 				}
 			}
@@ -253,7 +285,7 @@ public class Str extends ListImpl implements Comparable<Str> {
 	public int findBack(Obj o) {
 		if (o instanceof Char) {
 			char c = ((Char)o).charValue();
-			return _str.lastIndexOf(c);
+			return getStr().lastIndexOf(c);
 		} else {
 			return -1;
 		}
@@ -264,8 +296,9 @@ public class Str extends ListImpl implements Comparable<Str> {
 		if (o instanceof Char) {
 			char c = ((Char)o).charValue();
 			int count = 0;
-			for (int i = 0; i < _str.length(); i++) {
-				if (c == _str.charAt(i)) {
+			final CharSequence str = chars();
+			for (int i = 0; i < str.length(); i++) {
+				if (c == str.charAt(i)) {
 					count++;
 				}
 			}
@@ -277,22 +310,21 @@ public class Str extends ListImpl implements Comparable<Str> {
 	
 	@Override
 	public void sort() {
-	     char[] chars = _str.toCharArray();
+	     char[] chars = getStr().toCharArray();
 	     Arrays.sort(chars);
-	     _str = new String(chars);
+	     setStr(new String(chars));
 	}
 	
 	@Override
 	public void set(int i, Obj o) {
-		char[] chars = _str.toCharArray();
-		chars[i] = ((Char)o).charValue();
-		_str = new String(chars);
+		final char c = ((Char)o).charValue();
+		buf().setCharAt(i, c);
 	}
 	
 	@Override
 	public ArrayList<Obj> getObjAL() {
-		ArrayList<Obj> l = new ArrayList<Obj>(_str.length());
-		char[] chars = _str.toCharArray();
+		char[] chars = getStr().toCharArray();
+		ArrayList<Obj> l = new ArrayList<Obj>(chars.length);
 		for (int i = 0; i < chars.length; i++) {
 			l.add(Char.valueOf(chars[i]));
 		}
@@ -302,10 +334,13 @@ public class Str extends ListImpl implements Comparable<Str> {
 	@Override
 	public Str unique() {
 		StringBuilder unique = new StringBuilder();
-	    for (int i = 0; i < _str.length(); i++) {
-	        String si = _str.substring(i, i + 1);
-	        if (unique.indexOf(si) == -1) {
-	            unique.append(si);
+	    final BitSet seen = new BitSet();
+	    final String str = getStr();
+	    for (int i = 0; i < str.length(); i++) {
+	        final char c = str.charAt(i);
+	        if (!seen.get(c)) {
+	            seen.set(c);
+	            unique.append(c);
 	        }
 	    }
 	    return new Str(unique.toString());
@@ -313,38 +348,39 @@ public class Str extends ListImpl implements Comparable<Str> {
 
 	@Override
 	public NumberList toNumberList() {
-		return NumberList.fromChars(_str.toCharArray());
+		return NumberList.fromChars(getStr().toCharArray());
 	}
 	
 	
 
 	@Override
 	public void addItem(Obj o) {
-		_str += ((Char)o).charValue();
+		final char c = ((Char)o).charValue();
+		buf().append(c);
 	}
 	
 	@Override
 	public void addItem(int i, Obj o) {
-		// If 0, just append to front
-		if (i == 0) {
-			_str = ((Char)o).charValue() + _str;
-		} else {
-			_str = new StringBuilder(_str).insert(i, ((Char)o).charValue()).toString();
-		}
+		final char c = ((Char)o).charValue();
+		buf().insert(i, c);
 	}
 
 	@Override
 	public void addAll(ListImpl l) {
-		for (int i = 0; i < l.length(); i++) {
-			addItem(l.get(i));
+		if (l instanceof Str) {
+			buf().append(((Str)l).chars());
+		} else {
+			for (int i = 0; i < l.length(); i++) {
+				addItem(l.get(i));
+			}
 		}
 	}
 
 	/** Swap the case of each character in the string */
 	public Str swapCase() {
-		char[] swapped = new char[_str.length()];
-		char[] old = _str.toCharArray();
-		for (int i = 0; i < _str.length(); i++) {
+		char[] old = getStr().toCharArray();
+		char[] swapped = new char[old.length];
+		for (int i = 0; i < old.length; i++) {
 			swapped[i] = Char.swapCase(old[i]);
 		}
 		return new Str(new String(swapped));
@@ -360,7 +396,7 @@ public class Str extends ListImpl implements Comparable<Str> {
 	
 	public byte[] getBytes() {
 		try {
-			return _str.getBytes("UTF-8");
+			return getStr().getBytes("UTF-8");
 		} catch (UnsupportedEncodingException e) {
 			throw new ValueError(":' Unsuported encoding");
 		}
@@ -368,7 +404,7 @@ public class Str extends ListImpl implements Comparable<Str> {
 
 	@Override
 	public Str copy() {
-		return new Str(_str);
+		return new Str(getStr());
 	}
 	
 	@Override
@@ -378,7 +414,7 @@ public class Str extends ListImpl implements Comparable<Str> {
 
 	@Override
 	public Str similarEmpty() {
-		return EMPTY;
+		return new Str("");
 	}
 
 	@Override
@@ -388,7 +424,7 @@ public class Str extends ListImpl implements Comparable<Str> {
 	
 	@Override
 	public List permutations() {
-		return Permutations.allPermutations(_str.toCharArray());
+		return Permutations.allPermutations(getStr().toCharArray());
 	}
 
 	@Override
@@ -402,7 +438,7 @@ public class Str extends ListImpl implements Comparable<Str> {
 
 		if (o.isa(Obj.CHAR) || o.isa(Obj.STR)) {
 			String match = o.str();
-			String[] ss = this._str.split(Pattern.quote(match));
+			String[] ss = getStr().split(Pattern.quote(match));
 			for (String s : ss) l.mutAdd(List.fromString(s));
 			if (l.length() == 0) l.mutAdd(List.fromStr(Str.EMPTY));
 		} else {
@@ -419,32 +455,40 @@ public class Str extends ListImpl implements Comparable<Str> {
 	
 	@Override
 	public Str deepcopy() {
-		return new Str(_str);
+		return new Str(getStr());
 	}
 
 	@Override
 	public boolean bool() {
-		return _str.length() != 0;
+		return length() != 0;
 	}
 
 	@Override
 	public ReprStream repr(ReprStream stream) {
-		if (_str.length() > 100) {
-			stream.print(StringUtils.quote(_str.substring(0, 30) + " ... " + _str.substring(_str.length()-30)));
+		final String str = getStr();
+		if (str.length() > 100) {
+			stream.print(StringUtils.quote(str.substring(0, 30) + " ... " + str.substring(str.length()-30)));
 		} else {
-			stream.print(StringUtils.quote(_str));
+			stream.print(StringUtils.quote(str));
 		}
 		return stream;
 	}
 
 	@Override
 	public String str() {
-		return _str;
+		return getStr();
+	}
+
+	@Override
+	public int hashCode(int depth) {
+		if (depth == 0) return length();
+		// Same as ListImpl.hashCode since the hash of a char is its value
+		return getStr().hashCode();
 	}
 
 	@Override
 	public boolean equiv(ListImpl o) {
-		return o instanceof Str && ((Str)o)._str.equals(_str);
+		return o instanceof Str && ((Str)o).getStr().equals(getStr());
 	}
 	
 	@Override
@@ -466,7 +510,7 @@ public class Str extends ListImpl implements Comparable<Str> {
 	
 	@Override
 	public int compareTo(Str o) {
-		return _str.compareTo(o._str);
+		return getStr().compareTo(o.getStr());
 	}
 
 	////////////////////
@@ -0,0 +1,989 @@
+package aya.obj.list.numberlist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import aya.ReprStream;
+import aya.exceptions.runtime.ValueError;
+import aya.obj.Obj;
+import aya.obj.list.List;
+import aya.obj.list.ListAlgorithms;
+import aya.obj.list.ListImpl;
+import aya.obj.number.Num;
+import aya.obj.number.Number;
+import aya.util.CopyOnWrite;
+
+/**
+ * List of unsigned bytes (integer Nums from 0 to 255)
+ *
+ * Used for raw data such as image pixels, where storing a double per item
+ * would take 8 times the memory. The items behave exactly like the same
+ * values in a DoubleList: operations are computed on the byte array directly
+ * and return a DoubleList unless the result is guaranteed to fit in a byte
+ * (band, bor with a byte, abs, floor, ceil, signnum and all operations which
+ * only move items). Setting an item which is not a byte converts the list
+ * to a DoubleList.
+ *
+ * The array passed to the constructor is not copied.
+ */
+public class ByteList extends NumberList {
+
+	byte[] _list;
+	// Not null if the array may be shared with a deepcopy, see own()
+	private CopyOnWrite _cow;
+
+	public ByteList(byte[] list) {
+		_list = list;
+	}
+
+	/** Shares the array with another list (see deepcopy) */
+	private ByteList(byte[] list, CopyOnWrite cow) {
+		_list = list;
+		_cow = cow;
+	}
+
+	/** Must be called before the items in the array are modified */
+	private void own() {
+		if (_cow != null) unshare(true);
+	}
+
+	/** Must be called before the array is replaced by a new one */
+	private void release() {
+		if (_cow != null) unshare(false);
+	}
+
+	// Synchronized with deepcopy, see CopyOnWrite
+	private synchronized void unshare(boolean copy) {
+		if (_cow == null) return;
+		if (copy && _cow.isShared()) _list = Arrays.copyOf(_list, _list.length);
+		_cow.release();
+		_cow = null;
+	}
+
+	// For fast processing of internal byte array
+	public byte[] internalArray() {
+		return _list;
+	}
+
+	public int getInt(int i) {
+		return _list[i] & 0xFF;
+	}
+
+
+	//////////////
+	// Creation //
+	//////////////
+
+	public static ByteList copyOf(byte[] elements) {
+		return new ByteList(Arrays.copyOf(elements, elements.length));
+	}
+
+	/** Returns true if o is a Num holding an integer from 0 to 255 */
+	public static boolean canStore(Obj o) {
+		return o.isa(Obj.NUM) && isByte(((Num)o).toDouble());
+	}
+
+	private static boolean isByte(double d) {
+		final int i = (int)d;
+		// -0.0 is not stored, 1/-0.0 is -Infinity
+		return i == d && i >= 0 && i <= 255 && (i != 0 || 1.0 / d > 0);
+	}
+
+	/** Throws a ClassCastException if the obj can not be stored in a ByteList */
+	private static byte asByte(Obj o) {
+		if (canStore(o)) {
+			return (byte)((Num)o).toInt();
+		} else {
+			throw new ClassCastException("Cannot store " + o.repr() + " in a ByteList");
+		}
+	}
+
+	private double[] doubles() {
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = _list[i] & 0xFF;
+		return out;
+	}
+
+	private DoubleList toDoubleList() {
+		return new DoubleList(doubles());
+	}
+
+
+	//////////////////////////
+	// NUMBERLIST OVERRIDES //
+	//////////////////////////
+
+	@Override
+	public Number max() {
+		if (_list.length == 0) return Num.MIN_VALUE;
+		int max = 0;
+		for (int i = 0; i < _list.length; i++) {
+			max = Math.max(max, _list[i] & 0xFF);
+		}
+		return Num.fromInt(max);
+	}
+
+	@Override
+	public Number min() {
+		if (_list.length == 0) return Num.MAX_VALUE;
+		int min = 255;
+		for (int i = 0; i < _list.length; i++) {
+			min = Math.min(min, _list[i] & 0xFF);
+		}
+		return Num.fromInt(min);
+	}
+
+	@Override
+	public Number mean() {
+		return _list.length == 0 ? Num.ZERO : new Num(sum().toDouble() / (double)_list.length);
+	}
+
+	@Override
+	public Number sum() {
+		long total = 0;
+		for (int i = 0; i < _list.length; i++) {
+			total += _list[i] & 0xFF;
+		}
+		return Num.valueOf((double)total);
+	}
+
+	@Override
+	public Integer[] toIntegerArray() {
+		Integer[] ints = new Integer[_list.length];
+		for (int i = 0; i < _list.length; i++) {
+			ints[i] = _list[i] & 0xFF;
+		}
+		return ints;
+	}
+
+	@Override
+	public int[] toIntArray() {
+		int[] ints = new int[_list.length];
+		for (int i = 0; i < _list.length; i++) {
+			ints[i] = _list[i] & 0xFF;
+		}
+		return ints;
+	}
+
+	@Override
+	public double[] todoubleArray() {
+		return doubles();
+	}
+
+	@Override
+	public byte[] toByteArray() {
+		return Arrays.copyOf(_list, _list.length);
+	}
+
+
+	@Override
+	public NumberList add(Number n) {
+		if (!n.isa(Obj.NUM)) return toDoubleList().add(n);
+		final double N = n.toDouble();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (_list[i] & 0xFF) + N;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList sub(Number n) {
+		if (!n.isa(Obj.NUM)) return toDoubleList().sub(n);
+		final double N = n.toDouble();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (_list[i] & 0xFF) - N;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList div(Number n) {
+		if (!n.isa(Obj.NUM)) return toDoubleList().div(n);
+		final double N = n.toDouble();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (_list[i] & 0xFF) / N;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList mul(Number n) {
+		if (!n.isa(Obj.NUM)) return toDoubleList().mul(n);
+		final double N = n.toDouble();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (_list[i] & 0xFF) * N;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList mod(Number n) {
+		if (!n.isa(Obj.NUM)) return toDoubleList().mod(n);
+		final double N = n.toDouble();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (_list[i] & 0xFF) % N;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList idiv(Number n) {
+		if (!n.isa(Obj.NUM)) return toDoubleList().idiv(n);
+		final double N = n.toDouble();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = Math.floor((_list[i] & 0xFF) / N);
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList pow(Number n) {
+		return toDoubleList().pow(n);
+	}
+
+	@Override
+	public NumberList subFrom(Number n) {
+		if (!n.isa(Obj.NUM)) return toDoubleList().subFrom(n);
+		final double N = n.toDouble();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = N - (_list[i] & 0xFF);
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList divFrom(Number n) {
+		if (!n.isa(Obj.NUM)) return toDoubleList().divFrom(n);
+		final double N = n.toDouble();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = N / (_list[i] & 0xFF);
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList modFrom(Number n) {
+		return toDoubleList().modFrom(n);
+	}
+
+	@Override
+	public NumberList idivFrom(Number n) {
+		return toDoubleList().idivFrom(n);
+	}
+
+	@Override
+	public NumberList powFrom(Number n) {
+		return toDoubleList().powFrom(n);
+	}
+
+	@Override
+	public NumberList band(Number n) {
+		if (!n.isa(Obj.NUM)) return toDoubleList().band(n);
+		// Only the low 8 bits can be set so the result is always a byte
+		final int N = n.toInt();
+		byte[] out = new byte[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (byte)(_list[i] & N);
+		return new ByteList(out);
+	}
+
+	@Override
+	public NumberList bandFrom(Number n) {
+		return band(n);
+	}
+
+	@Override
+	public NumberList bor(Number n) {
+		if (!n.isa(Obj.NUM)) return toDoubleList().bor(n);
+		final int N = n.toInt();
+		if (N >= 0 && N <= 255) {
+			byte[] out = new byte[_list.length];
+			for (int i = 0; i < _list.length; i++) out[i] = (byte)(_list[i] | N);
+			return new ByteList(out);
+		} else {
+			double[] out = new double[_list.length];
+			for (int i = 0; i < _list.length; i++) out[i] = (_list[i] & 0xFF) | N;
+			return new DoubleList(out);
+		}
+	}
+
+	@Override
+	public NumberList borFrom(Number n) {
+		return bor(n);
+	}
+
+
+
+
+	@Override
+	public NumberList negate() {
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = -(_list[i] & 0xFF);
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList bnot() {
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = ~(_list[i] & 0xFF);
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList signnum() {
+		byte[] out = new byte[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (byte)(_list[i] == 0 ? 0 : 1);
+		return new ByteList(out);
+	}
+
+	@Override
+	public NumberList factorial() {
+		return toDoubleList().factorial();
+	}
+
+	@Override
+	public NumberList abs() {
+		return copy();
+	}
+
+	@Override
+	public NumberList exp() {
+		return toDoubleList().exp();
+	}
+
+	@Override
+	public NumberList sin() {
+		return toDoubleList().sin();
+	}
+
+	@Override
+	public NumberList cos() {
+		return toDoubleList().cos();
+	}
+
+	@Override
+	public NumberList tan() {
+		return toDoubleList().tan();
+	}
+
+	@Override
+	public NumberList asin() {
+		return toDoubleList().asin();
+	}
+
+	@Override
+	public NumberList acos() {
+		return toDoubleList().acos();
+	}
+
+	@Override
+	public NumberList atan() {
+		return toDoubleList().atan();
+	}
+
+	@Override
+	public NumberList log() {
+		return toDoubleList().log();
+	}
+
+	@Override
+	public NumberList ln() {
+		return toDoubleList().ln();
+	}
+
+	@Override
+	public NumberList sqrt() {
+		return toDoubleList().sqrt();
+	}
+
+	@Override
+	public NumberList ceil() {
+		return copy();
+	}
+
+	@Override
+	public NumberList floor() {
+		return copy();
+	}
+
+	@Override
+	public NumberList imag() {
+		return toDoubleList().imag();
+	}
+
+	@Override
+	public ArrayList<Number> toArrayList() {
+		ArrayList<Number> out = new ArrayList<Number>(_list.length);
+		for (int i = 0; i < _list.length; i++) {
+			out.add(Num.fromInt(_list[i] & 0xFF));
+		}
+		return out;
+	}
+
+	////////////////////
+	// LIST OVERRIDES //
+	////////////////////
+
+	@Override
+	public int length() {
+		return _list.length;
+	}
+
+	@Override
+	public ByteList head(int n) {
+		// Padded with zeros
+		return new ByteList(Arrays.copyOf(_list, n));
+	}
+
+	@Override
+	public ByteList tail(int n) {
+		if (n <= _list.length) {
+			return new ByteList(Arrays.copyOfRange(_list, _list.length - n, _list.length));
+		} else {
+			// Padded with zeros
+			byte[] out = new byte[n];
+			System.arraycopy(_list, 0, out, n - _list.length, _list.length);
+			return new ByteList(out);
+		}
+	}
+
+	@Override
+	public Obj head() {
+		return get(0);
+	}
+
+	@Override
+	public Obj tail() {
+		return get(_list.length-1);
+	}
+
+	@Override
+	public Number pop() {
+		final Number n = get(0);
+		release();
+		_list = Arrays.copyOfRange(_list, 1, _list.length);
+		return n;
+	}
+
+	@Override
+	public Number popBack() {
+		final Number n = get(_list.length-1);
+		release();
+		_list = Arrays.copyOf(_list, _list.length-1);
+		return n;
+	}
+
+	@Override
+	public void reverse() {
+		own();
+		final int len = _list.length;
+		byte tmp;
+		for (int i = 0; i < len / 2; i++) {
+			tmp = _list[i];
+			_list[i] = _list[len - 1 - i];
+			_list[len - 1 - i] = tmp;
+		}
+	}
+
+	@Override
+	public ListImpl rotate(int n) {
+		if (n == 0) {
+			return copy();
+		} else {
+			final int len = _list.length;
+			byte[] out = new byte[len];
+			if (n > 0) {
+				System.arraycopy(_list, 0, out, n, len - n);
+				System.arraycopy(_list, len-n, out, 0, n);
+			} else {
+				n *= -1;
+				System.arraycopy(_list, 0, out, len-n, n);
+				System.arraycopy(_list, n, out, 0, len-n);
+			}
+			return new ByteList(out);
+		}
+	}
+
+	@Override
+	public ByteList slice(int i, int j) {
+		return new ByteList(Arrays.copyOfRange(_list, i, j));
+	}
+
+	@Override
+	public Number get(int i) {
+		return Num.fromInt(_list[i] & 0xFF);
+	}
+
+	@Override
+	public ByteList get(int[] is) {
+		byte[] out = new byte[is.length];
+		for (int i = 0; i < is.length; i++) {
+			out[i] = _list[is[i]];
+		}
+		return new ByteList(out);
+	}
+
+	@Override
+	public Number remove(int i) {
+		final Number n = get(i);
+		byte[] out = new byte[_list.length - 1];
+		System.arraycopy(_list, 0, out, 0, i);
+		System.arraycopy(_list, i + 1, out, i, _list.length - i - 1);
+		release();
+		_list = out;
+		return n;
+	}
+
+	@Override
+	public void removeAll(int[] ixs) {
+		boolean[] removed = new boolean[_list.length];
+		for (int i : ixs) removed[i] = true;
+		byte[] out = new byte[_list.length];
+		int n = 0;
+		for (int i = 0; i < _list.length; i++) {
+			if (!removed[i]) out[n++] = _list[i];
+		}
+		release();
+		_list = Arrays.copyOf(out, n);
+	}
+
+	@Override
+	public int find(Obj o) {
+		if (canStore(o)) {
+			final byte v = asByte(o);
+			for (int i = 0; i < _list.length; i++) {
+				if (v == _list[i]) {
+					return i;
+				}
+			}
+		}
+		return -(_list.length + 1);
+	}
+
+	@Override
+	public NumberList findAll(Obj o) {
+		return toDoubleList().findAll(o);
+	}
+
+	@Override
+	public int findBack(Obj o) {
+		return toDoubleList().findBack(o);
+	}
+
+	@Override
+	public int count(Obj o) {
+		if (o.isa(Obj.NUMBER) && isByte(((Number)o).toDouble())) {
+			final byte v = (byte)((Number)o).toInt();
+			int count = 0;
+			for (int i = 0; i < _list.length; i++) {
+				if (v == _list[i]) count++;
+			}
+			return count;
+		} else {
+			return 0;
+		}
+	}
+
+	@Override
+	public void sort() {
+		own();
+		// Counting sort, Arrays.sort would order the bytes as signed values
+		int[] counts = new int[256];
+		for (int i = 0; i < _list.length; i++) counts[_list[i] & 0xFF]++;
+		int n = 0;
+		for (int v = 0; v < 256; v++) {
+			for (int c = 0; c < counts[v]; c++) _list[n++] = (byte)v;
+		}
+	}
+
+	@Override
+	public void set(int i, Obj o) {
+		own();
+		_list[i] = asByte(o);
+	}
+
+	@Override
+	public ArrayList<Obj> getObjAL() {
+		ArrayList<Obj> l = new ArrayList<Obj>(_list.length);
+		for (int i = 0; i < _list.length; i++) {
+			l.add(Num.fromInt(_list[i] & 0xFF));
+		}
+		return l;
+	}
+
+	@Override
+	public ByteList unique() {
+		boolean[] seen = new boolean[256];
+		byte[] out = new byte[Math.min(256, _list.length)];
+		int n = 0;
+		for (int i = 0; i < _list.length && n < 256; i++) {
+			final int v = _list[i] & 0xFF;
+			if (!seen[v]) {
+				seen[v] = true;
+				out[n++] = _list[i];
+			}
+		}
+		return new ByteList(Arrays.copyOf(out, n));
+	}
+
+
+	@Override
+	public ByteList toNumberList() {
+		return this;
+	}
+
+
+	@Override
+	public void addItem(Obj o) {
+		final byte v = asByte(o);
+		byte[] list = Arrays.copyOf(_list, _list.length + 1);
+		list[list.length - 1] = v;
+		release();
+		_list = list;
+	}
+
+	@Override
+	public void addItem(int i, Obj o) {
+		final byte v = asByte(o);
+		byte[] list = Arrays.copyOf(_list, _list.length + 1);
+		// Move everything after the index over one
+		System.arraycopy(list, i, list, i + 1, _list.length - i);
+		list[i] = v;
+		release();
+		_list = list;
+	}
+
+	@Override
+	public void addAll(ListImpl l) {
+		byte[] other = ((ByteList)l)._list;
+		final int len = _list.length;
+		final int o_len = other.length;
+
+		byte[] c = new byte[len + o_len];
+		System.arraycopy(_list, 0, c, 0, len);
+		System.arraycopy(other, 0, c, len, o_len);
+		release();
+		_list = c;
+	}
+
+	@Override
+	public ByteList copy() {
+		return new ByteList(Arrays.copyOf(_list, _list.length));
+	}
+
+	@Override
+	public boolean canInsert(Obj o) {
+		return canStore(o);
+	}
+
+	@Override
+	public ByteList similarEmpty() {
+		return new ByteList(new byte[0]);
+	}
+
+	@Override
+	public List sameShapeNull() {
+		return new List(new ByteList(new byte[_list.length]));
+	}
+
+	@Override
+	protected ListImpl flatten() {
+		return copy();
+	}
+
+	@Override
+	public List permutations() {
+		return toDoubleList().permutations();
+	}
+
+	@Override
+	public List split(Obj o) {
+		return toDoubleList().split(o);
+	}
+
+
+
+	///////////////////
+	// OBJ OVERRIDES //
+	///////////////////
+
+	@Override
+	public ByteList deepcopy() {
+		if (!CopyOnWrite.ENABLED) return copy();
+		synchronized (this) {
+			_cow = CopyOnWrite.share(_cow);
+			return new ByteList(_list, _cow);
+		}
+	}
+
+	@Override
+	public boolean bool() {
+		return _list.length != 0;
+	}
+
+	@Override
+	public ReprStream repr(ReprStream stream) {
+		return ListAlgorithms.reprCompact(stream, doubles());
+	}
+
+	@Override
+	public String str() {
+		return toDoubleList().str();
+	}
+
+	@Override
+	public int hashCode(int depth) {
+		if (depth == 0) return length();
+		int h = 0;
+		for (int i = 0; i < _list.length; i++) {
+			h = 31 * h + Number.hashDouble(_list[i] & 0xFF);
+		}
+		return h;
+	}
+
+	@Override
+	public boolean equiv(ListImpl list) {
+		// Must have the same length
+		if (list.length() == this.length()) {
+			if (list instanceof ByteList) {
+				return Arrays.equals(_list, ((ByteList)list)._list);
+			}
+			// Every corresponding item must be equivalent
+			for (int i = 0; i < this.length(); i++) {
+				if (!list.get(i).equiv(get(i))) {
+					return false;
+				}
+			}
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public boolean isa(byte type) {
+		return type == Obj.LIST || type == Obj.NUMBERLIST || type == Obj.BYTELIST;
+	}
+
+	@Override
+	public byte type() {
+		return Obj.BYTELIST;
+	}
+
+	//////////////////////
+	// HELPER FUNCTIONS //
+	//////////////////////
+
+	private void boundsCheck(NumberList a, NumberList b) {
+		if (a.length() != b.length())
+			throw new ValueError("List length mismatch\n"
+					+ "  " + a.str() + "\n  " + b.str());
+	}
+
+	/** Returns null if ns is not a ByteList */
+	private byte[] bytes(NumberList ns) {
+		boundsCheck(this, ns);
+		return ns instanceof ByteList ? ((ByteList)ns)._list : null;
+	}
+
+	@Override
+	public NumberList add(NumberList ns) {
+		final byte[] NS = bytes(ns);
+		if (NS == null) return toDoubleList().add(ns);
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (_list[i] & 0xFF) + (NS[i] & 0xFF);
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList sub(NumberList ns) {
+		final byte[] NS = bytes(ns);
+		if (NS == null) return toDoubleList().sub(ns);
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (_list[i] & 0xFF) - (NS[i] & 0xFF);
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList subFrom(NumberList ns) {
+		final byte[] NS = bytes(ns);
+		if (NS == null) return toDoubleList().subFrom(ns);
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (NS[i] & 0xFF) - (_list[i] & 0xFF);
+		return new DoubleList(out);
+	}
+
+
+	@Override
+	public NumberList div(NumberList ns) {
+		final byte[] NS = bytes(ns);
+		if (NS == null) return toDoubleList().div(ns);
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (_list[i] & 0xFF) / (double)(NS[i] & 0xFF);
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList divFrom(NumberList ns) {
+		final byte[] NS = bytes(ns);
+		if (NS == null) return toDoubleList().divFrom(ns);
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (NS[i] & 0xFF) / (double)(_list[i] & 0xFF);
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList mul(NumberList ns) {
+		final byte[] NS = bytes(ns);
+		if (NS == null) return toDoubleList().mul(ns);
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (_list[i] & 0xFF) * (NS[i] & 0xFF);
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList mod(NumberList ns) {
+		return toDoubleList().mod(ns);
+	}
+
+	@Override
+	public NumberList modFrom(NumberList ns) {
+		return toDoubleList().modFrom(ns);
+	}
+
+	@Override
+	public NumberList idiv(NumberList ns) {
+		return toDoubleList().idiv(ns);
+	}
+
+	@Override
+	public NumberList idivFrom(NumberList ns) {
+		return toDoubleList().idivFrom(ns);
+	}
+
+	@Override
+	public NumberList pow(NumberList ns) {
+		return toDoubleList().pow(ns);
+	}
+
+	@Override
+	public NumberList powFrom(NumberList ns) {
+		return toDoubleList().powFrom(ns);
+	}
+
+	@Override
+	public NumberList band(NumberList ns) {
+		final byte[] NS = bytes(ns);
+		if (NS == null) return toDoubleList().band(ns);
+		byte[] out = new byte[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (byte)(_list[i] & NS[i]);
+		return new ByteList(out);
+	}
+
+	@Override
+	public NumberList bandFrom(NumberList ns) {
+		return band(ns);
+	}
+
+	@Override
+	public NumberList bor(NumberList ns) {
+		final byte[] NS = bytes(ns);
+		if (NS == null) return toDoubleList().bor(ns);
+		byte[] out = new byte[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (byte)(_list[i] | NS[i]);
+		return new ByteList(out);
+	}
+
+	@Override
+	public NumberList borFrom(NumberList ns) {
+		return bor(ns);
+	}
+
+
+
+	@Override
+	public NumberList lt(Number n) {
+		if (!n.isa(Obj.NUM)) return toDoubleList().lt(n);
+		final double N = n.toDouble();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (_list[i] & 0xFF) < N ? 1 : 0;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList lt(NumberList ns) {
+		final byte[] NS = bytes(ns);
+		if (NS == null) return toDoubleList().lt(ns);
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (_list[i] & 0xFF) < (NS[i] & 0xFF) ? 1 : 0;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList leq(Number n) {
+		if (!n.isa(Obj.NUM)) return toDoubleList().leq(n);
+		final double N = n.toDouble();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (_list[i] & 0xFF) <= N ? 1 : 0;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList leq(NumberList ns) {
+		final byte[] NS = bytes(ns);
+		if (NS == null) return toDoubleList().leq(ns);
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (_list[i] & 0xFF) <= (NS[i] & 0xFF) ? 1 : 0;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList gt(Number n) {
+		if (!n.isa(Obj.NUM)) return toDoubleList().gt(n);
+		final double N = n.toDouble();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (_list[i] & 0xFF) > N ? 1 : 0;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList gt(NumberList ns) {
+		final byte[] NS = bytes(ns);
+		if (NS == null) return toDoubleList().gt(ns);
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (_list[i] & 0xFF) > (NS[i] & 0xFF) ? 1 : 0;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList geq(Number n) {
+		if (!n.isa(Obj.NUM)) return toDoubleList().geq(n);
+		final double N = n.toDouble();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (_list[i] & 0xFF) >= N ? 1 : 0;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList geq(NumberList ns) {
+		final byte[] NS = bytes(ns);
+		if (NS == null) return toDoubleList().geq(ns);
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (_list[i] & 0xFF) >= (NS[i] & 0xFF) ? 1 : 0;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList eq(Number n) {
+		if (!n.isa(Obj.NUM)) return toDoubleList().eq(n);
+		final double N = n.toDouble();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (_list[i] & 0xFF) == N ? 1 : 0;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList eq(NumberList ns) {
+		final byte[] NS = bytes(ns);
+		if (NS == null) return toDoubleList().eq(ns);
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = _list[i] == NS[i] ? 1 : 0;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public ByteList promote() {
+		return this;
+	}
+}
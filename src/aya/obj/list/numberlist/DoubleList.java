@@ -15,20 +15,48 @@ import aya.obj.list.Permutations;
 import aya.obj.number.Num;
 import aya.obj.number.Number;
 import aya.util.Casting;
+import aya.util.CopyOnWrite;
 import aya.util.MathUtils;
+import aya.util.ObjHashSet;
 
 /** List containing a list of Number objects */
 public class DoubleList extends NumberList {
 	
-	double[] _list;
+	// Items are stored in _list[_offset] to _list[_offset + _size - 1]. The
+	// array may be larger than the list so that items can be appended and
+	// popped from the front without copying. Use list() for an exact array
+	private double[] _list;
+	private int _offset;
+	private int _size;
+	// Not null if the array may be shared with a deepcopy, see own()
+	private CopyOnWrite _cow;
 	
 	public DoubleList(double[] list) {
 		_list = list;
+		_offset = 0;
+		_size = list.length;
+	}
+	
+	/** Use the first size items of the array without copying it */
+	public DoubleList(double[] list, int size) {
+		_list = list;
+		_offset = 0;
+		_size = size;
+	}
+	
+	/** Shares the array with another list (see deepcopy) */
+	private DoubleList(double[] list, int offset, int size, CopyOnWrite cow) {
+		_list = list;
+		_offset = offset;
+		_size = size;
+		_cow = cow;
 	}
 	
 	/** Create a new numeric list by repeating item, repeats times */
 	public DoubleList(double item, int repeats) {
 		_list = new double[repeats];
+		_offset = 0;
+		_size = repeats;
 		if (item != 0.0) {
 			for (int i = 0; i < repeats; i++) {
 				_list[i] = item;
@@ -48,6 +76,7 @@ public class DoubleList extends NumberList {
 		}
 		
 		_list = new double[numOfItems];
+		_size = numOfItems;
 		
 		//Increment up or down?
 		if ( (lo > hi && inc > 0) || ((lo < hi) && inc < 0) ) {
@@ -62,15 +91,63 @@ public class DoubleList extends NumberList {
 	}
 	
 	// For fast processing of internal double array
+	// The array is trimmed to the length of the list
 	public double[] internalArray() {
-		return _list;
+		return list();
 	}
 	
 	public double getDouble(int i) {
-		return _list[i];
+		checkIndex(i);
+		return _list[_offset + i];
 	}
 	
 	
+	/** Returns the items in an array of exactly length() items */
+	private double[] list() {
+		if (_offset != 0 || _size != _list.length) {
+			if (_cow != null) unshare(false);
+			_list = Arrays.copyOfRange(_list, _offset, _offset + _size);
+			_offset = 0;
+		}
+		return _list;
+	}
+
+	/** Must be called before the items in the array are modified */
+	private void own() {
+		if (_cow != null) unshare(true);
+	}
+
+	// Synchronized with deepcopy, see CopyOnWrite
+	private synchronized void unshare(boolean copy) {
+		if (_cow == null) return;
+		if (copy && _cow.isShared()) {
+			_list = Arrays.copyOfRange(_list, _offset, _offset + _size);
+			_offset = 0;
+		}
+		_cow.release();
+		_cow = null;
+	}
+
+	/** Make room for at least n items starting at _offset */
+	private void ensureCapacity(int n) {
+		if (_offset + n <= _list.length) return;
+		if (n <= _list.length / 2 + 1 && _offset > 0) {
+			// Plenty of space at the front, move the items back to the start
+			System.arraycopy(_list, _offset, _list, 0, _size);
+		} else {
+			// Grow geometrically so that appending is amortized O(1)
+			double[] list = new double[Math.max(n, _size + (_size >> 1) + 8)];
+			System.arraycopy(_list, _offset, list, 0, _size);
+			_list = list;
+		}
+		_offset = 0;
+	}
+
+	private void checkIndex(int i) {
+		if (i < 0 || i >= _size) throw new ArrayIndexOutOfBoundsException(i);
+	}
+
+
 	//////////////
 	// Creation //
 	//////////////
@@ -95,10 +172,11 @@ public class DoubleList extends NumberList {
 	
 	@Override
 	public Number max() {
+		final double[] list = list();
 		double max = Num.MIN_VALUE.toDouble();
-		for (int i = 0; i < _list.length; i++) {
-			if (!Double.isNaN(_list[i]) && _list[i] > max) {
-				max = _list[i];
+		for (int i = 0; i < list.length; i++) {
+			if (!Double.isNaN(list[i]) && list[i] > max) {
+				max = list[i];
 			}
 		}
 		return new Num(max);
@@ -106,10 +184,11 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public Number min() {
+		final double[] list = list();
 		double min = Num.MAX_VALUE.toDouble();
-		for (int i = 0; i < _list.length; i++) {
-			if (!Double.isNaN(_list[i]) && _list[i] < min) {
-				min = _list[i];
+		for (int i = 0; i < list.length; i++) {
+			if (!Double.isNaN(list[i]) && list[i] < min) {
+				min = list[i];
 			}
 		}
 		return new Num(min);
@@ -117,50 +196,56 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public Number mean() {
-		return _list.length == 0 ? Num.ZERO : new Num(sum().toDouble() / (double)_list.length);
+		final double[] list = list();
+		return list.length == 0 ? Num.ZERO : new Num(sum().toDouble() / (double)list.length);
 	}
 
 	@Override
 	public Number sum() {
+		final double[] list = list();
 		double total = 0;
-		for (int i = 0; i < _list.length; i++) {
-			total += _list[i];
+		for (int i = 0; i < list.length; i++) {
+			total += list[i];
 		}
 		return new Num(total);
 	}
 	
 	@Override
 	public Integer[] toIntegerArray() {
-		Integer[] ints = new Integer[_list.length];
-		for (int i = 0; i < _list.length; i++) {
-			ints[i] = (int)_list[i];
+		final double[] list = list();
+		Integer[] ints = new Integer[list.length];
+		for (int i = 0; i < list.length; i++) {
+			ints[i] = (int)list[i];
 		}
 		return ints;
 	}
 			
 	@Override
 	public int[] toIntArray() {
-		int[] ints = new int[_list.length];
-		for (int i = 0; i < _list.length; i++) {
-			ints[i] = (int)_list[i];
+		final double[] list = list();
+		int[] ints = new int[list.length];
+		for (int i = 0; i < list.length; i++) {
+			ints[i] = (int)list[i];
 		}
 		return ints;
 	}
 	
 	@Override
 	public double[] todoubleArray() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) {
-			out[i] = _list[i];
+		final double[] list = list();
+		double[] out = new double[list.length];
+		for (int i = 0; i < list.length; i++) {
+			out[i] = list[i];
 		}
 		return out;
 	}
 	
 	@Override
 	public byte[] toByteArray() {
-		byte[] bs = new byte[_list.length];
-		for (int i = 0; i < _list.length; i++) {
-			bs[i] = (byte)_list[i];
+		final double[] list = list();
+		byte[] bs = new byte[list.length];
+		for (int i = 0; i < list.length; i++) {
+			bs[i] = (byte)list[i];
 		}
 		return bs;
 	}
@@ -168,10 +253,11 @@ public class DoubleList extends NumberList {
 	
 	@Override
 	public NumberList add(Number n) {
+		final double[] list = list();
 		if (n.isa(Obj.NUM)) {
 			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = _list[i] + N;
+			double[] out = new double[list.length];
+			for (int i = 0; i < list.length; i++) out[i] = list[i] + N;
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().add(n);
@@ -180,10 +266,11 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList sub(Number n) {
+		final double[] list = list();
 		if (n.isa(Obj.NUM)) {
 			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = _list[i] - N;
+			double[] out = new double[list.length];
+			for (int i = 0; i < list.length; i++) out[i] = list[i] - N;
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().sub(n);
@@ -192,10 +279,11 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList div(Number n) {
+		final double[] list = list();
 		if (n.isa(Obj.NUM)) {
 			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = _list[i] / N;
+			double[] out = new double[list.length];
+			for (int i = 0; i < list.length; i++) out[i] = list[i] / N;
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().div(n);
@@ -204,10 +292,11 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList mul(Number n) {
+		final double[] list = list();
 		if (n.isa(Obj.NUM)) {
 			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = _list[i] * N;
+			double[] out = new double[list.length];
+			for (int i = 0; i < list.length; i++) out[i] = list[i] * N;
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().mul(n);
@@ -216,10 +305,11 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList mod(Number n) {
+		final double[] list = list();
 		if (n.isa(Obj.NUM)) {
 			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = _list[i] % N;
+			double[] out = new double[list.length];
+			for (int i = 0; i < list.length; i++) out[i] = list[i] % N;
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().mod(n);
@@ -228,10 +318,11 @@ public class DoubleList extends NumberList {
 	
 	@Override
 	public NumberList idiv(Number n) {
+		final double[] list = list();
 		if (n.isa(Obj.NUM)) {
 			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = Math.floor(_list[i] / N);
+			double[] out = new double[list.length];
+			for (int i = 0; i < list.length; i++) out[i] = Math.floor(list[i] / N);
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().idiv(n);
@@ -240,10 +331,11 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList pow(Number n) {
+		final double[] list = list();
 		if (n.isa(Obj.NUM)) {
 			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = Math.pow(_list[i], N);
+			double[] out = new double[list.length];
+			for (int i = 0; i < list.length; i++) out[i] = Math.pow(list[i], N);
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().pow(n);
@@ -252,10 +344,11 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList subFrom(Number n) {
+		final double[] list = list();
 		if (n.isa(Obj.NUM)) {
 			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = N - _list[i];
+			double[] out = new double[list.length];
+			for (int i = 0; i < list.length; i++) out[i] = N - list[i];
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().subFrom(n);
@@ -264,10 +357,11 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList divFrom(Number n) {
+		final double[] list = list();
 		if (n.isa(Obj.NUM)) {
 			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = N / _list[i];
+			double[] out = new double[list.length];
+			for (int i = 0; i < list.length; i++) out[i] = N / list[i];
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().divFrom(n);
@@ -276,10 +370,11 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList modFrom(Number n) {
+		final double[] list = list();
 		if (n.isa(Obj.NUM)) {
 			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = N % _list[i];
+			double[] out = new double[list.length];
+			for (int i = 0; i < list.length; i++) out[i] = N % list[i];
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().modFrom(n);
@@ -288,10 +383,11 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList idivFrom(Number n) {
+		final double[] list = list();
 		if (n.isa(Obj.NUM)) {
 			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = Math.floor(N / _list[i]);
+			double[] out = new double[list.length];
+			for (int i = 0; i < list.length; i++) out[i] = Math.floor(N / list[i]);
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().idivFrom(n);
@@ -300,10 +396,11 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList powFrom(Number n) {
+		final double[] list = list();
 		if (n.isa(Obj.NUM)) {
 			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = Math.pow(N, _list[i]);
+			double[] out = new double[list.length];
+			for (int i = 0; i < list.length; i++) out[i] = Math.pow(N, list[i]);
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().powFrom(n);
@@ -312,10 +409,11 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList band(Number n) {
+		final double[] list = list();
 		if (n.isa(Obj.NUM)) {
 			int N = n.toInt();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = (double)((int)_list[i] & N);
+			double[] out = new double[list.length];
+			for (int i = 0; i < list.length; i++) out[i] = (double)((int)list[i] & N);
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().band(n).promote();
@@ -324,10 +422,11 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList bandFrom(Number n) {
+		final double[] list = list();
 		if (n.isa(Obj.NUM)) {
 			int N = n.toInt();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = (double)(N & (int)_list[i]);
+			double[] out = new double[list.length];
+			for (int i = 0; i < list.length; i++) out[i] = (double)(N & (int)list[i]);
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().bandFrom(n).promote();
@@ -336,10 +435,11 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList bor(Number n) {
+		final double[] list = list();
 		if (n.isa(Obj.NUM)) {
 			int N = n.toInt();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = (double)((int)_list[i] | N);
+			double[] out = new double[list.length];
+			for (int i = 0; i < list.length; i++) out[i] = (double)((int)list[i] | N);
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().bor(n).promote();
@@ -348,10 +448,11 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList borFrom(Number n) {
+		final double[] list = list();
 		if (n.isa(Obj.NUM)) {
 			int N = n.toInt();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = (double)(N | (int)_list[i]);
+			double[] out = new double[list.length];
+			for (int i = 0; i < list.length; i++) out[i] = (double)(N | (int)list[i]);
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().borFrom(n).promote();
@@ -363,120 +464,137 @@ public class DoubleList extends NumberList {
 	
 	@Override
 	public NumberList negate() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = _list[i] * -1;
+		final double[] list = list();
+		double[] out = new double[list.length];
+		for (int i = 0; i < list.length; i++) out[i] = list[i] * -1;
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList bnot() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = ~((int)_list[i]);
+		final double[] list = list();
+		double[] out = new double[list.length];
+		for (int i = 0; i < list.length; i++) out[i] = ~((int)list[i]);
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList signnum() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = MathUtils.signnum(_list[i]);
+		final double[] list = list();
+		double[] out = new double[list.length];
+		for (int i = 0; i < list.length; i++) out[i] = MathUtils.signnum(list[i]);
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList factorial() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = MathUtils.factorial((long)_list[i]);
+		final double[] list = list();
+		double[] out = new double[list.length];
+		for (int i = 0; i < list.length; i++) out[i] = MathUtils.factorial((long)list[i]);
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList abs() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.abs(_list[i]);
+		final double[] list = list();
+		double[] out = new double[list.length];
+		for (int i = 0; i < list.length; i++) out[i] = Math.abs(list[i]);
 		return new DoubleList(out);
 	}
 	
 	@Override
 	public NumberList exp() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.exp(_list[i]);
+		final double[] list = list();
+		double[] out = new double[list.length];
+		for (int i = 0; i < list.length; i++) out[i] = Math.exp(list[i]);
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList sin() {	
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.sin(_list[i]);
+		final double[] list = list();
+		double[] out = new double[list.length];
+		for (int i = 0; i < list.length; i++) out[i] = Math.sin(list[i]);
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList cos() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.cos(_list[i]);
+		final double[] list = list();
+		double[] out = new double[list.length];
+		for (int i = 0; i < list.length; i++) out[i] = Math.cos(list[i]);
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList tan() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.tan(_list[i]);
+		final double[] list = list();
+		double[] out = new double[list.length];
+		for (int i = 0; i < list.length; i++) out[i] = Math.tan(list[i]);
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList asin() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.asin(_list[i]);
+		final double[] list = list();
+		double[] out = new double[list.length];
+		for (int i = 0; i < list.length; i++) out[i] = Math.asin(list[i]);
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList acos() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.acos(_list[i]);
+		final double[] list = list();
+		double[] out = new double[list.length];
+		for (int i = 0; i < list.length; i++) out[i] = Math.acos(list[i]);
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList atan() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.atan(_list[i]);
+		final double[] list = list();
+		double[] out = new double[list.length];
+		for (int i = 0; i < list.length; i++) out[i] = Math.atan(list[i]);
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList log() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.log10(_list[i]);
+		final double[] list = list();
+		double[] out = new double[list.length];
+		for (int i = 0; i < list.length; i++) out[i] = Math.log10(list[i]);
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList ln() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.log(_list[i]);
+		final double[] list = list();
+		double[] out = new double[list.length];
+		for (int i = 0; i < list.length; i++) out[i] = Math.log(list[i]);
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList sqrt() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.sqrt(_list[i]);
+		final double[] list = list();
+		double[] out = new double[list.length];
+		for (int i = 0; i < list.length; i++) out[i] = Math.sqrt(list[i]);
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList ceil() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.ceil(_list[i]);
+		final double[] list = list();
+		double[] out = new double[list.length];
+		for (int i = 0; i < list.length; i++) out[i] = Math.ceil(list[i]);
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList floor() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.floor(_list[i]);
+		final double[] list = list();
+		double[] out = new double[list.length];
+		for (int i = 0; i < list.length; i++) out[i] = Math.floor(list[i]);
 		return new DoubleList(out);
 	}
 
@@ -487,9 +605,10 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public ArrayList<Number> toArrayList() {
-		ArrayList<Number> out = new ArrayList<Number>(_list.length);
-		for (int i = 0; i < _list.length; i++) {
-			out.add(new Num(_list[i]));
+		final double[] list = list();
+		ArrayList<Number> out = new ArrayList<Number>(list.length);
+		for (int i = 0; i < list.length; i++) {
+			out.add(new Num(list[i]));
 		}
 		return out;
 	}
@@ -500,46 +619,52 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public int length() {
-		return _list.length;
+		return _size;
 	}
 
 	@Override
 	public DoubleList head(int n) {
-		return new DoubleList(ListAlgorithms.headNoDeepcopyPad(_list, n, 0));
+		final double[] list = list();
+		return new DoubleList(ListAlgorithms.headNoDeepcopyPad(list, n, 0));
 	}
 
 	@Override
 	public DoubleList tail(int n) {
-		return new DoubleList(ListAlgorithms.tailNoDeepcopyPad(_list, n, 0));
+		final double[] list = list();
+		return new DoubleList(ListAlgorithms.tailNoDeepcopyPad(list, n, 0));
 	}
 
 	@Override
 	public Obj head() {
-		return new Num(_list[0]);
+		return get(0);
 	}
 
 	@Override
 	public Obj tail() {
-		return new Num(_list[_list.length-1]);
+		return get(_size-1);
 	}
 
 	@Override
 	public Number pop() {
-		double n = _list[0];
-		_list = Arrays.copyOfRange(_list, 1, _list.length);
+		checkIndex(0);
+		double n = _list[_offset];
+		_offset++;
+		_size--;
 		return new Num(n);
 	}
 
 	@Override
 	public Number popBack() {
-		double n = _list[_list.length-1];
-		_list = Arrays.copyOf(_list, _list.length-1);
-		return new Num(n);
+		checkIndex(_size-1);
+		_size--;
+		return new Num(_list[_offset + _size]);
 	}
 
 	@Override
 	public void reverse() {
-		final int len = _list.length;
+		own();
+		final double[] list = list();
+		final int len = list.length;
 
         if(len <= 1){
             return;
@@ -547,26 +672,27 @@ public class DoubleList extends NumberList {
         
 		double tmp;
         for (int i = 0; i < len / 2; i++) {
-            tmp = _list[i];
-            _list[i] = _list[len - 1 - i];
-            _list[len - 1 - i] = tmp;
+            tmp = list[i];
+            list[i] = list[len - 1 - i];
+            list[len - 1 - i] = tmp;
         }
 	}
 
 	@Override
 	public ListImpl rotate(int n) {
+		final double[] list = list();
 		if (n == 0) {
-			return new DoubleList(Arrays.copyOf(_list, _list.length));
+			return new DoubleList(Arrays.copyOf(list, list.length));
 		} else {
-			final int len = _list.length;
+			final int len = list.length;
 			double[] out = new double[len];
 			if (n > 0) {
-				System.arraycopy(_list, 0, out, n, len - n);
-				System.arraycopy(_list, len-n, out, 0, n);
+				System.arraycopy(list, 0, out, n, len - n);
+				System.arraycopy(list, len-n, out, 0, n);
 			} else {
 				n *= -1;
-				System.arraycopy(_list, 0, out, len-n, n);
-				System.arraycopy(_list, n, out, 0, len-n);
+				System.arraycopy(list, 0, out, len-n, n);
+				System.arraycopy(list, n, out, 0, len-n);
 			}
 			return new DoubleList(out);
 		}
@@ -574,51 +700,59 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public DoubleList slice(int i, int j) {
-		return new DoubleList(Arrays.copyOfRange(_list, i, j));
+		final double[] list = list();
+		return new DoubleList(Arrays.copyOfRange(list, i, j));
 	}
 
 	@Override
 	public Number get(int i) {
-		return new Num(_list[i]);
+		return new Num(getDouble(i));
 	}
 	
 	@Override
 	public DoubleList get(int[] is) {
+		final double[] list = list();
 		double[] out = new double[is.length];
 		for (int i = 0; i < is.length; i++) {
-			out[i] = _list[is[i]];
+			out[i] = list[is[i]];
 		}
 		return new DoubleList(out);
 	}
 	
 	@Override
 	public Number remove(int i) {
-		// TODO: DoubleList implementation
-		NumberItemList ns = toNumberItemList();
-		Number n = ns.remove(i);
-		_list = ns.todoubleArray();
-		return n;
+		checkIndex(i);
+		own();
+		double n = _list[_offset + i];
+		System.arraycopy(_list, _offset + i + 1, _list, _offset + i, _size - i - 1);
+		_size--;
+		return new Num(n);
 	}
 	
 	@Override
 	public void removeAll(int[] ixs) {
-		// TODO: DoubleList implementation
-		NumberItemList ns = toNumberItemList();
-		ns.removeAll(ixs);
-		_list = ns.todoubleArray();
+		own();
+		boolean[] removed = new boolean[_size];
+		for (int i : ixs) removed[i] = true;
+		int n = 0;
+		for (int i = 0; i < _size; i++) {
+			if (!removed[i]) _list[_offset + n++] = _list[_offset + i];
+		}
+		_size = n;
 	}
 
 	@Override
 	public int find(Obj o) {
+		final double[] list = list();
 		if (o.isa(Obj.NUM)) {
 			double d = Casting.asNumber(o).toDouble();
-			for (int i = 0; i < _list.length; i++) {
-				if (d == _list[i]) {
+			for (int i = 0; i < list.length; i++) {
+				if (d == list[i]) {
 					return i;
 				}
 			}
 		}
-		return -(_list.length + 1);
+		return -(list.length + 1);
 	}
 
 	@Override
@@ -635,8 +769,9 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public int count(Obj o) {
+		final double[] list = list();
 		if (o.isa(Obj.NUMBER)) {
-			return ListAlgorithms.count(_list, asNumber(o).toDouble());
+			return ListAlgorithms.count(list, asNumber(o).toDouble());
 		} else {
 			return 0;
 		}
@@ -644,27 +779,41 @@ public class DoubleList extends NumberList {
 	
 	@Override
 	public void sort() {
-		Arrays.sort(_list);
+		own();
+		final double[] list = list();
+		Arrays.sort(list);
 	}
 	
 	@Override
 	public void set(int i, Obj o) {
-		_list[i] = ((Num)o).toDouble();
+		final double d = ((Num)o).toDouble();
+		checkIndex(i);
+		own();
+		_list[_offset + i] = d;
 	}
 	
 	@Override
 	public ArrayList<Obj> getObjAL() {
-		ArrayList<Obj> l = new ArrayList<Obj>(_list.length);
-		for (int i = 0; i < _list.length; i++) {
-			l.add(new Num(_list[i]));
+		final double[] list = list();
+		ArrayList<Obj> l = new ArrayList<Obj>(list.length);
+		for (int i = 0; i < list.length; i++) {
+			l.add(new Num(list[i]));
 		}
 		return l;
 	}
 	
 	@Override
 	public DoubleList unique() {
-		// TODO: DoubleList implementation
-		return new DoubleList(toNumberItemList().unique().toNumberList().todoubleArray());
+		double[] out = new double[_size];
+		int n = 0;
+		ObjHashSet seen = new ObjHashSet(_size);
+		for (int i = 0; i < _size; i++) {
+			final double d = _list[_offset + i];
+			if (seen.add(new Num(d))) {
+				out[n++] = d;
+			}
+		}
+		return new DoubleList(Arrays.copyOf(out, n));
 	}
 	
 	
@@ -676,39 +825,42 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public void addItem(Obj o) {
-		double[] list = Arrays.copyOf(_list, _list.length + 1);
-		list[list.length - 1] = ((Num)o).toDouble();
-		_list = list;
+		final double d = ((Num)o).toDouble();
+		own();
+		ensureCapacity(_size + 1);
+		_list[_offset + _size] = d;
+		_size++;
 	}
 	
 	@Override
 	public void addItem(int i, Obj o) {
-		double[] list = Arrays.copyOf(_list, _list.length + 1);
-		// Move everything after the index over one
-		for (int j = list.length-1; j > i; j--) {
-			list[j] = list[j-1];
+		final double d = ((Num)o).toDouble();
+		own();
+		if (i == 0 && _offset > 0) {
+			// Use the space left by pop()
+			_offset--;
+		} else {
+			ensureCapacity(_size + 1);
+			// Move everything after the index over one
+			System.arraycopy(_list, _offset + i, _list, _offset + i + 1, _size - i);
 		}
-		list[i] = ((Num)o).toDouble();
-		_list = list;
+		_list[_offset + i] = d;
+		_size++;
 	}
 
 	@Override
 	public void addAll(ListImpl l) {
-		double[] other = ((DoubleList)l)._list;
-		final int len = _list.length;
-		final int o_len = other.length;
-
-		double[] c = new double[len + o_len];
-		System.arraycopy(_list, 0, c, 0, len);
-		System.arraycopy(other, 0, c, len, o_len);
-		_list = c;
+		final DoubleList other = (DoubleList)l;
+		final int o_len = other._size;
+		own();
+		ensureCapacity(_size + o_len);
+		System.arraycopy(other._list, other._offset, _list, _offset + _size, o_len);
+		_size += o_len;
 	}
 	
 	@Override
 	public DoubleList copy() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = _list[i];
-		return new DoubleList(out);
+		return new DoubleList(Arrays.copyOfRange(_list, _offset, _offset + _size));
 	}
 	
 	@Override
@@ -733,7 +885,8 @@ public class DoubleList extends NumberList {
 	
 	@Override
 	public List permutations() {
-		return Permutations.allPermutations(_list);
+		final double[] list = list();
+		return Permutations.allPermutations(list);
 	}
 	
 	@Override
@@ -750,17 +903,22 @@ public class DoubleList extends NumberList {
 	
 	@Override
 	public DoubleList deepcopy() {
-		return copy();
+		if (!CopyOnWrite.ENABLED) return copy();
+		synchronized (this) {
+			_cow = CopyOnWrite.share(_cow);
+			return new DoubleList(_list, _offset, _size, _cow);
+		}
 	}
 
 	@Override
 	public boolean bool() {
-		return _list.length != 0;
+		return _size != 0;
 	}
 
 	@Override
 	public ReprStream repr(ReprStream stream) {
-		return ListAlgorithms.reprCompact(stream, _list);
+		final double[] list = list();
+		return ListAlgorithms.reprCompact(stream, list);
 	}
 
 	@Override
@@ -768,13 +926,23 @@ public class DoubleList extends NumberList {
 		return toNumberItemList().str();
 	}
 
+	@Override
+	public int hashCode(int depth) {
+		if (depth == 0) return length();
+		int h = 0;
+		for (int i = 0; i < _size; i++) {
+			h = 31 * h + Number.hashDouble(_list[_offset + i]);
+		}
+		return h;
+	}
+
 	@Override
 	public boolean equiv(ListImpl list) {
 		// Must have the same length
 		if (list.length() == this.length()) {
 			// Every corresponding item must be equivalent
 			for (int i = 0; i < this.length(); i++) {
-				if (!list.get(i).equiv(new Num(_list[i]))) {
+				if (!list.get(i).equiv(new Num(_list[_offset + i]))) {
 					return false;
 				}
 			}
@@ -838,12 +1006,13 @@ public class DoubleList extends NumberList {
 	
 	@Override
 	public NumberList add(NumberList ns) {
+		final double[] list = list();
 		boundsCheck(this, ns);
-		final int len = _list.length;
+		final int len = list.length;
 		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+			final double[] NS = ((DoubleList)ns).list();
 			double[] out = new double[len];
-			for (int i = 0; i < len; i++) out[i] = _list[i] + NS._list[i];
+			for (int i = 0; i < len; i++) out[i] = list[i] + NS[i];
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().add(ns);
@@ -852,12 +1021,13 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList sub(NumberList ns) {
+		final double[] list = list();
 		boundsCheck(this, ns);
-		final int len = _list.length;
+		final int len = list.length;
 		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+			final double[] NS = ((DoubleList)ns).list();
 			double[] out = new double[len];
-			for (int i = 0; i < len; i++) out[i] = _list[i] - NS._list[i];
+			for (int i = 0; i < len; i++) out[i] = list[i] - NS[i];
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().sub(ns);
@@ -866,12 +1036,13 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList subFrom(NumberList ns) {
+		final double[] list = list();
 		boundsCheck(this, ns);
-		final int len = _list.length;
+		final int len = list.length;
 		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+			final double[] NS = ((DoubleList)ns).list();
 			double[] out = new double[len];
-			for (int i = 0; i < len; i++) out[i] = NS._list[i] - _list[i];
+			for (int i = 0; i < len; i++) out[i] = NS[i] - list[i];
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().subFrom(ns);
@@ -881,12 +1052,13 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList div(NumberList ns) {
+		final double[] list = list();
 		boundsCheck(this, ns);
-		final int len = _list.length;
+		final int len = list.length;
 		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+			final double[] NS = ((DoubleList)ns).list();
 			double[] out = new double[len];
-			for (int i = 0; i < len; i++) out[i] = _list[i] / NS._list[i];
+			for (int i = 0; i < len; i++) out[i] = list[i] / NS[i];
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().div(ns);
@@ -895,12 +1067,13 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList divFrom(NumberList ns) {
+		final double[] list = list();
 		boundsCheck(this, ns);
-		final int len = _list.length;
+		final int len = list.length;
 		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+			final double[] NS = ((DoubleList)ns).list();
 			double[] out = new double[len];
-			for (int i = 0; i < len; i++) out[i] = NS._list[i] / _list[i];
+			for (int i = 0; i < len; i++) out[i] = NS[i] / list[i];
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().divFrom(ns);
@@ -909,12 +1082,13 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList mul(NumberList ns) {
+		final double[] list = list();
 		boundsCheck(this, ns);
-		final int len = _list.length;
+		final int len = list.length;
 		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+			final double[] NS = ((DoubleList)ns).list();
 			double[] out = new double[len];
-			for (int i = 0; i < len; i++) out[i] = _list[i] * NS._list[i];
+			for (int i = 0; i < len; i++) out[i] = list[i] * NS[i];
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().mul(ns);
@@ -923,12 +1097,13 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList mod(NumberList ns) {
+		final double[] list = list();
 		boundsCheck(this, ns);
-		final int len = _list.length;
+		final int len = list.length;
 		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+			final double[] NS = ((DoubleList)ns).list();
 			double[] out = new double[len];
-			for (int i = 0; i < len; i++) out[i] = _list[i] % NS._list[i];
+			for (int i = 0; i < len; i++) out[i] = list[i] % NS[i];
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().mod(ns);
@@ -937,12 +1112,13 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList modFrom(NumberList ns) {
+		final double[] list = list();
 		boundsCheck(this, ns);
-		final int len = _list.length;
+		final int len = list.length;
 		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+			final double[] NS = ((DoubleList)ns).list();
 			double[] out = new double[len];
-			for (int i = 0; i < len; i++) out[i] = NS._list[i] % _list[i];
+			for (int i = 0; i < len; i++) out[i] = NS[i] % list[i];
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().modFrom(ns);
@@ -951,12 +1127,13 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList idiv(NumberList ns) {
+		final double[] list = list();
 		boundsCheck(this, ns);
-		final int len = _list.length;
+		final int len = list.length;
 		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+			final double[] NS = ((DoubleList)ns).list();
 			double[] out = new double[len];
-			for (int i = 0; i < len; i++) out[i] = Math.floor(_list[i] / NS._list[i]);
+			for (int i = 0; i < len; i++) out[i] = Math.floor(list[i] / NS[i]);
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().idiv(ns);
@@ -965,12 +1142,13 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList idivFrom(NumberList ns) {
+		final double[] list = list();
 		boundsCheck(this, ns);
-		final int len = _list.length;
+		final int len = list.length;
 		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+			final double[] NS = ((DoubleList)ns).list();
 			double[] out = new double[len];
-			for (int i = 0; i < len; i++) out[i] = Math.floor(NS._list[i] / _list[i]);
+			for (int i = 0; i < len; i++) out[i] = Math.floor(NS[i] / list[i]);
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().idivFrom(ns);
@@ -979,12 +1157,13 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList pow(NumberList ns) {
+		final double[] list = list();
 		boundsCheck(this, ns);
-		final int len = _list.length;
+		final int len = list.length;
 		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+			final double[] NS = ((DoubleList)ns).list();
 			double[] out = new double[len];
-			for (int i = 0; i < len; i++) out[i] = Math.pow(_list[i], NS._list[i]);
+			for (int i = 0; i < len; i++) out[i] = Math.pow(list[i], NS[i]);
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().pow(ns);
@@ -993,12 +1172,13 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList powFrom(NumberList ns) {
+		final double[] list = list();
 		boundsCheck(this, ns);
-		final int len = _list.length;
+		final int len = list.length;
 		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+			final double[] NS = ((DoubleList)ns).list();
 			double[] out = new double[len];
-			for (int i = 0; i < len; i++) out[i] = Math.pow(NS._list[i], _list[i]);
+			for (int i = 0; i < len; i++) out[i] = Math.pow(NS[i], list[i]);
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().powFrom(ns);
@@ -1007,12 +1187,13 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList band(NumberList ns) {
+		final double[] list = list();
 		boundsCheck(this, ns);
-		final int len = _list.length;
+		final int len = list.length;
 		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+			final double[] NS = ((DoubleList)ns).list();
 			double[] out = new double[len];
-			for (int i = 0; i < len; i++) out[i] = ((int)_list[i]) & ((int)NS._list[i]);
+			for (int i = 0; i < len; i++) out[i] = ((int)list[i]) & ((int)NS[i]);
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().band(ns).promote();
@@ -1021,12 +1202,13 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList bandFrom(NumberList ns) {
+		final double[] list = list();
 		boundsCheck(this, ns);
-		final int len = _list.length;
+		final int len = list.length;
 		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+			final double[] NS = ((DoubleList)ns).list();
 			double[] out = new double[len];
-			for (int i = 0; i < len; i++) out[i] = ((int)NS._list[i]) & ((int)_list[i]);
+			for (int i = 0; i < len; i++) out[i] = ((int)NS[i]) & ((int)list[i]);
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().bandFrom(ns).promote();
@@ -1035,12 +1217,13 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList bor(NumberList ns) {
+		final double[] list = list();
 		boundsCheck(this, ns);
-		final int len = _list.length;
+		final int len = list.length;
 		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+			final double[] NS = ((DoubleList)ns).list();
 			double[] out = new double[len];
-			for (int i = 0; i < len; i++) out[i] = ((int)_list[i]) | ((int)NS._list[i]);
+			for (int i = 0; i < len; i++) out[i] = ((int)list[i]) | ((int)NS[i]);
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().bor(ns).promote();
@@ -1049,12 +1232,13 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList borFrom(NumberList ns) {
+		final double[] list = list();
 		boundsCheck(this, ns);
-		final int len = _list.length;
+		final int len = list.length;
 		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+			final double[] NS = ((DoubleList)ns).list();
 			double[] out = new double[len];
-			for (int i = 0; i < len; i++) out[i] = ((int)NS._list[i]) | ((int)_list[i]);
+			for (int i = 0; i < len; i++) out[i] = ((int)NS[i]) | ((int)list[i]);
 			return new DoubleList(out);
 		} else {
 			return toNumberItemList().borFrom(ns).promote();
@@ -1065,143 +1249,154 @@ public class DoubleList extends NumberList {
 	
 	@Override
 	public NumberList lt(Number n) {
-		final int len = _list.length;
+		final double[] list = list();
+		final int len = list.length;
 		double[] out = new double[len];
 		if (n.isa(Obj.NUM)) {
 			final double N = n.toDouble();
-			for (int i = 0; i < len; i++) out[i] = _list[i] < N ? 1 : 0;
+			for (int i = 0; i < len; i++) out[i] = list[i] < N ? 1 : 0;
 		} else {
-			for (int i = 0; i < len; i++) out[i] = new Num(_list[i]).compareTo(n) < 0 ? 1 : 0;
+			for (int i = 0; i < len; i++) out[i] = new Num(list[i]).compareTo(n) < 0 ? 1 : 0;
 		}
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList lt(NumberList ns) {
+		final double[] list = list();
 		boundsCheck(this, ns);
-		int len = _list.length;
+		int len = list.length;
 		double[] out = new double[len];
 		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
-			for (int i = 0; i < len; i++) out[i] = _list[i] < NS._list[i] ? 1 : 0;
+			final double[] NS = ((DoubleList)ns).list();
+			for (int i = 0; i < len; i++) out[i] = list[i] < NS[i] ? 1 : 0;
 		} else  {
-			for (int i = 0; i < len; i++) out[i] = new Num(_list[i]).compareTo(ns.get(i)) < 0 ? 1 : 0;
+			for (int i = 0; i < len; i++) out[i] = new Num(list[i]).compareTo(ns.get(i)) < 0 ? 1 : 0;
 		}
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList leq(Number n) {
-		final int len = _list.length;
+		final double[] list = list();
+		final int len = list.length;
 		double[] out = new double[len];
 		if (n.isa(Obj.NUM)) {
 			final double N = n.toDouble();
-			for (int i = 0; i < len; i++) out[i] = _list[i] <= N ? 1 : 0;
+			for (int i = 0; i < len; i++) out[i] = list[i] <= N ? 1 : 0;
 		} else {
-			for (int i = 0; i < len; i++) out[i] = new Num(_list[i]).compareTo(n) <= 0 ? 1 : 0;
+			for (int i = 0; i < len; i++) out[i] = new Num(list[i]).compareTo(n) <= 0 ? 1 : 0;
 		}
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList leq(NumberList ns) {
+		final double[] list = list();
 		boundsCheck(this, ns);
-		int len = _list.length;
+		int len = list.length;
 		double[] out = new double[len];
 		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
-			for (int i = 0; i < len; i++) out[i] = _list[i] <= NS._list[i] ? 1 : 0;
+			final double[] NS = ((DoubleList)ns).list();
+			for (int i = 0; i < len; i++) out[i] = list[i] <= NS[i] ? 1 : 0;
 		} else  {
-			for (int i = 0; i < len; i++) out[i] = new Num(_list[i]).compareTo(ns.get(i)) <= 0 ? 1 : 0;
+			for (int i = 0; i < len; i++) out[i] = new Num(list[i]).compareTo(ns.get(i)) <= 0 ? 1 : 0;
 		}
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList gt(Number n) {
-		final int len = _list.length;
+		final double[] list = list();
+		final int len = list.length;
 		double[] out = new double[len];
 		if (n.isa(Obj.NUM)) {
 			final double N = n.toDouble();
-			for (int i = 0; i < len; i++) out[i] = _list[i] > N ? 1 : 0;
+			for (int i = 0; i < len; i++) out[i] = list[i] > N ? 1 : 0;
 		} else {
-			for (int i = 0; i < len; i++) out[i] = new Num(_list[i]).compareTo(n) > 0 ? 1 : 0;
+			for (int i = 0; i < len; i++) out[i] = new Num(list[i]).compareTo(n) > 0 ? 1 : 0;
 		}
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList gt(NumberList ns) {
+		final double[] list = list();
 		boundsCheck(this, ns);
-		int len = _list.length;
+		int len = list.length;
 		double[] out = new double[len];
 		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
-			for (int i = 0; i < len; i++) out[i] = _list[i] > NS._list[i] ? 1 : 0;
+			final double[] NS = ((DoubleList)ns).list();
+			for (int i = 0; i < len; i++) out[i] = list[i] > NS[i] ? 1 : 0;
 		} else  {
-			for (int i = 0; i < len; i++) out[i] = new Num(_list[i]).compareTo(ns.get(i)) > 0 ? 1 : 0;
+			for (int i = 0; i < len; i++) out[i] = new Num(list[i]).compareTo(ns.get(i)) > 0 ? 1 : 0;
 		}
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList geq(Number n) {
-		final int len = _list.length;
+		final double[] list = list();
+		final int len = list.length;
 		double[] out = new double[len];
 		if (n.isa(Obj.NUM)) {
 			final double N = n.toDouble();
-			for (int i = 0; i < len; i++) out[i] = _list[i] >= N ? 1 : 0;
+			for (int i = 0; i < len; i++) out[i] = list[i] >= N ? 1 : 0;
 		} else {
-			for (int i = 0; i < len; i++) out[i] = new Num(_list[i]).compareTo(n) >= 0 ? 1 : 0;
+			for (int i = 0; i < len; i++) out[i] = new Num(list[i]).compareTo(n) >= 0 ? 1 : 0;
 		}
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList geq(NumberList ns) {
+		final double[] list = list();
 		boundsCheck(this, ns);
-		int len = _list.length;
+		int len = list.length;
 		double[] out = new double[len];
 		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
-			for (int i = 0; i < len; i++) out[i] = _list[i] >= NS._list[i] ? 1 : 0;
+			final double[] NS = ((DoubleList)ns).list();
+			for (int i = 0; i < len; i++) out[i] = list[i] >= NS[i] ? 1 : 0;
 		} else  {
-			for (int i = 0; i < len; i++) out[i] = new Num(_list[i]).compareTo(ns.get(i)) >= 0 ? 1 : 0;
+			for (int i = 0; i < len; i++) out[i] = new Num(list[i]).compareTo(ns.get(i)) >= 0 ? 1 : 0;
 		}
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList eq(Number n) {
-		final int len = _list.length;
+		final double[] list = list();
+		final int len = list.length;
 		double[] out = new double[len];
 		if (n.isa(Obj.NUM)) {
 			final double N = n.toDouble();
-			for (int i = 0; i < len; i++) out[i] = _list[i] == N ? 1 : 0;
+			for (int i = 0; i < len; i++) out[i] = list[i] == N ? 1 : 0;
 		} else {
-			for (int i = 0; i < len; i++) out[i] = new Num(_list[i]).compareTo(n) == 0 ? 1 : 0;
+			for (int i = 0; i < len; i++) out[i] = new Num(list[i]).compareTo(n) == 0 ? 1 : 0;
 		}
 		return new DoubleList(out);
 	}
 
 	@Override
 	public NumberList eq(NumberList ns) {
+		final double[] list = list();
 		boundsCheck(this, ns);
-		int len = _list.length;
+		int len = list.length;
 		double[] out = new double[len];
 		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
-			for (int i = 0; i < len; i++) out[i] = _list[i] == NS._list[i] ? 1 : 0;
+			final double[] NS = ((DoubleList)ns).list();
+			for (int i = 0; i < len; i++) out[i] = list[i] == NS[i] ? 1 : 0;
 		} else  {
-			for (int i = 0; i < len; i++) out[i] = new Num(_list[i]).compareTo(ns.get(i)) == 0 ? 1 : 0;
+			for (int i = 0; i < len; i++) out[i] = new Num(list[i]).compareTo(ns.get(i)) == 0 ? 1 : 0;
 		}
 		return new DoubleList(out);
 	}
 
 	private NumberItemList toNumberItemList() {
+		final double[] list = list();
 		ArrayList<Number> out = new ArrayList<Number>();
-		for (double d : _list) out.add(new Num(d));
-		return new NumberItemList(out, _list.length);
+		for (double d : list) out.add(new Num(d));
+		return new NumberItemList(out, list.length);
 	}
 
 	@Override
@@ -1216,7 +1411,7 @@ public class DoubleList extends NumberList {
 		ArrayList<Obj> out = new ArrayList<Obj>(in_cols);
 		for (int i = 0; i < in_cols; i++) {
 			for (int j = 0; j < in_rows; j++) {
-				trans[i][j] = lists.get(j)._list[i];
+				trans[i][j] = lists.get(j).getDouble(i);
 			}
 			out.add(new List(new DoubleList(trans[i])));
 		}
@@ -1228,7 +1423,7 @@ public class DoubleList extends NumberList {
 		double[] values = new double[total_size];
 		int i = 0;
 		for (Obj o : double_lists) {
-			double[] ds = ((DoubleList)Casting.asList(o).toNumberList())._list;
+			double[] ds = ((DoubleList)Casting.asList(o).toNumberList()).list();
 			for (int j = 0; j < ds.length; j++) {
 				values[i] = ds[j];
 				i++;
@@ -0,0 +1,1054 @@
+package aya.obj.list.numberlist;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import aya.ReprStream;
+import aya.exceptions.runtime.ValueError;
+import aya.obj.Obj;
+import aya.obj.list.List;
+import aya.obj.list.ListImpl;
+import aya.obj.number.BigNum;
+import aya.obj.number.Num;
+import aya.obj.number.Number;
+import aya.obj.number.NumberMath;
+import aya.util.CopyOnWrite;
+
+/**
+ * List containing integer BigNums which fit in a long
+ *
+ * add, sub, mul, mod, idiv and comparisons with other integers are computed
+ * on the long values directly. If a result does not fit in a long
+ * (overflow) or can not be computed exactly, the operation is done using
+ * BigNum arithmetic instead so the result is always the same as if the
+ * items were stored as BigNums. Results which do not fit are returned as a
+ * NumberItemList.
+ *
+ * Bitwise operations follow NumberMath.band/bor and produce a DoubleList.
+ */
+public class LongList extends NumberList {
+
+	long[] _list;
+	// Not null if the array may be shared with a deepcopy, see own()
+	private CopyOnWrite _cow;
+
+	public LongList(long[] list) {
+		_list = list;
+	}
+
+	/** Shares the array with another list (see deepcopy) */
+	private LongList(long[] list, CopyOnWrite cow) {
+		_list = list;
+		_cow = cow;
+	}
+
+	/** Must be called before the items in the array are modified */
+	private void own() {
+		if (_cow != null) unshare(true);
+	}
+
+	/** Must be called before the array is replaced by a new one */
+	private void release() {
+		if (_cow != null) unshare(false);
+	}
+
+	// Synchronized with deepcopy, see CopyOnWrite
+	private synchronized void unshare(boolean copy) {
+		if (_cow == null) return;
+		if (copy && _cow.isShared()) _list = Arrays.copyOf(_list, _list.length);
+		_cow.release();
+		_cow = null;
+	}
+
+	// For fast processing of internal long array
+	public long[] internalArray() {
+		return _list;
+	}
+
+	public long getLong(int i) {
+		return _list[i];
+	}
+
+
+	//////////////
+	// Creation //
+	//////////////
+
+	public static LongList copyOf(long[] elements) {
+		return new LongList(Arrays.copyOf(elements, elements.length));
+	}
+
+	/** Returns true if o is a BigNum holding an integer which fits in a long */
+	public static boolean canStore(Obj o) {
+		return o.isa(Obj.BIGNUM) && isLong(((BigNum)o).toBigDecimal());
+	}
+
+	private static boolean isLong(BigDecimal v) {
+		if (v.signum() == 0) return true;
+		if (v.scale() > 0) {
+			v = v.stripTrailingZeros();
+			if (v.scale() > 0) return false;
+		}
+		final int digits = v.precision() - v.scale();
+		return digits <= 18 || (digits == 19 && v.toBigInteger().bitLength() < 64);
+	}
+
+	/** Throws a ClassCastException if the obj can not be stored in a LongList */
+	private static long asLong(Obj o) {
+		if (canStore(o)) {
+			return ((BigNum)o).toLong();
+		} else {
+			throw new ClassCastException("Cannot store " + o.repr() + " in a LongList");
+		}
+	}
+
+	private static BigNum toBigNum(long v) {
+		return new BigNum(BigDecimal.valueOf(v));
+	}
+
+
+	/////////////////////
+	// LONG ARITHMETIC //
+	/////////////////////
+
+	/**
+	 * A binary operation on longs. Throws an ArithmeticException if the result
+	 * can not be computed exactly, in which case the BigNum implementation is used
+	 */
+	private interface LongOp {
+		long apply(long a, long b);
+	}
+
+	private static final LongOp ADD = Math::addExact;
+	private static final LongOp SUB = Math::subtractExact;
+	private static final LongOp MUL = Math::multiplyExact;
+	private static final LongOp MOD = LongList::mod;
+	private static final LongOp IDIV = LongList::idiv;
+
+	private static long mod(long a, long b) {
+		// BigNum.mod requires a positive modulus
+		if (b <= 0) throw new ArithmeticException();
+		return Math.floorMod(a, b);
+	}
+
+	private static long idiv(long a, long b) {
+		// floorDiv(Long.MIN_VALUE, -1) overflows silently
+		if (b == -1) return Math.negateExact(a);
+		return Math.floorDiv(a, b);
+	}
+
+	/** Returns null if the result can not be computed using longs */
+	private long[] apply(LongOp op, long n) {
+		final int len = _list.length;
+		long[] out = new long[len];
+		try {
+			for (int i = 0; i < len; i++) out[i] = op.apply(_list[i], n);
+		} catch (ArithmeticException e) {
+			return null;
+		}
+		return out;
+	}
+
+	/** Returns null if the result can not be computed using longs */
+	private long[] applyFrom(LongOp op, long n) {
+		final int len = _list.length;
+		long[] out = new long[len];
+		try {
+			for (int i = 0; i < len; i++) out[i] = op.apply(n, _list[i]);
+		} catch (ArithmeticException e) {
+			return null;
+		}
+		return out;
+	}
+
+	/** Returns null if the result can not be computed using longs */
+	private static long[] apply(LongOp op, long[] a, long[] b) {
+		final int len = a.length;
+		long[] out = new long[len];
+		try {
+			for (int i = 0; i < len; i++) out[i] = op.apply(a[i], b[i]);
+		} catch (ArithmeticException e) {
+			return null;
+		}
+		return out;
+	}
+
+
+	//////////////////////////
+	// NUMBERLIST OVERRIDES //
+	//////////////////////////
+
+	@Override
+	public Number max() {
+		if (_list.length == 0) return Num.MIN_VALUE;
+		long max = _list[0];
+		for (int i = 1; i < _list.length; i++) {
+			if (_list[i] > max) max = _list[i];
+		}
+		return toBigNum(max);
+	}
+
+	@Override
+	public Number min() {
+		if (_list.length == 0) return Num.MAX_VALUE;
+		long min = _list[0];
+		for (int i = 1; i < _list.length; i++) {
+			if (_list[i] < min) min = _list[i];
+		}
+		return toBigNum(min);
+	}
+
+	@Override
+	public Number mean() {
+		return _list.length == 0 ? Num.ZERO : NumberMath.div(sum(), Num.fromInt(_list.length));
+	}
+
+	@Override
+	public Number sum() {
+		if (_list.length == 0) return Num.ZERO;
+		long total = 0;
+		try {
+			for (int i = 0; i < _list.length; i++) {
+				total = Math.addExact(total, _list[i]);
+			}
+			return toBigNum(total);
+		} catch (ArithmeticException e) {
+			BigDecimal big = BigDecimal.ZERO;
+			for (int i = 0; i < _list.length; i++) {
+				big = big.add(BigDecimal.valueOf(_list[i]));
+			}
+			return new BigNum(big);
+		}
+	}
+
+	@Override
+	public Integer[] toIntegerArray() {
+		Integer[] ints = new Integer[_list.length];
+		for (int i = 0; i < _list.length; i++) {
+			ints[i] = (int)_list[i];
+		}
+		return ints;
+	}
+
+	@Override
+	public int[] toIntArray() {
+		int[] ints = new int[_list.length];
+		for (int i = 0; i < _list.length; i++) {
+			ints[i] = (int)_list[i];
+		}
+		return ints;
+	}
+
+	@Override
+	public double[] todoubleArray() {
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) {
+			out[i] = (double)_list[i];
+		}
+		return out;
+	}
+
+	@Override
+	public byte[] toByteArray() {
+		byte[] bs = new byte[_list.length];
+		for (int i = 0; i < _list.length; i++) {
+			bs[i] = (byte)_list[i];
+		}
+		return bs;
+	}
+
+
+	@Override
+	public NumberList add(Number n) {
+		long[] out = canStore(n) ? apply(ADD, n.toLong()) : null;
+		return out == null ? toNumberItemList().add(n) : new LongList(out);
+	}
+
+	@Override
+	public NumberList sub(Number n) {
+		long[] out = canStore(n) ? apply(SUB, n.toLong()) : null;
+		return out == null ? toNumberItemList().sub(n) : new LongList(out);
+	}
+
+	@Override
+	public NumberList div(Number n) {
+		return toNumberItemList().div(n);
+	}
+
+	@Override
+	public NumberList mul(Number n) {
+		long[] out = canStore(n) ? apply(MUL, n.toLong()) : null;
+		return out == null ? toNumberItemList().mul(n) : new LongList(out);
+	}
+
+	@Override
+	public NumberList mod(Number n) {
+		long[] out = canStore(n) ? apply(MOD, n.toLong()) : null;
+		return out == null ? toNumberItemList().mod(n) : new LongList(out);
+	}
+
+	@Override
+	public NumberList idiv(Number n) {
+		long[] out = canStore(n) ? apply(IDIV, n.toLong()) : null;
+		return out == null ? toNumberItemList().idiv(n) : new LongList(out);
+	}
+
+	@Override
+	public NumberList pow(Number n) {
+		return toNumberItemList().pow(n);
+	}
+
+	@Override
+	public NumberList subFrom(Number n) {
+		long[] out = canStore(n) ? applyFrom(SUB, n.toLong()) : null;
+		return out == null ? toNumberItemList().subFrom(n) : new LongList(out);
+	}
+
+	@Override
+	public NumberList divFrom(Number n) {
+		return toNumberItemList().divFrom(n);
+	}
+
+	@Override
+	public NumberList modFrom(Number n) {
+		long[] out = canStore(n) ? applyFrom(MOD, n.toLong()) : null;
+		return out == null ? toNumberItemList().modFrom(n) : new LongList(out);
+	}
+
+	@Override
+	public NumberList idivFrom(Number n) {
+		long[] out = canStore(n) ? applyFrom(IDIV, n.toLong()) : null;
+		return out == null ? toNumberItemList().idivFrom(n) : new LongList(out);
+	}
+
+	@Override
+	public NumberList powFrom(Number n) {
+		return toNumberItemList().powFrom(n);
+	}
+
+	@Override
+	public NumberList band(Number n) {
+		int N = n.toInt();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (double)((int)_list[i] & N);
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList bandFrom(Number n) {
+		int N = n.toInt();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (double)(N & (int)_list[i]);
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList bor(Number n) {
+		int N = n.toInt();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (double)((int)_list[i] | N);
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList borFrom(Number n) {
+		int N = n.toInt();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = (double)(N | (int)_list[i]);
+		return new DoubleList(out);
+	}
+
+
+
+
+	@Override
+	public NumberList negate() {
+		long[] out = new long[_list.length];
+		try {
+			for (int i = 0; i < _list.length; i++) out[i] = Math.negateExact(_list[i]);
+		} catch (ArithmeticException e) {
+			return toNumberItemList().negate();
+		}
+		return new LongList(out);
+	}
+
+	@Override
+	public NumberList bnot() {
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = ~((int)_list[i]);
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList signnum() {
+		long[] out = new long[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = Long.signum(_list[i]);
+		return new LongList(out);
+	}
+
+	@Override
+	public NumberList factorial() {
+		return toNumberItemList().factorial();
+	}
+
+	@Override
+	public NumberList abs() {
+		long[] out = new long[_list.length];
+		for (int i = 0; i < _list.length; i++) {
+			// Math.abs(Long.MIN_VALUE) is negative
+			if (_list[i] == Long.MIN_VALUE) return toNumberItemList().abs();
+			out[i] = Math.abs(_list[i]);
+		}
+		return new LongList(out);
+	}
+
+	@Override
+	public NumberList exp() {
+		return toNumberItemList().exp();
+	}
+
+	@Override
+	public NumberList sin() {
+		return toNumberItemList().sin();
+	}
+
+	@Override
+	public NumberList cos() {
+		return toNumberItemList().cos();
+	}
+
+	@Override
+	public NumberList tan() {
+		return toNumberItemList().tan();
+	}
+
+	@Override
+	public NumberList asin() {
+		return toNumberItemList().asin();
+	}
+
+	@Override
+	public NumberList acos() {
+		return toNumberItemList().acos();
+	}
+
+	@Override
+	public NumberList atan() {
+		return toNumberItemList().atan();
+	}
+
+	@Override
+	public NumberList log() {
+		return toNumberItemList().log();
+	}
+
+	@Override
+	public NumberList ln() {
+		return toNumberItemList().ln();
+	}
+
+	@Override
+	public NumberList sqrt() {
+		return toNumberItemList().sqrt();
+	}
+
+	@Override
+	public NumberList ceil() {
+		return copy();
+	}
+
+	@Override
+	public NumberList floor() {
+		return copy();
+	}
+
+	@Override
+	public NumberList imag() {
+		return toNumberItemList().imag();
+	}
+
+	@Override
+	public ArrayList<Number> toArrayList() {
+		ArrayList<Number> out = new ArrayList<Number>(_list.length);
+		for (int i = 0; i < _list.length; i++) {
+			out.add(toBigNum(_list[i]));
+		}
+		return out;
+	}
+
+	////////////////////
+	// LIST OVERRIDES //
+	////////////////////
+
+	@Override
+	public int length() {
+		return _list.length;
+	}
+
+	@Override
+	public NumberList head(int n) {
+		if (n <= _list.length) {
+			return new LongList(Arrays.copyOf(_list, n));
+		} else {
+			// Padded with Num zeros
+			return toNumberItemList().head(n);
+		}
+	}
+
+	@Override
+	public NumberList tail(int n) {
+		if (n <= _list.length) {
+			return new LongList(Arrays.copyOfRange(_list, _list.length - n, _list.length));
+		} else {
+			// Padded with Num zeros
+			return toNumberItemList().tail(n);
+		}
+	}
+
+	@Override
+	public Obj head() {
+		return toBigNum(_list[0]);
+	}
+
+	@Override
+	public Obj tail() {
+		return toBigNum(_list[_list.length-1]);
+	}
+
+	@Override
+	public Number pop() {
+		long n = _list[0];
+		release();
+		_list = Arrays.copyOfRange(_list, 1, _list.length);
+		return toBigNum(n);
+	}
+
+	@Override
+	public Number popBack() {
+		long n = _list[_list.length-1];
+		release();
+		_list = Arrays.copyOf(_list, _list.length-1);
+		return toBigNum(n);
+	}
+
+	@Override
+	public void reverse() {
+		own();
+		final int len = _list.length;
+		long tmp;
+		for (int i = 0; i < len / 2; i++) {
+			tmp = _list[i];
+			_list[i] = _list[len - 1 - i];
+			_list[len - 1 - i] = tmp;
+		}
+	}
+
+	@Override
+	public ListImpl rotate(int n) {
+		if (n == 0) {
+			return copy();
+		} else {
+			final int len = _list.length;
+			long[] out = new long[len];
+			if (n > 0) {
+				System.arraycopy(_list, 0, out, n, len - n);
+				System.arraycopy(_list, len-n, out, 0, n);
+			} else {
+				n *= -1;
+				System.arraycopy(_list, 0, out, len-n, n);
+				System.arraycopy(_list, n, out, 0, len-n);
+			}
+			return new LongList(out);
+		}
+	}
+
+	@Override
+	public LongList slice(int i, int j) {
+		return new LongList(Arrays.copyOfRange(_list, i, j));
+	}
+
+	@Override
+	public Number get(int i) {
+		return toBigNum(_list[i]);
+	}
+
+	@Override
+	public LongList get(int[] is) {
+		long[] out = new long[is.length];
+		for (int i = 0; i < is.length; i++) {
+			out[i] = _list[is[i]];
+		}
+		return new LongList(out);
+	}
+
+	@Override
+	public Number remove(int i) {
+		long n = _list[i];
+		long[] out = new long[_list.length - 1];
+		System.arraycopy(_list, 0, out, 0, i);
+		System.arraycopy(_list, i + 1, out, i, _list.length - i - 1);
+		release();
+		_list = out;
+		return toBigNum(n);
+	}
+
+	@Override
+	public void removeAll(int[] ixs) {
+		boolean[] removed = new boolean[_list.length];
+		for (int i : ixs) removed[i] = true;
+		long[] out = new long[_list.length];
+		int n = 0;
+		for (int i = 0; i < _list.length; i++) {
+			if (!removed[i]) out[n++] = _list[i];
+		}
+		release();
+		_list = Arrays.copyOf(out, n);
+	}
+
+	@Override
+	public int find(Obj o) {
+		if (canStore(o)) {
+			final long v = ((BigNum)o).toLong();
+			for (int i = 0; i < _list.length; i++) {
+				if (v == _list[i]) {
+					return i;
+				}
+			}
+			return -(_list.length + 1);
+		} else {
+			return toNumberItemList().find(o);
+		}
+	}
+
+	@Override
+	public NumberList findAll(Obj o) {
+		return toNumberItemList().findAll(o);
+	}
+
+	@Override
+	public int findBack(Obj o) {
+		return toNumberItemList().findBack(o);
+	}
+
+	@Override
+	public int count(Obj o) {
+		if (canStore(o)) {
+			final long v = ((BigNum)o).toLong();
+			int count = 0;
+			for (int i = 0; i < _list.length; i++) {
+				if (v == _list[i]) count++;
+			}
+			return count;
+		} else {
+			return toNumberItemList().count(o);
+		}
+	}
+
+	@Override
+	public void sort() {
+		own();
+		Arrays.sort(_list);
+	}
+
+	@Override
+	public void set(int i, Obj o) {
+		own();
+		_list[i] = asLong(o);
+	}
+
+	@Override
+	public ArrayList<Obj> getObjAL() {
+		ArrayList<Obj> l = new ArrayList<Obj>(_list.length);
+		for (int i = 0; i < _list.length; i++) {
+			l.add(toBigNum(_list[i]));
+		}
+		return l;
+	}
+
+	@Override
+	public NumberList unique() {
+		return toNumberItemList().unique().promote();
+	}
+
+
+	@Override
+	public LongList toNumberList() {
+		return this;
+	}
+
+
+	@Override
+	public void addItem(Obj o) {
+		final long v = asLong(o);
+		long[] list = Arrays.copyOf(_list, _list.length + 1);
+		list[list.length - 1] = v;
+		release();
+		_list = list;
+	}
+
+	@Override
+	public void addItem(int i, Obj o) {
+		final long v = asLong(o);
+		long[] list = Arrays.copyOf(_list, _list.length + 1);
+		// Move everything after the index over one
+		System.arraycopy(list, i, list, i + 1, _list.length - i);
+		list[i] = v;
+		release();
+		_list = list;
+	}
+
+	@Override
+	public void addAll(ListImpl l) {
+		long[] other = ((LongList)l)._list;
+		final int len = _list.length;
+		final int o_len = other.length;
+
+		long[] c = new long[len + o_len];
+		System.arraycopy(_list, 0, c, 0, len);
+		System.arraycopy(other, 0, c, len, o_len);
+		release();
+		_list = c;
+	}
+
+	@Override
+	public LongList copy() {
+		return new LongList(Arrays.copyOf(_list, _list.length));
+	}
+
+	@Override
+	public boolean canInsert(Obj o) {
+		return canStore(o);
+	}
+
+	@Override
+	public LongList similarEmpty() {
+		return new LongList(new long[0]);
+	}
+
+	@Override
+	public List sameShapeNull() {
+		return toNumberItemList().sameShapeNull();
+	}
+
+	@Override
+	protected ListImpl flatten() {
+		return copy();
+	}
+
+	@Override
+	public List permutations() {
+		return toNumberItemList().permutations();
+	}
+
+	@Override
+	public List split(Obj o) {
+		return toNumberItemList().split(o);
+	}
+
+
+
+	///////////////////
+	// OBJ OVERRIDES //
+	///////////////////
+
+	@Override
+	public LongList deepcopy() {
+		if (!CopyOnWrite.ENABLED) return copy();
+		synchronized (this) {
+			_cow = CopyOnWrite.share(_cow);
+			return new LongList(_list, _cow);
+		}
+	}
+
+	@Override
+	public boolean bool() {
+		return _list.length != 0;
+	}
+
+	@Override
+	public ReprStream repr(ReprStream stream) {
+		return toNumberItemList().repr(stream);
+	}
+
+	@Override
+	public String str() {
+		return toNumberItemList().str();
+	}
+
+	@Override
+	public int hashCode(int depth) {
+		if (depth == 0) return length();
+		int h = 0;
+		for (int i = 0; i < _list.length; i++) {
+			h = 31 * h + Number.hashDouble(_list[i]);
+		}
+		return h;
+	}
+
+	@Override
+	public boolean equiv(ListImpl list) {
+		// Must have the same length
+		if (list.length() == this.length()) {
+			if (list instanceof LongList) {
+				return Arrays.equals(_list, ((LongList)list)._list);
+			}
+			// Every corresponding item must be equivalent
+			for (int i = 0; i < this.length(); i++) {
+				if (!list.get(i).equiv(toBigNum(_list[i]))) {
+					return false;
+				}
+			}
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public boolean isa(byte type) {
+		return type == Obj.LIST || type == Obj.NUMBERLIST || type == Obj.LONGLIST;
+	}
+
+	@Override
+	public byte type() {
+		return Obj.LONGLIST;
+	}
+
+	//////////////////////
+	// HELPER FUNCTIONS //
+	//////////////////////
+
+	private void boundsCheck(NumberList a, NumberList b) {
+		if (a.length() != b.length())
+			throw new ValueError("List length mismatch\n"
+					+ "  " + a.str() + "\n  " + b.str());
+	}
+
+	/** Returns null if ns is not a LongList or the result can not be computed using longs */
+	private long[] apply(LongOp op, NumberList ns) {
+		boundsCheck(this, ns);
+		return ns instanceof LongList ? apply(op, _list, ((LongList)ns)._list) : null;
+	}
+
+	/** Returns null if ns is not a LongList or the result can not be computed using longs */
+	private long[] applyFrom(LongOp op, NumberList ns) {
+		boundsCheck(this, ns);
+		return ns instanceof LongList ? apply(op, ((LongList)ns)._list, _list) : null;
+	}
+
+	@Override
+	public NumberList add(NumberList ns) {
+		long[] out = apply(ADD, ns);
+		return out == null ? toNumberItemList().add(ns) : new LongList(out);
+	}
+
+	@Override
+	public NumberList sub(NumberList ns) {
+		long[] out = apply(SUB, ns);
+		return out == null ? toNumberItemList().sub(ns) : new LongList(out);
+	}
+
+	@Override
+	public NumberList subFrom(NumberList ns) {
+		long[] out = applyFrom(SUB, ns);
+		return out == null ? toNumberItemList().subFrom(ns) : new LongList(out);
+	}
+
+
+	@Override
+	public NumberList div(NumberList ns) {
+		return toNumberItemList().div(ns);
+	}
+
+	@Override
+	public NumberList divFrom(NumberList ns) {
+		return toNumberItemList().divFrom(ns);
+	}
+
+	@Override
+	public NumberList mul(NumberList ns) {
+		long[] out = apply(MUL, ns);
+		return out == null ? toNumberItemList().mul(ns) : new LongList(out);
+	}
+
+	@Override
+	public NumberList mod(NumberList ns) {
+		long[] out = apply(MOD, ns);
+		return out == null ? toNumberItemList().mod(ns) : new LongList(out);
+	}
+
+	@Override
+	public NumberList modFrom(NumberList ns) {
+		long[] out = applyFrom(MOD, ns);
+		return out == null ? toNumberItemList().modFrom(ns) : new LongList(out);
+	}
+
+	@Override
+	public NumberList idiv(NumberList ns) {
+		long[] out = apply(IDIV, ns);
+		return out == null ? toNumberItemList().idiv(ns) : new LongList(out);
+	}
+
+	@Override
+	public NumberList idivFrom(NumberList ns) {
+		long[] out = applyFrom(IDIV, ns);
+		return out == null ? toNumberItemList().idivFrom(ns) : new LongList(out);
+	}
+
+	@Override
+	public NumberList pow(NumberList ns) {
+		return toNumberItemList().pow(ns);
+	}
+
+	@Override
+	public NumberList powFrom(NumberList ns) {
+		return toNumberItemList().powFrom(ns);
+	}
+
+	@Override
+	public NumberList band(NumberList ns) {
+		boundsCheck(this, ns);
+		final int len = _list.length;
+		final int[] other = ns.toIntArray();
+		double[] out = new double[len];
+		for (int i = 0; i < len; i++) out[i] = ((int)_list[i]) & other[i];
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList bandFrom(NumberList ns) {
+		boundsCheck(this, ns);
+		final int len = _list.length;
+		final int[] other = ns.toIntArray();
+		double[] out = new double[len];
+		for (int i = 0; i < len; i++) out[i] = other[i] & ((int)_list[i]);
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList bor(NumberList ns) {
+		boundsCheck(this, ns);
+		final int len = _list.length;
+		final int[] other = ns.toIntArray();
+		double[] out = new double[len];
+		for (int i = 0; i < len; i++) out[i] = ((int)_list[i]) | other[i];
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList borFrom(NumberList ns) {
+		boundsCheck(this, ns);
+		final int len = _list.length;
+		final int[] other = ns.toIntArray();
+		double[] out = new double[len];
+		for (int i = 0; i < len; i++) out[i] = other[i] | ((int)_list[i]);
+		return new DoubleList(out);
+	}
+
+
+
+	@Override
+	public NumberList lt(Number n) {
+		if (!canStore(n)) return toNumberItemList().lt(n);
+		final long N = n.toLong();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = _list[i] < N ? 1 : 0;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList lt(NumberList ns) {
+		boundsCheck(this, ns);
+		if (!(ns instanceof LongList)) return toNumberItemList().lt(ns);
+		final long[] NS = ((LongList)ns)._list;
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = _list[i] < NS[i] ? 1 : 0;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList leq(Number n) {
+		if (!canStore(n)) return toNumberItemList().leq(n);
+		final long N = n.toLong();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = _list[i] <= N ? 1 : 0;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList leq(NumberList ns) {
+		boundsCheck(this, ns);
+		if (!(ns instanceof LongList)) return toNumberItemList().leq(ns);
+		final long[] NS = ((LongList)ns)._list;
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = _list[i] <= NS[i] ? 1 : 0;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList gt(Number n) {
+		if (!canStore(n)) return toNumberItemList().gt(n);
+		final long N = n.toLong();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = _list[i] > N ? 1 : 0;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList gt(NumberList ns) {
+		boundsCheck(this, ns);
+		if (!(ns instanceof LongList)) return toNumberItemList().gt(ns);
+		final long[] NS = ((LongList)ns)._list;
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = _list[i] > NS[i] ? 1 : 0;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList geq(Number n) {
+		if (!canStore(n)) return toNumberItemList().geq(n);
+		final long N = n.toLong();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = _list[i] >= N ? 1 : 0;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList geq(NumberList ns) {
+		boundsCheck(this, ns);
+		if (!(ns instanceof LongList)) return toNumberItemList().geq(ns);
+		final long[] NS = ((LongList)ns)._list;
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = _list[i] >= NS[i] ? 1 : 0;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList eq(Number n) {
+		if (!canStore(n)) return toNumberItemList().eq(n);
+		final long N = n.toLong();
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = _list[i] == N ? 1 : 0;
+		return new DoubleList(out);
+	}
+
+	@Override
+	public NumberList eq(NumberList ns) {
+		boundsCheck(this, ns);
+		if (!(ns instanceof LongList)) return toNumberItemList().eq(ns);
+		final long[] NS = ((LongList)ns)._list;
+		double[] out = new double[_list.length];
+		for (int i = 0; i < _list.length; i++) out[i] = _list[i] == NS[i] ? 1 : 0;
+		return new DoubleList(out);
+	}
+
+	private NumberItemList toNumberItemList() {
+		return new NumberItemList(toArrayList(), 0);
+	}
+
+	@Override
+	public LongList promote() {
+		return this;
+	}
+}
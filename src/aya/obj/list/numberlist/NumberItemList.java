@@ -14,14 +14,18 @@ import aya.obj.list.ListImpl;
 import aya.obj.list.Permutations;
 import aya.obj.number.Num;
 import aya.obj.number.Number;
+import aya.obj.number.NumberAccumulator;
 import aya.obj.number.NumberMath;
 import aya.util.Casting;
+import aya.util.CopyOnWrite;
 
 /** List containing a list of Number objects */
 public class NumberItemList extends NumberList {
 	
 	ArrayList<Number> _list;
 	private int _doubles = 0;
+	// Not null if the array list may be shared with a deepcopy, see own()
+	private CopyOnWrite _cow;
 	
 	// Use NumberList.fromNumberAL outside of package
 	protected NumberItemList(ArrayList<Number> list) {
@@ -39,6 +43,19 @@ public class NumberItemList extends NumberList {
 		_doubles = num_doubles;
 	}
 
+	/** Must be called before the array list is modified */
+	private void own() {
+		if (_cow != null) unshare();
+	}
+
+	// Synchronized with deepcopy, see CopyOnWrite
+	private synchronized void unshare() {
+		if (_cow == null) return;
+		if (_cow.isShared()) _list = new ArrayList<Number>(_list);
+		_cow.release();
+		_cow = null;
+	}
+
 	@Override
 	public NumberList promote() {
 		final int len = _list.size();
@@ -48,10 +65,24 @@ public class NumberItemList extends NumberList {
 				out[i] = _list.get(i).toDouble();
 			}
 			return new DoubleList(out);
+		} else if (_doubles == 0 && allLongs()) {
+			long[] out = new long[len];
+			for (int i = 0; i < len; i++) {
+				out[i] = _list.get(i).toLong();
+			}
+			return new LongList(out);
 		} else {
 			return this;
 		}
 	}
+
+	/** True if every item is an integer BigNum which fits in a long */
+	private boolean allLongs() {
+		for (Number n : _list) {
+			if (!LongList.canStore(n)) return false;
+		}
+		return true;
+	}
 	
 
 	/** Create a new numeric list by repeating item, repeats times */
@@ -127,11 +158,11 @@ public class NumberItemList extends NumberList {
 
 	@Override
 	public Number sum() {
-		Number total = Num.ZERO;
+		NumberAccumulator total = new NumberAccumulator();
 		for (int i = 0; i < _list.size(); i++) {
-			total = NumberMath.add(total, _list.get(i));
+			total.add(_list.get(i));
 		}
-		return total;
+		return total.result();
 	}
 	
 	@Override
@@ -452,6 +483,7 @@ public class NumberItemList extends NumberList {
 
 	@Override
 	public Number pop() {
+		own();
 		final Number n = _list.remove(0);
 		decDoubleCounter(n);
 		return n;
@@ -459,6 +491,7 @@ public class NumberItemList extends NumberList {
 
 	@Override
 	public Number popBack() {
+		own();
 		final Number n = _list.remove(_list.size()-1);
 		decDoubleCounter(n);
 		return n;
@@ -466,6 +499,7 @@ public class NumberItemList extends NumberList {
 
 	@Override
 	public void reverse() {
+		own();
 		Collections.reverse(_list);
 	}
 
@@ -497,6 +531,7 @@ public class NumberItemList extends NumberList {
 	
 	@Override
 	public Number remove(int i) {
+		own();
 		Number n = _list.remove(i);
 		decDoubleCounter(n);
 		return n;
@@ -504,6 +539,7 @@ public class NumberItemList extends NumberList {
 	
 	@Override
 	public void removeAll(int[] ixs) {
+		own();
 		ListAlgorithms.removeAll(_list, ixs);
 		// Re-compute counters
 		_doubles = 0;
@@ -532,11 +568,13 @@ public class NumberItemList extends NumberList {
 	
 	@Override
 	public void sort() {
+		own();
 		Collections.sort(_list);
 	}
 	
 	@Override
 	public void set(int i, Obj o) {
+		own();
 		_list.set(i, asNumber(o));
 	}
 	
@@ -564,6 +602,7 @@ public class NumberItemList extends NumberList {
 	@Override
 	public void addItem(Obj o) {
 		final Number n = (Number)o;
+		own();
 		_list.add(n);
 		incDoubleCounter(n);
 	}
@@ -571,6 +610,7 @@ public class NumberItemList extends NumberList {
 	@Override
 	public void addItem(int i, Obj o) {
 		final Number n = (Number)o;
+		own();
 		_list.add(i, n);
 		incDoubleCounter(n);
 	}
@@ -631,11 +671,20 @@ public class NumberItemList extends NumberList {
 	
 	@Override
 	public NumberItemList deepcopy() {
-		ArrayList<Number> copy = emptyAL();
-		for (int i = 0; i < _list.size(); i++) {
-			copy.add(_list.get(i).deepcopy());
+		if (!CopyOnWrite.ENABLED) {
+			ArrayList<Number> copy = emptyAL();
+			for (int i = 0; i < _list.size(); i++) {
+				copy.add(_list.get(i).deepcopy());
+			}
+			return new NumberItemList(copy, _doubles);
+		}
+		// Numbers are never modified, the items can be shared
+		synchronized (this) {
+			_cow = CopyOnWrite.share(_cow);
+			NumberItemList out = new NumberItemList(_list, _doubles);
+			out._cow = _cow;
+			return out;
 		}
-		return new NumberItemList(copy, _doubles);	
 	}
 
 	@Override
@@ -46,6 +46,14 @@ public class FractionNum extends Number {
 	public FractionNum(BigDecimal n) {
 		_val = new BigFraction(n);
 	}
+	
+	public BigInteger numerator() {
+		return _val.getNumerator();
+	}
+	
+	public BigInteger denominator() {
+		return _val.getDenominator();
+	}
 
 	/////////////////
 	// CONVERSIONS //
@@ -24,10 +24,24 @@ public class Num extends Number {
 	public static final Num INT_MAX = new Num(Integer.MAX_VALUE);
 	public static final Num INT_MIN = new Num(Integer.MIN_VALUE);
 	public static final Num[] BYTES = new Num[256];
+	
+	/** Smallest cached integer */
+	public static final int CACHE_LOW = -128;
+	/** Largest cached integer, may be set using -Daya.num.cache=N (at least 255) */
+	public static final int CACHE_HIGH = Math.max(255, Integer.getInteger("aya.num.cache", 1024));
+	private static final Num[] CACHE = new Num[CACHE_HIGH - CACHE_LOW + 1];
 	static {
-		BYTES[0] = ZERO;
-		BYTES[1] = ONE;
-		for (int i = 2; i < 256; i++) BYTES[i] = new Num(i);
+		for (int i = CACHE_LOW; i <= CACHE_HIGH; i++) {
+			final Num n;
+			switch (i) {
+			case 0: n = ZERO; break;
+			case 1: n = ONE; break;
+			case -1: n = NEG_ONE; break;
+			default: n = new Num(i);
+			}
+			CACHE[i - CACHE_LOW] = n;
+		}
+		System.arraycopy(CACHE, -CACHE_LOW, BYTES, 0, 256);
 	}
 	
 	
@@ -58,15 +72,24 @@ public class Num extends Number {
 	}
 	
 	public static Num fromInt(int i) {
-		if (i >= 0 && i <= 255) {
-			return BYTES[i];
-		} else if (i == -1) {
-			return NEG_ONE;
+		if (i >= CACHE_LOW && i <= CACHE_HIGH) {
+			return CACHE[i - CACHE_LOW];
 		} else {
 			return new Num(i);
 		}
 	}
 	
+	/** Returns a cached Num if d is a small integer, otherwise a new Num */
+	public static Num valueOf(double d) {
+		final int i = (int)d;
+		// -0.0 is not cached, 1/-0.0 is -Infinity
+		if (i == d && i >= CACHE_LOW && i <= CACHE_HIGH && (i != 0 || 1.0 / d > 0)) {
+			return CACHE[i - CACHE_LOW];
+		} else {
+			return new Num(d);
+		}
+	}
+	
 	public static Num fromBool(boolean b) {
 		return b ? ONE : ZERO;
 	}
@@ -110,15 +133,15 @@ public class Num extends Number {
 	
 	@Override
 	public Number add(Number other) { return this.add((Num)other); }
-	public Num add(Num other) { return new Num(_val + other._val); }
+	public Num add(Num other) { return valueOf(_val + other._val); }
 
 	@Override
 	public Number sub(Number other) { return this.sub((Num)other); }
-	public Num sub(Num other) { return new Num(_val - other._val); }
+	public Num sub(Num other) { return valueOf(_val - other._val); }
 
 	@Override
 	public Number mul(Number other) { return this.mul((Num)other); }
-	public Num mul(Num other) { return new Num(_val * other._val); }
+	public Num mul(Num other) { return valueOf(_val * other._val); }
 
 	@Override
 	public Number div(Number other) { return this.div((Num)other); }
@@ -126,11 +149,11 @@ public class Num extends Number {
 
 	@Override
 	public Number idiv(Number other) { return this.idiv((Num)other); }
-	public Num idiv(Num other) { return new Num(Math.floor(_val / other._val)); }
+	public Num idiv(Num other) { return valueOf(Math.floor(_val / other._val)); }
 	
 	@Override
 	public Number mod(Number other) { return this.mod((Num)other); }
-	public Num mod(Num other) { return new Num(_val % other._val); }
+	public Num mod(Num other) { return valueOf(_val % other._val); }
 
 	@Override
 	public Number pow(Number other) { return this.pow((Num)other); }
@@ -155,12 +178,12 @@ public class Num extends Number {
 	
 	@Override
 	public Number inc() {
-		return new Num(_val + 1.0);
+		return valueOf(_val + 1.0);
 	}
 
 	@Override
 	public Number dec() {
-		return new Num(_val - 1.0);
+		return valueOf(_val - 1.0);
 	}
 
 	@Override
@@ -230,12 +253,12 @@ public class Num extends Number {
 
 	@Override
 	public Number ceil() {
-		return new Num(Math.ceil(_val));
+		return valueOf(Math.ceil(_val));
 	}
 
 	@Override
 	public Number floor() {
-		return new Num(Math.floor(_val));
+		return valueOf(Math.floor(_val));
 	}
 
 	@Override
@@ -161,6 +161,16 @@ public abstract class Number extends Obj implements Comparable<Number> {
 
 	@Override
 	public byte type() { return Obj.NUMBER; }
+	
+	/** Equivalent numbers of any type have the same double value */
+	@Override
+	public int hashCode() { return hashDouble(toDouble()); }
+	
+	/** Hash code of a number with the given value */
+	public static int hashDouble(double d) {
+		// 0.0 and -0.0 are equivalent
+		return d == 0.0 ? 0 : Double.hashCode(d);
+	}
 
 	//Common constants, return the same type
 	public abstract Number one();
@@ -0,0 +1,48 @@
+package aya.obj.number;
+
+/**
+ * Mutable running total used to sum many numbers
+ *
+ * While only Num are added, the total is kept as a double and no objects are
+ * allocated. Once another number type is added the total continues using
+ * NumberMath.add. The result is the same as adding the numbers one by one
+ * starting from zero.
+ */
+public class NumberAccumulator {
+
+	private double _sum;
+	// null while the total is a double
+	private Number _total;
+
+	/** Start from zero */
+	public NumberAccumulator() {
+		_sum = 0.0;
+		_total = null;
+	}
+
+	/** Start from the first number instead of adding it to zero */
+	public NumberAccumulator(Number first) {
+		if (first instanceof Num) {
+			_sum = ((Num)first)._val;
+			_total = null;
+		} else {
+			_sum = 0.0;
+			_total = first;
+		}
+	}
+
+	public void add(Number n) {
+		if (_total == null) {
+			if (n instanceof Num) {
+				_sum += ((Num)n)._val;
+				return;
+			}
+			_total = new Num(_sum);
+		}
+		_total = NumberMath.add(_total, n);
+	}
+
+	public Number result() {
+		return _total == null ? Num.valueOf(_sum) : _total;
+	}
+}
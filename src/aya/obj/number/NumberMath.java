@@ -3,74 +3,112 @@ package aya.obj.number;
 /** Various static functions for doing math on numbers */
 public class NumberMath {
 
-	// Utility class
-	static class NumberPair {
-		NumberPair(Number a, Number b) {
-			this.a = a;
-			this.b = b;
-		}
-		Number a;
-		Number b;
-	}
-	
 	static int compType(Number a, Number b) {
 		return Integer.compare(a.numType(), b.numType());
 	}
 	
-	static NumberPair promote(Number a, Number b) {
-		int comp = compType(a, b);
+	// Binary operations are dispatched on the pair of number types. Operands
+	// of the same type (usually two Num) are used directly, otherwise the
+	// operand with the lower type is converted. No intermediate objects are
+	// allocated.
+	
+	public static Number add(Number a, Number b) {
+		final int comp = compType(a, b);
 		if (comp == 0) {
-			return new NumberPair(a, b);
+			return a.add(b);
 		} else if (comp > 0) {
-			return new NumberPair(a, a.convert(b));
+			return a.add(a.convert(b));
 		} else {
-			return new NumberPair(b.convert(a), b);
+			return b.convert(a).add(b);
 		}
 	}
-	
-	public static Number add(Number a, Number b) {
-		NumberPair pair = promote(a, b);
-		return pair.a.add(pair.b);
-	}
 
 	public static Number sub(Number a, Number b) {
-		NumberPair pair = promote(a, b);
-		return pair.a.sub(pair.b);
+		final int comp = compType(a, b);
+		if (comp == 0) {
+			return a.sub(b);
+		} else if (comp > 0) {
+			return a.sub(a.convert(b));
+		} else {
+			return b.convert(a).sub(b);
+		}
 	}
 
 	public static Number mul(Number a, Number b) {
-		NumberPair pair = promote(a, b);
-		return pair.a.mul(pair.b);
+		final int comp = compType(a, b);
+		if (comp == 0) {
+			return a.mul(b);
+		} else if (comp > 0) {
+			return a.mul(a.convert(b));
+		} else {
+			return b.convert(a).mul(b);
+		}
 	}
 
 	public static Number div(Number a, Number b) {
-		NumberPair pair = promote(a, b);
-		return pair.a.div(pair.b);
+		final int comp = compType(a, b);
+		if (comp == 0) {
+			return a.div(b);
+		} else if (comp > 0) {
+			return a.div(a.convert(b));
+		} else {
+			return b.convert(a).div(b);
+		}
 	}
 
 	public static Number idiv(Number a, Number b) {
-		NumberPair pair = promote(a, b);
-		return pair.a.idiv(pair.b);
+		final int comp = compType(a, b);
+		if (comp == 0) {
+			return a.idiv(b);
+		} else if (comp > 0) {
+			return a.idiv(a.convert(b));
+		} else {
+			return b.convert(a).idiv(b);
+		}
 	}
 
 	public static Number mod(Number a, Number b) {
-		NumberPair pair = promote(a, b);
-		return pair.a.mod(pair.b);
+		final int comp = compType(a, b);
+		if (comp == 0) {
+			return a.mod(b);
+		} else if (comp > 0) {
+			return a.mod(a.convert(b));
+		} else {
+			return b.convert(a).mod(b);
+		}
 	}
 
 	public static Number pow(Number a, Number b) {
-		NumberPair pair = promote(a, b);
-		return pair.a.pow(pair.b);
+		final int comp = compType(a, b);
+		if (comp == 0) {
+			return a.pow(b);
+		} else if (comp > 0) {
+			return a.pow(a.convert(b));
+		} else {
+			return b.convert(a).pow(b);
+		}
 	}
 	
 	public static Number gcd(Number a, Number b) {
-		NumberPair pair = promote(a, b);
-		return pair.a.gcd(pair.b);
+		final int comp = compType(a, b);
+		if (comp == 0) {
+			return a.gcd(b);
+		} else if (comp > 0) {
+			return a.gcd(a.convert(b));
+		} else {
+			return b.convert(a).gcd(b);
+		}
 	}
 
 	public static Number lcm(Number a, Number b) {
-		NumberPair pair = promote(a, b);
-		return pair.a.lcm(pair.b);
+		final int comp = compType(a, b);
+		if (comp == 0) {
+			return a.lcm(b);
+		} else if (comp > 0) {
+			return a.lcm(a.convert(b));
+		} else {
+			return b.convert(a).lcm(b);
+		}
 	}
 	
 	/** Greatest common denominator */
@@ -120,6 +120,8 @@ public class SymbolConstants {
 
 	public static final Symbol __CDICT__    = S("__cdict__");
 
+	public static final Symbol COLLECTION   = S("collection");
+
 
 
 }
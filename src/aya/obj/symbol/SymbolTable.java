@@ -1,37 +1,105 @@
 package aya.obj.symbol;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/**
+ * Global, thread safe symbol interner
+ *
+ * Lookups of existing symbols never lock. New ids are taken from an atomic
+ * counter. The reverse (id -> name) table is stored in fixed size chunks,
+ * the chunk directory is replaced using compare-and-set when it needs to grow
+ * so existing chunks are never copied.
+ */
 public class SymbolTable {
-	
-	private volatile static HashMap<String, Symbol> _symbols = new HashMap<String, Symbol>();
-	private volatile static HashMap<Integer, String> _symbols_rev = new HashMap<Integer, String>();
-	private volatile static int _counter = 1; // 0: null
-	
+
+	private static final int CHUNK_BITS = 10;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private static final ConcurrentHashMap<String, Symbol> _symbols = new ConcurrentHashMap<String, Symbol>();
+	private static final AtomicReference<NameChunk[]> _symbols_rev = new AtomicReference<NameChunk[]>(new NameChunk[4]);
+	private static final AtomicInteger _counter = new AtomicInteger(1); // 0: null
+
+	private static class NameChunk {
+		final AtomicReferenceArray<String> names = new AtomicReferenceArray<String>(CHUNK_SIZE);
+	}
+
 	public static Symbol getSymbol(String str) {
 		Symbol sym = _symbols.get(str);
 		if (sym != null) {
 			return sym;
 		} else {
-			return newSymbol(str);
+			return _symbols.computeIfAbsent(str, SymbolTable::newSymbol);
 		}
 	}
-	
+
 	public static String getName(Symbol s) {
-		String name = _symbols_rev.get(s._id);
+		final String name = nameOrNull(s._id);
 		if (name != null) {
 			return name;
 		} else {
 			throw new RuntimeException("Unknown symbol!");
 		}
 	}
-	
+
+	/** Returns the number of symbols that have been created */
+	public static int size() {
+		return _symbols.size();
+	}
+
+	/** Returns the names of all symbols ordered by id. Interning them in this order gives each the same id again */
+	public static ArrayList<String> names() {
+		final int end = _counter.get();
+		ArrayList<String> out = new ArrayList<String>(end - 1);
+		for (int id = 1; id < end; id++) {
+			final String name = nameOrNull(id);
+			if (name == null) break; // Still being created by another thread
+			out.add(name);
+		}
+		return out;
+	}
+
+	private static String nameOrNull(int id) {
+		final NameChunk[] dir = _symbols_rev.get();
+		final int chunk_index = id >>> CHUNK_BITS;
+		if (chunk_index < dir.length && dir[chunk_index] != null) {
+			return dir[chunk_index].names.get(id & CHUNK_MASK);
+		}
+		return null;
+	}
+
+	/** Only called once per name by computeIfAbsent */
 	private static Symbol newSymbol(String name) {
-		Symbol sym = new Symbol(_counter);
-		_symbols.put(name, sym);
-		_symbols_rev.put(_counter,  name);
-		_counter++;
-		return sym;
+		final int id = _counter.getAndIncrement();
+		// The name must be visible before the symbol is published in _symbols
+		getChunk(id >>> CHUNK_BITS).names.set(id & CHUNK_MASK, name);
+		return new Symbol(id);
+	}
+
+	/** Return the chunk at the given index, growing the directory if needed */
+	private static NameChunk getChunk(int chunk_index) {
+		while (true) {
+			final NameChunk[] dir = _symbols_rev.get();
+			if (chunk_index < dir.length && dir[chunk_index] != null) {
+				return dir[chunk_index];
+			}
+
+			// Copy the directory (not the chunks) and add the new chunk
+			int len = dir.length;
+			while (len <= chunk_index) len *= 2;
+			NameChunk[] new_dir = new NameChunk[len];
+			System.arraycopy(dir, 0, new_dir, 0, dir.length);
+			new_dir[chunk_index] = new NameChunk();
+
+			if (_symbols_rev.compareAndSet(dir, new_dir)) {
+				return new_dir[chunk_index];
+			}
+			// Another thread changed the directory, try again
+		}
 	}
 
 	/** Returns true if the string contains only lowercase alpha and underscores */
@@ -43,7 +111,7 @@ public class SymbolTable {
 	public static boolean isBasicSymbolChar(char c) {
 		return isValidChar(c);
 	}
-	
+
 	/** Return true if the string is a valid variable name */
 	private static boolean isValidStr(String varname) {
 		if (varname.length() == 0) return  false;
@@ -51,12 +119,12 @@ public class SymbolTable {
 		for (char c : chars) {
 			if (!isValidChar(c)) return false;
 		}
-		
+
 		return true;
 	}
 
 	private static boolean isValidChar(char c) {
 		return (c >= 'a' && c <= 'z') || c == '_';
 	}
-	
+
 }
@@ -0,0 +1,160 @@
+package aya.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import aya.exceptions.parser.ParserException;
+import aya.obj.block.StaticBlock;
+import aya.obj.dict.Dict;
+import aya.obj.number.Num;
+import aya.obj.symbol.SymbolTable;
+import aya.util.FileUtils;
+import aya.util.LRUCache;
+
+/**
+ * In memory cache of blocks compiled at runtime
+ *
+ * Strings evaluated using ~ and .~ are cached by their text, files loaded
+ * using :F by their path, size and modification time (a file which has not
+ * changed is not read again). Compiled blocks are never modified so the same
+ * block can be used for every evaluation. Files which are not in the cache
+ * are compiled using the ImageCache. Source errors are not cached.
+ */
+public class CompileCache {
+
+	/** Use the cache, may be disabled using -Daya.compilecache=false */
+	public static boolean ENABLED = Boolean.parseBoolean(System.getProperty("aya.compilecache", "true"));
+	/** Max number of strings and of files in the cache, may be set using -Daya.compilecache.size=n */
+	public static final int SIZE = Integer.getInteger("aya.compilecache.size", 256);
+
+	private static final LRUCache<String, StaticBlock> _strings = new LRUCache<String, StaticBlock>(SIZE);
+	private static final LRUCache<FileKey, StaticBlock> _files = new LRUCache<FileKey, StaticBlock>(SIZE);
+
+	private static final AtomicLong _string_hits = new AtomicLong();
+	private static final AtomicLong _string_misses = new AtomicLong();
+	private static final AtomicLong _file_hits = new AtomicLong();
+	private static final AtomicLong _file_misses = new AtomicLong();
+
+	/** If not null, the paths of all loaded files are added to it (see startRecording) */
+	private static ArrayList<String> _recorded = null;
+
+	private static class FileKey {
+		final String path;
+		final long length;
+		final long modified;
+
+		FileKey(File file) {
+			this.path = file.getAbsolutePath();
+			this.length = file.length();
+			this.modified = file.lastModified();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof FileKey)) return false;
+			FileKey k = (FileKey)o;
+			return path.equals(k.path) && length == k.length && modified == k.modified;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(path, length, modified);
+		}
+	}
+
+	/** Compile code evaluated at runtime */
+	public static StaticBlock compileString(String code) throws ParserException {
+		if (!ENABLED) {
+			return Parser.compile(new SourceString(code, "~"));
+		}
+
+		StaticBlock block;
+		synchronized (_strings) {
+			block = _strings.get(code);
+		}
+		if (block != null) {
+			_string_hits.incrementAndGet();
+			return block;
+		}
+
+		_string_misses.incrementAndGet();
+		block = Parser.compile(new SourceString(code, "~"));
+		synchronized (_strings) {
+			_strings.put(code, block);
+		}
+		return block;
+	}
+
+	/** Compile a source file */
+	public static StaticBlock compileFile(File file) throws ParserException, IOException {
+		record(file.getAbsolutePath());
+		if (!ENABLED) {
+			return ImageCache.compile(readSource(file));
+		}
+
+		final FileKey key = new FileKey(file);
+		StaticBlock block;
+		synchronized (_files) {
+			block = _files.get(key);
+		}
+		if (block != null) {
+			_file_hits.incrementAndGet();
+			return block;
+		}
+
+		_file_misses.incrementAndGet();
+		block = ImageCache.compile(readSource(file));
+		synchronized (_files) {
+			_files.put(key, block);
+		}
+		return block;
+	}
+
+	private static SourceString readSource(File file) throws IOException {
+		String content = FileUtils.readAllText(file);
+
+		// Is there a shebang? If yes, drop the first line
+		if (content.length() > 1 && content.charAt(0) == '#' && content.charAt(1) == '!') {
+			int line_end = content.indexOf('\n');
+			content = line_end < 0 ? "" : content.substring(line_end);
+		}
+
+		return new SourceString(content, file.getAbsolutePath());
+	}
+
+	/** Hit and miss counts of strings and files and the number of cached blocks */
+	public static Dict stats() {
+		Dict d = new Dict();
+		d.set(SymbolTable.getSymbol("hits"), new Num(_string_hits.get()));
+		d.set(SymbolTable.getSymbol("misses"), new Num(_string_misses.get()));
+		d.set(SymbolTable.getSymbol("file_hits"), new Num(_file_hits.get()));
+		d.set(SymbolTable.getSymbol("file_misses"), new Num(_file_misses.get()));
+		synchronized (_strings) {
+			d.set(SymbolTable.getSymbol("size"), Num.fromInt(_strings.size()));
+		}
+		synchronized (_files) {
+			d.set(SymbolTable.getSymbol("file_size"), Num.fromInt(_files.size()));
+		}
+		d.set(SymbolTable.getSymbol("capacity"), Num.fromInt(SIZE));
+		return d;
+	}
+
+	/** Record the paths of all files loaded from now on until stopRecording is called */
+	public static synchronized void startRecording() {
+		_recorded = new ArrayList<String>();
+	}
+
+	/** Returns the paths of the files loaded since startRecording */
+	public static synchronized ArrayList<String> stopRecording() {
+		ArrayList<String> out = _recorded;
+		_recorded = null;
+		return out == null ? new ArrayList<String>() : out;
+	}
+
+	private static synchronized void record(String path) {
+		if (_recorded != null) _recorded.add(path);
+	}
+}
@@ -0,0 +1,139 @@
+package aya.parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+
+import aya.AyaPrefs;
+import aya.StaticData;
+import aya.exceptions.parser.ParserException;
+import aya.obj.block.BlockImage;
+import aya.obj.block.StaticBlock;
+
+/**
+ * Cache of compiled source files (see BlockImage)
+ *
+ * Each source file has one image in the cache directory, named after a hash
+ * of its path. The image header holds a hash of the source it was compiled
+ * from and is only used if the source has not changed since. Images are
+ * written after a file is compiled along with the documentation comments of
+ * the source, which are added to the help data when the image is read. Any
+ * failure to read or write an image falls back to compiling the source.
+ *
+ * Only the files of the standard library (base/ and std/ in the aya
+ * directory) are cached by default so the number of images stays bounded,
+ * other files are compiled every time they are loaded.
+ */
+public class ImageCache {
+
+	/** Use cached images, may be disabled using -Daya.images=false */
+	public static boolean ENABLED = Boolean.parseBoolean(System.getProperty("aya.images", "true"));
+	/** Cache every compiled file instead of only the standard library, may be enabled using -Daya.images.all=true */
+	public static boolean ALL_FILES = Boolean.parseBoolean(System.getProperty("aya.images.all", "false"));
+	/** Directory of the images, may be set using -Daya.images.dir=path */
+	public static File DIR = new File(System.getProperty("aya.images.dir",
+			new File(new File(AyaPrefs.getHomeDir(), ".aya"), "images").getPath()));
+
+	private static final int MAGIC = 0x41594149; // AYAI
+	private static final int FORMAT_VERSION = 2;
+
+	/** Compile the source of a file, source.getFilename() must be the absolute path of the file */
+	public static StaticBlock compile(SourceString source) throws ParserException {
+		if (!ENABLED || !(ALL_FILES || isLibraryFile(source.getFilename()))) {
+			return Parser.compile(source);
+		}
+
+		final long hash = hash(source.getSource());
+		final File image = new File(DIR, String.format("%016x.ayai", hash(source.getFilename())));
+
+		StaticBlock block = read(image, hash, source);
+		if (block == null) {
+			ArrayList<String> docs = new ArrayList<String>();
+			block = Parser.compile(source, docs);
+			write(image, hash, docs, block);
+		}
+		return block;
+	}
+
+	private static boolean isLibraryFile(String filename) {
+		final String ayaDir = AyaPrefs.getAyaDir();
+		if (ayaDir == null) return false;
+		final Path path = new File(filename).toPath().toAbsolutePath().normalize();
+		final Path root = new File(ayaDir).toPath().toAbsolutePath().normalize();
+		return path.startsWith(root.resolve("base")) || path.startsWith(root.resolve("std"));
+	}
+
+	/** Returns null if there is no fresh image */
+	private static StaticBlock read(File image, long hash, SourceString source) {
+		if (!image.isFile()) return null;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(image)))) {
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !in.readUTF().equals(StaticData.VERSION_NAME)) {
+				return null;
+			}
+			if (in.readLong() != hash) {
+				return null;
+			}
+			final int ndocs = in.readInt();
+			final String[] docs = new String[ndocs];
+			for (int i = 0; i < ndocs; i++) {
+				docs[i] = in.readUTF();
+			}
+			final StaticBlock block = BlockImage.read(in, source);
+			for (String doc : docs) {
+				StaticData.getInstance().addHelpText(doc);
+			}
+			return block;
+		} catch (IOException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	private static void write(File image, long hash, ArrayList<String> docs, StaticBlock block) {
+		final byte[] bytes = BlockImage.write(block);
+		if (bytes == null) return;
+		try {
+			Files.createDirectories(DIR.toPath());
+			// Write to a temporary file first so other processes never see a partial image
+			File tmp = File.createTempFile(image.getName(), ".tmp", DIR);
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeUTF(StaticData.VERSION_NAME);
+				out.writeLong(hash);
+				out.writeInt(docs.size());
+				for (String doc : docs) {
+					out.writeUTF(doc);
+				}
+				out.write(bytes);
+			}
+			try {
+				Files.move(tmp.toPath(), image.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				Files.deleteIfExists(tmp.toPath());
+			}
+		} catch (IOException e) {
+			// The cache is optional
+		}
+	}
+
+	/**
+	 * 64 bit FNV-1a hash of the characters. Loading a MessageDigest the first
+	 * time takes longer than reading all images at startup
+	 */
+	public static long hash(String s) {
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < s.length(); i++) {
+			h = (h ^ s.charAt(i)) * 0x100000001b3L;
+		}
+		return h;
+	}
+}
@@ -69,6 +69,15 @@ public class Parser {
 	
 	public static char CDICT_CHAR = (char)162; // cent
 
+	/** If set, documentation comments are also collected here (see compile(SourceString, ArrayList)) */
+	private static final ThreadLocal<ArrayList<String>> _docComments = new ThreadLocal<ArrayList<String>>();
+
+	private static void addDocComment(String doc) {
+		StaticData.getInstance().addHelpText(doc);
+		ArrayList<String> docs = _docComments.get();
+		if (docs != null) docs.add(doc);
+	}
+
 	public static TokenQueue tokenize(ParserString in) throws ParserException {
 		TokenQueue tokens = new TokenQueue();
 
@@ -93,7 +102,7 @@ public class Parser {
 				String comment_str = comment.toString();
 				if (comment_str.length() > 0 && comment_str.charAt(0) == '?') {
 					comment_str = comment_str.substring(1);
-					StaticData.getInstance().addHelpText(comment_str);
+					addDocComment(comment_str);
 				}
 
 				continue;
@@ -126,7 +135,7 @@ public class Parser {
 				String comment_str = comment.toString();
 				if (comment_str.length() > 0 && comment_str.charAt(0) == '?') {
 					comment_str = comment_str.substring(1);
-					StaticData.getInstance().addHelpText(comment_str);
+					addDocComment(comment_str);
 				}
 			}
 
@@ -759,6 +768,20 @@ public class Parser {
 		InstructionStack is = compileIS(source);
 		return BlockUtils.fromIS(is);
 	}
+
+	/**
+	 * Compiles a string into a code block and adds the documentation comments
+	 * of the source to docComments
+	 */
+	public static StaticBlock compile(SourceString source, ArrayList<String> docComments) throws ParserException {
+		ArrayList<String> outer = _docComments.get();
+		_docComments.set(docComments);
+		try {
+			return compile(source);
+		} finally {
+			_docComments.set(outer);
+		}
+	}
 	
 	public static StaticBlock compileSafeOrNull(SourceString source, AyaStdIO io) {
 		try {
@@ -19,6 +19,7 @@ import aya.instruction.variable.assignment.UnpackAssignment;
 import aya.obj.Obj;
 import aya.obj.block.BlockUtils;
 import aya.obj.block.StaticBlock;
+import aya.obj.block.VariableResolver;
 import aya.obj.dict.Dict;
 import aya.obj.number.Num;
 import aya.obj.symbol.Symbol;
@@ -82,6 +83,7 @@ public class BlockToken extends CollectionToken {
 					InstructionStack main_instructions = Parser.generate(blockData.get(1));
 					Triple<ArrayList<Assignment>, Dict, HashMap<Symbol, StaticBlock>> p = generateBlockHeader(blockData.get(0));
 					StaticBlock blk = BlockUtils.fromIS(main_instructions, p.second(), p.first());
+					VariableResolver.resolve(blk, p.third() == null ? null : p.third().keySet());
 					return new BlockLiteralInstruction(this.getSourceStringRef(), blk, p.third());
 				}
 			} else {
@@ -0,0 +1,55 @@
+package aya.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared state of the storage of copy-on-write number lists
+ *
+ * deepcopy() of a number list returns a new list which uses the array of the
+ * original instead of copying it. Both lists keep a reference to the same
+ * CopyOnWrite, a list which owns its array keeps null. Before a list modifies
+ * its array it copies it if other lists still use it and then releases it.
+ * The last list to release the array does not need to copy it. A list which
+ * replaces its array by a new one releases the old one without copying it.
+ *
+ * A list may be copied by several threads at once (for example the
+ * arguments of :{par.map}): deepcopy() shares the array and the lists copy
+ * or release it while holding the lock of the list, so the count of a
+ * CopyOnWrite is never lost. As for all lists, modifying a list while
+ * another thread reads or copies it is not supported.
+ *
+ * Lists of other objects and dicts still copy their items using deepcopy()
+ * when they are copied: an item may also be referenced (and modified) from
+ * outside of the list. A deep copy of a matrix or a dict of columns therefore
+ * only allocates the outer containers until a row or column is modified.
+ */
+public class CopyOnWrite {
+
+	/** Use copy-on-write deep copies, may be disabled using -Daya.cow=false */
+	public static boolean ENABLED = Boolean.parseBoolean(System.getProperty("aya.cow", "true"));
+
+	// Number of lists using the array
+	private final AtomicInteger _lists = new AtomicInteger(2);
+
+	private CopyOnWrite() { }
+
+	/** Share the array of a list with one more list. cow is the state of the list, null if it owns its array */
+	public static CopyOnWrite share(CopyOnWrite cow) {
+		if (cow == null) {
+			return new CopyOnWrite();
+		} else {
+			cow._lists.incrementAndGet();
+			return cow;
+		}
+	}
+
+	/** True if other lists use the array. If so, the list must copy it before calling release() */
+	public boolean isShared() {
+		return _lists.get() > 1;
+	}
+
+	/** The list no longer uses the array */
+	public void release() {
+		_lists.decrementAndGet();
+	}
+}
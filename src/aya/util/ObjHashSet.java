@@ -0,0 +1,91 @@
+package aya.util;
+
+import aya.obj.Obj;
+
+/**
+ * A set of objects using open addressing with linear probing
+ *
+ * Items are compared using Obj.equiv and hashed using Obj.hashCode. No entry
+ * objects are allocated when adding items, which makes this set cheaper than
+ * a java.util.HashSet for the short lived sets used by list operations
+ */
+public class ObjHashSet {
+
+	private static final int MIN_CAPACITY = 16;
+
+	private Obj[] _items;
+	private int[] _hashes;
+	private int _size;
+	private int _mask;
+
+	public ObjHashSet() {
+		this(MIN_CAPACITY);
+	}
+
+	/** Create a set which can hold the given number of items without growing */
+	public ObjHashSet(int expected) {
+		int capacity = MIN_CAPACITY;
+		while (capacity < expected * 2) capacity <<= 1;
+		_items = new Obj[capacity];
+		_hashes = new int[capacity];
+		_mask = capacity - 1;
+		_size = 0;
+	}
+
+	/** Returns true if the item was not already in the set */
+	public boolean add(Obj o) {
+		final int h = spread(o.hashCode());
+		final int i = slot(o, h);
+		if (_items[i] != null) return false;
+
+		_items[i] = o;
+		_hashes[i] = h;
+		_size++;
+		if (_size * 2 > _items.length) grow();
+		return true;
+	}
+
+	public boolean contains(Obj o) {
+		final int h = spread(o.hashCode());
+		return _items[slot(o, h)] != null;
+	}
+
+	public int size() {
+		return _size;
+	}
+
+	/** Index of the item or of the empty slot where it would be inserted */
+	private int slot(Obj o, int h) {
+		int i = h & _mask;
+		while (true) {
+			final Obj x = _items[i];
+			if (x == null || (_hashes[i] == h && (x == o || o.equiv(x)))) {
+				return i;
+			}
+			i = (i + 1) & _mask;
+		}
+	}
+
+	private void grow() {
+		final Obj[] items = _items;
+		final int[] hashes = _hashes;
+		_items = new Obj[items.length * 2];
+		_hashes = new int[items.length * 2];
+		_mask = _items.length - 1;
+		for (int j = 0; j < items.length; j++) {
+			if (items[j] != null) {
+				int i = hashes[j] & _mask;
+				while (_items[i] != null) i = (i + 1) & _mask;
+				_items[i] = items[j];
+				_hashes[i] = hashes[j];
+			}
+		}
+	}
+
+	// Number hashes are taken from the bits of a double, most of the low bits
+	// are zero for small integers. Mix the high bits into the low bits
+	private static int spread(int h) {
+		h *= 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -2,9 +2,16 @@ package aya.util;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 
 /**
  * A easily filter-able collection of strings
+ * 
+ * Items are unique. A filter matches the items which contain it. Items are
+ * indexed by the trigrams (3 character substrings) they contain, so a filter
+ * of at least 3 characters is only compared to the items which contain all of
+ * its trigrams. New items are indexed by the next search, adding is cheap.
  * @author Nick
  *
  */
@@ -13,18 +20,106 @@ public class StringSearch {
 	ArrayList<String> filteredItems;
 	String filter;
 	
+	private final HashSet<String> itemSet = new HashSet<String>();
+	/** trigram => ids (index in allItems) of the items containing it, in ascending order */
+	private final HashMap<Long, Postings> index = new HashMap<Long, Postings>();
+	/** Number of items in the index */
+	private int indexed = 0;
+	
+	/** A growable list of item ids */
+	private static class Postings {
+		int[] ids = new int[4];
+		int size = 0;
+		
+		void add(int id) {
+			// Items are indexed in order, skip repeated trigrams of the same item
+			if (size > 0 && ids[size-1] == id) return;
+			if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+			ids[size++] = id;
+		}
+	}
+	
 	public StringSearch(String[] items) {
-		allItems = new ArrayList<String>(Arrays.asList(items));
-		filteredItems = allItems;
+		this(new ArrayList<String>(Arrays.asList(items)));
 	}
 	
 	public StringSearch(ArrayList<String> items) {
-		allItems = new ArrayList<String>(items);
+		allItems = new ArrayList<String>(items.size());
 		filteredItems = allItems;
+		addAll(items);
+	}
+	
+	private static long trigram(String s, int i) {
+		return ((long)s.charAt(i) << 32) | ((long)s.charAt(i+1) << 16) | s.charAt(i+2);
+	}
+	
+	private void updateIndex() {
+		for (; indexed < allItems.size(); indexed++) {
+			final String s = allItems.get(indexed);
+			for (int i = 0; i + 3 <= s.length(); i++) {
+				final long t = trigram(s, i);
+				Postings p = index.get(t);
+				if (p == null) {
+					p = new Postings();
+					index.put(t, p);
+				}
+				p.add(indexed);
+			}
+		}
+	}
+	
+	/** Returns the items containing str, in the order they were added */
+	private ArrayList<String> search(String str) {
+		ArrayList<String> out = new ArrayList<String>();
+		if (str.length() < 3) {
+			for (String item : allItems) {
+				if (item.contains(str)) {
+					out.add(item);
+				}
+			}
+			return out;
+		}
+		updateIndex();
+		
+		// Start with the trigram that appears in the fewest items
+		Postings smallest = null;
+		ArrayList<Postings> all = new ArrayList<Postings>();
+		for (int i = 0; i + 3 <= str.length(); i++) {
+			Postings p = index.get(trigram(str, i));
+			if (p == null) return out;
+			all.add(p);
+			if (smallest == null || p.size < smallest.size) smallest = p;
+		}
+		
+		// Intersect the other lists with it, then check the remaining candidates
+		int[] candidates = Arrays.copyOf(smallest.ids, smallest.size);
+		int count = candidates.length;
+		for (Postings p : all) {
+			if (p == smallest) continue;
+			int n = 0;
+			int j = 0;
+			for (int i = 0; i < count; i++) {
+				final int id = candidates[i];
+				while (j < p.size && p.ids[j] < id) j++;
+				if (j < p.size && p.ids[j] == id) candidates[n++] = id;
+			}
+			count = n;
+		}
+		for (int i = 0; i < count; i++) {
+			String item = allItems.get(candidates[i]);
+			if (item.contains(str)) {
+				out.add(item);
+			}
+		}
+		return out;
 	}
 	
 	/** Applies a new filter to the string list */
-	public ArrayList<String> applyNewFilter(String filter) {
+	public synchronized ArrayList<String> applyNewFilter(String filter) {
+		if (filter == null) {
+			clearFilter();
+			return filteredItems;
+		}
 		this.filter = filter;
 		runFilter();
 		return filteredItems;
@@ -33,18 +128,8 @@ public class StringSearch {
 	/** Compares the current filter and s and adds the new content to the filter.
 	 * If the characters are different before the end of the current filter is reached,
 	 * create a brand new filter */
-	public ArrayList<String> appendToFilter(String strIn) {
-		if(filter == null) {
-			return applyNewFilter(strIn);
-		}
-		
-		//If the new string is shorter than the current filter, create a new filter
-		if(filter.length() <= strIn.length()) {
-			return applyNewFilter(strIn);
-		}
-		
-		//Check if the first few chars of the existing filter matches strIn
-		if (strIn.startsWith(filter)) {
+	public synchronized ArrayList<String> appendToFilter(String strIn) {
+		if (filter != null && strIn.startsWith(filter)) {
 			return addToFilter(strIn.substring(filter.length(), strIn.length()));
 		}
 		return applyNewFilter(strIn);
@@ -53,7 +138,7 @@ public class StringSearch {
 	/** Appends a string to the current filter. Faster than creating a new filter
 	 * because it only searches through the previously filtered items.
 	 */
-	public ArrayList<String> addToFilter(String str) {
+	public synchronized ArrayList<String> addToFilter(String str) {
 		if(filter == null) {
 			filter = str;
 		} else {
@@ -72,7 +157,7 @@ public class StringSearch {
 	}
 	
 	/** Returns the items in the filtered list */
-	public ArrayList<String> getFilteredItems() {
+	public synchronized ArrayList<String> getFilteredItems() {
 		if (filter == null) {
 			return allItems;
 		}
@@ -80,7 +165,7 @@ public class StringSearch {
 	}
 	
 	/** Returns the filtered items as an array */
-	public String[] getFilteredItemsAsArray() {
+	public synchronized String[] getFilteredItemsAsArray() {
 		if (filter == null) {
 			return allItems.toArray(new String[allItems.size()]);
 		}
@@ -88,70 +173,59 @@ public class StringSearch {
 	}
 	
 	/** Runs the current filter on all the items */
-	public void runFilter() {
-		this.filteredItems = new ArrayList<String>();
-		for (String item : allItems) {
-			if(item.contains(filter)) {
-				filteredItems.add(item);
-			}
-		}
+	public synchronized void runFilter() {
+		this.filteredItems = search(filter);
 	}
 	
 	/** Returns the current filter */
-	public String getFilter() {
+	public synchronized String getFilter() {
 		return this.filter;
 	}
 	
 	/** Returns all of the items (regardless of the filter)  */
-	public String[] getAllItems() {
+	public synchronized String[] getAllItems() {
 		return this.allItems.toArray(new String[allItems.size()]);
 	}
 	
-	/** Adds s to the list of items. Does not update the filtered items */
+	/** Adds s to the list of items if it is not already in it. Does not update the filtered items */
 	public void add(String s) {
-		allItems.add(s);
+		addUnique(s);
 	}
 	
 	/** Adds s to the list if the list does not already contain s. Does not update filtered items */
-	public void addUnique(String s) {
-		if(!allItems.contains(s)) {
+	public synchronized void addUnique(String s) {
+		if (itemSet.add(s)) {
 			allItems.add(s);
 		}
 	}
 	
 	/** Adds the list to the list of items. Does not
 	 * update the filtered items */
-	public void addAll(Collection<? extends String> list) {
-		allItems.addAll(list);
+	public synchronized void addAll(Collection<? extends String> list) {
+		for (String s : list) addUnique(s);
 	}
 	
 	/** Adds the list to the list of items. Does not
 	 * update the filtered items */
-	public void addAll(String[] list) {
-		allItems.addAll(new ArrayList<String>(Arrays.asList(list)));
+	public synchronized void addAll(String[] list) {
+		addAll(Arrays.asList(list));
 	}
 	
 	/** Clears the current filter */
-	public void clearFilter() {
+	public synchronized void clearFilter() {
 		this.filter = null;
 		this.filteredItems = allItems;
 	}
 	
 	@Override
-	public String toString() {
+	public synchronized String toString() {
 		if(filter != null)
 			return filteredItems.toString();
 		return allItems.toString();
 	}
 
 	/** Apply a search and return an arraylist but do not modify the object in any way */
-	public ArrayList<String> staticSearch(String str) {
-		ArrayList<String> out = new ArrayList<String>();
-		for (String item : allItems) {
-			if(item.contains(str)) {
-				out.add(item);
-			}
-		}
-		return out;
+	public synchronized ArrayList<String> staticSearch(String str) {
+		return search(str);
 	}
 }
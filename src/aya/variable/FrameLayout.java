@@ -0,0 +1,105 @@
+package aya.variable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+import aya.obj.symbol.Symbol;
+import aya.obj.symbol.SymbolConstants;
+
+/**
+ * Maps the local variable names of a block to slot indices in a frame array.
+ *
+ * Layouts are interned by their set of names so that all blocks declaring the
+ * same locals (for example a block and the copies created by capture or
+ * mergeLocals) share the same layout instance and can be compared by identity.
+ */
+public class FrameLayout {
+
+	private static final ConcurrentHashMap<Key, FrameLayout> LAYOUTS = new ConcurrentHashMap<Key, FrameLayout>();
+
+	private final Symbol[] _names;
+	private final int[] _ids;
+
+	private FrameLayout(Symbol[] names) {
+		_names = names;
+		_ids = new int[names.length];
+		for (int i = 0; i < names.length; i++) {
+			_ids[i] = names[i].id();
+		}
+	}
+
+	/**
+	 * Return the layout for the given set of variable names.
+	 * Returns null if the names can not be stored in a frame
+	 */
+	public static FrameLayout of(Collection<Symbol> names) {
+		Symbol[] syms = new Symbol[names.size()];
+		int n = 0;
+		for (Symbol s : names) {
+			// Locals containing a metatable must be looked up through a Dict
+			if (s.id() == SymbolConstants.KEYVAR_META.id()) return null;
+
+			boolean duplicate = false;
+			for (int i = 0; i < n; i++) {
+				if (syms[i].id() == s.id()) {
+					duplicate = true;
+					break;
+				}
+			}
+			if (!duplicate) syms[n++] = s;
+		}
+		syms = Arrays.copyOf(syms, n);
+		Arrays.sort(syms, (a, b) -> Integer.compare(a.id(), b.id()));
+
+		Key key = new Key(syms);
+		FrameLayout layout = LAYOUTS.get(key);
+		if (layout == null) {
+			FrameLayout new_layout = new FrameLayout(syms);
+			layout = LAYOUTS.putIfAbsent(key, new_layout);
+			if (layout == null) layout = new_layout;
+		}
+		return layout;
+	}
+
+	/** Returns the slot index of the symbol or -1 if it is not part of this layout */
+	public int indexOf(Symbol s) {
+		final int id = s.id();
+		for (int i = 0; i < _ids.length; i++) {
+			if (_ids[i] == id) return i;
+		}
+		return -1;
+	}
+
+	public Symbol name(int slot) {
+		return _names[slot];
+	}
+
+	public int size() {
+		return _names.length;
+	}
+
+
+	private static class Key {
+		private final int[] _ids;
+		private final int _hash;
+
+		Key(Symbol[] names) {
+			_ids = new int[names.length];
+			for (int i = 0; i < names.length; i++) {
+				_ids[i] = names[i].id();
+			}
+			_hash = Arrays.hashCode(_ids);
+		}
+
+		@Override
+		public int hashCode() {
+			return _hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Key && Arrays.equals(_ids, ((Key)o)._ids);
+		}
+	}
+}
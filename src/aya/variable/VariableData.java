@@ -32,14 +32,66 @@ public class VariableData {
 		Dict dict;
 		boolean capture_all_assignments;
 		
+		// If the scope was created from a block with a frame layout, variables are
+		// stored in slots and dict is null until it is requested.
+		// A null slot means the variable is not defined in this scope
+		FrameLayout layout;
+		Obj[] slots;
+		
 		Scope(Dict dict, boolean capture_all_assignments) {
 			this.dict = dict;
 			this.capture_all_assignments = capture_all_assignments;
+			this.layout = null;
+			this.slots = null;
 		}
 		
 		Scope(Dict dict) {
 			this(dict, false);
 		}
+		
+		Scope(FrameLayout layout, Obj[] slots) {
+			this.dict = null;
+			this.capture_all_assignments = false;
+			this.layout = layout;
+			this.slots = slots;
+		}
+		
+		Obj get(Symbol var) {
+			if (slots != null) {
+				final int i = layout.indexOf(var);
+				return i < 0 ? null : slots[i];
+			} else {
+				return dict.getOrNullNoMeta(var);
+			}
+		}
+		
+		/** Set the variable if it is defined in this scope. Return true if it was set */
+		boolean setIfDefined(Symbol var, Obj o) {
+			if (slots != null) {
+				final int i = layout.indexOf(var);
+				if (i >= 0 && slots[i] != null) {
+					slots[i] = o;
+					return true;
+				}
+			} else if (dict.containsKey(var) || capture_all_assignments) {
+				dict.set(var, o);
+				return true;
+			}
+			return false;
+		}
+		
+		/** Returns the dict for this scope. Once requested, the scope no longer uses slots */
+		Dict getDict() {
+			if (slots != null) {
+				dict = new Dict();
+				for (int i = 0; i < slots.length; i++) {
+					if (slots[i] != null) dict.set(layout.name(i), slots[i]);
+				}
+				slots = null;
+				layout = null;
+			}
+			return dict;
+		}
 	};
 	
 	private ArrayList<Scope> _var_sets = new ArrayList<Scope>();
@@ -65,18 +117,28 @@ public class VariableData {
 		v.add(new Dict());
 		
 		// Add object and builtins
-		v.OBJ_STR.update(this.OBJ_STR);
-		v.OBJ_SYM.update(this.OBJ_SYM);
-		v.OBJ_LIST.update(this.OBJ_LIST);
-		v.OBJ_NUM.update(this.OBJ_NUM);
-		v.OBJ_CHAR.update(this.OBJ_CHAR);
-		v.OBJ_BLOCK.update(this.OBJ_BLOCK);
-		v.OBJ_NIL.update(this.OBJ_NIL);
-		v.BUILTINS.update(this.BUILTINS);
+		v.copyBuiltins(this);
 		
 		return v;
 	}
 	
+	/** Replace the object and builtin dicts with the ones from other */
+	public void copyBuiltins(VariableData other) {
+		copyDict(OBJ_STR, other.OBJ_STR);
+		copyDict(OBJ_SYM, other.OBJ_SYM);
+		copyDict(OBJ_LIST, other.OBJ_LIST);
+		copyDict(OBJ_NUM, other.OBJ_NUM);
+		copyDict(OBJ_CHAR, other.OBJ_CHAR);
+		copyDict(OBJ_BLOCK, other.OBJ_BLOCK);
+		copyDict(OBJ_NIL, other.OBJ_NIL);
+		copyDict(BUILTINS, other.BUILTINS);
+	}
+	
+	private static void copyDict(Dict dest, Dict src) {
+		if (dest.size() > 0) dest.clear();
+		dest.update(src);
+	}
+	
 	public void initGlobals() {
 		Dict globals = new Dict();
 		
@@ -107,9 +169,14 @@ public class VariableData {
 		return asDict(BUILTINS.get(Obj.IDToSym(o.type())));
 	}
 	
+	/** The globals followed by the builtin and object dicts, always in the same order */
+	public Dict[] getRootDicts() {
+		return new Dict[] {getGlobals(), BUILTINS, OBJ_STR, OBJ_SYM, OBJ_LIST, OBJ_NUM, OBJ_CHAR, OBJ_BLOCK, OBJ_NIL};
+	}
+	
 	/** Returns the set containing the global variables */
 	public Dict getGlobals() {
-		return _var_sets.get(0).dict;
+		return _var_sets.get(0).getDict();
 	}
 	
 	/** clears all but the global variables */
@@ -119,8 +186,15 @@ public class VariableData {
 		}
 	}
 	
+	/** clears all variables including the globals */
+	public void resetWithGlobals() {
+		reset();
+		_checkpoints.clear();
+		getGlobals().clear();
+	}
+	
 	public void setGlobalVar(Symbol v, Obj o) {
-		_var_sets.get(0).dict.set(v, o);
+		_var_sets.get(0).getDict().set(v, o);
 	}
 	
 	public void setCheckpoint() {
@@ -146,19 +220,17 @@ public class VariableData {
 	}
 	
 	public Dict peek() {
-		return _var_sets.get(_var_sets.size()-1).dict;
+		return _var_sets.get(_var_sets.size()-1).getDict();
 	}
 	
 	public Dict popGet() {
-		return _var_sets.remove(_var_sets.size()-1).dict;
+		return _var_sets.remove(_var_sets.size()-1).getDict();
 	}
 	
 	public void setVar(Symbol v, Obj o) {
 		// Cond is >=1 because we don't need to check the globals
 		for(int i = _var_sets.size()-1; i >=1; i--) {
-			Scope scope = _var_sets.get(i);
-			if(scope.dict.containsKey(v) || scope.capture_all_assignments) {
-				scope.dict.set(v, o);
+			if(_var_sets.get(i).setIfDefined(v, o)) {
 				return;
 			}
 		}
@@ -180,7 +252,7 @@ public class VariableData {
 	private Obj getVarOrNull(Symbol id) {
 		Obj res = null;
 		for(int i = _var_sets.size()-1; i >= 0; i--) {
-			res = _var_sets.get(i).dict.getOrNullNoMeta(id);
+			res = _var_sets.get(i).get(id);
 			if(res != null) {
 				return res;
 			}
@@ -188,6 +260,34 @@ public class VariableData {
 		return null;
 	}
 	
+	/**
+	 * Returns the value in the given slot if the innermost scope is a frame with the given layout.
+	 * Otherwise, or if the variable is not set in that frame, return null
+	 */
+	public Obj getLocalOrNull(FrameLayout layout, int slot) {
+		final Scope scope = _var_sets.get(_var_sets.size()-1);
+		return scope.layout == layout ? scope.slots[slot] : null;
+	}
+	
+	/**
+	 * Sets the value of the given slot if the innermost scope is a frame with the given layout
+	 * and the variable is defined in that frame. Return true if the value was set
+	 */
+	public boolean setLocal(FrameLayout layout, int slot, Obj o) {
+		final Scope scope = _var_sets.get(_var_sets.size()-1);
+		if (scope.layout == layout && scope.slots[slot] != null) {
+			scope.slots[slot] = o;
+			return true;
+		} else {
+			return false;
+		}
+	}
+	
+	/** Add a variable frame. slots must have the same length as the layout */
+	public void add(FrameLayout layout, Obj[] slots) {
+		_var_sets.add(new Scope(layout, slots));
+	}
+	
 	public void add(Dict vars, boolean b) {
 		_var_sets.add(new Scope(vars, b));
 	}
@@ -208,7 +308,7 @@ public class VariableData {
 
 	public Obj getDictList() {
 		List l = new List();
-		for (Scope s : _var_sets) l.mutAdd(s.dict);
+		for (Scope s : _var_sets) l.mutAdd(s.getDict());
 		return l;
 	}
 
@@ -1,10 +1,18 @@
 package test;
 
+import test.eval.ObjStackTest;
+import test.obj.block.BlockImageTest;
+import test.obj.HashCodeTest;
 import test.obj.list.StrTest;
+import test.obj.list.numberlist.ByteListTest;
+import test.obj.list.numberlist.CopyOnWriteTest;
+import test.obj.list.numberlist.LongListTest;
 import test.obj.list.numberlist.NumberItemListTest;
 import test.obj.number.NumberBinaryOpsTest;
 import test.obj.number.NumberTest;
 import test.obj.number.FractionNumTest;
+import test.obj.symbol.SymbolTableTest;
+import test.util.StringSearchTest;
 
 public abstract class Test {
 	public abstract void runTests();
@@ -29,5 +37,13 @@ public abstract class Test {
 		new FractionNumTest().runTests();
 		new StrTest().runTests();
 		new NumberTest().runTests();
+		new ObjStackTest().runTests();
+		new SymbolTableTest().runTests();
+		new LongListTest().runTests();
+		new ByteListTest().runTests();
+		new CopyOnWriteTest().runTests();
+		new HashCodeTest().runTests();
+		new BlockImageTest().runTests();
+		new StringSearchTest().runTests();
 	}
 }
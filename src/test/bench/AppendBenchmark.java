@@ -0,0 +1,18 @@
+package test.bench;
+
+/**
+ * Build a list and a string by appending one item at a time in an aya loop
+ */
+public class AppendBenchmark extends Benchmark {
+
+	@Override
+	public void runBenchmarks() {
+		System.out.println("AppendBenchmark:");
+		timeAya("append 10^6 numbers (.B)", "", "[] :l; {1.5 l .B ;} 1000000 %");
+		timeAya("append 10^5 chars (.B)", "", "\"\" :s; {'a s .B ;} 100000 %");
+	}
+
+	public static void main(String[] args) {
+		new AppendBenchmark().runBenchmarks();
+	}
+}
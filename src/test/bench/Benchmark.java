@@ -0,0 +1,149 @@
+package test.bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+import aya.StaticData;
+import aya.eval.BlockEvaluator;
+import aya.eval.ExecutionContext;
+import aya.exceptions.parser.ParserException;
+import aya.obj.block.StaticBlock;
+import aya.parser.Parser;
+import aya.parser.SourceString;
+import test.Stopwatch;
+
+/**
+ * Minimal benchmark harness. Each case is warmed up before being timed
+ * and the best run is reported
+ */
+public abstract class Benchmark {
+	
+	public static final int WARMUP_RUNS = 3;
+	public static final int TIMED_RUNS = 5;
+	
+	public abstract void runBenchmarks();
+	
+	/** Time a java function */
+	public static double time(String name, Runnable r) {
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			r.run();
+		}
+		
+		Stopwatch sw = new Stopwatch();
+		double best = Double.MAX_VALUE;
+		for (int i = 0; i < TIMED_RUNS; i++) {
+			sw.start();
+			r.run();
+			sw.stop();
+			best = Math.min(best, sw.secs());
+		}
+		
+		System.out.println(String.format("  %-40s %8.3fs", name, best));
+		return best;
+	}
+	
+	/** Compile aya code, throws a RuntimeException if the code is invalid */
+	public static StaticBlock compile(String code) {
+		try {
+			return Parser.compile(new SourceString(code, "<benchmark>"));
+		} catch (ParserException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	
+	/** Time aya code. The setup code is run once in the same context before timing begins */
+	public static double timeAya(String name, String setup, String code) {
+		StaticData.getInstance().init();
+		final ExecutionContext context = ExecutionContext.createIsolatedContext();
+		BlockEvaluator b = context.createEvaluator();
+		b.dump(compile(setup));
+		b.eval();
+		
+		final StaticBlock block = compile(code);
+		return time(name, () -> {
+			BlockEvaluator be = context.createEvaluator();
+			be.dump(block);
+			be.eval();
+		});
+	}
+	
+	/** Bytes allocated by the current thread while running a java function (after warming up) */
+	public static long allocated(String name, Runnable r) {
+		final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		final long thread = Thread.currentThread().getId();
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			r.run();
+		}
+		
+		final long before = bean.getThreadAllocatedBytes(thread);
+		r.run();
+		final long bytes = bean.getThreadAllocatedBytes(thread) - before;
+		
+		System.out.println(String.format("  %-40s %8.1fMB", name, bytes / (1024.0 * 1024.0)));
+		return bytes;
+	}
+	
+	/** Peak heap usage while running a java function, measured from a full gc */
+	public static long peakHeap(String name, Runnable r) {
+		System.gc();
+		long base = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pool.resetPeakUsage();
+				base += pool.getUsage().getUsed();
+			}
+		}
+		r.run();
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		final long bytes = Math.max(0, peak - base);
+		System.out.println(String.format("  %-40s %8.1fMB peak", name, bytes / (1024.0 * 1024.0)));
+		return bytes;
+	}
+	
+	/** Bytes allocated while running aya code. The setup code is run once before measuring */
+	public static long allocatedAya(String name, String setup, String code) {
+		StaticData.getInstance().init();
+		final ExecutionContext context = ExecutionContext.createIsolatedContext();
+		BlockEvaluator b = context.createEvaluator();
+		b.dump(compile(setup));
+		b.eval();
+		
+		final StaticBlock block = compile(code);
+		return allocated(name, () -> {
+			BlockEvaluator be = context.createEvaluator();
+			be.dump(block);
+			be.eval();
+		});
+	}
+	
+	public static void main(String[] args) {
+		new FrameEvalBenchmark().runBenchmarks();
+		new VariableResolverBenchmark().runBenchmarks();
+		new SymbolTableBenchmark().runBenchmarks();
+		new MetaCacheBenchmark().runBenchmarks();
+		new ParallelMapBenchmark().runBenchmarks();
+		new ThreadPoolBenchmark().runBenchmarks();
+		new LongListBenchmark().runBenchmarks();
+		new AppendBenchmark().runBenchmarks();
+		new CollectionsBenchmark().runBenchmarks();
+		new UniqueBenchmark().runBenchmarks();
+		new BlockCompilerBenchmark().runBenchmarks();
+		new InstructionFuserBenchmark().runBenchmarks();
+		new NumberAllocBenchmark().runBenchmarks();
+		new BinaryFileBenchmark().runBenchmarks();
+		new LineStreamBenchmark().runBenchmarks();
+		new JSONBenchmark().runBenchmarks();
+		new ImageBenchmark().runBenchmarks();
+		new VectorBenchmark().runBenchmarks();
+		new BlockImageBenchmark().runBenchmarks();
+		new StringSearchBenchmark().runBenchmarks();
+		new CompileCacheBenchmark().runBenchmarks();
+		new CopyOnWriteBenchmark().runBenchmarks();
+	}
+}
@@ -0,0 +1,50 @@
+package test.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+
+/**
+ * Time and allocation of reading a binary file as a byte list and as numbers
+ */
+public class BinaryFileBenchmark extends Benchmark {
+
+	private static final int DOUBLES = 1 << 19;
+
+	@Override
+	public void runBenchmarks() {
+		System.out.println("BinaryFileBenchmark:");
+		final File file;
+		try {
+			file = File.createTempFile("aya-bench", ".bin");
+			file.deleteOnExit();
+			ByteBuffer buf = ByteBuffer.allocate(DOUBLES * 8).order(ByteOrder.LITTLE_ENDIAN);
+			for (int i = 0; i < DOUBLES; i++) buf.putDouble(i * 0.5);
+			Files.write(file.toPath(), buf.array());
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		final String path = "\"" + file.getAbsolutePath().replace("\\", "\\\\") + "\"";
+		final int bytes = DOUBLES * 8;
+
+		final String readAll = "{" + path + " :{fileutils.readallbytes};} 5 %";
+		timeAya("readallbytes", "", readAll);
+		allocatedAya("readallbytes", "", readAll);
+
+		for (String mode : new String[] {"rb", "mmap"}) {
+			final String setup = path + " \"" + mode + "\" :{fstream.open} :id;";
+			final String readBytes = "{id 0 " + bytes + " :{fstream.readat};} 5 %";
+			timeAya(mode + " readat", setup, readBytes);
+			allocatedAya(mode + " readat", setup, readBytes);
+			final String decode = "{id 0 " + DOUBLES + " \"f64\" :{fstream.decode};} 5 %";
+			timeAya(mode + " decode f64", setup, decode);
+			allocatedAya(mode + " decode f64", setup, decode);
+		}
+	}
+
+	public static void main(String[] args) {
+		new BinaryFileBenchmark().runBenchmarks();
+	}
+}
@@ -0,0 +1,38 @@
+package test.bench;
+
+import aya.obj.block.BlockCompiler;
+
+/**
+ * Scalar arithmetic loops run with and without compiling hot blocks
+ */
+public class BlockCompilerBenchmark extends Benchmark {
+
+	// One step of the mandelbrot iteration z = z^2 + c using real numbers
+	private static final String MANDELBROT = "0 :x; 0 :y; {x x * y y * - 0.25 - :t; 2 x * y * 0.5 + :y; t :x; x x * 4 > {0 :x; 0 :y} ?} 300000 %";
+	// Sum of a linear congruential sequence
+	private static final String LCG = "0 :s; 1 :n; {n 75 * 74 + 65537 :% :n; s n + :s} 300000 %";
+	// Count up and down
+	private static final String COUNT = "0 :i; {i 100 < {i B :i} {0 :i} .?} 300000 %";
+
+	@Override
+	public void runBenchmarks() {
+		System.out.println("BlockCompilerBenchmark:");
+		final boolean enabled = BlockCompiler.ENABLED;
+		try {
+			BlockCompiler.ENABLED = false;
+			timeAya("mandelbrot step (interpreted)", "", MANDELBROT);
+			timeAya("lcg (interpreted)", "", LCG);
+			timeAya("count (interpreted)", "", COUNT);
+			BlockCompiler.ENABLED = true;
+			timeAya("mandelbrot step (compiled)", "", MANDELBROT);
+			timeAya("lcg (compiled)", "", LCG);
+			timeAya("count (compiled)", "", COUNT);
+		} finally {
+			BlockCompiler.ENABLED = enabled;
+		}
+	}
+
+	public static void main(String[] args) {
+		new BlockCompilerBenchmark().runBenchmarks();
+	}
+}
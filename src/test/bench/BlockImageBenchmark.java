@@ -0,0 +1,106 @@
+package test.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import aya.AyaPrefs;
+import aya.AyaThread;
+import aya.ExecutionRequest;
+import aya.ExecutionResultSuccess;
+import aya.StaticData;
+import aya.eval.ExecutionContext;
+import aya.exceptions.parser.ParserException;
+import aya.obj.block.BlockImage;
+import aya.obj.dict.Dict;
+import aya.parser.Parser;
+import aya.parser.SourceString;
+import aya.util.FileUtils;
+
+/**
+ * Compiling the base/ and std/ sources compared to reading their images, and
+ * loading ayarc compared to restoring the variables it defines (see StartupSnapshot).
+ * These are warm timings, see ImageCache and StartupSnapshot for the startup times
+ */
+public class BlockImageBenchmark extends Benchmark {
+
+	@Override
+	public void runBenchmarks() {
+		System.out.println("BlockImageBenchmark:");
+		StaticData.getInstance().init();
+
+		final ArrayList<SourceString> sources = new ArrayList<SourceString>();
+		final ArrayList<byte[]> images = new ArrayList<byte[]>();
+		try {
+			for (String dir : new String[] {"base", "std"}) {
+				for (File f : new File(dir).listFiles()) {
+					if (!f.getName().endsWith(".aya")) continue;
+					SourceString source = new SourceString(FileUtils.readAllText(f), f.getPath());
+					sources.add(source);
+					images.add(BlockImage.write(Parser.compile(source)));
+				}
+			}
+		} catch (IOException | ParserException e) {
+			throw new RuntimeException(e);
+		}
+
+		time("compile base/ and std/", () -> {
+			try {
+				for (SourceString source : sources) Parser.compile(source);
+			} catch (ParserException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		time("read images of base/ and std/", () -> {
+			try {
+				for (int i = 0; i < sources.size(); i++) {
+					BlockImage.read(new DataInputStream(new ByteArrayInputStream(images.get(i))), sources.get(i));
+				}
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		time("compile and write images", () -> {
+			try {
+				for (SourceString source : sources) BlockImage.write(Parser.compile(source));
+			} catch (ParserException e) {
+				throw new RuntimeException(e);
+			}
+		});
+
+		AyaPrefs.setAyaDir(".");
+		final byte[] snapshot = BlockImage.writeDicts(loadAyarc().getVars().getRootDicts());
+		time("load ayarc", () -> loadAyarc());
+		time("restore the variables defined by ayarc", () -> {
+			ExecutionContext context = ExecutionContext.createRoot(StaticData.IO);
+			context.getVars().initGlobals();
+			Dict[] roots = context.getVars().getRootDicts();
+			for (Dict d : roots) d.clear();
+			try {
+				BlockImage.readDicts(new DataInputStream(new ByteArrayInputStream(snapshot)), roots);
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		});
+	}
+
+	private static ExecutionContext loadAyarc() {
+		ExecutionContext context = ExecutionContext.createRoot(StaticData.IO);
+		context.getVars().initGlobals();
+		try {
+			SourceString loader = new SourceString("\"" + new File(AyaPrefs.getAyaDir(), StaticData.ayarcPath).getPath() + "\":F", "<bench>");
+			if (!(AyaThread.eval(context, new ExecutionRequest(0, Parser.compile(loader))) instanceof ExecutionResultSuccess)) {
+				throw new RuntimeException("Unable to load ayarc");
+			}
+		} catch (ParserException e) {
+			throw new RuntimeException(e);
+		}
+		return context;
+	}
+
+	public static void main(String[] args) {
+		new BlockImageBenchmark().runBenchmarks();
+	}
+}
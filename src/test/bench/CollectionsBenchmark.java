@@ -0,0 +1,21 @@
+package test.bench;
+
+/**
+ * Insert and look up keys using the native hash map and hash set compared
+ * to searching a list, which is what std/map.aya and std/set.aya used to do
+ */
+public class CollectionsBenchmark extends Benchmark {
+
+	@Override
+	public void runBenchmarks() {
+		System.out.println("CollectionsBenchmark:");
+		timeAya("list: put 10^4 keys (N)", "", "[] :keys; 10000 R :# {k, keys k N :i;; i 0 < {k keys .B ;} ?}");
+		timeAya("hashmap: put 10^4 keys", "", ":{hashmap.new} :h; 10000 R :# {k, h k k :{hashmap.put}}");
+		timeAya("hashset: add 10^5 keys", "", "[] :{hashset.new} :s; 100000 R :# {k, s k :{hashset.add}}");
+		timeAya("deque: push and pop 10^5 items", "", "[] :{deque.new} :d; 100000 R :# {k, d k :{deque.pushback}} {d :{deque.popfront} ;} 100000 %");
+	}
+
+	public static void main(String[] args) {
+		new CollectionsBenchmark().runBenchmarks();
+	}
+}
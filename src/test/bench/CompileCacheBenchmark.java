@@ -0,0 +1,25 @@
+package test.bench;
+
+import aya.parser.CompileCache;
+
+/**
+ * Evaluating the same strings many times with and without the compile cache
+ */
+public class CompileCacheBenchmark extends Benchmark {
+
+	@Override
+	public void runBenchmarks() {
+		System.out.println("CompileCacheBenchmark:");
+		final String setup = "\"{x, x 2 * 1 + :y; [y y 1 +]} 3 + \" :code;";
+		final String code = "10000 R :# {; code .~ ;} ; 1:x; 10000 R :# {; \"x 1 +\" ~} ;";
+
+		CompileCache.ENABLED = false;
+		timeAya("10^4 .~ and ~ of strings (no cache)", setup, code);
+		CompileCache.ENABLED = true;
+		timeAya("10^4 .~ and ~ of strings (cached)", setup, code);
+	}
+
+	public static void main(String[] args) {
+		new CompileCacheBenchmark().runBenchmarks();
+	}
+}
@@ -0,0 +1,61 @@
+package test.bench;
+
+import java.io.File;
+
+import aya.AyaPrefs;
+import aya.StaticData;
+import aya.eval.BlockEvaluator;
+import aya.eval.ExecutionContext;
+import aya.obj.block.StaticBlock;
+import aya.util.CopyOnWrite;
+
+/**
+ * $ of number lists, matrices (std/matrix.aya) and dataframes (std/dataframe.aya)
+ * with and without copy-on-write number lists
+ */
+public class CopyOnWriteBenchmark extends Benchmark {
+
+	@Override
+	public void runBenchmarks() {
+		System.out.println("CopyOnWriteBenchmark:");
+		StaticData.getInstance().init();
+		AyaPrefs.setAyaDir(".");
+		AyaPrefs.setWorkingDir(".");
+
+		// The std library needs the globals defined by ayarc
+		final ExecutionContext context = ExecutionContext.createRoot(StaticData.IO);
+		context.getVars().initGlobals();
+		final String ayarc = new File(AyaPrefs.getAyaDir(), StaticData.ayarcPath).getPath().replace("\\", "\\\\");
+		eval(context, compile("\"" + ayarc + "\":F import ::matrix import ::dataframe"
+				+ " 1000000 R 2 / :big;"
+				+ " 300 R :# {r, 300 R r +} :rows; rows matrix! :m;"
+				+ " {,} dataframe! :df; rows df.:_data; 300 R df.:_index; 300 R :# {n, \"c$n\"} df.:_colnames;"));
+
+		final String[][] cases = {
+			{"$ of a 10^6 item list", "20 R :# {; big $ ;} ;"},
+			{"trace of a 300x300 matrix", "20 R :# {; m.tr ;} ;"},
+			{"$ of a 300x300 dataframe", "20 R :# {; df $ ;} ;"},
+			{"$ and set one item of a matrix", "20 R :# {; m.rows $ :c; 0 c.[0] 0 D ;} ;"},
+		};
+
+		for (String[] c : cases) {
+			final StaticBlock block = compile(c[1]);
+			CopyOnWrite.ENABLED = false;
+			time(c[0] + " (copy)", () -> eval(context, block));
+			allocated(c[0] + " (copy)", () -> eval(context, block));
+			CopyOnWrite.ENABLED = true;
+			time(c[0] + " (cow)", () -> eval(context, block));
+			allocated(c[0] + " (cow)", () -> eval(context, block));
+		}
+	}
+
+	private static void eval(ExecutionContext context, StaticBlock block) {
+		BlockEvaluator b = context.createEvaluator();
+		b.dump(block);
+		b.eval();
+	}
+
+	public static void main(String[] args) {
+		new CopyOnWriteBenchmark().runBenchmarks();
+	}
+}
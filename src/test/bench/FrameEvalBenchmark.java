@@ -0,0 +1,41 @@
+package test.bench;
+
+import aya.instruction.InstructionStack;
+
+/**
+ * Compare walking blocks in frames against copying the block instructions
+ * onto the instruction stack for every call
+ */
+public class FrameEvalBenchmark extends Benchmark {
+	
+	private static final String FIB_SETUP = "{n, n 0 = n 1 = | {n} {n 1 - fib_rec n 2 - fib_rec +} .? }:fib_rec;";
+	private static final String FIB = "25 fib_rec ;";
+	
+	private static final String MANDELBROT_SETUP = "120:width; 54:height;"
+			+ "[-2 0.5 width] .R :x; [1 -1 height] .R :y;"
+			+ "y :0i1 * x `+ :* :a; 0 a:E L :z;";
+	private static final String MANDELBROT = "z {2^a+} 20 % .| ;";
+	
+	private static void runAll(String label) {
+		System.out.println(label);
+		timeAya("recursive fibonacci (25)", FIB_SETUP, FIB);
+		timeAya("mandelbrot (120x54, 20 iters)", MANDELBROT_SETUP, MANDELBROT);
+	}
+
+	@Override
+	public void runBenchmarks() {
+		boolean original = InstructionStack.USE_FRAMES;
+		try {
+			InstructionStack.USE_FRAMES = false;
+			runAll("FrameEvalBenchmark: copy instructions");
+			InstructionStack.USE_FRAMES = true;
+			runAll("FrameEvalBenchmark: frames");
+		} finally {
+			InstructionStack.USE_FRAMES = original;
+		}
+	}
+
+	public static void main(String[] args) {
+		new FrameEvalBenchmark().runBenchmarks();
+	}
+}
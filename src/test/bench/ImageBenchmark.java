@@ -0,0 +1,54 @@
+package test.bench;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+import aya.ext.image.AyaImage;
+import aya.obj.list.numberlist.ByteList;
+import aya.obj.list.numberlist.NumberList;
+import aya.obj.number.Num;
+
+/**
+ * Converting image pixels to and from aya lists, stored as one double per
+ * channel (DoubleList) and as unsigned bytes (ByteList)
+ */
+public class ImageBenchmark extends Benchmark {
+
+	private static final int WIDTH = 2000;
+	private static final int HEIGHT = 1500;
+
+	@Override
+	public void runBenchmarks() {
+		System.out.println("ImageBenchmark:");
+		final BufferedImage bgr = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_3BYTE_BGR);
+		final byte[] pixels = ((DataBufferByte)bgr.getRaster().getDataBuffer()).getData();
+		for (int i = 0; i < pixels.length; i++) pixels[i] = (byte)(i * 31);
+		final BufferedImage rgb = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+		rgb.createGraphics().drawImage(bgr, 0, 0, null);
+
+		time("read (DoubleList)", () -> NumberList.fromBytes(pixels));
+		allocated("read (DoubleList)", () -> NumberList.fromBytes(pixels));
+		time("read (ByteList)", () -> AyaImage.fromBufferedImage(bgr));
+		allocated("read (ByteList)", () -> AyaImage.fromBufferedImage(bgr));
+
+		time("get_pixels (ByteList)", () -> AyaImage.fromBufferedImage(rgb));
+		allocated("get_pixels (ByteList)", () -> AyaImage.fromBufferedImage(rgb));
+
+		final NumberList doubles = NumberList.fromBytes(pixels);
+		final ByteList bytes = new ByteList(pixels);
+		final AyaImage fromDoubles = new AyaImage(doubles, WIDTH, HEIGHT);
+		final AyaImage fromBytes = new AyaImage(bytes, WIDTH, HEIGHT);
+		time("write (DoubleList)", () -> fromDoubles.toBufferedImage());
+		allocated("write (DoubleList)", () -> fromDoubles.toBufferedImage());
+		time("write (ByteList)", () -> fromBytes.toBufferedImage());
+		allocated("write (ByteList)", () -> fromBytes.toBufferedImage());
+
+		final Num mask = Num.fromInt(0xF0);
+		time("band/gt (DoubleList)", () -> doubles.band(mask).gt(Num.fromInt(100)));
+		time("band/gt (ByteList)", () -> bytes.band(mask).gt(Num.fromInt(100)));
+	}
+
+	public static void main(String[] args) {
+		new ImageBenchmark().runBenchmarks();
+	}
+}
@@ -0,0 +1,38 @@
+package test.bench;
+
+import aya.obj.block.InstructionFuser;
+
+/**
+ * Loops made of the common instruction sequences fused by InstructionFuser
+ */
+public class InstructionFuserBenchmark extends Benchmark {
+
+	// get key, set and pop
+	private static final String KEYS = "{,1:a 2:b}:d; 0:s; {d.a d.b + s + :s;} 500000 %";
+	// var const op, set and pop
+	private static final String COUNTER = "0:i; 0:s; {i 1 + :i; s i + :s; i 7 :% 0 = {s 1 - :s;} ?} 500000 %";
+	// var var, var op
+	private static final String VARS = "3:a 4:b; 0:s; {a b * a b + - s + :s; a ! :t;} 500000 %";
+
+	@Override
+	public void runBenchmarks() {
+		System.out.println("InstructionFuserBenchmark:");
+		final boolean enabled = InstructionFuser.ENABLED;
+		try {
+			InstructionFuser.ENABLED = false;
+			timeAya("keys (unfused)", "", KEYS);
+			timeAya("counter (unfused)", "", COUNTER);
+			timeAya("vars (unfused)", "", VARS);
+			InstructionFuser.ENABLED = true;
+			timeAya("keys (fused)", "", KEYS);
+			timeAya("counter (fused)", "", COUNTER);
+			timeAya("vars (fused)", "", VARS);
+		} finally {
+			InstructionFuser.ENABLED = enabled;
+		}
+	}
+
+	public static void main(String[] args) {
+		new InstructionFuserBenchmark().runBenchmarks();
+	}
+}
@@ -0,0 +1,106 @@
+package test.bench;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import aya.ext.json.JSONReader;
+import aya.ext.json.JSONUtils;
+import aya.ext.json.JSONUtils.JSONParams;
+
+/**
+ * Time and memory of parsing JSON using org.json and then converting the tree
+ * compared to parsing straight into aya objects. The size of the document
+ * may be set using -Daya.bench.json.mb=N (default 100)
+ */
+public class JSONBenchmark extends Benchmark {
+
+	private static final int MB = Integer.getInteger("aya.bench.json.mb", 100);
+
+	private static void writeRecord(PrintWriter pw, int i) {
+		pw.print("{\"id\": " + i + ", \"name\": \"item " + i + "\", \"tags\": [\"red\", \"green\"], \"values\": [");
+		for (int j = 0; j < 10; j++) {
+			if (j > 0) pw.print(", ");
+			pw.print(i * 0.25 + j);
+		}
+		pw.print("], \"nested\": {\"x\": " + i + ", \"y\": -0.5e-3, \"ok\": true}}");
+	}
+
+	@Override
+	public void runBenchmarks() {
+		System.out.println("JSONBenchmark (" + MB + "MB):");
+		final File doc, lines;
+		final String text;
+		try {
+			doc = File.createTempFile("aya-bench", ".json");
+			doc.deleteOnExit();
+			lines = File.createTempFile("aya-bench", ".ndjson");
+			lines.deleteOnExit();
+			try (PrintWriter d = new PrintWriter(doc, "UTF-8"); PrintWriter l = new PrintWriter(lines, "UTF-8")) {
+				d.print("{\"items\": [");
+				for (int i = 0; doc.length() < MB * 1024L * 1024L || i % 100000 != 0; i++) {
+					if (i > 0) d.print(",\n");
+					writeRecord(d, i);
+					writeRecord(l, i);
+					l.println();
+					if (i % 100000 == 0) {
+						d.flush();
+					}
+				}
+				d.print("]}");
+			}
+			text = new String(Files.readAllBytes(doc.toPath()), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+
+		final JSONParams params = JSONParams.getDefaultDecode();
+		final Method readJSON, toObj;
+		try {
+			readJSON = JSONUtils.class.getDeclaredMethod("readJSON", String.class);
+			toObj = JSONUtils.class.getDeclaredMethod("toObj", Object.class, JSONParams.class);
+			readJSON.setAccessible(true);
+			toObj.setAccessible(true);
+		} catch (ReflectiveOperationException e) {
+			throw new RuntimeException(e);
+		}
+
+		final Runnable tree = () -> {
+			try {
+				toObj.invoke(null, readJSON.invoke(null, text), params);
+			} catch (ReflectiveOperationException e) {
+				throw new RuntimeException(e);
+			}
+		};
+		final Runnable direct = () -> JSONUtils.decodeJSON(text, params);
+		final Runnable file = () -> {
+			try (Reader in = new InputStreamReader(new FileInputStream(doc), StandardCharsets.UTF_8)) {
+				new JSONReader(in, params).next();
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		};
+
+		time("org.json tree + convert", tree);
+		time("JSONReader string", direct);
+		time("JSONReader file", file);
+		allocated("org.json tree + convert", tree);
+		allocated("JSONReader string", direct);
+		peakHeap("org.json tree + convert", tree);
+		peakHeap("JSONReader string", direct);
+		peakHeap("JSONReader file", file);
+
+		final String path = "\"" + lines.getAbsolutePath().replace("\\", "\\\\") + "\"";
+		timeAya("json.stream (ndjson)", "", path + " {;} :{json.stream}");
+	}
+
+	public static void main(String[] args) {
+		new JSONBenchmark().runBenchmarks();
+	}
+}
@@ -0,0 +1,46 @@
+package test.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Time and allocation of reading all lines of a file compared to streaming them
+ */
+public class LineStreamBenchmark extends Benchmark {
+
+	private static final int LINES = 200000;
+
+	@Override
+	public void runBenchmarks() {
+		System.out.println("LineStreamBenchmark:");
+		final File file;
+		try {
+			file = File.createTempFile("aya-bench", ".txt");
+			file.deleteOnExit();
+			try (PrintWriter pw = new PrintWriter(file)) {
+				for (int i = 0; i < LINES; i++) pw.println("line " + i + " of the benchmark file");
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		final String open = "\"" + file.getAbsolutePath().replace("\\", "\\\\") + "\" 'r :{fstream.O} :id; ";
+		final String close = " id 'c :{fstream.O};";
+
+		final String readAll = open + "id 'a :{fstream.O} '\\n' S :# {E} W;" + close;
+		timeAya("readall and split", "", readAll);
+		allocatedAya("readall and split", "", readAll);
+
+		final String fold = open + "id 0 {E +} :{fstream.fold};" + close;
+		timeAya("fstream.fold", "", fold);
+		allocatedAya("fstream.fold", "", fold);
+
+		final String chunks = open + "id 1000 {;} :{fstream.chunks}" + close;
+		timeAya("fstream.chunks", "", chunks);
+		allocatedAya("fstream.chunks", "", chunks);
+	}
+
+	public static void main(String[] args) {
+		new LineStreamBenchmark().runBenchmarks();
+	}
+}
@@ -0,0 +1,37 @@
+package test.bench;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+
+import aya.obj.list.numberlist.NumberItemList;
+import aya.obj.list.numberlist.NumberList;
+import aya.obj.number.BigNum;
+import aya.obj.number.Number;
+
+/**
+ * Compare arithmetic on a list of integer BigNums stored as Number objects
+ * (NumberItemList) and as primitive longs (LongList)
+ */
+public class LongListBenchmark extends Benchmark {
+	
+	private static final int SIZE = 1000000;
+
+	@Override
+	public void runBenchmarks() {
+		System.out.println("LongListBenchmark:");
+		ArrayList<Number> items = new ArrayList<Number>(SIZE);
+		for (int i = 0; i < SIZE; i++) {
+			items.add(new BigNum(BigDecimal.valueOf(i)));
+		}
+		final NumberList boxed = NumberItemList.test_fromAL(items);
+		final NumberList longs = boxed.promote();
+		final BigNum three = new BigNum(BigDecimal.valueOf(3));
+
+		time("add/mul/mod/sum (NumberItemList)", () -> boxed.add(three).mul(three).mod(three).sum());
+		time("add/mul/mod/sum (LongList)", () -> longs.add(three).mul(three).mod(three).sum());
+	}
+
+	public static void main(String[] args) {
+		new LongListBenchmark().runBenchmarks();
+	}
+}
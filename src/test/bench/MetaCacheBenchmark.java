@@ -0,0 +1,36 @@
+package test.bench;
+
+import aya.obj.dict.MetaCache;
+
+/**
+ * Compare method calls and operator overloads on user types with and without
+ * the metatable inline caches
+ */
+public class MetaCacheBenchmark extends Benchmark {
+	
+	// Instances four levels below the metatable that defines the methods
+	private static final String SETUP = "{, {self, self.v} :get {self other, self.v other.v +} :__add__ 1:__pushself__ } :base;"
+			+ "{, base:__meta__ } :mid; {, mid:__meta__ } :top; {, top:__meta__ } :cls;"
+			+ "{, 1:v cls:__meta__ } :x;"
+			+ "{, 2:v cls:__meta__ } :y;";
+	private static final String CODE = "200000 R :# {i, x.get ; x y + ;} ;";
+
+	@Override
+	public void runBenchmarks() {
+		boolean original = MetaCache.ENABLED;
+		try {
+			MetaCache.ENABLED = false;
+			System.out.println("MetaCacheBenchmark: uncached");
+			timeAya("method call and operator overload", SETUP, CODE);
+			MetaCache.ENABLED = true;
+			System.out.println("MetaCacheBenchmark: inline cache");
+			timeAya("method call and operator overload", SETUP, CODE);
+		} finally {
+			MetaCache.ENABLED = original;
+		}
+	}
+
+	public static void main(String[] args) {
+		new MetaCacheBenchmark().runBenchmarks();
+	}
+}
@@ -0,0 +1,25 @@
+package test.bench;
+
+/**
+ * Time and allocation of scalar arithmetic and sums
+ */
+public class NumberAllocBenchmark extends Benchmark {
+
+	private static final String LOOP = "0:s; 0:i; {i 3 * 7 :% s + :s; i 1 + :i; s 1000 > {0:s} ?} 200000 %";
+	private static final String SETUP_LISTS = "100000 R :# {1.5 *} :nums; :1z nums.B; 100000 R :# {1.5 *} :mixed; \"a\" mixed.B;";
+
+	@Override
+	public void runBenchmarks() {
+		System.out.println("NumberAllocBenchmark:");
+		timeAya("scalar loop", "", LOOP);
+		allocatedAya("scalar loop", "", LOOP);
+		timeAya("number list sum", SETUP_LISTS, "{nums W;} 20 %");
+		allocatedAya("number list sum", SETUP_LISTS, "{nums W;} 20 %");
+		timeAya("mixed list sum", SETUP_LISTS, "{mixed W;} 20 %");
+		allocatedAya("mixed list sum", SETUP_LISTS, "{mixed W;} 20 %");
+	}
+
+	public static void main(String[] args) {
+		new NumberAllocBenchmark().runBenchmarks();
+	}
+}
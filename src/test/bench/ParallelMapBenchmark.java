@@ -0,0 +1,22 @@
+package test.bench;
+
+/**
+ * Compare sequential and parallel map/filter on a large list of doubles
+ */
+public class ParallelMapBenchmark extends Benchmark {
+	
+	private static final String SETUP = "1000000 R 0.5 + :data;";
+
+	@Override
+	public void runBenchmarks() {
+		System.out.println("ParallelMapBenchmark: " + Runtime.getRuntime().availableProcessors() + " cores");
+		timeAya("map (sequential)", SETUP, "data :# {x, x x * 2 / 1 +} ;");
+		timeAya("map (:{par.map})", SETUP, "data {x, x x * 2 / 1 +} :{par.map} ;");
+		timeAya("filter (sequential)", SETUP, "data {3 :% 1 <} I ;");
+		timeAya("filter (:{par.filter})", SETUP, "data {3 :% 1 <} :{par.filter} ;");
+	}
+
+	public static void main(String[] args) {
+		new ParallelMapBenchmark().runBenchmarks();
+	}
+}
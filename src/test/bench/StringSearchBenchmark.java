@@ -0,0 +1,37 @@
+package test.bench;
+
+import java.util.ArrayList;
+
+import aya.util.StringSearch;
+
+/**
+ * Adding and searching 10^4 help strings
+ */
+public class StringSearchBenchmark extends Benchmark {
+
+	@Override
+	public void runBenchmarks() {
+		System.out.println("StringSearchBenchmark:");
+
+		final ArrayList<String> docs = new ArrayList<String>();
+		for (int i = 0; i < 10000; i++) {
+			docs.add("fn_" + i + " a::list b::num\n  apply function " + (i % 97) + " to each item of the list " + (i * 31 % 1000));
+		}
+		final StringSearch search = new StringSearch(new String[0]);
+		for (String s : docs) search.addUnique(s);
+
+		time("add 10^4 help strings", () -> {
+			StringSearch ss = new StringSearch(new String[0]);
+			for (String s : docs) ss.addUnique(s);
+		});
+		time("100 searches in 10^4 help strings", () -> {
+			for (int i = 0; i < 100; i++) {
+				search.staticSearch("fn_" + (i * 97));
+			}
+		});
+	}
+
+	public static void main(String[] args) {
+		new StringSearchBenchmark().runBenchmarks();
+	}
+}
@@ -0,0 +1,56 @@
+package test.bench;
+
+import aya.obj.symbol.SymbolTable;
+
+/**
+ * Throughput of interning new names and looking up existing names
+ */
+public class SymbolTableBenchmark extends Benchmark {
+	
+	private static final int N = 200000;
+	private static final int THREADS = 4;
+	
+	private static int _round = 0;
+	
+	private static void internAll(String prefix, int n) {
+		for (int i = 0; i < n; i++) {
+			SymbolTable.getSymbol(prefix + i);
+		}
+	}
+	
+	private static void inThreads(Runnable r) {
+		Thread[] threads = new Thread[THREADS];
+		for (int i = 0; i < THREADS; i++) {
+			threads[i] = new Thread(r);
+			threads[i].start();
+		}
+		for (Thread t : threads) {
+			try {
+				t.join();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+	@Override
+	public void runBenchmarks() {
+		System.out.println("SymbolTableBenchmark");
+		
+		// Each run interns new names
+		time("intern " + N + " new names", () -> internAll("new_" + (_round++) + "_", N));
+		
+		internAll("existing_", N);
+		time("lookup " + N + " existing names", () -> internAll("existing_", N));
+		
+		time("lookup " + N + " existing names x" + THREADS + " threads", () -> inThreads(() -> internAll("existing_", N)));
+		time("intern " + N + " shared names x" + THREADS + " threads", () -> {
+			final String prefix = "shared_" + (_round++) + "_";
+			inThreads(() -> internAll(prefix, N));
+		});
+	}
+
+	public static void main(String[] args) {
+		new SymbolTableBenchmark().runBenchmarks();
+	}
+}
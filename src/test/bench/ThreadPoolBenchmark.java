@@ -0,0 +1,55 @@
+package test.bench;
+
+import java.util.ArrayList;
+
+import aya.AyaThread;
+import aya.ExecutionRequest;
+import aya.StaticData;
+import aya.eval.ExecutionContext;
+import aya.obj.block.StaticBlock;
+
+/**
+ * Compare running many small tasks on one new thread each (the previous
+ * implementation of thread.runall) against the reusable thread pool
+ */
+public class ThreadPoolBenchmark extends Benchmark {
+	
+	private static final int N = 500;
+	private static final String TASK = "100 R :# {2*} .E";
+	
+	private static void threadPerTask(ExecutionContext context, StaticBlock task) {
+		ArrayList<AyaThread> threads = new ArrayList<AyaThread>(N);
+		for (int i = 0; i < N; i++) {
+			AyaThread thread = AyaThread.spawnChildThread(context);
+			thread.queueInput(new ExecutionRequest(-1, task));
+			threads.add(thread);
+		}
+		for (AyaThread t : threads) t.start();
+		try {
+			for (AyaThread t : threads) {
+				t.waitForResponse();
+				t.shutdown();
+			}
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public void runBenchmarks() {
+		System.out.println("ThreadPoolBenchmark");
+		StaticData.getInstance().init();
+		final ExecutionContext context = ExecutionContext.createIsolatedContext();
+		final StaticBlock task = compile(TASK);
+		time(N + " tasks, one thread per task", () -> threadPerTask(context, task));
+		
+		StringBuilder code = new StringBuilder("[");
+		for (int i = 0; i < N; i++) code.append("{" + TASK + "} ");
+		code.append("] :{thread.runall} ;");
+		timeAya(N + " tasks, :{thread.runall} (pool)", "", code.toString());
+	}
+
+	public static void main(String[] args) {
+		new ThreadPoolBenchmark().runBenchmarks();
+	}
+}
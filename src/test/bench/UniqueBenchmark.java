@@ -0,0 +1,20 @@
+package test.bench;
+
+/**
+ * Remove duplicates, intersect and remove items using 10^5 element lists
+ */
+public class UniqueBenchmark extends Benchmark {
+
+	@Override
+	public void runBenchmarks() {
+		System.out.println("UniqueBenchmark:");
+		timeAya("unique 10^5 numbers (:~)", "100000 R :# {50000 :%} :l;", "l :~ ;");
+		timeAya("unique 10^5 strings (:~)", "100000 R :# {50000 :% P} :l;", "l :~ ;");
+		timeAya("intersect 10^5 numbers (:^)", "100000 R :a; 50000 R 2 * :b;", "a b :^ ;");
+		timeAya("set minus 10^5 numbers (:|)", "100000 R :a; 50000 R 2 * :b;", "a b :| ;");
+	}
+
+	public static void main(String[] args) {
+		new UniqueBenchmark().runBenchmarks();
+	}
+}
@@ -0,0 +1,33 @@
+package test.bench;
+
+import aya.obj.block.VariableResolver;
+
+/**
+ * Compare slot resolved local variables against dynamic scope lookup
+ */
+public class VariableResolverBenchmark extends Benchmark {
+	
+	// Each level of recursion adds a scope, the innermost block reads its locals many times
+	private static final String SETUP = "{a b c : d, a b + c * :d; d a - b + c - d * } :inner;"
+			+ "{n, n 0 = {n 1 2 inner} {n 1 - deep} .? } :deep;";
+	private static final String CODE = "20000 R :# {x, 30 deep ;} ;";
+
+	@Override
+	public void runBenchmarks() {
+		boolean original = VariableResolver.ENABLED;
+		try {
+			VariableResolver.ENABLED = false;
+			System.out.println("VariableResolverBenchmark: dynamic lookup");
+			timeAya("deep call chain with locals", SETUP, CODE);
+			VariableResolver.ENABLED = true;
+			System.out.println("VariableResolverBenchmark: resolved slots");
+			timeAya("deep call chain with locals", SETUP, CODE);
+		} finally {
+			VariableResolver.ENABLED = original;
+		}
+	}
+
+	public static void main(String[] args) {
+		new VariableResolverBenchmark().runBenchmarks();
+	}
+}
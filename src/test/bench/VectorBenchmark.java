@@ -0,0 +1,31 @@
+package test.bench;
+
+/**
+ * Statistics on a list of 10^6 numbers computed in aya (the previous std
+ * implementations) and with the :{vec.*} kernels
+ */
+public class VectorBenchmark extends Benchmark {
+
+	@Override
+	public void runBenchmarks() {
+		System.out.println("VectorBenchmark:");
+		final String setup = "1000000 R :# {; .Q 1000 *} :l; l.E :n; 10000 R :s;"
+				+ "{: m, l .E\\W\\/ :m; l #{m- 2^} W n /}:var;"
+				+ "{: bins, [100 200 300 400 500 600 700 800 900 999] :bins; l #{bins>W}}:hist;";
+		timeAya("mean (.E\\W\\/)", setup, "l .E\\W\\/ ;");
+		timeAya("mean (:{vec.mean})", setup, "l :{vec.mean} ;");
+		timeAya("variance (#{m- 2^} W)", setup, "var ;");
+		timeAya("variance (:{vec.var})", setup, "l :{vec.var} ;");
+		timeAya("median (:{vec.quantile})", setup, "l .5 :{vec.quantile} ;");
+		timeAya("dot ([x y,*]W)", setup, "[l l,*]W ;");
+		timeAya("dot (:{vec.dot})", setup, "l l :{vec.dot} ;");
+		timeAya("cumsum 10^4 (l\\.<W)", setup, "s ER :# {s\\.<W} ;");
+		timeAya("cumsum 10^4 (:{vec.cumsum})", setup, "s :{vec.cumsum} ;");
+		timeAya("hist 10 bins (#{bins>W})", setup, "hist ;");
+		timeAya("hist 10 bins (:{vec.hist})", setup, "l 10 :{vec.hist} ;");
+	}
+
+	public static void main(String[] args) {
+		new VectorBenchmark().runBenchmarks();
+	}
+}
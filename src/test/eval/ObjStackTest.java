@@ -0,0 +1,62 @@
+package test.eval;
+
+import aya.eval.ObjStack;
+import aya.obj.number.Num;
+import test.Test;
+
+public class ObjStackTest extends Test {
+	
+	private static Num n(int i) {
+		return Num.fromInt(i);
+	}
+
+	@Override
+	public void runTests() {
+		ObjStack s = new ObjStack(2);
+		
+		// Push / Pop / Peek
+		for (int i = 0; i < 40; i++) s.push(n(i));
+		Test.eq(s.size(), 40, "size");
+		Test.eq(s.peek(), n(39), "peek");
+		Test.eq(s.pop(), n(39), "pop");
+		Test.eq(s.get(0), n(0), "get bottom");
+		
+		// Push back wraps around the ring
+		s.pushBack(n(-1));
+		s.pushBack(n(-2));
+		Test.eq(s.get(0), n(-2), "pushBack");
+		Test.eq(s.get(2), n(0), "pushBack order");
+		Test.eq(s.size(), 41, "pushBack size");
+		
+		// Remove from the middle
+		Test.eq(s.remove(2), n(0), "remove");
+		Test.eq(s.get(2), n(1), "remove shift");
+		
+		// Bulk copy
+		ObjStack t = new ObjStack();
+		t.push(n(100));
+		t.addStack(s);
+		Test.eq(t.size(), 41, "addStack size");
+		Test.eq(t.get(1), n(-2), "addStack order");
+		Test.eq(t.peek(), n(38), "addStack top");
+		
+		t.appendToStack(s);
+		Test.eq(s.size(), 0, "appendToStack clears");
+		Test.eq(t.size(), 81, "appendToStack size");
+		
+		// List view
+		Test.eq(t.asList().get(1), n(-2), "asList");
+		Test.eq(t.toArrayList().size(), 81, "toArrayList");
+		
+		// Copy is independent
+		ObjStack c = t.copy();
+		c.pop();
+		Test.eq(t.size(), 81, "copy");
+		
+		System.out.println("ObjStackTest: all tests passed!");
+	}
+
+	public static void main(String[] args) {
+		new ObjStackTest().runTests();
+	}
+}
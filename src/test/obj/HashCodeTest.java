@@ -0,0 +1,91 @@
+package test.obj;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+
+import aya.obj.Obj;
+import aya.obj.character.Char;
+import aya.obj.dict.Dict;
+import aya.obj.list.List;
+import aya.obj.list.numberlist.DoubleList;
+import aya.obj.list.numberlist.LongList;
+import aya.obj.list.numberlist.NumberList;
+import aya.obj.number.BigNum;
+import aya.obj.number.ComplexNum;
+import aya.obj.number.FractionNum;
+import aya.obj.number.Num;
+import aya.obj.number.Number;
+import aya.obj.symbol.SymbolTable;
+import aya.util.ObjHashSet;
+import test.Test;
+
+public class HashCodeTest extends Test {
+
+	/** Equivalent objects must have the same hash code */
+	private static void same(Obj a, Obj b, String message) {
+		Test.eq(a.equiv(b), true, message + " (equiv)");
+		Test.eq(a.hashCode(), b.hashCode(), message + " (hashCode)");
+	}
+
+	private static List generic(Obj... items) {
+		ArrayList<Obj> l = new ArrayList<Obj>();
+		for (Obj o : items) l.add(o);
+		return new List(l);
+	}
+
+	@Override
+	public void runTests() {
+		// Numbers
+		same(new Num(1), new BigNum(BigDecimal.ONE), "num bignum");
+		same(new Num(1), new BigNum(new BigDecimal("1.000")), "num bignum with scale");
+		same(new Num(0.5), new FractionNum(1, 2), "num fraction");
+		same(new Num(2), new ComplexNum(2, 0), "num complex");
+		same(new Num(0.0), new Num(-0.0), "zero");
+
+		// Lists
+		same(List.fromString("ab"), generic(Char.valueOf('a'), Char.valueOf('b')), "str char list");
+		same(new List(new DoubleList(new double[] {1, 2})), new List(new LongList(new long[] {1, 2})), "double list long list");
+		ArrayList<Number> ns = new ArrayList<Number>();
+		ns.add(new Num(1));
+		ns.add(new BigNum(new BigDecimal(2)));
+		same(new List(new DoubleList(new double[] {1, 2})), new List(NumberList.fromNumberAL(ns)), "double list number item list");
+		same(generic(List.fromString("a"), new Num(1)), generic(List.fromString("a"), new BigNum(BigDecimal.ONE)), "nested list");
+
+		// Dicts
+		Dict a = new Dict();
+		a.set(SymbolTable.getSymbol("x"), new Num(1));
+		a.set(SymbolTable.getSymbol("y"), List.fromString("y"));
+		Dict b = new Dict();
+		b.set(SymbolTable.getSymbol("y"), List.fromString("y"));
+		b.set(SymbolTable.getSymbol("x"), new BigNum(BigDecimal.ONE));
+		same(a, b, "dict");
+
+		// Containers which contain themselves
+		Dict c = new Dict();
+		c.set(SymbolTable.getSymbol("self"), c);
+		Dict e = new Dict();
+		e.set(SymbolTable.getSymbol("self"), c);
+		Test.eq(c.hashCode(), e.hashCode(), "cyclic dict");
+		List l = generic(new Num(1));
+		l.mutAdd(l);
+		Test.eq(l.hashCode(), l.hashCode(), "cyclic list");
+
+		// Hash set
+		ObjHashSet set = new ObjHashSet();
+		for (int i = 0; i < 1000; i++) {
+			Test.eq(set.add(new Num(i)), true, "add " + i);
+		}
+		Test.eq(set.size(), 1000, "set size");
+		Test.eq(set.add(new BigNum(BigDecimal.TEN)), false, "add equivalent bignum");
+		Test.eq(set.contains(new Num(999)), true, "contains");
+		Test.eq(set.contains(new Num(1000)), false, "does not contain");
+		Test.eq(set.contains(List.fromString("a")), false, "does not contain str");
+
+		System.out.println("HashCodeTest: all tests passed!");
+	}
+
+	public static void main(String[] args) {
+		new HashCodeTest().runTests();
+	}
+
+}
@@ -0,0 +1,143 @@
+package test.obj.block;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import aya.StaticData;
+import aya.exceptions.parser.ParserException;
+import aya.obj.Obj;
+import aya.obj.block.BlockImage;
+import aya.obj.block.StaticBlock;
+import aya.obj.dict.Dict;
+import aya.obj.list.List;
+import aya.obj.list.numberlist.DoubleList;
+import aya.obj.number.Num;
+import aya.obj.symbol.SymbolConstants;
+import aya.obj.symbol.SymbolTable;
+import aya.parser.Parser;
+import aya.parser.SourceString;
+import aya.util.FileUtils;
+import test.Test;
+
+public class BlockImageTest extends Test {
+
+	private static StaticBlock read(byte[] image, SourceString source) {
+		try {
+			return BlockImage.read(new DataInputStream(new ByteArrayInputStream(image)), source);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/** Compile, write and read the source. The read block must be the same as the compiled one */
+	private static void roundTrip(SourceString source) {
+		StaticBlock block;
+		try {
+			block = Parser.compile(source);
+		} catch (ParserException e) {
+			throw new RuntimeException(e);
+		}
+		final byte[] image = BlockImage.write(block);
+		if (image == null) {
+			throw new RuntimeException("Unable to write an image of " + source.getFilename());
+		}
+		final StaticBlock copy = read(image, source);
+		Test.eq(copy.repr(), block.repr(), "repr of " + source.getFilename());
+		Test.eq(Arrays.equals(BlockImage.write(copy), image), true, "image of " + source.getFilename());
+	}
+
+	private static Dict[] readDicts(byte[] image, int n) {
+		Dict[] roots = new Dict[n];
+		for (int i = 0; i < n; i++) roots[i] = new Dict();
+		try {
+			BlockImage.readDicts(new DataInputStream(new ByteArrayInputStream(image)), roots);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		return roots;
+	}
+
+	/** Dicts may refer to themselves and each other, shared objects stay shared */
+	private static void testDicts() {
+		Dict globals = new Dict();
+		Dict meta = new Dict();
+		Dict obj = new Dict();
+		List shared = new List();
+		shared.mutAdd(List.fromString("str"));
+		shared.mutAdd(new List(new DoubleList(new double[] {1.5, 2})));
+		StaticBlock block;
+		try {
+			block = Parser.compile(new SourceString("{x, x meta.f}", "<test dicts>"));
+		} catch (ParserException e) {
+			throw new RuntimeException(e);
+		}
+		meta.set(SymbolConstants.KEYVAR_META, meta);
+		meta.set(SymbolTable.getSymbol("f"), block);
+		obj.set(SymbolConstants.KEYVAR_META, meta);
+		obj.set(SymbolTable.getSymbol("a"), shared);
+		obj.set(SymbolTable.getSymbol("b"), shared);
+		globals.set(SymbolTable.getSymbol("obj"), obj);
+		globals.set(SymbolTable.getSymbol("n"), Num.fromInt(3));
+
+		final byte[] image = BlockImage.writeDicts(new Dict[] {globals, meta});
+		if (image == null) throw new RuntimeException("Unable to write an image of the dicts");
+		final Dict[] roots = readDicts(image, 2);
+		final Dict obj2 = (Dict)roots[0].get(SymbolTable.getSymbol("obj"));
+		Test.eq(roots[0].repr(), globals.repr(), "repr of the dicts");
+		Test.eq(roots[1].get(SymbolConstants.KEYVAR_META) == roots[1], true, "dict refers to itself");
+		Test.eq(obj2.getMetaDict() == roots[1], true, "metatable is a root");
+		Test.eq(obj2.get(SymbolTable.getSymbol("a")) == obj2.get(SymbolTable.getSymbol("b")), true, "shared list");
+		Test.eq(((List)obj2.get(SymbolTable.getSymbol("a"))).getExact(1).isa(Obj.DOUBLELIST), true, "double list");
+		Test.eq(((StaticBlock)roots[1].get(SymbolTable.getSymbol("f"))).repr(), block.repr(), "block");
+		Test.eq(Arrays.equals(BlockImage.writeDicts(roots), image), true, "image of the dicts");
+
+		// Lists can not contain themselves
+		shared.mutAdd(shared);
+		Test.eq(BlockImage.writeDicts(new Dict[] {globals}) == null, true, "list containing itself");
+	}
+
+	@Override
+	public void runTests() {
+		StaticData.getInstance().init();
+
+		roundTrip(new SourceString(
+				"{a b::num c$ [d e~ :f] : g h(1) i^, a b + .[0] .:[1] g.[h] .[h 1 +] i :g} :blk;"
+				+ " (1, 2) [1 2, 3+] [3| 1 2 3] [1 2, 3+, 2%] {, 1:x} {2, :y} {,} []"
+				+ " \"a$b\" \"c$(1 2 +)\" :1r3 :1z :2i1 :5c 'c ::sym :'str' .# comment\n"
+				+ " x.`y :{vec.sum} 1 :# {2*} ::a.:b x.y .[\"k\"] .:[::k]",
+				"<test>"));
+
+		for (String dir : new String[] {"base", "std"}) {
+			File[] files = new File(dir).listFiles();
+			if (files == null) continue;
+			for (File f : files) {
+				if (!f.getName().endsWith(".aya")) continue;
+				try {
+					roundTrip(new SourceString(FileUtils.readAllText(f), f.getPath()));
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		}
+
+		// Missing named operators make the image invalid
+		try {
+			BlockImage.read(new DataInputStream(new ByteArrayInputStream(new byte[] {0, 0, 1, 13, 0, 3, 'x', 'y', 'z'})), new SourceString("", "<test>"));
+			throw new RuntimeException("Expected an IOException");
+		} catch (IOException e) {
+			// Expected
+		}
+
+		testDicts();
+
+		System.out.println("BlockImageTest: all tests passed!");
+	}
+
+	public static void main(String[] args) {
+		new BlockImageTest().runTests();
+	}
+
+}
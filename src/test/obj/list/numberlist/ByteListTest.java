@@ -0,0 +1,89 @@
+package test.obj.list.numberlist;
+
+import aya.obj.Obj;
+import aya.obj.list.List;
+import aya.obj.list.numberlist.ByteList;
+import aya.obj.list.numberlist.DoubleList;
+import aya.obj.list.numberlist.NumberList;
+import aya.obj.number.Num;
+import test.Test;
+
+public class ByteListTest extends Test {
+
+	private static ByteList bl(int... ints) {
+		byte[] bytes = new byte[ints.length];
+		for (int i = 0; i < ints.length; i++) bytes[i] = (byte)ints[i];
+		return new ByteList(bytes);
+	}
+
+	private static List ls(int... ints) {
+		return new List(bl(ints));
+	}
+
+	private static List ls(NumberList ns) {
+		return new List(ns);
+	}
+
+	private static List ds(double... ds) {
+		return new List(new DoubleList(ds));
+	}
+
+	@Override
+	public void runTests() {
+		ByteList bytes = bl(1, 200, 255, 0);
+
+		// Items are unsigned
+		Test.eq(bytes.get(1), Num.fromInt(200), "get");
+		Test.eq(bytes.sum(), Num.fromInt(456), "sum");
+		Test.eq(bytes.max(), Num.fromInt(255), "max");
+		Test.eq(bytes.min(), Num.fromInt(0), "min");
+		Test.eq(ls(bytes), ds(1, 200, 255, 0), "equal to a DoubleList");
+		Test.eq(ls(bytes).hashCode(), ds(1, 200, 255, 0).hashCode(), "same hash as a DoubleList");
+		Test.eq(bytes.toByteArray()[1], (byte)200, "toByteArray");
+
+		// Math produces the same values as a DoubleList
+		Test.eq(ls(bytes.add(new Num(100))), ds(101, 300, 355, 100), "add");
+		Test.eq(ls(bytes.subFrom(new Num(1))), ds(0, -199, -254, 1), "subFrom");
+		Test.eq(ls(bytes.div(new Num(2))), ds(0.5, 100, 127.5, 0), "div");
+		Test.eq(ls(bytes.mul(bytes)), ds(1, 40000, 65025, 0), "mul list");
+		Test.eq(ls(bytes.negate()), ds(-1, -200, -255, 0), "negate");
+		Test.eq(ls(bytes.gt(new Num(100))), ds(0, 1, 1, 0), "gt");
+		Test.eq(ls(bytes.add(new DoubleList(new double[] {0.5, 0.5, 0.5, 0.5}))), ds(1.5, 200.5, 255.5, 0.5), "add double list");
+
+		// Results which always fit in a byte stay a ByteList
+		Test.eq(ls(bytes.band(new Num(0xF0))), ls(0, 192, 240, 0), "band");
+		Test.eq(ls(bytes.band(new Num(0xF0))).isa(Obj.BYTELIST), true, "band stays a ByteList");
+		Test.eq(ls(bytes.bor(new Num(2))), ls(3, 202, 255, 2), "bor");
+		Test.eq(ls(bytes.bor(new Num(256))).isa(Obj.BYTELIST), false, "bor 256");
+		Test.eq(ls(bytes.head(6)), ls(1, 200, 255, 0, 0, 0), "head pads with zeros");
+		Test.eq(ls(bytes.tail(6)), ls(0, 0, 1, 200, 255, 0), "tail pads with zeros");
+
+		ByteList sorted = bytes.copy();
+		sorted.sort();
+		Test.eq(ls(sorted), ls(0, 1, 200, 255), "sort as unsigned");
+		Test.eq(ls(bl(3, 200, 3, 1, 200).unique()), ls(3, 200, 1), "unique");
+		Test.eq(bytes.find(new Num(255)), 2, "find");
+		Test.eq(bytes.count(new Num(200)), 1, "count");
+
+		// Inserting items which are not bytes
+		List l = ls(1, 2, 3);
+		l.mutAdd(new Num(255));
+		Test.eq(l.isa(Obj.BYTELIST), true, "add byte");
+		l.mutSetIndexed(0, new Num(256));
+		Test.eq(l.isa(Obj.DOUBLELIST), true, "set 256");
+		Test.eq(l, ds(256, 2, 3, 255), "set 256 value");
+		l = ls(1, 2);
+		l.mutAdd(new Num(-1));
+		Test.eq(l, ds(1, 2, -1), "add -1");
+		l = ls(1, 2);
+		l.mutAdd(new Num(0.5));
+		Test.eq(l, ds(1, 2, 0.5), "add 0.5");
+
+		System.out.println("ByteListTest: all tests passed!");
+	}
+
+	public static void main(String[] args) {
+		new ByteListTest().runTests();
+	}
+
+}
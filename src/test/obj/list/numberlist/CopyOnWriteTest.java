@@ -0,0 +1,134 @@
+package test.obj.list.numberlist;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import aya.obj.list.List;
+import aya.obj.list.numberlist.ByteList;
+import aya.obj.list.numberlist.DoubleList;
+import aya.obj.list.numberlist.LongList;
+import aya.obj.list.numberlist.NumberList;
+import aya.obj.number.BigNum;
+import aya.obj.number.Num;
+import aya.obj.number.Number;
+import aya.util.CopyOnWrite;
+import test.Test;
+
+public class CopyOnWriteTest extends Test {
+
+	private static List mixed() {
+		ArrayList<Number> ns = new ArrayList<Number>();
+		ns.add(new Num(3));
+		ns.add(new BigNum(new BigDecimal("0.5")));
+		ns.add(new Num(2));
+		return new List(NumberList.fromNumberAL(ns));
+	}
+
+	/** Modifying a copy must not change the original and the other way around */
+	private static void testList(String name, Supplier<List> make) {
+		ArrayList<Consumer<List>> mutations = new ArrayList<Consumer<List>>();
+		mutations.add(l -> l.mutSetExact(0, Num.fromInt(7)));
+		mutations.add(l -> l.mutAdd(Num.fromInt(5)));
+		mutations.add(l -> l.mutAddExact(0, Num.fromInt(5)));
+		mutations.add(l -> l.mutRemoveExact(1));
+		mutations.add(l -> l.mutRemoveAllExact(new int[] {0, 2}));
+		mutations.add(l -> l.mutReverse());
+		mutations.add(l -> l.mutSort());
+		mutations.add(l -> { l.mutPop(); l.mutAddExact(0, Num.fromInt(9)); });
+		mutations.add(l -> { l.mutPopBack(); l.mutAdd(Num.fromInt(9)); });
+
+		for (int i = 0; i < mutations.size(); i++) {
+			final Consumer<List> mutate = mutations.get(i);
+			final String msg = name + " mutation " + i;
+
+			List a = make.get();
+			List b = a.deepcopy();
+			mutate.accept(b);
+			Test.eq(a, make.get(), msg + ": original");
+			mutate.accept(a);
+			Test.eq(a, b, msg + ": both modified");
+
+			a = make.get();
+			b = a.deepcopy();
+			List c = b.deepcopy();
+			mutate.accept(a);
+			Test.eq(b, make.get(), msg + ": copy of original");
+			Test.eq(c, make.get(), msg + ": copy of copy");
+			mutate.accept(c);
+			Test.eq(b, make.get(), msg + ": last copy");
+			Test.eq(c, a, msg + ": both copies modified");
+		}
+	}
+
+	@Override
+	public void runTests() {
+		testList("DoubleList", () -> new List(new DoubleList(new double[] {3, 1, 2})));
+		testList("LongList", () -> new List(new LongList(new long[] {3, 1, 2})));
+		testList("ByteList", () -> new List(new ByteList(new byte[] {3, 1, 2})));
+		testList("NumberItemList", CopyOnWriteTest::mixed);
+
+		// Items popped from the front leave space which is reused by the next insert
+		List a = new List(new DoubleList(new double[] {3, 1, 2}));
+		a.mutPop();
+		List b = a.deepcopy();
+		a.mutAddExact(0, Num.fromInt(9));
+		Test.eq(b, new List(new DoubleList(new double[] {1, 2})), "DoubleList offset");
+
+		// The array is only copied when a list is modified
+		if (CopyOnWrite.ENABLED) {
+			DoubleList ds = new DoubleList(new double[] {3, 1, 2});
+			DoubleList copy = ds.deepcopy();
+			Test.eq(copy.internalArray() == ds.internalArray(), true, "shared array");
+			copy.set(0, Num.fromInt(1));
+			Test.eq(copy.internalArray() == ds.internalArray(), false, "copied array");
+			ds.set(0, Num.fromInt(1));
+			Test.eq(ds.internalArray()[0], 1.0, "last list does not copy");
+
+			// A list which replaces its array releases the old one
+			LongList ls = new LongList(new long[] {3, 1, 2});
+			LongList lcopy = ls.deepcopy();
+			ls.addItem(new BigNum(new BigDecimal(4)));
+			final long[] shared = lcopy.internalArray();
+			lcopy.set(0, new BigNum(BigDecimal.ONE));
+			Test.eq(lcopy.internalArray() == shared, true, "released array is not copied");
+		}
+
+		// Copies made by several threads at once
+		final DoubleList original = new DoubleList(new double[] {3, 1, 2});
+		final DoubleList[] copies = new DoubleList[8];
+		Thread[] threads = new Thread[copies.length];
+		for (int t = 0; t < threads.length; t++) {
+			final int index = t;
+			threads[t] = new Thread(() -> {
+				DoubleList c = null;
+				for (int i = 0; i < 10000; i++) c = original.deepcopy();
+				copies[index] = c;
+			});
+			threads[t].start();
+		}
+		for (Thread t : threads) {
+			try {
+				t.join();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		for (int t = 0; t < copies.length; t++) {
+			copies[t].set(0, Num.fromInt(t));
+		}
+		original.set(1, Num.fromInt(9));
+		for (int t = 0; t < copies.length; t++) {
+			Test.eq(new List(copies[t]), new List(new DoubleList(new double[] {t, 1, 2})), "concurrent copy " + t);
+		}
+		Test.eq(new List(original), new List(new DoubleList(new double[] {3, 9, 2})), "concurrently copied original");
+
+		System.out.println("CopyOnWriteTest: all tests passed!");
+	}
+
+	public static void main(String[] args) {
+		new CopyOnWriteTest().runTests();
+	}
+
+}
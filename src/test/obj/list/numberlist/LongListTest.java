@@ -0,0 +1,111 @@
+package test.obj.list.numberlist;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+
+import aya.obj.Obj;
+import aya.obj.list.List;
+import aya.obj.list.numberlist.LongList;
+import aya.obj.list.numberlist.NumberList;
+import aya.obj.number.BigNum;
+import aya.obj.number.Num;
+import aya.obj.number.Number;
+import test.Test;
+
+public class LongListTest extends Test {
+
+	private static List ls(long... longs) {
+		return new List(new LongList(longs));
+	}
+
+	private static List ls(NumberList ns) {
+		return new List(ns);
+	}
+
+	private static BigNum big(long l) {
+		return new BigNum(BigDecimal.valueOf(l));
+	}
+
+	private static BigNum big(String s) {
+		return new BigNum(new BigDecimal(s));
+	}
+
+	private static List bigs(String... ss) {
+		ArrayList<Number> ns = new ArrayList<Number>(ss.length);
+		for (String s : ss) ns.add(big(s));
+		return new List(NumberList.fromNumberAL(ns));
+	}
+
+	@Override
+	public void runTests() {
+		LongList oneSix = new LongList(new long[] {1, 2, 3, 4, 5, 6});
+
+		// Promotion
+		Test.eq(bigs("1", "2", "3").isa(Obj.LONGLIST), true, "integer bignums promote to LongList");
+		Test.eq(bigs("1.0", "2", "3E+2").isa(Obj.LONGLIST), true, "integral bignums with a scale");
+		Test.eq(bigs("1", "2.5").isa(Obj.LONGLIST), false, "fractional bignums");
+		Test.eq(bigs("1", "9223372036854775808").isa(Obj.LONGLIST), false, "bignums larger than a long");
+		Test.eq(bigs("1", "9223372036854775807").isa(Obj.LONGLIST), true, "Long.MAX_VALUE");
+		Test.eq(bigs("-9223372036854775808").isa(Obj.LONGLIST), true, "Long.MIN_VALUE");
+
+		// Items
+		Test.eq(oneSix.get(0), big(1), "get");
+		Test.eq(oneSix.sum(), big(21), "sum");
+		Test.eq(oneSix.max(), big(6), "max");
+		Test.eq(oneSix.min(), big(1), "min");
+		Test.eq(ls(oneSix.head(2)), ls(1, 2), "head(2)");
+		Test.eq(ls(oneSix.tail(2)), ls(5, 6), "tail(2)");
+		Test.eq(ls(oneSix.slice(2, 4)), ls(3, 4), "slice 2 4");
+
+		// Binary Math
+		Test.eq(ls(oneSix.add(big(1))), ls(2, 3, 4, 5, 6, 7), "add 1");
+		Test.eq(ls(oneSix.sub(big(1))), ls(0, 1, 2, 3, 4, 5), "sub 1");
+		Test.eq(ls(oneSix.subFrom(big(1))), ls(0, -1, -2, -3, -4, -5), "subFrom 1");
+		Test.eq(ls(oneSix.mul(big(2))), ls(2, 4, 6, 8, 10, 12), "mul 2");
+		Test.eq(ls(oneSix.mod(big(3))), ls(1, 2, 0, 1, 2, 0), "mod 3");
+		Test.eq(ls(oneSix.idiv(big(4))), ls(0, 0, 0, 1, 1, 1), "idiv 4");
+		Test.eq(ls(oneSix.negate().idiv(big(4))), ls(-1, -1, -1, -1, -2, -2), "idiv rounds down");
+		Test.eq(ls(oneSix.add(oneSix)), ls(2, 4, 6, 8, 10, 12), "add list");
+		Test.eq(ls(oneSix.band(big(3))).isa(Obj.DOUBLELIST), true, "band produces a DoubleList");
+		Test.eq(ls(oneSix.band(big(3))), new List(NumberList.fromNumberAL(nums(1, 2, 3, 0, 1, 2))), "band 3");
+		Test.eq(ls(oneSix.gt(big(3))), new List(NumberList.fromNumberAL(nums(0, 0, 0, 1, 1, 1))), "gt 3");
+
+		// The primitive path must be used for integers and give the same result as BigNum math
+		Test.eq(ls(oneSix.add(big(1))).isa(Obj.LONGLIST), true, "add stays a LongList");
+		Test.eq(ls(oneSix.mul(oneSix)).isa(Obj.LONGLIST), true, "mul stays a LongList");
+
+		// Overflow is computed exactly using BigNum
+		LongList max = new LongList(new long[] {Long.MAX_VALUE, 1});
+		Test.eq(ls(max.add(big(1))), bigs("9223372036854775808", "2"), "add overflow");
+		Test.eq(ls(max.mul(big(2))), bigs("18446744073709551614", "2"), "mul overflow");
+		Test.eq(max.sum(), big("9223372036854775808"), "sum overflow");
+		LongList min = new LongList(new long[] {Long.MIN_VALUE});
+		Test.eq(ls(min.negate()), bigs("9223372036854775808"), "negate overflow");
+		Test.eq(ls(min.idiv(big(-1))), bigs("9223372036854775808"), "idiv overflow");
+
+		// Non-integer operands use the generic implementation
+		Test.eq(ls(oneSix.add(big("0.5"))).isa(Obj.LONGLIST), false, "add fraction");
+		Test.eq(ls(oneSix.add(new Num(1))), ls(2, 3, 4, 5, 6, 7), "add num");
+
+		// Inserting items which do not fit in a LongList
+		List l = ls(1, 2, 3);
+		l.mutAdd(big(4));
+		Test.eq(l.isa(Obj.LONGLIST), true, "add integer bignum");
+		l.mutAdd(new Num(5));
+		Test.eq(l.isa(Obj.LONGLIST), false, "add num");
+		Test.eq(l, ls(1, 2, 3, 4, 5), "add num value");
+
+		System.out.println("LongListTest: all tests passed!");
+	}
+
+	private static ArrayList<Number> nums(int... ints) {
+		ArrayList<Number> ns = new ArrayList<Number>(ints.length);
+		for (int i : ints) ns.add(Num.fromInt(i));
+		return ns;
+	}
+
+	public static void main(String[] args) {
+		new LongListTest().runTests();
+	}
+
+}
@@ -2,6 +2,7 @@ package test.obj.number;
 
 import aya.obj.number.BigNum;
 import aya.obj.number.Num;
+import aya.obj.number.NumberAccumulator;
 import test.Test;
 
 public class NumberTest extends Test {
@@ -12,7 +13,19 @@ public class NumberTest extends Test {
 		Test.eq(new Num(1).bool(), true, "Num(1); bool");
 		Test.eq(new BigNum(0).bool(), false, "BigNum(0); bool");
 		Test.eq(new BigNum(1).bool(), true, "BigNum(1); bool");
-
+		
+		Test.eq(Num.valueOf(5.0) == Num.fromInt(5), true, "Num.valueOf(5.0); cached");
+		Test.eq(Num.valueOf(-0.0).toDouble(), -0.0, "Num.valueOf(-0.0); not cached");
+		Test.eq(Num.valueOf(2.5).toDouble(), 2.5, "Num.valueOf(2.5)");
+		Test.eq(Num.fromInt(Num.CACHE_HIGH + 1).toInt(), Num.CACHE_HIGH + 1, "Num.fromInt(CACHE_HIGH+1)");
+		
+		NumberAccumulator total = new NumberAccumulator();
+		total.add(new Num(1.5));
+		total.add(new Num(2));
+		Test.eq(total.result().toDouble(), 3.5, "NumberAccumulator; Num");
+		total.add(new BigNum(1));
+		Test.eq(total.result() instanceof BigNum, true, "NumberAccumulator; BigNum");
+		Test.eq(total.result().toDouble(), 4.5, "NumberAccumulator; BigNum value");
 	}
 	
 	public static void main(String[] args) {
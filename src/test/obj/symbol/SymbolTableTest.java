@@ -0,0 +1,79 @@
+package test.obj.symbol;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import aya.obj.symbol.Symbol;
+import aya.obj.symbol.SymbolTable;
+import test.Test;
+
+public class SymbolTableTest extends Test {
+	
+	private static final int THREADS = 8;
+	private static final int NAMES = 20000;
+
+	@Override
+	public void runTests() {
+		// Single thread
+		Symbol a = SymbolTable.getSymbol("symbol_table_test_a");
+		Test.eq(SymbolTable.getSymbol("symbol_table_test_a").id(), a.id(), "same name, same id");
+		Test.eq(SymbolTable.getName(a), "symbol_table_test_a", "getName");
+		
+		// Many threads interning overlapping names at the same time
+		final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+		final ConcurrentHashMap<Integer, String> names = new ConcurrentHashMap<Integer, String>();
+		final ArrayList<Throwable> errors = new ArrayList<Throwable>();
+		final CountDownLatch start = new CountDownLatch(1);
+		ArrayList<Thread> threads = new ArrayList<Thread>();
+		
+		for (int t = 0; t < THREADS; t++) {
+			final int offset = t * 7;
+			Thread thread = new Thread(() -> {
+				try {
+					start.await();
+					for (int i = 0; i < NAMES; i++) {
+						String name = "stress_" + ((i + offset) % NAMES);
+						Symbol s = SymbolTable.getSymbol(name);
+						Integer prev = ids.putIfAbsent(name, s.id());
+						if (prev != null && prev != s.id()) {
+							throw new RuntimeException("Two ids for " + name);
+						}
+						String prev_name = names.putIfAbsent(s.id(), name);
+						if (prev_name != null && !prev_name.equals(name)) {
+							throw new RuntimeException("Id " + s.id() + " used for " + name + " and " + prev_name);
+						}
+						if (!SymbolTable.getName(s).equals(name)) {
+							throw new RuntimeException("getName mismatch for " + name);
+						}
+					}
+				} catch (Throwable e) {
+					synchronized (errors) {
+						errors.add(e);
+					}
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		
+		start.countDown();
+		for (Thread thread : threads) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		
+		tru(errors.isEmpty(), "concurrent interning: " + (errors.isEmpty() ? "" : errors.get(0).getMessage()));
+		Test.eq(ids.size(), NAMES, "concurrent interning: all names interned");
+		Test.eq(names.size(), NAMES, "concurrent interning: ids are unique");
+		
+		System.out.println("SymbolTableTest: all tests passed!");
+	}
+
+	public static void main(String[] args) {
+		new SymbolTableTest().runTests();
+	}
+}
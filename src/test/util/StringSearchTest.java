@@ -0,0 +1,72 @@
+package test.util;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import aya.util.StringSearch;
+import test.Test;
+
+public class StringSearchTest extends Test {
+
+	private static ArrayList<String> naive(ArrayList<String> items, String filter) {
+		ArrayList<String> out = new ArrayList<String>();
+		for (String s : items) {
+			if (s.contains(filter)) out.add(s);
+		}
+		return out;
+	}
+
+	private static String randomString(Random r, int len) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < len; i++) sb.append("abc d\n".charAt(r.nextInt(6)));
+		return sb.toString();
+	}
+
+	@Override
+	public void runTests() {
+		// Items are unique and keep their order
+		StringSearch ss = new StringSearch(new String[] {"list sort", "str upper", "list sort", "sort"});
+		ss.addUnique("str upper");
+		ss.add("num abs");
+		Test.eq(String.join(",", ss.getAllItems()), "list sort,str upper,sort,num abs", "unique items");
+
+		// Filters
+		Test.eq(ss.staticSearch("sort").toString(), "[list sort, sort]", "staticSearch");
+		Test.eq(ss.staticSearch("so").toString(), "[list sort, sort]", "short filter");
+		Test.eq(ss.staticSearch("").size(), 4, "empty filter");
+		Test.eq(ss.staticSearch("missing").size(), 0, "no match");
+		Test.eq(ss.applyNewFilter("st").toString(), "[list sort, str upper]", "applyNewFilter");
+		Test.eq(ss.appendToFilter("str").toString(), "[str upper]", "appendToFilter narrows");
+		Test.eq(ss.appendToFilter("sor").toString(), "[list sort, sort]", "appendToFilter new filter");
+		ss.clearFilter();
+		Test.eq(ss.getFilteredItems().size(), 4, "clearFilter");
+		Test.eq(ss.applyNewFilter(null).size(), 4, "null filter");
+
+		// Items added after a search are found by the next one
+		ss.staticSearch("upper");
+		ss.addUnique("list upper");
+		Test.eq(ss.staticSearch("upper").toString(), "[str upper, list upper]", "indexed after add");
+
+		// Same results as checking every item
+		Random r = new Random(42);
+		ArrayList<String> items = new ArrayList<String>();
+		StringSearch rs = new StringSearch(new String[0]);
+		for (int i = 0; i < 500; i++) {
+			String s = randomString(r, r.nextInt(30));
+			if (!items.contains(s)) items.add(s);
+			rs.addUnique(s);
+			if (i % 100 == 0) rs.staticSearch("abc");
+		}
+		for (int i = 0; i < 300; i++) {
+			String filter = randomString(r, 1 + r.nextInt(6));
+			Test.eq(rs.staticSearch(filter), naive(items, filter), "random filter '" + filter + "'");
+		}
+
+		System.out.println("StringSearchTest: all tests passed!");
+	}
+
+	public static void main(String[] args) {
+		new StringSearchTest().runTests();
+	}
+
+}